@@ -0,0 +1,60 @@
+package za.co.interfile.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the distinct values of a low-cardinality column (enum names) to byte
+ * codes. Code 0 is reserved for null. Written by the single snapshot writer;
+ * readers only decode, through a copy-on-write array.
+ */
+public final class Dictionary {
+
+    public static final int MAX_CODES = 256;
+    public static final String NONE = "NONE";
+
+    private final Map<String, Byte> codes = new HashMap<>();
+    private volatile String[] values = {NONE};
+
+    public byte encode(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Byte code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        String[] current = values;
+        if (current.length == MAX_CODES) {
+            throw new IllegalStateException("Dictionary full, cannot encode " + value);
+        }
+        byte next = (byte) current.length;
+        String[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[next & 0xFF] = value;
+        values = grown;
+        codes.put(value, next);
+        return next;
+    }
+
+    /**
+     * Code of an existing value without adding it, or -1
+     */
+    public int find(String value) {
+        String[] current = values;
+        for (int code = 0; code < current.length; code++) {
+            if (current[code].equals(value)) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    public String decode(int code) {
+        return values[code];
+    }
+
+    public int size() {
+        return values.length;
+    }
+}
@@ -0,0 +1,249 @@
+package za.co.interfile.analytics;
+
+import za.co.interfile.enums.ActivitySource;
+import za.co.interfile.enums.AnalyticsDimension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column store of every money movement (grant transactions, withdrawals, cash
+ * sends and electricity purchases) for admin analytics.
+ * <p>
+ * Rows are appended into fixed-size chunks of primitive columns: amount and fee
+ * in cents, the day as an epoch day, and the source, type, status and grant
+ * type as dictionary codes. Scans are tight loops over those arrays with
+ * per-code accumulators, so a query touches only the columns it needs and never
+ * allocates per row.
+ * <p>
+ * One writer appends (under the service's refresh lock); any number of readers
+ * scan concurrently. A row becomes visible once the volatile size is bumped past
+ * it, after all of its columns are written.
+ * <p>
+ * Ids are allocated before commit, so a row can become visible after a higher
+ * id was already loaded. Ids skipped between two loaded rows are kept as gaps
+ * and re-read until they turn up or their grace period passes.
+ */
+public final class MovementSnapshot {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final Map<AnalyticsDimension, Dictionary> dictionaries = new EnumMap<>(AnalyticsDimension.class);
+    private final long[] highWaterMarks = new long[ActivitySource.values().length];
+    private final Map<ActivitySource, Map<Long, Long>> gaps = new EnumMap<>(ActivitySource.class);
+    private final int maxGaps;
+    private final LocalDateTime builtAt = LocalDateTime.now();
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+    private volatile LocalDateTime refreshedAt = builtAt;
+
+    public MovementSnapshot(int maxGaps) {
+        this.maxGaps = maxGaps;
+        for (ActivitySource source : ActivitySource.values()) {
+            gaps.put(source, new LinkedHashMap<>());
+        }
+        for (AnalyticsDimension dimension : AnalyticsDimension.values()) {
+            dictionaries.put(dimension, new Dictionary());
+        }
+        // Sources are fixed, so their codes follow the enum order
+        Dictionary sources = dictionaries.get(AnalyticsDimension.SOURCE);
+        for (ActivitySource source : ActivitySource.values()) {
+            sources.encode(source.name());
+        }
+    }
+
+    // Writer side
+
+    public void append(ActivitySource source, String type, String status, String grantType,
+                       long amountCents, long feeCents, int epochDay) {
+        int row = size;
+        int chunkIndex = row >>> CHUNK_BITS;
+        Chunk[] current = chunks;
+        if (chunkIndex == current.length) {
+            current = Arrays.copyOf(current, current.length + 1);
+            current[chunkIndex] = new Chunk();
+            chunks = current;
+        }
+
+        Chunk chunk = current[chunkIndex];
+        int slot = row & CHUNK_MASK;
+        chunk.amountCents[slot] = amountCents;
+        chunk.feeCents[slot] = feeCents;
+        chunk.epochDay[slot] = epochDay;
+        chunk.source[slot] = dictionaries.get(AnalyticsDimension.SOURCE).encode(source.name());
+        chunk.type[slot] = dictionaries.get(AnalyticsDimension.TYPE).encode(type);
+        chunk.status[slot] = dictionaries.get(AnalyticsDimension.STATUS).encode(status);
+        chunk.grantType[slot] = dictionaries.get(AnalyticsDimension.GRANT_TYPE).encode(grantType);
+
+        size = row + 1;
+    }
+
+    public long getHighWaterMark(ActivitySource source) {
+        return highWaterMarks[source.ordinal()];
+    }
+
+    public void setHighWaterMark(ActivitySource source, long id) {
+        highWaterMarks[source.ordinal()] = id;
+    }
+
+    /**
+     * Remember the ids between two loaded rows until the deadline. A hole that
+     * would take the snapshot past its gap limit is not tracked.
+     */
+    public void addGaps(ActivitySource source, long afterId, long beforeId, long deadlineMillis) {
+        long missing = beforeId - afterId - 1;
+        if (missing <= 0 || gapCount() + missing > maxGaps) {
+            return;
+        }
+        Map<Long, Long> open = gaps.get(source);
+        for (long id = afterId + 1; id < beforeId; id++) {
+            open.put(id, deadlineMillis);
+        }
+    }
+
+    /**
+     * Gaps still inside their grace period; expired ones are dropped
+     */
+    public List<Long> openGaps(ActivitySource source, long nowMillis) {
+        Map<Long, Long> open = gaps.get(source);
+        open.values().removeIf(deadline -> deadline < nowMillis);
+        return new ArrayList<>(open.keySet());
+    }
+
+    public void gapFilled(ActivitySource source, long id) {
+        gaps.get(source).remove(id);
+    }
+
+    public int gapCount() {
+        int count = 0;
+        for (Map<Long, Long> open : gaps.values()) {
+            count += open.size();
+        }
+        return count;
+    }
+
+    public void markRefreshed() {
+        refreshedAt = LocalDateTime.now();
+    }
+
+    // Reader side
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public LocalDateTime getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    public Dictionary dictionary(AnalyticsDimension dimension) {
+        return dictionaries.get(dimension);
+    }
+
+    /**
+     * Count, amount and fees per bucket and dimension code, for rows with
+     * fromDay <= epochDay <= toDay. bucketOfDay maps (epochDay - fromDay) to a
+     * bucket index. Results are laid out as [bucket * keyCount + code].
+     *
+     * @param dimension   grouping column, or null for one key per bucket
+     * @param sourceCode  only rows of this source code, or -1 for all sources
+     */
+    public Accumulators scan(AnalyticsDimension dimension, int fromDay, int toDay, int[] bucketOfDay,
+                             int bucketCount, int sourceCode) {
+        // Read size first: every code used by the first `rows` rows is already in the dictionary
+        int rows = size;
+        Chunk[] snapshot = chunks;
+        int keyCount = dimension != null ? dictionaries.get(dimension).size() : 1;
+        Accumulators result = new Accumulators(bucketCount * keyCount, keyCount);
+
+        long[] count = result.count;
+        long[] amount = result.amountCents;
+        long[] fees = result.feeCents;
+
+        for (int chunkIndex = 0; chunkIndex * CHUNK_SIZE < rows; chunkIndex++) {
+            Chunk chunk = snapshot[chunkIndex];
+            int limit = Math.min(CHUNK_SIZE, rows - chunkIndex * CHUNK_SIZE);
+            int[] days = chunk.epochDay;
+            byte[] sources = chunk.source;
+            byte[] keys = dimension != null ? chunk.column(dimension) : null;
+            long[] amounts = chunk.amountCents;
+            long[] fee = chunk.feeCents;
+
+            for (int i = 0; i < limit; i++) {
+                int day = days[i];
+                if (day < fromDay || day > toDay || (sourceCode >= 0 && sources[i] != sourceCode)) {
+                    continue;
+                }
+                int index = bucketOfDay[day - fromDay] * keyCount + (keys != null ? keys[i] & 0xFF : 0);
+                count[index]++;
+                amount[index] += amounts[i];
+                fees[index] += fee[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Per-bucket, per-key totals of one scan
+     */
+    public static final class Accumulators {
+        private final long[] count;
+        private final long[] amountCents;
+        private final long[] feeCents;
+        private final int keyCount;
+
+        private Accumulators(int cells, int keyCount) {
+            this.count = new long[cells];
+            this.amountCents = new long[cells];
+            this.feeCents = new long[cells];
+            this.keyCount = keyCount;
+        }
+
+        public int keyCount() {
+            return keyCount;
+        }
+
+        public long count(int bucket, int key) {
+            return count[bucket * keyCount + key];
+        }
+
+        public long amountCents(int bucket, int key) {
+            return amountCents[bucket * keyCount + key];
+        }
+
+        public long feeCents(int bucket, int key) {
+            return feeCents[bucket * keyCount + key];
+        }
+    }
+
+    private static final class Chunk {
+        private final long[] amountCents = new long[CHUNK_SIZE];
+        private final long[] feeCents = new long[CHUNK_SIZE];
+        private final int[] epochDay = new int[CHUNK_SIZE];
+        private final byte[] source = new byte[CHUNK_SIZE];
+        private final byte[] type = new byte[CHUNK_SIZE];
+        private final byte[] status = new byte[CHUNK_SIZE];
+        private final byte[] grantType = new byte[CHUNK_SIZE];
+
+        private byte[] column(AnalyticsDimension dimension) {
+            return switch (dimension) {
+                case SOURCE -> source;
+                case TYPE -> type;
+                case STATUS -> status;
+                case GRANT_TYPE -> grantType;
+            };
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package za.co.interfile.archive;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Format of an archive block: one user's rows of one table for one month as
+ * gzip-compressed JSON lines. Blocks are stored in history_archive_segments,
+ * so every node reads the same archive.
+ */
+@Component
+public class ArchiveBlockCodec {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> ROW_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader rowReader;
+
+    public ArchiveBlockCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.rowReader = objectMapper.readerFor(ROW_TYPE)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    }
+
+    /**
+     * Compress rows read with a ColumnMapRowMapper into one block
+     */
+    public byte[] encode(List<Map<String, Object>> rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (Map<String, Object> row : rows) {
+                Map<String, Object> normalized = new LinkedHashMap<>();
+                row.forEach((column, value) -> normalized.put(column, normalize(value)));
+                writer.write(objectMapper.writeValueAsString(normalized));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode archive block", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public List<ArchivedRow> decode(byte[] block) {
+        List<ArchivedRow> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(block)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    rows.add(new ArchivedRow(rowReader.readValue(line)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt archive block", e);
+        }
+        return rows;
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof LocalDateTime || value instanceof LocalDate || value instanceof Date) {
+            return value.toString();
+        }
+        return value;
+    }
+}
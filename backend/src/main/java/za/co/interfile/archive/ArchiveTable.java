@@ -0,0 +1,105 @@
+package za.co.interfile.archive;
+
+import za.co.interfile.service.ElectricityService;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * The money tables whose closed periods are moved into the history archive.
+ * Notifications are not archived; NotificationRetentionService removes them.
+ * Only rows in a final state are archived; anything still in flight stays hot.
+ * <p>
+ * columns are the ones copied into the archive. Client IP, user agent and the
+ * cash send PIN are left behind. referenceColumns are indexed so a record can be
+ * found by its reference after it has left the hot table. balanceEffect gives a
+ * row's effect on the user's available balance in cents, using the same rules as
+ * the balance reconciliation, so archived history keeps counting towards the
+ * expected balance.
+ */
+public enum ArchiveTable {
+
+    TRANSACTIONS("transactions", "transaction_id", "created_at",
+            "status IN ('COMPLETED', 'FAILED', 'CANCELLED')",
+            List.of("transaction_id", "user_id", "sassa_account_id", "transaction_type", "amount",
+                    "balance_before", "balance_after", "reference_number", "description", "status",
+                    "payment_method", "external_reference", "processing_fee", "net_amount", "failure_reason",
+                    "retry_count", "created_at", "completed_at"),
+            List.of("reference_number"),
+            row -> "COMPLETED".equals(row.getString("status"))
+                    && ("DEPOSIT".equals(row.getString("transaction_type"))
+                    || "REFUND".equals(row.getString("transaction_type")))
+                    ? row.getCents("amount") : 0),
+
+    WITHDRAWAL_REQUESTS("withdrawal_requests", "withdrawal_id", "requested_at",
+            "status IN ('PROCESSED', 'REJECTED', 'CANCELLED', 'EXPIRED')",
+            List.of("withdrawal_id", "user_id", "requested_amount", "calculated_fees", "net_amount",
+                    "withdrawal_method", "bank_details", "status", "reason_code", "admin_notes", "approval_notes",
+                    "rejection_reason", "requested_at", "processed_at", "processed_by", "user_balance_before",
+                    "user_balance_after", "transaction_reference", "external_reference", "retry_count", "expires_at"),
+            List.of("transaction_reference"),
+            // Rejected, cancelled and expired requests gave their funds back
+            row -> "PROCESSED".equals(row.getString("status")) ? -row.getCents("requested_amount") : 0),
+
+    CASH_SEND_TRANSACTIONS("cash_send_transactions", "cash_send_id", "created_at",
+            "status IN ('REDEEMED', 'EXPIRED', 'CANCELLED')",
+            List.of("cash_send_id", "user_id", "amount", "fee", "total_cost", "recipient_phone", "recipient_name",
+                    "voucher_code", "message", "status", "created_at", "expires_at", "redeemed_at",
+                    "redeemed_location", "transaction_reference"),
+            List.of("transaction_reference", "voucher_code"),
+            row -> -row.getCents("total_cost")),
+
+    ELECTRICITY_TRANSACTIONS("electricity_transactions", "transaction_id", "created_at",
+            "status IN ('COMPLETED', 'FAILED', 'REFUNDED')",
+            List.of("transaction_id", "user_id", "amount", "units", "meter_number", "municipality", "token",
+                    "status", "transaction_reference", "created_at", "token_expiry_date", "rate_per_unit"),
+            List.of("transaction_reference"),
+            row -> -row.getCents("amount") - ElectricityService.ELECTRICITY_FEE.movePointRight(2).longValueExact());
+
+    private final String tableName;
+    private final String idColumn;
+    private final String timestampColumn;
+    private final String finalStateCondition;
+    private final List<String> columns;
+    private final List<String> referenceColumns;
+    private final ToLongFunction<ArchivedRow> balanceEffect;
+
+    ArchiveTable(String tableName, String idColumn, String timestampColumn, String finalStateCondition,
+                 List<String> columns, List<String> referenceColumns, ToLongFunction<ArchivedRow> balanceEffect) {
+        this.tableName = tableName;
+        this.idColumn = idColumn;
+        this.timestampColumn = timestampColumn;
+        this.finalStateCondition = finalStateCondition;
+        this.columns = columns;
+        this.referenceColumns = referenceColumns;
+        this.balanceEffect = balanceEffect;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getIdColumn() {
+        return idColumn;
+    }
+
+    public String getTimestampColumn() {
+        return timestampColumn;
+    }
+
+    public String getFinalStateCondition() {
+        return finalStateCondition;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public List<String> getReferenceColumns() {
+        return referenceColumns;
+    }
+
+    public long balanceEffectCents(ArchivedRow row) {
+        return balanceEffect.applyAsLong(row);
+    }
+}
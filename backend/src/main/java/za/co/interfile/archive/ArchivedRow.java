@@ -0,0 +1,52 @@
+package za.co.interfile.archive;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * One archived database row, keyed by column name. Values are kept as written
+ * to the archive: numbers, booleans, and timestamps as ISO-8601 strings.
+ */
+public final class ArchivedRow {
+
+    private final Map<String, Object> columns;
+
+    public ArchivedRow(Map<String, Object> columns) {
+        this.columns = columns;
+    }
+
+    public Map<String, Object> getColumns() {
+        return Collections.unmodifiableMap(columns);
+    }
+
+    public String getString(String column) {
+        Object value = columns.get(column);
+        return value != null ? value.toString() : null;
+    }
+
+    public Long getLong(String column) {
+        Object value = columns.get(column);
+        if (value == null) {
+            return null;
+        }
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+
+    public BigDecimal getDecimal(String column) {
+        Object value = columns.get(column);
+        return value != null ? new BigDecimal(value.toString()) : null;
+    }
+
+    public long getCents(String column) {
+        BigDecimal value = getDecimal(column);
+        return value != null ? value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact() : 0;
+    }
+
+    public LocalDateTime getDateTime(String column) {
+        Object value = columns.get(column);
+        return value != null ? LocalDateTime.parse(value.toString()) : null;
+    }
+}
@@ -0,0 +1,397 @@
+package za.co.interfile.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import za.co.interfile.dtos.AdminCountersDto;
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.SassaStatus;
+import za.co.interfile.enums.UsersStatus;
+import za.co.interfile.enums.WithdrawalStatus;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live counts for the admin dashboard: users by status, SASSA accounts by status
+ * and grant type, and open withdrawals by status.
+ * Services report status transitions and the counters move once the transaction
+ * commits, so dashboard reads never run COUNT queries. Counters are checkpointed
+ * to admin_counter_checkpoints periodically and on shutdown, and seeded from the
+ * checkpoint at startup. A periodic GROUP BY corrects any drift from writes these
+ * counters never saw (other instances, manual SQL, rolled-back races).
+ * Until the first seed or correction finishes, isReady() is false and callers
+ * fall back to the database.
+ */
+@Slf4j
+@Component
+public class AdminCounters {
+
+    private static final String UPSERT_CHECKPOINT = """
+            INSERT INTO admin_counter_checkpoints (counter_group, counter_key, counter_value, updated_at)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE counter_value = VALUES(counter_value), updated_at = VALUES(updated_at)
+            """;
+
+    private static final SassaStatus[] SASSA_STATUSES = SassaStatus.values();
+    private static final GrantType[] GRANT_TYPES = GrantType.values();
+
+    private final Family users;
+    private final Family sassaAccounts;
+    private final Family openWithdrawals;
+    private final List<Family> families;
+
+    private final JdbcTemplate reportingJdbcTemplate;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+    private volatile boolean ready;
+    private volatile LocalDateTime lastCorrectedAt;
+    private volatile LocalDateTime lastCheckpointAt;
+
+    @Value("${app.admin-counters.enabled:true}")
+    private boolean enabled;
+
+    public AdminCounters(@Qualifier("reportingDataSource") DataSource reportingDataSource,
+                         @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                         MeterRegistry meterRegistry) {
+        this.reportingJdbcTemplate = new JdbcTemplate(reportingDataSource);
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+
+        List<String> userKeys = new ArrayList<>();
+        for (UsersStatus status : UsersStatus.values()) {
+            userKeys.add(status.name());
+        }
+        List<String> sassaKeys = new ArrayList<>();
+        for (SassaStatus status : SASSA_STATUSES) {
+            for (GrantType grantType : GRANT_TYPES) {
+                sassaKeys.add(status.name() + ":" + grantType.name());
+            }
+        }
+        List<String> withdrawalKeys = new ArrayList<>();
+        for (WithdrawalStatus status : WithdrawalStatus.values()) {
+            withdrawalKeys.add(status.name());
+        }
+
+        this.users = new Family("users.status", userKeys,
+                "SELECT status, COUNT(*) FROM users GROUP BY status", meterRegistry);
+        this.sassaAccounts = new Family("sassa_accounts.status_grant", sassaKeys,
+                "SELECT CONCAT(status, ':', grant_type), COUNT(*) FROM sassa_accounts GROUP BY status, grant_type",
+                meterRegistry);
+        this.openWithdrawals = new Family("withdrawal_requests.open", withdrawalKeys,
+                "SELECT status, COUNT(*) FROM withdrawal_requests WHERE status IN ('PENDING', 'APPROVED') GROUP BY status",
+                meterRegistry);
+        this.families = List.of(users, sassaAccounts, openWithdrawals);
+    }
+
+    // Transitions - applied after the surrounding transaction commits
+
+    /**
+     * @param from previous status, or null for a new user
+     */
+    public void userStatusChanged(UsersStatus from, UsersStatus to) {
+        afterCommit(users, from != null ? from.ordinal() : -1, to != null ? to.ordinal() : -1);
+    }
+
+    /**
+     * @param fromStatus previous status, or null for a new account
+     */
+    public void sassaAccountChanged(SassaStatus fromStatus, GrantType fromGrantType,
+                                    SassaStatus toStatus, GrantType toGrantType) {
+        afterCommit(sassaAccounts, sassaIndex(fromStatus, fromGrantType), sassaIndex(toStatus, toGrantType));
+    }
+
+    /**
+     * Only open statuses (pending, approved) are counted; moving to a final status
+     * just leaves the open count
+     *
+     * @param from previous status, or null for a new request
+     */
+    public void withdrawalStatusChanged(WithdrawalStatus from, WithdrawalStatus to) {
+        afterCommit(openWithdrawals, openIndex(from), openIndex(to));
+    }
+
+    private void afterCommit(Family family, int fromIndex, int toIndex) {
+        if (!enabled || fromIndex == toIndex) {
+            return;
+        }
+
+        Runnable apply = () -> {
+            if (fromIndex >= 0) {
+                family.adders[fromIndex].decrement();
+            }
+            if (toIndex >= 0) {
+                family.adders[toIndex].increment();
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // Reads
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getUserCount(UsersStatus status) {
+        return users.value(status.ordinal());
+    }
+
+    public AdminCountersDto getCounts() {
+        Map<UsersStatus, Long> usersByStatus = new EnumMap<>(UsersStatus.class);
+        for (UsersStatus status : UsersStatus.values()) {
+            usersByStatus.put(status, users.value(status.ordinal()));
+        }
+
+        Map<SassaStatus, Map<GrantType, Long>> sassaByStatus = new EnumMap<>(SassaStatus.class);
+        for (SassaStatus status : SASSA_STATUSES) {
+            Map<GrantType, Long> byGrant = new EnumMap<>(GrantType.class);
+            for (GrantType grantType : GRANT_TYPES) {
+                long count = sassaAccounts.value(sassaIndex(status, grantType));
+                if (count > 0) {
+                    byGrant.put(grantType, count);
+                }
+            }
+            if (!byGrant.isEmpty()) {
+                sassaByStatus.put(status, byGrant);
+            }
+        }
+
+        Map<WithdrawalStatus, Long> withdrawalsByStatus = new EnumMap<>(WithdrawalStatus.class);
+        for (WithdrawalStatus status : WithdrawalStatus.values()) {
+            if (status.canBeProcessed()) {
+                withdrawalsByStatus.put(status, openWithdrawals.value(status.ordinal()));
+            }
+        }
+
+        return AdminCountersDto.builder()
+                .ready(ready)
+                .usersByStatus(usersByStatus)
+                .sassaAccountsByStatusAndGrantType(sassaByStatus)
+                .openWithdrawalsByStatus(withdrawalsByStatus)
+                .lastCorrectedAt(lastCorrectedAt)
+                .lastCheckpointAt(lastCheckpointAt)
+                .build();
+    }
+
+    // Maintenance
+
+    /**
+     * Seed from the last checkpoint so the dashboard has numbers straight away,
+     * then correct against the database
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            log.info("Admin counters disabled");
+            return;
+        }
+
+        try {
+            int seeded = seedFromCheckpoint();
+            if (seeded > 0) {
+                ready = true;
+                log.info("Admin counters seeded from {} checkpoint rows", seeded);
+            }
+        } catch (Exception e) {
+            log.warn("Could not read admin counter checkpoints; waiting for the first correction", e);
+        }
+        correct();
+    }
+
+    @Scheduled(cron = "${app.admin-counters.correction-cron:0 */15 * * * *}")
+    public void scheduledCorrection() {
+        if (enabled && ready) {
+            correct();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin-counters.checkpoint-interval-ms:300000}",
+            initialDelayString = "${app.admin-counters.checkpoint-interval-ms:300000}")
+    public void scheduledCheckpoint() {
+        if (enabled && ready) {
+            checkpoint();
+        }
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        if (enabled && ready) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Recount every family with GROUP BY and add the difference to each counter.
+     * Adding (rather than setting) keeps transitions that commit while the count
+     * runs; one that commits in the gap can be counted twice until the next pass.
+     *
+     * @return total absolute drift per family
+     */
+    public Map<String, Long> correct() {
+        Map<String, Long> report = new LinkedHashMap<>();
+        maintenanceLock.lock();
+        try {
+            for (Family family : families) {
+                long[] before = family.snapshot();
+                long[] actual = new long[before.length];
+                reportingJdbcTemplate.query(family.countQuery, rs -> {
+                    Integer index = family.indexOf.get(rs.getString(1));
+                    if (index != null) {
+                        actual[index] = rs.getLong(2);
+                    }
+                });
+
+                long drift = 0;
+                for (int i = 0; i < actual.length; i++) {
+                    long delta = actual[i] - before[i];
+                    if (delta != 0) {
+                        family.adders[i].add(delta);
+                        drift += Math.abs(delta);
+                    }
+                }
+                if (drift > 0) {
+                    family.drift.increment(drift);
+                    log.info("Admin counters {} corrected by {}", family.name, drift);
+                }
+                report.put(family.name, drift);
+            }
+
+            lastCorrectedAt = LocalDateTime.now();
+            ready = true;
+        } catch (Exception e) {
+            log.error("Admin counter correction failed", e);
+            return report;
+        } finally {
+            maintenanceLock.unlock();
+        }
+
+        checkpoint();
+        return report;
+    }
+
+    public void checkpoint() {
+        maintenanceLock.lock();
+        try {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>();
+            for (Family family : families) {
+                for (int i = 0; i < family.keys.length; i++) {
+                    rows.add(new Object[]{family.name, family.keys[i], family.adders[i].sum(), now});
+                }
+            }
+            primaryJdbcTemplate.batchUpdate(UPSERT_CHECKPOINT, rows);
+            lastCheckpointAt = now.toLocalDateTime();
+        } catch (Exception e) {
+            log.warn("Failed to checkpoint admin counters", e);
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private int seedFromCheckpoint() {
+        Map<String, Family> byName = new HashMap<>();
+        for (Family family : families) {
+            byName.put(family.name, family);
+        }
+
+        int[] seeded = {0};
+        maintenanceLock.lock();
+        try {
+            reportingJdbcTemplate.query(
+                    "SELECT counter_group, counter_key, counter_value FROM admin_counter_checkpoints", rs -> {
+                        Family family = byName.get(rs.getString("counter_group"));
+                        Integer index = family != null ? family.indexOf.get(rs.getString("counter_key")) : null;
+                        if (index != null) {
+                            LongAdder adder = family.adders[index];
+                            adder.add(rs.getLong("counter_value") - adder.sum());
+                            seeded[0]++;
+                        }
+                    });
+        } finally {
+            maintenanceLock.unlock();
+        }
+        return seeded[0];
+    }
+
+    private static int sassaIndex(SassaStatus status, GrantType grantType) {
+        if (status == null || grantType == null) {
+            return -1;
+        }
+        return status.ordinal() * GRANT_TYPES.length + grantType.ordinal();
+    }
+
+    private static int openIndex(WithdrawalStatus status) {
+        return status != null && status.canBeProcessed() ? status.ordinal() : -1;
+    }
+
+    /**
+     * One group of counters with its persisted keys and the query that recounts it
+     */
+    private static final class Family {
+        private final String name;
+        private final String[] keys;
+        private final LongAdder[] adders;
+        private final Map<String, Integer> indexOf = new HashMap<>();
+        private final String countQuery;
+        private final Counter drift;
+
+        private Family(String name, List<String> keys, String countQuery, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.keys = keys.toArray(String[]::new);
+            this.adders = new LongAdder[this.keys.length];
+            for (int i = 0; i < this.keys.length; i++) {
+                adders[i] = new LongAdder();
+                indexOf.put(this.keys[i], i);
+            }
+            this.countQuery = countQuery;
+            this.drift = Counter.builder("relief.admin.counters.drift")
+                    .description("Absolute difference corrected between the live counters and the database")
+                    .tag("group", name)
+                    .register(meterRegistry);
+        }
+
+        private long value(int index) {
+            return Math.max(0, adders[index].sum());
+        }
+
+        private long[] snapshot() {
+            long[] values = new long[adders.length];
+            for (int i = 0; i < adders.length; i++) {
+                values[i] = adders[i].sum();
+            }
+            return values;
+        }
+    }
+}
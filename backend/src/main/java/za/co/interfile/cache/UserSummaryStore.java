@@ -0,0 +1,517 @@
+package za.co.interfile.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import za.co.interfile.dtos.UserSummaryDto;
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.UsersStatus;
+import za.co.interfile.model.Users;
+
+import javax.sql.DataSource;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Off-heap summary of every user for the dashboard read path.
+ * Each user is one fixed-size record in a direct ByteBuffer, placed by open
+ * addressing on userId, so a lookup is a hash probe plus a few primitive reads
+ * and never touches JPA or the lazy associations on Users.
+ * Readers are lock-free (per-record sequence counter); writers share one lock.
+ * Services push changes once their transaction commits, and the whole store is
+ * rebuilt from the reporting pool when the application starts. Until the rebuild
+ * finishes every lookup misses and callers fall back to the database.
+ * <p>
+ * The store is per node. Balance changes made on other nodes arrive through the
+ * user_events feed (ChangeFeedPoller), and each balance carries its
+ * user_balances version, so a late or repeated change never replaces a newer
+ * one. The active SASSA account is re-read from the primary after a change,
+ * using the same rule as the rebuild and Users.getActiveSassaAccount: the
+ * lowest active account id.
+ */
+@Slf4j
+@Component
+public class UserSummaryStore {
+
+    // Record layout (bytes): userId 0-7, sequence 8-11, status 12, flags 13,
+    // grant type 14, active SASSA account id 16-23, available balance in cents 24-31,
+    // unread notification count 32-35, balance version 40-47
+    private static final int RECORD_SIZE = 48;
+    private static final int OFF_USER_ID = 0;
+    private static final int OFF_SEQUENCE = 8;
+    private static final int OFF_STATUS = 12;
+    private static final int OFF_FLAGS = 13;
+    private static final int OFF_GRANT_TYPE = 14;
+    private static final int OFF_SASSA_ACCOUNT_ID = 16;
+    private static final int OFF_BALANCE_CENTS = 24;
+    private static final int OFF_UNREAD_COUNT = 32;
+    private static final int OFF_BALANCE_VERSION = 40;
+
+    private static final byte FLAG_EMAIL_VERIFIED = 1;
+    private static final byte FLAG_PHONE_VERIFIED = 1 << 1;
+    private static final byte NONE = -1;
+    private static final long NO_ACCOUNT = 0L;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final UsersStatus[] STATUSES = UsersStatus.values();
+    private static final GrantType[] GRANT_TYPES = GrantType.values();
+
+    private static final String SUMMARY_QUERY = """
+            SELECT u.user_id, u.status, u.email_verified, u.phone_verified,
+                   b.available_balance, b.version AS balance_version, s.sassa_account_id, s.grant_type,
+                   (SELECT COUNT(*) FROM notifications n
+                     WHERE n.user_id = u.user_id AND n.is_read = FALSE) AS unread_count
+            FROM users u
+            LEFT JOIN user_balances b ON b.user_id = u.user_id
+            LEFT JOIN sassa_accounts s ON s.sassa_account_id = (
+                SELECT MIN(a.sassa_account_id) FROM sassa_accounts a
+                 WHERE a.user_id = u.user_id AND a.status = 'ACTIVE')
+            """;
+
+    private static final String ACTIVE_ACCOUNT_QUERY = """
+            SELECT sassa_account_id, grant_type FROM sassa_accounts
+             WHERE user_id = ? AND status = 'ACTIVE'
+             ORDER BY sassa_account_id LIMIT 1
+            """;
+
+    private final JdbcTemplate reportingJdbcTemplate;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final ByteBuffer records;
+    private final int capacity;
+    private final int hashShift;
+    private final int maxEntries;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${app.user-summary.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.user-summary.rebuild-batch-size:5000}")
+    private int rebuildBatchSize;
+
+    private int size;
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+    private volatile boolean fullWarningLogged;
+
+    public UserSummaryStore(@Qualifier("reportingDataSource") DataSource reportingDataSource,
+                            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                            @Value("${app.user-summary.capacity:1048576}") int requestedCapacity,
+                            MeterRegistry meterRegistry) {
+        this.reportingJdbcTemplate = new JdbcTemplate(reportingDataSource);
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.capacity = Integer.highestOneBit(Math.max(requestedCapacity, 1024) - 1) << 1;
+        this.hashShift = 64 - Integer.numberOfTrailingZeros(capacity);
+        this.maxEntries = (int) (capacity * 0.75);
+        this.records = ByteBuffer.allocateDirect(capacity * RECORD_SIZE + Long.BYTES)
+                .alignedSlice(Long.BYTES)
+                .order(ByteOrder.nativeOrder());
+
+        this.hits = Counter.builder("relief.user.summary.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("relief.user.summary.lookups").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("relief.user.summary.entries", this, store -> store.size).register(meterRegistry);
+
+        log.info("User summary store allocated {} slots ({} KB off-heap)",
+                capacity, (long) capacity * RECORD_SIZE / 1024);
+    }
+
+    // Reads
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Look up a user's summary, or empty when the store cannot answer and the
+     * caller should go to the database
+     */
+    public Optional<UserSummaryDto> find(Long userId) {
+        int offset = lookup(userId);
+        if (offset < 0) {
+            return Optional.empty();
+        }
+
+        while (true) {
+            int sequence = (int) INT.getAcquire(records, offset + OFF_SEQUENCE);
+            if ((sequence & 1) == 0) {
+                byte status = records.get(offset + OFF_STATUS);
+                byte flags = records.get(offset + OFF_FLAGS);
+                byte grantType = records.get(offset + OFF_GRANT_TYPE);
+                long sassaAccountId = records.getLong(offset + OFF_SASSA_ACCOUNT_ID);
+                long balanceCents = records.getLong(offset + OFF_BALANCE_CENTS);
+                int unreadCount = records.getInt(offset + OFF_UNREAD_COUNT);
+
+                VarHandle.loadLoadFence();
+                if ((int) INT.getAcquire(records, offset + OFF_SEQUENCE) == sequence) {
+                    return Optional.of(UserSummaryDto.builder()
+                            .userId(userId)
+                            .status(STATUSES[status])
+                            .emailVerified((flags & FLAG_EMAIL_VERIFIED) != 0)
+                            .phoneVerified((flags & FLAG_PHONE_VERIFIED) != 0)
+                            .activeSassaAccountId(sassaAccountId == NO_ACCOUNT ? null : sassaAccountId)
+                            .grantType(grantType == NONE ? null : GRANT_TYPES[grantType])
+                            .availableBalance(BigDecimal.valueOf(balanceCents, 2))
+                            .unreadNotificationCount(unreadCount)
+                            .build());
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Available balance without allocating a summary, or empty on a miss
+     */
+    public Optional<BigDecimal> findAvailableBalance(Long userId) {
+        int offset = lookup(userId);
+        if (offset < 0) {
+            return Optional.empty();
+        }
+
+        while (true) {
+            int sequence = (int) INT.getAcquire(records, offset + OFF_SEQUENCE);
+            if ((sequence & 1) == 0) {
+                long balanceCents = records.getLong(offset + OFF_BALANCE_CENTS);
+                VarHandle.loadLoadFence();
+                if ((int) INT.getAcquire(records, offset + OFF_SEQUENCE) == sequence) {
+                    return Optional.of(BigDecimal.valueOf(balanceCents, 2));
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private int lookup(Long userId) {
+        if (userId == null || !ready) {
+            return -1;
+        }
+        int offset = locate(userId);
+        if (offset < 0) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return offset;
+    }
+
+    // Writes - applied after the surrounding transaction commits
+
+    /**
+     * Add a newly registered user
+     */
+    public void addUser(Users user) {
+        long userId = user.getUserId();
+        UsersStatus status = user.getStatus();
+        byte flags = flagsOf(user);
+        afterCommit(userId, () -> put(userId, status, flags, NO_ACCOUNT, NONE, 0L, 0L, 0));
+    }
+
+    /**
+     * Refresh status and verification flags after a profile or admin change
+     */
+    public void updateProfile(Users user) {
+        long userId = user.getUserId();
+        UsersStatus status = user.getStatus();
+        byte flags = flagsOf(user);
+        afterCommit(userId, () -> update(userId, offset -> {
+            records.put(offset + OFF_STATUS, (byte) status.ordinal());
+            records.put(offset + OFF_FLAGS, flags);
+        }));
+    }
+
+    /**
+     * Set the balance written at the given user_balances version; ignored when
+     * the store already holds a later version
+     */
+    public void updateAvailableBalance(Long userId, BigDecimal availableBalance, long version) {
+        long balanceCents = toCents(availableBalance);
+        afterCommit(userId, () -> update(userId, offset -> {
+            if (version > records.getLong(offset + OFF_BALANCE_VERSION)) {
+                records.putLong(offset + OFF_BALANCE_CENTS, balanceCents);
+                records.putLong(offset + OFF_BALANCE_VERSION, version);
+            }
+        }));
+    }
+
+    /**
+     * Re-read the user's active SASSA account from the primary once the change
+     * that linked, unlinked or changed an account commits
+     */
+    public void refreshActiveSassaAccount(Long userId) {
+        afterCommit(userId, () -> {
+            if (locate(userId) < 0) {
+                return;
+            }
+            long[] accountId = {NO_ACCOUNT};
+            byte[] grant = {NONE};
+            primaryJdbcTemplate.query(ACTIVE_ACCOUNT_QUERY, rs -> {
+                accountId[0] = rs.getLong("sassa_account_id");
+                String grantType = rs.getString("grant_type");
+                grant[0] = grantType != null ? (byte) GrantType.valueOf(grantType).ordinal() : NONE;
+            }, userId);
+            update(userId, offset -> {
+                records.putLong(offset + OFF_SASSA_ACCOUNT_ID, accountId[0]);
+                records.put(offset + OFF_GRANT_TYPE, grant[0]);
+            });
+        });
+    }
+
+    public void adjustUnreadCount(Long userId, int delta) {
+        afterCommit(userId, () -> update(userId, offset -> records.putInt(offset + OFF_UNREAD_COUNT,
+                Math.max(0, records.getInt(offset + OFF_UNREAD_COUNT) + delta))));
+    }
+
+    public void updateUnreadCount(Long userId, int unreadCount) {
+        afterCommit(userId, () -> update(userId,
+                offset -> records.putInt(offset + OFF_UNREAD_COUNT, unreadCount)));
+    }
+
+    private void afterCommit(Long userId, Runnable change) {
+        if (!enabled || userId == null) {
+            return;
+        }
+
+        Runnable apply = () -> {
+            change.run();
+            if (rebuilding) {
+                changedDuringRebuild.add(userId);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Rewrite an existing record; users that are not in the store are left alone
+     */
+    private void update(long userId, RecordWriter writer) {
+        writeLock.lock();
+        try {
+            int offset = locate(userId);
+            if (offset >= 0) {
+                write(offset, writer);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Insert or fully overwrite a record, keeping a balance of a later version
+     */
+    private void put(long userId, UsersStatus status, byte flags, long sassaAccountId,
+                     byte grantType, long balanceCents, long balanceVersion, int unreadCount) {
+        RecordWriter writer = offset -> {
+            records.put(offset + OFF_STATUS, (byte) status.ordinal());
+            records.put(offset + OFF_FLAGS, flags);
+            records.put(offset + OFF_GRANT_TYPE, grantType);
+            records.putLong(offset + OFF_SASSA_ACCOUNT_ID, sassaAccountId);
+            if (balanceVersion >= records.getLong(offset + OFF_BALANCE_VERSION)) {
+                records.putLong(offset + OFF_BALANCE_CENTS, balanceCents);
+                records.putLong(offset + OFF_BALANCE_VERSION, balanceVersion);
+            }
+            records.putInt(offset + OFF_UNREAD_COUNT, unreadCount);
+        };
+
+        writeLock.lock();
+        try {
+            int offset = locate(userId);
+            if (offset >= 0) {
+                write(offset, writer);
+                return;
+            }
+
+            if (size >= maxEntries) {
+                if (!fullWarningLogged) {
+                    fullWarningLogged = true;
+                    log.warn("User summary store is full ({} users); raise app.user-summary.capacity. "
+                            + "Users beyond this are served from the database", size);
+                }
+                return;
+            }
+
+            offset = freeSlot(userId);
+            // Fill the record before publishing the key so readers never see a half-written user
+            records.putLong(offset + OFF_BALANCE_VERSION, 0L);
+            writer.write(offset);
+            LONG.setRelease(records, offset + OFF_USER_ID, userId);
+            size++;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void write(int offset, RecordWriter writer) {
+        int sequence = (int) INT.get(records, offset + OFF_SEQUENCE);
+        INT.setOpaque(records, offset + OFF_SEQUENCE, sequence + 1);
+        VarHandle.storeStoreFence();
+        writer.write(offset);
+        INT.setRelease(records, offset + OFF_SEQUENCE, sequence + 2);
+    }
+
+    private int locate(long userId) {
+        int slot = slotOf(userId);
+        for (int probe = 0; probe < capacity; probe++) {
+            int offset = slot * RECORD_SIZE;
+            long key = (long) LONG.getAcquire(records, offset + OFF_USER_ID);
+            if (key == userId) {
+                return offset;
+            }
+            if (key == 0L) {
+                return -1;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return -1;
+    }
+
+    private int freeSlot(long userId) {
+        int slot = slotOf(userId);
+        while ((long) LONG.get(records, slot * RECORD_SIZE + OFF_USER_ID) != 0L) {
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return slot * RECORD_SIZE;
+    }
+
+    private int slotOf(long userId) {
+        return (int) ((userId * 0x9E3779B97F4A7C15L) >>> hashShift);
+    }
+
+    // Rebuild
+
+    /**
+     * Load every user from the database. Runs off the startup thread; changes
+     * committed while it runs are re-read at the end so none are lost.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("User summary store disabled");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+
+        try {
+            long lastUserId = 0L;
+            int loaded;
+            do {
+                List<Long> batch = new ArrayList<>(rebuildBatchSize);
+                reportingJdbcTemplate.query(SUMMARY_QUERY + " WHERE u.user_id > ? ORDER BY u.user_id LIMIT ?",
+                        rs -> {
+                            batch.add(rs.getLong("user_id"));
+                            putRow(rs);
+                        },
+                        lastUserId, rebuildBatchSize);
+                loaded = batch.size();
+                if (loaded > 0) {
+                    lastUserId = batch.get(loaded - 1);
+                }
+            } while (loaded == rebuildBatchSize);
+
+            int reloaded = 0;
+            while (!changedDuringRebuild.isEmpty()) {
+                List<Long> changed = new ArrayList<>(changedDuringRebuild);
+                changedDuringRebuild.removeAll(changed);
+                for (Long userId : changed) {
+                    reportingJdbcTemplate.query(SUMMARY_QUERY + " WHERE u.user_id = ?", this::putRow, userId);
+                }
+                reloaded += changed.size();
+            }
+
+            ready = true;
+            log.info("User summary store rebuilt: {} users in {}ms ({} re-read after concurrent changes)",
+                    size, System.currentTimeMillis() - started, reloaded);
+        } catch (Exception e) {
+            log.error("Failed to rebuild user summary store; dashboard reads will use the database", e);
+        } finally {
+            rebuilding = false;
+        }
+    }
+
+    private void putRow(ResultSet rs) throws SQLException {
+        long sassaAccountId = rs.getLong("sassa_account_id");
+        if (rs.wasNull()) {
+            sassaAccountId = NO_ACCOUNT;
+        }
+        String grantType = rs.getString("grant_type");
+        byte flags = 0;
+        if (rs.getBoolean("email_verified")) {
+            flags |= FLAG_EMAIL_VERIFIED;
+        }
+        if (rs.getBoolean("phone_verified")) {
+            flags |= FLAG_PHONE_VERIFIED;
+        }
+
+        put(rs.getLong("user_id"),
+                UsersStatus.valueOf(rs.getString("status")),
+                flags,
+                sassaAccountId,
+                grantType != null ? (byte) GrantType.valueOf(grantType).ordinal() : NONE,
+                toCents(rs.getBigDecimal("available_balance")),
+                rs.getLong("balance_version"),
+                rs.getInt("unread_count"));
+    }
+
+    private static byte flagsOf(Users user) {
+        byte flags = 0;
+        if (user.hasVerifiedEmail()) {
+            flags |= FLAG_EMAIL_VERIFIED;
+        }
+        if (user.hasVerifiedPhone()) {
+            flags |= FLAG_PHONE_VERIFIED;
+        }
+        return flags;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0L : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(int offset);
+    }
+}
@@ -0,0 +1,231 @@
+package za.co.interfile.calendar;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import za.co.interfile.enums.GrantType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grant payment dates for every grant type, precomputed for a rolling window
+ * (last year to years-ahead years out) so date queries are a binary search over
+ * a sorted int[] of epoch days instead of date arithmetic per call.
+ * <p>
+ * Each grant type is paid on a fixed day of the month. When that day is a
+ * weekend or South African public holiday, payment moves to the next business
+ * day. The table is immutable and swapped in whole on rebuild; dates outside
+ * the window are computed directly with the same rules.
+ */
+@Slf4j
+@Component
+public class GrantPaymentCalendar {
+
+    private static final Map<GrantType, Integer> PAYMENT_DAYS = new EnumMap<>(GrantType.class);
+
+    static {
+        PAYMENT_DAYS.put(GrantType.SRD, 5);
+        PAYMENT_DAYS.put(GrantType.CHILD_SUPPORT, 3);
+        PAYMENT_DAYS.put(GrantType.DISABILITY, 1);
+        PAYMENT_DAYS.put(GrantType.OLD_AGE, 1);
+        PAYMENT_DAYS.put(GrantType.CARE_DEPENDENCY, 1);
+        PAYMENT_DAYS.put(GrantType.WAR_VETERANS, 1);
+        PAYMENT_DAYS.put(GrantType.FOSTER_CARE, 10);
+    }
+
+    @Value("${app.payment-calendar.years-ahead:3}")
+    private int yearsAhead;
+
+    private volatile Table table;
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /**
+     * Move the window forward; only does real work when the year has changed
+     */
+    @Scheduled(cron = "${app.payment-calendar.rebuild-cron:0 5 0 * * *}")
+    public void rebuild() {
+        int firstYear = LocalDate.now().getYear() - 1;
+        int lastYear = LocalDate.now().getYear() + yearsAhead;
+        Table current = table;
+        if (current != null && current.firstYear == firstYear && current.lastYear == lastYear) {
+            return;
+        }
+        table = new Table(firstYear, lastYear);
+        log.info("Grant payment calendar built for {} to {}", firstYear, lastYear);
+    }
+
+    /**
+     * Standard day of the month the grant is paid, before weekend and holiday shifting
+     */
+    public int paymentDay(GrantType grantType) {
+        return PAYMENT_DAYS.get(grantType);
+    }
+
+    /**
+     * First payment date on or after the given date
+     */
+    public LocalDate nextPaymentDate(GrantType grantType, LocalDate from) {
+        Table current = table;
+        int[] dates = current.paymentDates[grantType.ordinal()];
+        int index = indexOnOrAfter(current, dates, from);
+        if (index < dates.length) {
+            return LocalDate.ofEpochDay(dates[index]);
+        }
+        return computeOnOrAfter(grantType, from);
+    }
+
+    /**
+     * Days from the given date to the next payment; 0 on pay day
+     */
+    public long daysUntilNextPayment(GrantType grantType, LocalDate from) {
+        return nextPaymentDate(grantType, from).toEpochDay() - from.toEpochDay();
+    }
+
+    /**
+     * The next count payment dates on or after the given date
+     */
+    public List<LocalDate> schedule(GrantType grantType, LocalDate from, int count) {
+        Table current = table;
+        int[] dates = current.paymentDates[grantType.ordinal()];
+        int index = indexOnOrAfter(current, dates, from);
+
+        List<LocalDate> schedule = new ArrayList<>(count);
+        while (schedule.size() < count && index < dates.length) {
+            schedule.add(LocalDate.ofEpochDay(dates[index++]));
+        }
+        LocalDate next = schedule.isEmpty() ? from : schedule.get(schedule.size() - 1).plusDays(1);
+        while (schedule.size() < count) {
+            LocalDate date = computeOnOrAfter(grantType, next);
+            schedule.add(date);
+            next = date.plusDays(1);
+        }
+        return schedule;
+    }
+
+    /**
+     * Whether the grant is paid on this date
+     */
+    public boolean isPaymentDay(GrantType grantType, LocalDate date) {
+        return nextPaymentDate(grantType, date).equals(date);
+    }
+
+    public boolean isBusinessDay(LocalDate date) {
+        Table current = table;
+        long day = date.toEpochDay();
+        if (day >= current.firstDay && day < current.firstDay + current.closed.length) {
+            return !current.closed[(int) (day - current.firstDay)];
+        }
+        return isBusinessDay(date, SouthAfricanHolidays.forYear(date.getYear()));
+    }
+
+    /**
+     * Position of the first table date on or after the given date; past the end
+     * of the array when the date is outside the window
+     */
+    private static int indexOnOrAfter(Table current, int[] dates, LocalDate from) {
+        if (from.toEpochDay() < current.firstDay) {
+            return dates.length;
+        }
+        int index = Arrays.binarySearch(dates, Math.toIntExact(from.toEpochDay()));
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Slow path for dates outside the window
+     */
+    private static LocalDate computeOnOrAfter(GrantType grantType, LocalDate from) {
+        YearMonth month = YearMonth.from(from);
+        while (true) {
+            LocalDate date = shifted(grantType, month, SouthAfricanHolidays.forYear(month.getYear()));
+            if (!date.isBefore(from)) {
+                return date;
+            }
+            month = month.plusMonths(1);
+        }
+    }
+
+    private static LocalDate shifted(GrantType grantType, YearMonth month, Set<LocalDate> holidays) {
+        LocalDate date = month.atDay(PAYMENT_DAYS.get(grantType));
+        while (!isBusinessDay(date, holidays)) {
+            date = date.plusDays(1);
+            if (date.getYear() != month.getYear()) {
+                holidays = SouthAfricanHolidays.forYear(date.getYear());
+            }
+        }
+        return date;
+    }
+
+    private static boolean isBusinessDay(LocalDate date, Set<LocalDate> holidays) {
+        DayOfWeek day = date.getDayOfWeek();
+        return day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY && !holidays.contains(date);
+    }
+
+    /**
+     * Payment dates per grant type (indexed by ordinal) and a closed-day flag per
+     * day of the window
+     */
+    private static final class Table {
+        private final int firstYear;
+        private final int lastYear;
+        private final long firstDay;
+        private final boolean[] closed;
+        private final int[][] paymentDates;
+
+        private Table(int firstYear, int lastYear) {
+            this.firstYear = firstYear;
+            this.lastYear = lastYear;
+            this.firstDay = LocalDate.of(firstYear, 1, 1).toEpochDay();
+            // One spare week so shifts out of the last December stay inside the table
+            long endDay = LocalDate.of(lastYear + 1, 1, 8).toEpochDay();
+            this.closed = new boolean[(int) (endDay - firstDay)];
+
+            for (int year = firstYear; year <= lastYear + 1; year++) {
+                for (LocalDate holiday : SouthAfricanHolidays.forYear(year)) {
+                    markClosed(holiday);
+                }
+            }
+            for (long day = firstDay; day < endDay; day++) {
+                DayOfWeek dayOfWeek = LocalDate.ofEpochDay(day).getDayOfWeek();
+                if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+                    closed[(int) (day - firstDay)] = true;
+                }
+            }
+
+            int months = (lastYear - firstYear + 1) * 12;
+            this.paymentDates = new int[GrantType.values().length][];
+            for (GrantType grantType : GrantType.values()) {
+                int[] dates = new int[months];
+                YearMonth month = YearMonth.of(firstYear, 1);
+                for (int i = 0; i < months; i++, month = month.plusMonths(1)) {
+                    long day = month.atDay(PAYMENT_DAYS.get(grantType)).toEpochDay();
+                    while (closed[(int) (day - firstDay)]) {
+                        day++;
+                    }
+                    dates[i] = Math.toIntExact(day);
+                }
+                paymentDates[grantType.ordinal()] = dates;
+            }
+        }
+
+        private void markClosed(LocalDate date) {
+            long index = date.toEpochDay() - firstDay;
+            if (index >= 0 && index < closed.length) {
+                closed[(int) index] = true;
+            }
+        }
+    }
+}
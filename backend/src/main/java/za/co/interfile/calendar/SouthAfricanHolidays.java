@@ -0,0 +1,79 @@
+package za.co.interfile.calendar;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * South African public holidays under the Public Holidays Act: the fixed-date
+ * holidays, Good Friday and Family Day (the Monday after Easter), with any
+ * holiday falling on a Sunday observed on the next day that is not already a
+ * holiday. Once-off holidays declared by proclamation are not included.
+ */
+public final class SouthAfricanHolidays {
+
+    private static final List<MonthDay> FIXED = List.of(
+            MonthDay.of(1, 1),   // New Year's Day
+            MonthDay.of(3, 21),  // Human Rights Day
+            MonthDay.of(4, 27),  // Freedom Day
+            MonthDay.of(5, 1),   // Workers' Day
+            MonthDay.of(6, 16),  // Youth Day
+            MonthDay.of(8, 9),   // National Women's Day
+            MonthDay.of(9, 24),  // Heritage Day
+            MonthDay.of(12, 16), // Day of Reconciliation
+            MonthDay.of(12, 25), // Christmas Day
+            MonthDay.of(12, 26)  // Day of Goodwill
+    );
+
+    private SouthAfricanHolidays() {
+    }
+
+    /**
+     * Every public holiday observed in the given year, in date order
+     */
+    public static Set<LocalDate> forYear(int year) {
+        Set<LocalDate> holidays = new TreeSet<>();
+        LocalDate easter = easterSunday(year);
+        holidays.add(easter.minusDays(2));
+        holidays.add(easter.plusDays(1));
+        for (MonthDay day : FIXED) {
+            holidays.add(day.atYear(year));
+        }
+
+        for (MonthDay day : FIXED) {
+            LocalDate date = day.atYear(year);
+            if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                LocalDate observed = date.plusDays(1);
+                while (holidays.contains(observed)) {
+                    observed = observed.plusDays(1);
+                }
+                holidays.add(observed);
+            }
+        }
+        return holidays;
+    }
+
+    /**
+     * Western (Gregorian) Easter Sunday, by the anonymous Gregorian algorithm
+     */
+    public static LocalDate easterSunday(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+}
@@ -0,0 +1,16 @@
+package za.co.interfile.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Async and @Scheduled processing.
+ * Both run on Spring Boot's auto-configured executors, which switch to
+ * virtual threads when spring.threads.virtual.enabled=true on Java 21+.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+}
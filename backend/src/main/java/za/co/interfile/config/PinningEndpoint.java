@@ -0,0 +1,31 @@
+package za.co.interfile.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing virtual thread pinning diagnostics at /actuator/pinning;
+ * admin only (see SecurityConfig), since it names internal classes and can be reset
+ */
+@Component
+@Endpoint(id = "pinning")
+@RequiredArgsConstructor
+public class PinningEndpoint {
+
+    private final VirtualThreadPinningMonitor pinningMonitor;
+
+    @ReadOperation
+    public Map<String, Object> pinning() {
+        return pinningMonitor.getReport();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        pinningMonitor.reset();
+    }
+}
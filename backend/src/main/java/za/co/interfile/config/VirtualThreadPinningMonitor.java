@@ -0,0 +1,223 @@
+package za.co.interfile.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects virtual threads that stay pinned to their carrier thread
+ * (synchronized blocks, native frames, driver locks) using the JFR
+ * jdk.VirtualThreadPinned event and aggregates them per code site.
+ * Only active when virtual threads are enabled and the JVM is Java 21+.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "za.co.interfile.";
+
+    private final Counter pinnedCounter;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${app.diagnostics.pinning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.diagnostics.pinning.threshold-ms:20}")
+    private long thresholdMs;
+
+    @Value("${app.diagnostics.pinning.max-recent-events:100}")
+    private int maxRecentEvents;
+
+    private final Map<String, PinningSite> sites = new ConcurrentHashMap<>();
+    private final Deque<Map<String, Object>> recentEvents = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recentEventCount = new AtomicInteger();
+    private final LongAdder totalEvents = new LongAdder();
+
+    private volatile RecordingStream recordingStream;
+    private volatile boolean running;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual thread pinning events above the configured threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+
+        if (!enabled || !virtualThreadsEnabled) {
+            log.info("Virtual thread pinning diagnostics inactive (virtual threads enabled: {})", virtualThreadsEnabled);
+            return;
+        }
+
+        if (Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled=true but JVM is Java {}; requests still run on platform threads",
+                    Runtime.version().feature());
+            return;
+        }
+
+        try {
+            RecordingStream stream = new RecordingStream();
+            stream.enable(PINNED_EVENT)
+                    .withThreshold(Duration.ofMillis(thresholdMs))
+                    .withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::record);
+            stream.startAsync();
+            recordingStream = stream;
+
+            log.info("Virtual thread pinning diagnostics started (threshold: {}ms)", thresholdMs);
+        } catch (Exception e) {
+            log.error("Failed to start virtual thread pinning diagnostics", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        RecordingStream stream = recordingStream;
+        if (stream != null) {
+            stream.close();
+            recordingStream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void record(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null
+                ? event.getStackTrace().getFrames()
+                : List.of();
+
+        String blocker = frames.isEmpty() ? "unknown" : describe(frames.get(0));
+        String site = findApplicationFrame(event.getStackTrace());
+        long durationNanos = event.getDuration().toNanos();
+
+        sites.computeIfAbsent(site + " <- " + blocker, key -> new PinningSite(site, blocker))
+                .record(durationNanos);
+        totalEvents.increment();
+        pinnedCounter.increment();
+
+        Map<String, Object> recent = new LinkedHashMap<>();
+        recent.put("time", event.getStartTime());
+        recent.put("durationMs", durationNanos / 1_000_000.0);
+        recent.put("thread", event.getThread("eventThread") != null ? event.getThread("eventThread").getJavaName() : null);
+        recent.put("site", site);
+        recent.put("blocker", blocker);
+
+        recentEvents.addFirst(recent);
+        if (recentEventCount.incrementAndGet() > maxRecentEvents) {
+            recentEvents.pollLast();
+            recentEventCount.decrementAndGet();
+        }
+    }
+
+    private String findApplicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.getMethod() != null && frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                return describe(frame);
+            }
+        }
+        return "outside application code";
+    }
+
+    private String describe(RecordedFrame frame) {
+        if (frame.getMethod() == null) {
+            return "unknown";
+        }
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    /**
+     * Snapshot of everything recorded so far, worst offenders first
+     */
+    public Map<String, Object> getReport() {
+        List<Map<String, Object>> siteReports = new ArrayList<>();
+        sites.values().stream()
+                .sorted(Comparator.comparingLong(PinningSite::getTotalNanos).reversed())
+                .forEach(site -> siteReports.add(site.toReport()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("javaVersion", Runtime.version().toString());
+        report.put("virtualThreadsEnabled", virtualThreadsEnabled);
+        report.put("monitoring", recordingStream != null);
+        report.put("thresholdMs", thresholdMs);
+        report.put("totalEvents", totalEvents.sum());
+        report.put("sites", siteReports);
+        report.put("recentEvents", new ArrayList<>(recentEvents));
+        return report;
+    }
+
+    public void reset() {
+        sites.clear();
+        recentEvents.clear();
+        recentEventCount.set(0);
+        totalEvents.reset();
+    }
+
+    private static final class PinningSite {
+        private final String site;
+        private final String blocker;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile Instant lastSeen;
+
+        private PinningSite(String site, String blocker) {
+            this.site = site;
+            this.blocker = blocker;
+        }
+
+        private void record(long durationNanos) {
+            count.increment();
+            totalNanos.add(durationNanos);
+            maxNanos.accumulateAndGet(durationNanos, Math::max);
+            lastSeen = Instant.now();
+        }
+
+        private long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        private Map<String, Object> toReport() {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("site", site);
+            report.put("blocker", blocker);
+            report.put("count", count.sum());
+            report.put("totalMs", totalNanos.sum() / 1_000_000.0);
+            report.put("maxMs", maxNanos.get() / 1_000_000.0);
+            report.put("lastSeen", lastSeen);
+            return report;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package za.co.interfile.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Publishes a saturation gauge per named pool (active / maximum connections) next to the
+ * hikaricp.connections.* meters Spring Boot already registers, so the actuator metrics
+ * endpoint shows at a glance which workload class is running out of connections.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConnectionPoolMetrics implements MeterBinder {
+
+    private final Map<String, HikariDataSource> pools;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        pools.values().forEach(pool -> {
+            Gauge.builder("relief.datasource.saturation", pool, ConnectionPoolMetrics::saturation)
+                    .description("Active connections as a fraction of the pool maximum")
+                    .tag("pool", pool.getPoolName())
+                    .register(registry);
+
+            Gauge.builder("relief.datasource.waiting", pool, ConnectionPoolMetrics::waiting)
+                    .description("Threads waiting for a connection from the pool")
+                    .tag("pool", pool.getPoolName())
+                    .register(registry);
+        });
+    }
+
+    private static double saturation(HikariDataSource pool) {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean == null || pool.getMaximumPoolSize() <= 0) {
+            return 0;
+        }
+        return (double) mxBean.getActiveConnections() / pool.getMaximumPoolSize();
+    }
+
+    private static double waiting(HikariDataSource pool) {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        return mxBean != null ? mxBean.getThreadsAwaitingConnection() : 0;
+    }
+}
@@ -0,0 +1,26 @@
+package za.co.interfile.config.datasource;
+
+/**
+ * Physical connection pools that the routing datasource can send a transaction to
+ */
+public enum DataSourceRoute {
+    /**
+     * Read-write primary pool, used for every transaction that is not read-only
+     */
+    PRIMARY,
+
+    /**
+     * Read-only pool on the primary host for interactive reads when no replica can serve them
+     */
+    INTERACTIVE,
+
+    /**
+     * Read-only replica pool for interactive reads
+     */
+    REPLICA,
+
+    /**
+     * Read-only pool for exports, admin scans and batch jobs
+     */
+    REPORTING
+}
@@ -0,0 +1,60 @@
+package za.co.interfile.config.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import za.co.interfile.model.Users;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers users who recently committed a write so their follow-up reads
+ * stay on the primary until the replica has had time to catch up.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final Map<Long, Long> writeWindowExpiry = new ConcurrentHashMap<>();
+
+    @Value("${app.datasource.routing.read-your-writes-window-ms:10000}")
+    private long windowMillis;
+
+    public void recordWrite(Long userId) {
+        writeWindowExpiry.put(userId, System.currentTimeMillis() + windowMillis);
+    }
+
+    public boolean isInWriteWindow(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long expiry = writeWindowExpiry.get(userId);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry < System.currentTimeMillis()) {
+            writeWindowExpiry.remove(userId, expiry);
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.read-your-writes-window-ms:10000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        writeWindowExpiry.values().removeIf(expiry -> expiry < now);
+    }
+
+    /**
+     * Get the authenticated user's ID from the security context, if any
+     */
+    public static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Users user) {
+            return user.getUserId();
+        }
+        return null;
+    }
+}
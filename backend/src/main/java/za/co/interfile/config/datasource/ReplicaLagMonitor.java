@@ -0,0 +1,75 @@
+package za.co.interfile.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically checks replication lag on the replica and takes it out of
+ * rotation when it is unreachable, stopped, or further behind than allowed.
+ * A replica without replication status (e.g. a second standalone local
+ * instance used for testing) is treated as caught up.
+ */
+@Slf4j
+@Component
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replicaJdbcTemplate;
+
+    @Value("${app.datasource.routing.max-replica-lag-seconds:5}")
+    private long maxLagSeconds;
+
+    private volatile boolean replicaUsable;
+    private volatile Long lastLagSeconds;
+
+    public ReplicaLagMonitor(@Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource) {
+        DataSource replica = replicaDataSource.getIfAvailable();
+        this.replicaJdbcTemplate = replica != null ? new JdbcTemplate(replica) : null;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public Long getLastLagSeconds() {
+        return lastLagSeconds;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.routing.lag-check-interval-ms:5000}")
+    public void checkReplicaLag() {
+        if (replicaJdbcTemplate == null) {
+            return;
+        }
+
+        boolean wasUsable = replicaUsable;
+        try {
+            List<Map<String, Object>> status = replicaJdbcTemplate.queryForList("SHOW REPLICA STATUS");
+
+            if (status.isEmpty()) {
+                lastLagSeconds = 0L;
+                replicaUsable = true;
+            } else {
+                Object lag = status.get(0).get("Seconds_Behind_Source");
+                lastLagSeconds = lag != null ? ((Number) lag).longValue() : null;
+                replicaUsable = lastLagSeconds != null && lastLagSeconds <= maxLagSeconds;
+            }
+        } catch (Exception e) {
+            log.warn("Replica health check failed: {}", e.getMessage());
+            lastLagSeconds = null;
+            replicaUsable = false;
+        }
+
+        if (wasUsable != replicaUsable) {
+            log.info("Replica {} read rotation (lag: {}s, max: {}s)",
+                    replicaUsable ? "returned to" : "removed from", lastLagSeconds, maxLagSeconds);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package za.co.interfile.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes each transaction to a connection pool based on its read-only flag and
+ * the @Workload of the calling service method:
+ * - read-write or TRANSACTIONAL work goes to the primary pool
+ * - REPORTING reads go to the reporting pool
+ * - other reads go to the replica, or to the interactive pool on the primary when
+ *   the replica is missing, lagging, unreachable, or the current user is inside
+ *   their read-your-writes window
+ * Must sit behind a LazyConnectionDataSourceProxy so the read-only flag is known
+ * by the time a connection is requested.
+ */
+@Slf4j
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final boolean replicaConfigured;
+
+    public RoutingDataSource(ReadYourWritesTracker readYourWritesTracker,
+                             ReplicaLagMonitor replicaLagMonitor,
+                             boolean replicaConfigured) {
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.replicaConfigured = replicaConfigured;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        WorkloadClass workload = WorkloadContext.current();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || workload == WorkloadClass.TRANSACTIONAL) {
+            registerWrite();
+            return DataSourceRoute.PRIMARY;
+        }
+
+        if (workload == WorkloadClass.REPORTING) {
+            return DataSourceRoute.REPORTING;
+        }
+
+        if (!replicaConfigured || !replicaLagMonitor.isReplicaUsable()) {
+            return DataSourceRoute.INTERACTIVE;
+        }
+
+        if (readYourWritesTracker.isInWriteWindow(ReadYourWritesTracker.currentUserId())) {
+            log.debug("Routing read-only transaction to primary for read-your-writes consistency");
+            return DataSourceRoute.INTERACTIVE;
+        }
+
+        return DataSourceRoute.REPLICA;
+    }
+
+    private void registerWrite() {
+        if (!replicaConfigured
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        Long userId = ReadYourWritesTracker.currentUserId();
+        if (userId == null) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWritesTracker.recordWrite(userId);
+            }
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package za.co.interfile.config.datasource;
+
+/**
+ * Query classes that get their own connection pool so one cannot starve another
+ */
+public enum WorkloadClass {
+    /**
+     * Money-moving and other short read-write transactions
+     */
+    TRANSACTIONAL,
+
+    /**
+     * User-facing reads (profile, balance, history pages)
+     */
+    INTERACTIVE_READ,
+
+    /**
+     * Long-running reads: CSV/PDF exports, admin searches and listings, batch jobs
+     */
+    REPORTING
+}
@@ -0,0 +1,30 @@
+package za.co.interfile.config.datasource;
+
+/**
+ * Holds the workload class declared by the service method currently executing on this thread
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadClass> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static WorkloadClass current() {
+        return CURRENT.get();
+    }
+
+    static WorkloadClass set(WorkloadClass workloadClass) {
+        WorkloadClass previous = CURRENT.get();
+        CURRENT.set(workloadClass);
+        return previous;
+    }
+
+    static void restore(WorkloadClass previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
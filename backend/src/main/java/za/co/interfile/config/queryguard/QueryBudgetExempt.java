@@ -0,0 +1,16 @@
+package za.co.interfile.config.queryguard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method as a batch job whose statement count grows with the data
+ * (backfills, consistency checks). Its queries are still recorded in the metrics,
+ * but neither it nor the request that called it is held to the query budget.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudgetExempt {
+}
@@ -0,0 +1,69 @@
+package za.co.interfile.config.queryguard;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Thread-bound stack of open query scopes. Hibernate hooks call the record methods,
+ * which credit every scope currently open on the thread (request and enclosing service methods).
+ */
+public final class QueryGuard {
+
+    private static final ThreadLocal<Deque<QueryScope>> SCOPES = new ThreadLocal<>();
+
+    private QueryGuard() {
+    }
+
+    public static QueryScope open(String kind, String name) {
+        Deque<QueryScope> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        QueryScope scope = new QueryScope(kind, name);
+        scopes.push(scope);
+        return scope;
+    }
+
+    public static void close(QueryScope scope) {
+        Deque<QueryScope> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        scopes.remove(scope);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    /**
+     * Exempt every scope open on this thread from the query budget
+     */
+    public static void exemptOpenScopes() {
+        Deque<QueryScope> scopes = SCOPES.get();
+        if (scopes != null) {
+            scopes.forEach(QueryScope::exemptFromBudget);
+        }
+    }
+
+    static void recordStatement() {
+        Deque<QueryScope> scopes = SCOPES.get();
+        if (scopes != null) {
+            scopes.forEach(QueryScope::incrementStatements);
+        }
+    }
+
+    static void recordEntityLoad() {
+        Deque<QueryScope> scopes = SCOPES.get();
+        if (scopes != null) {
+            scopes.forEach(QueryScope::incrementEntityLoads);
+        }
+    }
+
+    static void recordCollectionLoad() {
+        Deque<QueryScope> scopes = SCOPES.get();
+        if (scopes != null) {
+            scopes.forEach(QueryScope::incrementCollectionLoads);
+        }
+    }
+}
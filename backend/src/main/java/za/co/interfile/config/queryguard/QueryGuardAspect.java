@@ -0,0 +1,49 @@
+package za.co.interfile.config.queryguard;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens a query scope around every public service method so hidden N+1s can be
+ * traced to the method that triggered them. Ordered outside the transaction
+ * interceptor so flush-time statements are counted too.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "app.query-guard.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryGuardAspect {
+
+    private final QueryGuardRecorder recorder;
+
+    @Around("within(za.co.interfile.service..*) && execution(public * *(..))")
+    public Object trackServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        String name = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+
+        QueryScope scope = QueryGuard.open(QueryGuardRecorder.SERVICE_SCOPE, name);
+        if (((MethodSignature) joinPoint.getSignature()).getMethod().isAnnotationPresent(QueryBudgetExempt.class)) {
+            QueryGuard.exemptOpenScopes();
+        }
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            // Never replace the method's own exception with a budget failure
+            QueryGuard.close(scope);
+            recorder.recordFailed(scope);
+            throw e;
+        }
+        QueryGuard.close(scope);
+        recorder.record(scope);
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+package za.co.interfile.config.queryguard;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a query scope around each HTTP request, including the JWT user lookup,
+ * and records it against the matched route pattern.
+ */
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.query-guard.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryGuardFilter extends OncePerRequestFilter {
+
+    private final QueryGuardRecorder recorder;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryScope scope = QueryGuard.open(QueryGuardRecorder.HTTP_SCOPE, request.getMethod());
+        try {
+            filterChain.doFilter(request, response);
+        } catch (Throwable e) {
+            // Never replace the request's own exception with a budget failure
+            close(request, scope);
+            recorder.recordFailed(scope);
+            throw e;
+        }
+        close(request, scope);
+        recorder.record(scope);
+    }
+
+    private void close(HttpServletRequest request, QueryScope scope) {
+        QueryGuard.close(scope);
+
+        // The route pattern is only known once the request has been dispatched
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        scope.rename(request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED"));
+    }
+}
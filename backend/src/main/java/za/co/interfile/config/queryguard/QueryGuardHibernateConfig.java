@@ -0,0 +1,65 @@
+package za.co.interfile.config.queryguard;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Hooks Hibernate so every SQL statement, entity hydration and lazy collection
+ * initialisation is credited to the query scopes open on the current thread.
+ * Lazy collection initialisations are the signature of an N+1.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.query-guard.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryGuardHibernateConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryGuardHibernateCustomizer() {
+        StatementInspector statementInspector = sql -> {
+            QueryGuard.recordStatement();
+            return sql;
+        };
+
+        IntegratorProvider integratorProvider = () -> List.of(new QueryGuardIntegrator());
+
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementInspector);
+            properties.put("hibernate.integrator_provider", integratorProvider);
+        };
+    }
+
+    static class QueryGuardIntegrator implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            EventListenerRegistry registry = sessionFactory.getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+
+            registry.appendListeners(EventType.POST_LOAD,
+                    (PostLoadEventListener) event -> QueryGuard.recordEntityLoad());
+            registry.appendListeners(EventType.INIT_COLLECTION,
+                    (InitializeCollectionEventListener) event -> QueryGuard.recordCollectionLoad());
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                 SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
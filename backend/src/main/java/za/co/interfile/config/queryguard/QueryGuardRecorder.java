@@ -0,0 +1,97 @@
+package za.co.interfile.config.queryguard;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import za.co.interfile.exception.QueryBudgetExceededException;
+
+/**
+ * Publishes closed query scopes as histograms and enforces the configured budgets.
+ * Mode LOG warns when a budget is exceeded; mode FAIL throws, which is meant for tests.
+ * Budgets are only enforced on scopes that completed normally.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryGuardRecorder {
+
+    public static final String HTTP_SCOPE = "http";
+    public static final String SERVICE_SCOPE = "service";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.query-guard.mode:LOG}")
+    private String mode;
+
+    @Value("${app.query-guard.request.max-statements:40}")
+    private int maxStatementsPerRequest;
+
+    @Value("${app.query-guard.request.max-collection-loads:10}")
+    private int maxCollectionLoadsPerRequest;
+
+    @Value("${app.query-guard.method.max-statements:20}")
+    private int maxStatementsPerMethod;
+
+    @Value("${app.query-guard.method.max-collection-loads:5}")
+    private int maxCollectionLoadsPerMethod;
+
+    /**
+     * Publish a scope whose work completed normally and enforce its budget
+     */
+    public void record(QueryScope scope) {
+        publish(scope);
+        checkBudget(scope);
+    }
+
+    /**
+     * Publish a scope whose work threw. The budget is not checked, so the
+     * original exception reaches the caller unchanged.
+     */
+    public void recordFailed(QueryScope scope) {
+        publish(scope);
+    }
+
+    private void publish(QueryScope scope) {
+        summary("relief.query.statements", "SQL statements executed", scope).record(scope.getStatements());
+        summary("relief.query.entity.loads", "Entities hydrated from result rows", scope).record(scope.getEntityLoads());
+        summary("relief.query.collection.loads", "Lazy collections initialised", scope).record(scope.getCollectionLoads());
+    }
+
+    private DistributionSummary summary(String name, String description, QueryScope scope) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("scope", scope.getKind())
+                .tag("name", scope.getName())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void checkBudget(QueryScope scope) {
+        if ("OFF".equalsIgnoreCase(mode) || scope.isBudgetExempt()) {
+            return;
+        }
+
+        boolean httpScope = HTTP_SCOPE.equals(scope.getKind());
+        int maxStatements = httpScope ? maxStatementsPerRequest : maxStatementsPerMethod;
+        int maxCollectionLoads = httpScope ? maxCollectionLoadsPerRequest : maxCollectionLoadsPerMethod;
+
+        if (scope.getStatements() <= maxStatements && scope.getCollectionLoads() <= maxCollectionLoads) {
+            return;
+        }
+
+        String message = String.format(
+                "Query budget exceeded in %s %s: %d statements (max %d), %d lazy collection loads (max %d), %d entity loads in %dms",
+                scope.getKind(), scope.getName(),
+                scope.getStatements(), maxStatements,
+                scope.getCollectionLoads(), maxCollectionLoads,
+                scope.getEntityLoads(), scope.getElapsedMillis());
+
+        if ("FAIL".equalsIgnoreCase(mode)) {
+            throw new QueryBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+}
@@ -0,0 +1,49 @@
+package za.co.interfile.config.queryguard;
+
+import lombok.Getter;
+
+/**
+ * Statement and load counts collected while one HTTP request or service method runs.
+ * Only touched by the thread that opened it.
+ */
+@Getter
+public class QueryScope {
+
+    private final String kind;
+    private String name;
+    private final long startNanos = System.nanoTime();
+
+    private int statements;
+    private int entityLoads;
+    private int collectionLoads;
+    private boolean budgetExempt;
+
+    QueryScope(String kind, String name) {
+        this.kind = kind;
+        this.name = name;
+    }
+
+    void rename(String name) {
+        this.name = name;
+    }
+
+    void exemptFromBudget() {
+        budgetExempt = true;
+    }
+
+    void incrementStatements() {
+        statements++;
+    }
+
+    void incrementEntityLoads() {
+        entityLoads++;
+    }
+
+    void incrementCollectionLoads() {
+        collectionLoads++;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,68 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.dtos.ActivityFeedPageDto;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.exception.InvalidCursorException;
+import za.co.interfile.model.Users;
+import za.co.interfile.service.ActivityFeedService;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ActivityFeedController {
+
+    private final ActivityFeedService activityFeedService;
+
+    /**
+     * All money movements (grant transactions, withdrawals, cash sends and
+     * electricity purchases), newest first, one page per call
+     */
+    @GetMapping("/activity")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse<ActivityFeedPageDto>> getActivityFeed(
+            @AuthenticationPrincipal Users user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        try {
+            ActivityFeedPageDto page = activityFeedService.getFeed(user.getUserId(), cursor, size);
+
+            ApiResponse<ActivityFeedPageDto> response = ApiResponse.<ActivityFeedPageDto>builder()
+                    .success(true)
+                    .message("Activity retrieved successfully")
+                    .data(page)
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (InvalidCursorException e) {
+            log.warn("Rejected activity feed request for user {}: {}", user.getUserId(), e.getMessage());
+
+            ApiResponse<ActivityFeedPageDto> response = ApiResponse.<ActivityFeedPageDto>builder()
+                    .success(false)
+                    .message("Invalid cursor")
+                    .build();
+
+            return ResponseEntity.badRequest().body(response);
+
+        } catch (Exception e) {
+            log.error("Failed to retrieve activity feed for user {}", user.getUserId(), e);
+
+            ApiResponse<ActivityFeedPageDto> response = ApiResponse.<ActivityFeedPageDto>builder()
+                    .success(false)
+                    .message("Failed to retrieve activity")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
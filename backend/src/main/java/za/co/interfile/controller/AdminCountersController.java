@@ -0,0 +1,54 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.cache.AdminCounters;
+import za.co.interfile.dtos.AdminCountersDto;
+import za.co.interfile.dtos.ApiResponse;
+
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub/admin/counters")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCountersController {
+
+    private final AdminCounters adminCounters;
+
+    /**
+     * Live users, SASSA account and open withdrawal counts
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<AdminCountersDto>> getCounters() {
+        ApiResponse<AdminCountersDto> response = ApiResponse.<AdminCountersDto>builder()
+                .success(true)
+                .message("Counters retrieved successfully")
+                .data(adminCounters.getCounts())
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Recount from the database now and report the drift corrected per group
+     */
+    @PostMapping("/correct")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> correctCounters() {
+        Map<String, Long> drift = adminCounters.correct();
+        log.info("Admin counters corrected on request: {}", drift);
+
+        ApiResponse<Map<String, Long>> response = ApiResponse.<Map<String, Long>>builder()
+                .success(true)
+                .message("Counters corrected")
+                .data(drift)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,115 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.dtos.AnalyticsResultDto;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.enums.ActivitySource;
+import za.co.interfile.enums.AnalyticsDimension;
+import za.co.interfile.enums.TimeBucket;
+import za.co.interfile.service.AnalyticsService;
+
+import java.time.LocalDate;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub/admin/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    /**
+     * Totals per value of one dimension, e.g. ?by=STATUS&from=2025-01-01&to=2025-03-31&source=WITHDRAWAL
+     */
+    @GetMapping("/group-by")
+    public ResponseEntity<ApiResponse<AnalyticsResultDto>> groupBy(
+            @RequestParam AnalyticsDimension by,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) ActivitySource source) {
+
+        try {
+            AnalyticsResultDto result = analyticsService.groupBy(by, from, to, source);
+
+            ApiResponse<AnalyticsResultDto> response = ApiResponse.<AnalyticsResultDto>builder()
+                    .success(true)
+                    .message("Analytics retrieved successfully")
+                    .data(result)
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to compute analytics grouped by {}", by, e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve analytics");
+        }
+    }
+
+    /**
+     * Totals per day, week or month, optionally split by one dimension
+     */
+    @GetMapping("/time-series")
+    public ResponseEntity<ApiResponse<AnalyticsResultDto>> timeSeries(
+            @RequestParam(defaultValue = "DAY") TimeBucket bucket,
+            @RequestParam(required = false) AnalyticsDimension by,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) ActivitySource source) {
+
+        try {
+            AnalyticsResultDto result = analyticsService.timeSeries(bucket, by, from, to, source);
+
+            ApiResponse<AnalyticsResultDto> response = ApiResponse.<AnalyticsResultDto>builder()
+                    .success(true)
+                    .message("Analytics retrieved successfully")
+                    .data(result)
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to compute {} analytics time series", bucket, e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve analytics");
+        }
+    }
+
+    /**
+     * Rebuild the snapshot now instead of waiting for the nightly rebuild
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<ApiResponse<Void>> rebuild() {
+        analyticsService.rebuild();
+
+        ApiResponse<Void> response = ApiResponse.<Void>builder()
+                .success(true)
+                .message("Analytics snapshot rebuilt")
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    private static ResponseEntity<ApiResponse<AnalyticsResultDto>> error(HttpStatus status, String message) {
+        ApiResponse<AnalyticsResultDto> response = ApiResponse.<AnalyticsResultDto>builder()
+                .success(false)
+                .message(message)
+                .build();
+
+        return ResponseEntity.status(status).body(response);
+    }
+}
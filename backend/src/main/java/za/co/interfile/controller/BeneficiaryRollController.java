@@ -0,0 +1,104 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.dtos.RollImportReportDto;
+import za.co.interfile.enums.RollFileFormat;
+import za.co.interfile.model.Users;
+import za.co.interfile.service.BeneficiaryRollImportService;
+
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub/admin/sassa-roll")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class BeneficiaryRollController {
+
+    private final BeneficiaryRollImportService rollImportService;
+
+    /**
+     * Start importing a roll file from the import directory in the background
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse<Void>> startImport(
+            @RequestParam String file,
+            @RequestParam(defaultValue = "CSV") RollFileFormat format,
+            @AuthenticationPrincipal Users admin) {
+
+        try {
+            rollImportService.resolveRollFile(file);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<Void> response = ApiResponse.<Void>builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build();
+
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        if (rollImportService.isRunning()) {
+            ApiResponse<Void> response = ApiResponse.<Void>builder()
+                    .success(false)
+                    .message("A roll import is already running")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
+        rollImportService.importRollAsync(file, format, admin.getEmail());
+        log.info("Roll import of {} ({}) started by {}", file, format, admin.getEmail());
+
+        ApiResponse<Void> response = ApiResponse.<Void>builder()
+                .success(true)
+                .message("Roll import started")
+                .build();
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Progress of the running import, or the outcome of the last one
+     */
+    @GetMapping("/import/latest")
+    public ResponseEntity<ApiResponse<RollImportReportDto>> getLatestReport() {
+        try {
+            Optional<RollImportReportDto> report = rollImportService.getLatestReport();
+
+            if (report.isEmpty()) {
+                ApiResponse<RollImportReportDto> response = ApiResponse.<RollImportReportDto>builder()
+                        .success(false)
+                        .message("No roll import has run yet")
+                        .build();
+
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+
+            ApiResponse<RollImportReportDto> response = ApiResponse.<RollImportReportDto>builder()
+                    .success(true)
+                    .message("Roll import report retrieved successfully")
+                    .data(report.get())
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Failed to retrieve roll import report", e);
+
+            ApiResponse<RollImportReportDto> response = ApiResponse.<RollImportReportDto>builder()
+                    .success(false)
+                    .message("Failed to retrieve roll import report")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.dtos.CallCentreLookupDto;
+import za.co.interfile.service.CallCentreLookupService;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub/call-centre")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class CallCentreController {
+
+    private final CallCentreLookupService callCentreLookupService;
+
+    /**
+     * Find the beneficiary behind an ID number, phone number, SASSA account number,
+     * cash send voucher or WTX-/CS-/ELEC- transaction reference
+     */
+    @GetMapping("/resolve")
+    public ResponseEntity<ApiResponse<CallCentreLookupDto>> resolve(@RequestParam String key) {
+        try {
+            CallCentreLookupDto result = callCentreLookupService.resolve(key);
+
+            ApiResponse<CallCentreLookupDto> response = ApiResponse.<CallCentreLookupDto>builder()
+                    .success(!result.getMatches().isEmpty())
+                    .message(result.getMatches().isEmpty()
+                            ? "No beneficiary found for this key"
+                            : "Resolved as " + result.getKeyType().getDisplayName())
+                    .data(result)
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            ApiResponse<CallCentreLookupDto> response = ApiResponse.<CallCentreLookupDto>builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build();
+
+            return ResponseEntity.badRequest().body(response);
+
+        } catch (Exception e) {
+            log.error("Call centre lookup failed", e);
+
+            ApiResponse<CallCentreLookupDto> response = ApiResponse.<CallCentreLookupDto>builder()
+                    .success(false)
+                    .message("Lookup failed")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
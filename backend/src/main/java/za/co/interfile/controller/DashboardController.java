@@ -0,0 +1,54 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.dtos.DashboardDto;
+import za.co.interfile.model.Users;
+import za.co.interfile.service.DashboardService;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    /**
+     * Profile, balance, active SASSA account and recent history in one round trip
+     */
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse<DashboardDto>> getDashboard(@AuthenticationPrincipal Users user) {
+        try {
+            DashboardDto dashboard = dashboardService.getDashboard(user);
+
+            ApiResponse<DashboardDto> response = ApiResponse.<DashboardDto>builder()
+                    .success(true)
+                    .message(dashboard.isComplete()
+                            ? "Dashboard retrieved successfully"
+                            : "Dashboard partially retrieved")
+                    .data(dashboard)
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Failed to build dashboard for user {}", user.getUserId(), e);
+
+            ApiResponse<DashboardDto> response = ApiResponse.<DashboardDto>builder()
+                    .success(false)
+                    .message("Failed to retrieve dashboard")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
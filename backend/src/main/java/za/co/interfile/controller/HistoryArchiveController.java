@@ -0,0 +1,59 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.service.HistoryArchiveService;
+
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub/admin/history-archive")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class HistoryArchiveController {
+
+    private final HistoryArchiveService historyArchiveService;
+
+    /**
+     * Move closed periods older than the hot window into the archive now
+     */
+    @PostMapping("/run")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> archiveClosedPeriods() {
+        try {
+            Map<String, Object> report = historyArchiveService.archiveClosedPeriods();
+
+            ApiResponse<Map<String, Object>> response = ApiResponse.<Map<String, Object>>builder()
+                    .success(true)
+                    .message("Closed periods archived successfully")
+                    .data(report)
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalStateException e) {
+            ApiResponse<Map<String, Object>> response = ApiResponse.<Map<String, Object>>builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+
+        } catch (Exception e) {
+            log.error("History archiving failed", e);
+
+            ApiResponse<Map<String, Object>> response = ApiResponse.<Map<String, Object>>builder()
+                    .success(false)
+                    .message("History archiving failed: " + e.getMessage())
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
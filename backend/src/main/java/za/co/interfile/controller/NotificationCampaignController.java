@@ -0,0 +1,177 @@
+package za.co.interfile.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.dtos.NotificationCampaignDto;
+import za.co.interfile.dtos.NotificationCampaignRequest;
+import za.co.interfile.model.Users;
+import za.co.interfile.service.NotificationFanoutService;
+
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub/admin/notification-campaigns")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class NotificationCampaignController {
+
+    private final NotificationFanoutService notificationFanoutService;
+
+    /**
+     * Queue a campaign; it is sent in the background once earlier campaigns finish
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<NotificationCampaignDto>> createCampaign(
+            @Valid @RequestBody NotificationCampaignRequest request,
+            @AuthenticationPrincipal Users admin) {
+        try {
+            NotificationCampaignDto campaign = notificationFanoutService.createCampaign(request, admin.getEmail());
+            notificationFanoutService.runQueuedAsync();
+            log.info("Notification campaign {} queued by {}", campaign.getCampaignId(), admin.getEmail());
+
+            ApiResponse<NotificationCampaignDto> response = ApiResponse.<NotificationCampaignDto>builder()
+                    .success(true)
+                    .message("Notification campaign queued")
+                    .data(campaign)
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            ApiResponse<NotificationCampaignDto> response = ApiResponse.<NotificationCampaignDto>builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build();
+
+            return ResponseEntity.badRequest().body(response);
+
+        } catch (Exception e) {
+            log.error("Failed to queue notification campaign", e);
+
+            ApiResponse<NotificationCampaignDto> response = ApiResponse.<NotificationCampaignDto>builder()
+                    .success(false)
+                    .message("Failed to queue notification campaign")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<NotificationCampaignDto>>> getRecentCampaigns() {
+        try {
+            ApiResponse<List<NotificationCampaignDto>> response = ApiResponse.<List<NotificationCampaignDto>>builder()
+                    .success(true)
+                    .message("Notification campaigns retrieved successfully")
+                    .data(notificationFanoutService.getRecentCampaigns())
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Failed to retrieve notification campaigns", e);
+
+            ApiResponse<List<NotificationCampaignDto>> response = ApiResponse.<List<NotificationCampaignDto>>builder()
+                    .success(false)
+                    .message("Failed to retrieve notification campaigns")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Progress of a campaign: status, cursor and notifications written so far
+     */
+    @GetMapping("/{campaignId}")
+    public ResponseEntity<ApiResponse<NotificationCampaignDto>> getCampaign(@PathVariable Long campaignId) {
+        try {
+            Optional<NotificationCampaignDto> campaign = notificationFanoutService.getCampaign(campaignId);
+
+            if (campaign.isEmpty()) {
+                ApiResponse<NotificationCampaignDto> response = ApiResponse.<NotificationCampaignDto>builder()
+                        .success(false)
+                        .message("Notification campaign not found")
+                        .build();
+
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+
+            ApiResponse<NotificationCampaignDto> response = ApiResponse.<NotificationCampaignDto>builder()
+                    .success(true)
+                    .message("Notification campaign retrieved successfully")
+                    .data(campaign.get())
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Failed to retrieve notification campaign {}", campaignId, e);
+
+            ApiResponse<NotificationCampaignDto> response = ApiResponse.<NotificationCampaignDto>builder()
+                    .success(false)
+                    .message("Failed to retrieve notification campaign")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Continue a failed campaign after its last committed batch
+     */
+    @PostMapping("/{campaignId}/resume")
+    public ResponseEntity<ApiResponse<NotificationCampaignDto>> resumeCampaign(
+            @PathVariable Long campaignId,
+            @AuthenticationPrincipal Users admin) {
+        try {
+            NotificationCampaignDto campaign = notificationFanoutService.resumeCampaign(campaignId);
+            notificationFanoutService.runQueuedAsync();
+            log.info("Notification campaign {} resumed by {}", campaignId, admin.getEmail());
+
+            ApiResponse<NotificationCampaignDto> response = ApiResponse.<NotificationCampaignDto>builder()
+                    .success(true)
+                    .message("Notification campaign resumed")
+                    .data(campaign)
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            ApiResponse<NotificationCampaignDto> response = ApiResponse.<NotificationCampaignDto>builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+
+        } catch (IllegalStateException e) {
+            ApiResponse<NotificationCampaignDto> response = ApiResponse.<NotificationCampaignDto>builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+
+        } catch (Exception e) {
+            log.error("Failed to resume notification campaign {}", campaignId, e);
+
+            ApiResponse<NotificationCampaignDto> response = ApiResponse.<NotificationCampaignDto>builder()
+                    .success(false)
+                    .message("Failed to resume notification campaign")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
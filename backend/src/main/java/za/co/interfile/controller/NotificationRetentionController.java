@@ -0,0 +1,88 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.dtos.NotificationRetentionReportDto;
+import za.co.interfile.model.Users;
+import za.co.interfile.service.NotificationRetentionService;
+
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub/admin/notification-retention")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class NotificationRetentionController {
+
+    private final NotificationRetentionService notificationRetentionService;
+
+    /**
+     * Run a retention pass now instead of waiting for the nightly one
+     */
+    @PostMapping("/run")
+    public ResponseEntity<ApiResponse<Void>> startPurge(@AuthenticationPrincipal Users admin) {
+        if (notificationRetentionService.isRunning()) {
+            ApiResponse<Void> response = ApiResponse.<Void>builder()
+                    .success(false)
+                    .message("Notification retention is already running")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
+        notificationRetentionService.purgeAsync(admin.getEmail());
+        log.info("Notification retention started by {}", admin.getEmail());
+
+        ApiResponse<Void> response = ApiResponse.<Void>builder()
+                .success(true)
+                .message("Notification retention started")
+                .build();
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Outcome of the last retention pass: rows removed by reason, rate and lag
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<ApiResponse<NotificationRetentionReportDto>> getLatestReport() {
+        try {
+            Optional<NotificationRetentionReportDto> report = notificationRetentionService.getLatestReport();
+
+            if (report.isEmpty()) {
+                ApiResponse<NotificationRetentionReportDto> response = ApiResponse.<NotificationRetentionReportDto>builder()
+                        .success(false)
+                        .message("No notification retention pass has run yet")
+                        .build();
+
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+
+            ApiResponse<NotificationRetentionReportDto> response = ApiResponse.<NotificationRetentionReportDto>builder()
+                    .success(true)
+                    .message("Notification retention report retrieved successfully")
+                    .data(report.get())
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Failed to retrieve notification retention report", e);
+
+            ApiResponse<NotificationRetentionReportDto> response = ApiResponse.<NotificationRetentionReportDto>builder()
+                    .success(false)
+                    .message("Failed to retrieve notification retention report")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
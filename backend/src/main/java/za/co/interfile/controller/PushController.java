@@ -0,0 +1,52 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import za.co.interfile.cache.UserSummaryStore;
+import za.co.interfile.dtos.UserSummaryDto;
+import za.co.interfile.model.Users;
+import za.co.interfile.push.PushEvent;
+import za.co.interfile.push.PushRegistry;
+
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class PushController {
+
+    private final PushRegistry pushRegistry;
+    private final UserSummaryStore userSummaryStore;
+
+    /**
+     * Server-sent events for the signed-in user: "ready" with the current
+     * summary, then "notification" for each new notification and "balance"
+     * when the available balance changes. "resync" means events were dropped
+     * and the client should reload; after a reconnect it should reload too.
+     */
+    @GetMapping(value = "/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<SseEmitter> stream(@AuthenticationPrincipal Users user) {
+        Optional<UserSummaryDto> summary = userSummaryStore.find(user.getUserId());
+        // An empty object when the summary store can't answer yet
+        Object readyData = summary.isPresent() ? summary.get() : Map.of();
+        PushEvent ready = new PushEvent("ready", null, readyData);
+        Optional<SseEmitter> emitter = pushRegistry.subscribe(user.getUserId(), ready);
+
+        if (emitter.isEmpty()) {
+            log.warn("Rejected event stream for user {}: connection limit reached", user.getUserId());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        return ResponseEntity.ok(emitter.get());
+    }
+}
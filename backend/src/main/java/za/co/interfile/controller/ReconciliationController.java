@@ -0,0 +1,90 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.dtos.ReconciliationReportDto;
+import za.co.interfile.model.Users;
+import za.co.interfile.service.BalanceReconciliationService;
+
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub/admin/reconciliation")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReconciliationController {
+
+    private final BalanceReconciliationService reconciliationService;
+
+    /**
+     * Start a balance reconciliation in the background
+     */
+    @PostMapping("/run")
+    public ResponseEntity<ApiResponse<Void>> startReconciliation(@AuthenticationPrincipal Users admin) {
+        if (reconciliationService.isRunning()) {
+            ApiResponse<Void> response = ApiResponse.<Void>builder()
+                    .success(false)
+                    .message("A balance reconciliation is already running")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
+        reconciliationService.reconcileAsync(admin.getEmail());
+        log.info("Balance reconciliation started by {}", admin.getEmail());
+
+        ApiResponse<Void> response = ApiResponse.<Void>builder()
+                .success(true)
+                .message("Balance reconciliation started")
+                .build();
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Latest run with its largest discrepancies
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<ApiResponse<ReconciliationReportDto>> getLatestReport(
+            @RequestParam(defaultValue = "50") int limit) {
+
+        try {
+            Optional<ReconciliationReportDto> report = reconciliationService.getLatestReport(limit);
+
+            if (report.isEmpty()) {
+                ApiResponse<ReconciliationReportDto> response = ApiResponse.<ReconciliationReportDto>builder()
+                        .success(false)
+                        .message("No reconciliation has run yet")
+                        .build();
+
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+
+            ApiResponse<ReconciliationReportDto> response = ApiResponse.<ReconciliationReportDto>builder()
+                    .success(true)
+                    .message("Reconciliation report retrieved successfully")
+                    .data(report.get())
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Failed to retrieve reconciliation report", e);
+
+            ApiResponse<ReconciliationReportDto> response = ApiResponse.<ReconciliationReportDto>builder()
+                    .success(false)
+                    .message("Failed to retrieve reconciliation report")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
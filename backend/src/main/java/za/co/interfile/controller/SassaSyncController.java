@@ -0,0 +1,88 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.dtos.SassaSyncReportDto;
+import za.co.interfile.model.Users;
+import za.co.interfile.service.SassaSyncService;
+
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub/admin/sassa-sync")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class SassaSyncController {
+
+    private final SassaSyncService sassaSyncService;
+
+    /**
+     * Run a sync pass now instead of waiting for the next scheduled one
+     */
+    @PostMapping("/run")
+    public ResponseEntity<ApiResponse<Void>> startSync(@AuthenticationPrincipal Users admin) {
+        if (sassaSyncService.isRunning()) {
+            ApiResponse<Void> response = ApiResponse.<Void>builder()
+                    .success(false)
+                    .message("A SASSA sync is already running")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
+        sassaSyncService.synchroniseAsync(admin.getEmail());
+        log.info("SASSA sync started by {}", admin.getEmail());
+
+        ApiResponse<Void> response = ApiResponse.<Void>builder()
+                .success(true)
+                .message("SASSA sync started")
+                .build();
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Outcome of the last sync pass, with the current backlog and circuit state
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<ApiResponse<SassaSyncReportDto>> getLatestReport() {
+        try {
+            Optional<SassaSyncReportDto> report = sassaSyncService.getLatestReport();
+
+            if (report.isEmpty()) {
+                ApiResponse<SassaSyncReportDto> response = ApiResponse.<SassaSyncReportDto>builder()
+                        .success(false)
+                        .message("No SASSA sync has run yet")
+                        .build();
+
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+
+            ApiResponse<SassaSyncReportDto> response = ApiResponse.<SassaSyncReportDto>builder()
+                    .success(true)
+                    .message("SASSA sync report retrieved successfully")
+                    .data(report.get())
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Failed to retrieve SASSA sync report", e);
+
+            ApiResponse<SassaSyncReportDto> response = ApiResponse.<SassaSyncReportDto>builder()
+                    .success(false)
+                    .message("Failed to retrieve SASSA sync report")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package za.co.interfile.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.dtos.MonthlySpendDto;
+import za.co.interfile.model.Users;
+import za.co.interfile.service.SpendSummaryService;
+
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/relief-hub")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class SpendSummaryController {
+
+    private final SpendSummaryService spendSummaryService;
+
+    /**
+     * Per-month, per-category totals for the current user, newest month first
+     */
+    @GetMapping("/spend-summary")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse<List<MonthlySpendDto>>> getSpendSummary(
+            @AuthenticationPrincipal Users user,
+            @RequestParam(defaultValue = "12") int months) {
+
+        try {
+            List<MonthlySpendDto> summary = spendSummaryService.getMonthlySummary(user.getUserId(), months);
+
+            ApiResponse<List<MonthlySpendDto>> response = ApiResponse.<List<MonthlySpendDto>>builder()
+                    .success(true)
+                    .message("Spend summary retrieved successfully")
+                    .data(summary)
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Failed to retrieve spend summary for user {}", user.getUserId(), e);
+
+            ApiResponse<List<MonthlySpendDto>> response = ApiResponse.<List<MonthlySpendDto>>builder()
+                    .success(false)
+                    .message("Failed to retrieve spend summary")
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // ==================== ADMIN ENDPOINTS ====================
+
+    /**
+     * Rebuild the monthly rollup for every user from the source tables
+     */
+    @PostMapping("/admin/spend-summaries/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> backfill() {
+        try {
+            Map<String, Object> report = spendSummaryService.backfill();
+
+            ApiResponse<Map<String, Object>> response = ApiResponse.<Map<String, Object>>builder()
+                    .success(true)
+                    .message("Spend summaries rebuilt successfully")
+                    .data(report)
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Spend summary backfill failed", e);
+
+            ApiResponse<Map<String, Object>> response = ApiResponse.<Map<String, Object>>builder()
+                    .success(false)
+                    .message("Spend summary backfill failed: " + e.getMessage())
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Compare recent months of the rollup with the source tables
+     */
+    @GetMapping("/admin/spend-summaries/check")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> check(
+            @RequestParam(defaultValue = "3") int months,
+            @RequestParam(defaultValue = "false") boolean repair) {
+
+        try {
+            Map<String, Object> report = spendSummaryService.check(months, repair);
+
+            ApiResponse<Map<String, Object>> response = ApiResponse.<Map<String, Object>>builder()
+                    .success(true)
+                    .message("Spend summary check completed")
+                    .data(report)
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Spend summary check failed", e);
+
+            ApiResponse<Map<String, Object>> response = ApiResponse.<Map<String, Object>>builder()
+                    .success(false)
+                    .message("Spend summary check failed: " + e.getMessage())
+                    .build();
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.SassaStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActiveSassaAccountDto {
+    private Long sassaAccountId;
+    private String accountNumber;
+    private GrantType grantType;
+    private BigDecimal monthlyAmount;
+    private SassaStatus status;
+    private LocalDate nextPaymentDate;
+}
@@ -0,0 +1,26 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.ActivitySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityFeedItemDto {
+    private ActivitySource source;
+    private Long id;
+    private String type;
+    private String description;
+    private BigDecimal amount;
+    private BigDecimal fee;
+    private String status;
+    private String reference;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,22 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the unified activity feed. Pass nextCursor back to get the
+ * following page; it is null once every source is exhausted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityFeedPageDto {
+    private List<ActivityFeedItemDto> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
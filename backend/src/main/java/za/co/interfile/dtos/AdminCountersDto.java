@@ -0,0 +1,26 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.SassaStatus;
+import za.co.interfile.enums.UsersStatus;
+import za.co.interfile.enums.WithdrawalStatus;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminCountersDto {
+    private boolean ready;
+    private Map<UsersStatus, Long> usersByStatus;
+    private Map<SassaStatus, Map<GrantType, Long>> sassaAccountsByStatusAndGrantType;
+    private Map<WithdrawalStatus, Long> openWithdrawalsByStatus;
+    private LocalDateTime lastCorrectedAt;
+    private LocalDateTime lastCheckpointAt;
+}
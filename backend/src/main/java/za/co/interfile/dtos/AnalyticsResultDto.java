@@ -0,0 +1,27 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.AnalyticsDimension;
+import za.co.interfile.enums.TimeBucket;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsResultDto {
+    private AnalyticsDimension groupBy;
+    private TimeBucket bucket;
+    private LocalDate from;
+    private LocalDate to;
+    private int snapshotRows;
+    private LocalDateTime snapshotRefreshedAt;
+    private long scanMicros;
+    private List<AnalyticsRowDto> rows;
+}
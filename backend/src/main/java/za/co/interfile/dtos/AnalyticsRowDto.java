@@ -0,0 +1,21 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRowDto {
+    private LocalDate bucketStart; // null for plain group-by results
+    private String key;            // null when not grouped
+    private long count;
+    private BigDecimal totalAmount;
+    private BigDecimal totalFees;
+}
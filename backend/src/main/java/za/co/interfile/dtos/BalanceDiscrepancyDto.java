@@ -0,0 +1,20 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceDiscrepancyDto {
+    private Long userId;
+    private BigDecimal storedBalance;
+    private BigDecimal expectedBalance;
+    private BigDecimal difference;
+    private boolean hasBalanceRow;
+}
@@ -0,0 +1,25 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.LookupKeyType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CallCentreLookupDto {
+    private String key;
+    /**
+     * Key type that produced the matches, or null when nothing matched
+     */
+    private LookupKeyType keyType;
+    private List<LookupKeyType> keyTypesTried;
+    private List<CallCentreMatchDto> matches;
+    private LocalDateTime resolvedAt;
+}
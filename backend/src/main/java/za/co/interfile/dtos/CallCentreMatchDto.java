@@ -0,0 +1,40 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.UsersStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One beneficiary found for a call-centre key, with the record the key pointed
+ * at when it was a voucher, reference or SASSA account number. The user fields
+ * are empty for a SASSA account that is not linked to any user.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CallCentreMatchDto {
+    private Long userId;
+    private String fullName;
+    private String maskedIdNumber;
+    private String phone;
+    private String email;
+    private UsersStatus userStatus;
+    private BigDecimal availableBalance;
+
+    private String sassaAccountNumber;
+    private GrantType grantType;
+    private String sassaStatus;
+
+    private String recordType;
+    private String recordReference;
+    private String recordStatus;
+    private BigDecimal recordAmount;
+    private LocalDateTime recordCreatedAt;
+}
@@ -0,0 +1,34 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Everything the post-login dashboard shows, fetched in one call.
+ * A section that failed or timed out is null and listed in unavailableSections.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDto {
+    private UserResponseDto profile;
+    private UserBalanceDetailsDTO balance;
+    private ActiveSassaAccountDto activeSassaAccount;
+    private List<WithdrawalHistoryDto> recentWithdrawals;
+    private List<CashSendResponseDto> recentCashSends;
+    private List<ElectricityPurchaseResponseDto> recentElectricityPurchases;
+
+    @Builder.Default
+    private Map<String, String> unavailableSections = new TreeMap<>();
+
+    public boolean isComplete() {
+        return unavailableSections.isEmpty();
+    }
+}
@@ -0,0 +1,20 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.SpendCategory;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlySpendDto {
+    private String month; // yyyy-MM
+    private SpendCategory category;
+    private BigDecimal totalAmount;
+    private long transactionCount;
+}
@@ -0,0 +1,34 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.CampaignStatus;
+import za.co.interfile.enums.EmailTemplate;
+import za.co.interfile.enums.NotificationAudience;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationCampaignDto {
+    private Long campaignId;
+    private String campaignKey;
+    private String name;
+    private NotificationAudience audience;
+    private LocalDate paymentDateFrom;
+    private LocalDate paymentDateTo;
+    private EmailTemplate emailTemplate;
+    private CampaignStatus status;
+    private String triggeredBy;
+    private Long lastRecipientId;
+    private Long recipientsWritten;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private String failureReason;
+}
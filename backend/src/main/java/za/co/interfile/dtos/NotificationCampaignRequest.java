@@ -0,0 +1,59 @@
+package za.co.interfile.dtos;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.NotificationAudience;
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.enums.NotificationType;
+
+import java.time.LocalDate;
+
+/**
+ * A notification campaign to send. Title and message may use {name}, and for
+ * the UPCOMING_PAYMENT audience also {grant}, {amount} and {paymentDate}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationCampaignRequest {
+
+    @NotBlank(message = "Campaign name is required")
+    @Size(max = 150, message = "Campaign name must not exceed 150 characters")
+    private String name;
+
+    @NotNull(message = "Audience is required")
+    private NotificationAudience audience;
+
+    /**
+     * Payment date range for the UPCOMING_PAYMENT audience
+     */
+    private LocalDate paymentDateFrom;
+    private LocalDate paymentDateTo;
+
+    @NotBlank(message = "Title is required")
+    @Size(max = 255, message = "Title must not exceed 255 characters")
+    private String title;
+
+    @NotBlank(message = "Message is required")
+    @Size(max = 2000, message = "Message must not exceed 2000 characters")
+    private String message;
+
+    private NotificationType type;
+
+    private NotificationPriority priority;
+
+    /**
+     * Hours until the notifications expire; the priority's default expiry when empty
+     */
+    @Min(value = 1, message = "Expiry must be at least 1 hour")
+    @Max(value = 8760, message = "Expiry must not exceed a year")
+    private Integer expiresInHours;
+}
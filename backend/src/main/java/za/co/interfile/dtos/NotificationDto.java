@@ -0,0 +1,27 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.enums.NotificationType;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationDto {
+    private Long notificationId;
+    private String title;
+    private String message;
+    private NotificationType type;
+    private NotificationPriority priority;
+    private LocalDateTime createdAt;
+    private String relatedEntityType;
+    private Long relatedEntityId;
+    private String actionUrl;
+    private String actionText;
+}
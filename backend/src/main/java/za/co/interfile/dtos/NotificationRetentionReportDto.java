@@ -0,0 +1,43 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one notification retention pass
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationRetentionReportDto {
+    private String triggeredBy;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private long fromNotificationId;
+    private long toNotificationId;
+    private int batches;
+    /**
+     * Past their explicit expires_at
+     */
+    private long expired;
+    /**
+     * Read and past their priority's auto-dismissal time
+     */
+    private long dismissed;
+    /**
+     * Unread and older than the unread maximum age
+     */
+    private long stale;
+    private long deleted;
+    private double rowsPerSecond;
+    /**
+     * How long the most overdue deleted notification had been due, in seconds
+     */
+    private long lagSeconds;
+    private String failureReason;
+}
@@ -0,0 +1,28 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.ReconciliationStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReportDto {
+    private Long runId;
+    private ReconciliationStatus status;
+    private String triggeredBy;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private Long maxUserId;
+    private Integer partitionCount;
+    private Long balancesChecked;
+    private Long discrepancyCount;
+    private String failureReason;
+    private List<BalanceDiscrepancyDto> largestDiscrepancies;
+}
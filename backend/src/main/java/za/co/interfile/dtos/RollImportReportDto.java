@@ -0,0 +1,40 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.RollFileFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress or outcome of a beneficiary roll import
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollImportReportDto {
+    private String file;
+    private RollFileFormat format;
+    private String triggeredBy;
+    private String status;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private long linesRead;
+    private long accepted;
+    private long duplicates;
+    private long rejected;
+    private long written;
+    private long batchesWritten;
+    private long rowsPerSecond;
+    private Map<String, Long> rejectionsByReason;
+    /**
+     * The first few rejected lines as "line N: detail"
+     */
+    private List<String> sampleRejections;
+    private String failureReason;
+}
@@ -0,0 +1,44 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one SASSA sync pass
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SassaSyncReportDto {
+    private String triggeredBy;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    /**
+     * Accounts that are synced at all (everything but CLOSED)
+     */
+    private long trackedAccounts;
+    /**
+     * Tracked accounts not synced within the SLA when the pass started
+     */
+    private long overdueAccounts;
+    private int batchQuota;
+    private int selected;
+    private int unchanged;
+    private int changed;
+    private int notFound;
+    private int failed;
+    /**
+     * Selected but not called because the circuit was open or the pass ran out of time
+     */
+    private int skipped;
+    /**
+     * Updates dropped because the account changed locally while SASSA was being asked
+     */
+    private int conflicts;
+    private String circuitState;
+}
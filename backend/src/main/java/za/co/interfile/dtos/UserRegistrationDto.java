@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import za.co.interfile.enums.Language;
 
 import java.time.LocalDate;
 
@@ -44,4 +45,9 @@ public class UserRegistrationDto {
 
     @Past(message = "Date of birth must be in the past")
     private LocalDate dateOfBirth;
+
+    /**
+     * Language code such as "af"; English when empty
+     */
+    private Language preferredLanguage;
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import za.co.interfile.enums.Language;
 import za.co.interfile.enums.UsersStatus;
 
 import java.time.LocalDate;
@@ -37,4 +38,5 @@ public class UserResponseDto {
     private int unreadNotificationCount;
     private String profilePhotoPath;
     private String role;
+    private Language preferredLanguage;
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package za.co.interfile.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.UsersStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Snapshot of the per-user dashboard fields held in the UserSummaryStore
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSummaryDto {
+    private Long userId;
+    private UsersStatus status;
+    private boolean emailVerified;
+    private boolean phoneVerified;
+    private Long activeSassaAccountId;
+    private GrantType grantType;
+    private BigDecimal availableBalance;
+    private int unreadNotificationCount;
+
+    public boolean hasActiveSassaAccount() {
+        return activeSassaAccountId != null;
+    }
+
+    /**
+     * Same rule as Users.canWithdraw, without touching the lazy associations
+     */
+    public boolean isCanWithdraw() {
+        return status == UsersStatus.ACTIVE
+                && emailVerified
+                && hasActiveSassaAccount()
+                && availableBalance != null
+                && availableBalance.compareTo(BigDecimal.ZERO) > 0;
+    }
+}
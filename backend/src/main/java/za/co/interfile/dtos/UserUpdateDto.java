@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import za.co.interfile.enums.Language;
 
 import java.time.LocalDate;
 
@@ -20,4 +21,5 @@ public class UserUpdateDto {
     private LocalDate dateOfBirth;
     private String address;
     private String idNumber;
+    private Language preferredLanguage;
 }
\ No newline at end of file
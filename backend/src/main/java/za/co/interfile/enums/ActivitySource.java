@@ -0,0 +1,12 @@
+package za.co.interfile.enums;
+
+/**
+ * Table an activity feed entry comes from. The declaration order is the
+ * tie-breaker when two entries share a timestamp.
+ */
+public enum ActivitySource {
+    TRANSACTION,
+    WITHDRAWAL,
+    CASH_SEND,
+    ELECTRICITY
+}
@@ -0,0 +1,22 @@
+package za.co.interfile.enums;
+
+/**
+ * Columns of the analytics snapshot that results can be grouped by
+ */
+public enum AnalyticsDimension {
+
+    SOURCE("Source"),
+    TYPE("Type"),
+    STATUS("Status"),
+    GRANT_TYPE("Grant Type");
+
+    private final String displayName;
+
+    AnalyticsDimension(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
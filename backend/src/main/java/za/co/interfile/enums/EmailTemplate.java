@@ -0,0 +1,30 @@
+package za.co.interfile.enums;
+
+import java.util.Set;
+
+/**
+ * Transactional emails, each a classpath template per language under
+ * mail/templates/{name}.{language}.html with the subject in its title element.
+ * Templates may only use their listed {placeholders}.
+ */
+public enum EmailTemplate {
+    PASSWORD_RESET("password-reset", Set.of("name", "resetUrl", "expiryHours")),
+    PASSWORD_CHANGED("password-changed", Set.of("name", "changedAt")),
+    PAYDAY_REMINDER("payday-reminder", Set.of("name", "grant", "amount", "paymentDate"));
+
+    private final String resourceName;
+    private final Set<String> fields;
+
+    EmailTemplate(String resourceName, Set<String> fields) {
+        this.resourceName = resourceName;
+        this.fields = fields;
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+}
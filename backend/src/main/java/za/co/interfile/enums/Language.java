@@ -0,0 +1,62 @@
+package za.co.interfile.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * Languages the frontend ships (frontend/src/locales), by the same codes.
+ * Emails fall back to English for languages without their own templates.
+ */
+public enum Language {
+    EN("en", "English"),
+    AF("af", "Afrikaans"),
+    ZU("zu", "isiZulu"),
+    XH("xh", "isiXhosa"),
+    ST("st", "Sesotho"),
+    TS("ts", "Xitsonga"),
+    VE("ve", "Tshivenda");
+
+    private final String code;
+    private final String displayName;
+
+    Language(String code, String displayName) {
+        this.code = code;
+        this.displayName = displayName;
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public Locale toLocale() {
+        return Locale.forLanguageTag(code);
+    }
+
+    /**
+     * The language for a code such as "af" or "af-ZA"; English when unknown or empty
+     */
+    @JsonCreator
+    public static Language fromCode(String code) {
+        if (code == null || code.isBlank()) {
+            return EN;
+        }
+        String language = code.trim().toLowerCase(Locale.ROOT);
+        int separator = language.indexOf('-') >= 0 ? language.indexOf('-') : language.indexOf('_');
+        if (separator > 0) {
+            language = language.substring(0, separator);
+        }
+        for (Language value : values()) {
+            if (value.code.equals(language)) {
+                return value;
+            }
+        }
+        return EN;
+    }
+}
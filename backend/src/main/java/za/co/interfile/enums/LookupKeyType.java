@@ -0,0 +1,25 @@
+package za.co.interfile.enums;
+
+/**
+ * Kinds of key a call-centre agent can search by
+ */
+public enum LookupKeyType {
+
+    ID_NUMBER("ID number"),
+    PHONE("Phone number"),
+    SASSA_ACCOUNT("SASSA account number"),
+    VOUCHER_CODE("Cash send voucher"),
+    WITHDRAWAL_REFERENCE("Withdrawal reference"),
+    CASH_SEND_REFERENCE("Cash send reference"),
+    ELECTRICITY_REFERENCE("Electricity reference");
+
+    private final String displayName;
+
+    LookupKeyType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,20 @@
+package za.co.interfile.enums;
+
+/**
+ * Who a notification campaign goes to
+ */
+public enum NotificationAudience {
+
+    ACTIVE_USERS("All active users"),
+    UPCOMING_PAYMENT("Active beneficiaries whose next payment date falls in the campaign's date range");
+
+    private final String description;
+
+    NotificationAudience(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,10 @@
+package za.co.interfile.enums;
+
+/**
+ * Delivery state of a queued outbound email
+ */
+public enum OutboundEmailStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
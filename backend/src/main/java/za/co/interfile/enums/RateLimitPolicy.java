@@ -0,0 +1,41 @@
+package za.co.interfile.enums;
+
+/**
+ * Limits on the endpoints that check a password hash or send email. Each allows
+ * capacity requests at once per key and refills completely over period-seconds;
+ * both can be overridden with app.rate-limit.{property}.capacity and
+ * app.rate-limit.{property}.period-seconds.
+ */
+public enum RateLimitPolicy {
+    LOGIN_IP("login-ip", 20, 60),
+    /**
+     * Failed logins only
+     */
+    LOGIN_EMAIL("login-email", 5, 300),
+    REGISTER_IP("register-ip", 5, 600),
+    PASSWORD_RESET_IP("password-reset-ip", 10, 3600),
+    PASSWORD_RESET_EMAIL("password-reset-email", 3, 3600),
+    PASSWORD_CHANGE_USER("password-change-user", 5, 900);
+
+    private final String property;
+    private final int defaultCapacity;
+    private final long defaultPeriodSeconds;
+
+    RateLimitPolicy(String property, int defaultCapacity, long defaultPeriodSeconds) {
+        this.property = property;
+        this.defaultCapacity = defaultCapacity;
+        this.defaultPeriodSeconds = defaultPeriodSeconds;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public int getDefaultCapacity() {
+        return defaultCapacity;
+    }
+
+    public long getDefaultPeriodSeconds() {
+        return defaultPeriodSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package za.co.interfile.enums;
+
+public enum ReconciliationStatus {
+
+    RUNNING("Running"),
+    COMPLETED("Completed"),
+    FAILED("Failed");
+
+    private final String displayName;
+
+    ReconciliationStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,20 @@
+package za.co.interfile.enums;
+
+/**
+ * Layouts accepted by the beneficiary roll importer
+ */
+public enum RollFileFormat {
+
+    CSV("Comma-separated"),
+    FIXED_WIDTH("Fixed width");
+
+    private final String displayName;
+
+    RollFileFormat(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
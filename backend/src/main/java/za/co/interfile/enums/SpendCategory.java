@@ -0,0 +1,29 @@
+package za.co.interfile.enums;
+
+/**
+ * Buckets of the monthly per-user money movement rollup
+ */
+public enum SpendCategory {
+    /**
+     * Completed deposits into the user's account
+     */
+    RECEIVED,
+
+    /**
+     * Processed withdrawals, net of fees
+     */
+    WITHDRAWAL,
+
+    CASH_SEND,
+
+    ELECTRICITY,
+
+    /**
+     * Fees on processed withdrawals, cash sends and electricity
+     */
+    FEES;
+
+    public boolean isOutgoing() {
+        return this != RECEIVED;
+    }
+}
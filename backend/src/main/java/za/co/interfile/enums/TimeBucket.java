@@ -0,0 +1,18 @@
+package za.co.interfile.enums;
+
+public enum TimeBucket {
+
+    DAY("Day"),
+    WEEK("Week"),
+    MONTH("Month");
+
+    private final String displayName;
+
+    TimeBucket(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
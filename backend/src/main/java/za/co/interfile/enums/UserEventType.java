@@ -0,0 +1,30 @@
+package za.co.interfile.enums;
+
+/**
+ * Kinds of change recorded in the user_events feed. Most are pushed to connected
+ * clients; the rest are only read by other nodes to refresh local state.
+ */
+public enum UserEventType {
+    BALANCE_CHANGED("balance"),
+    /**
+     * Profile or status change; re-indexed for admin search on every node, not pushed
+     */
+    USER_CHANGED(null);
+
+    private final String eventName;
+
+    UserEventType(String eventName) {
+        this.eventName = eventName;
+    }
+
+    /**
+     * SSE event name sent to the client, null when the event is not pushed
+     */
+    public String getEventName() {
+        return eventName;
+    }
+
+    public boolean isPushed() {
+        return eventName != null;
+    }
+}
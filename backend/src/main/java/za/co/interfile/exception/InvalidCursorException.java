@@ -0,0 +1,10 @@
+package za.co.interfile.exception;
+
+/**
+ * A paging cursor sent by the client could not be decoded
+ */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
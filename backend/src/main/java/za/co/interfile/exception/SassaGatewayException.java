@@ -0,0 +1,11 @@
+package za.co.interfile.exception;
+
+public class SassaGatewayException extends RuntimeException {
+    public SassaGatewayException(String message) {
+        super(message);
+    }
+
+    public SassaGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,207 @@
+package za.co.interfile.mail;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in SMTP server on a loopback port, for development and load testing
+ * without a real mail server. With app.mail.stub.enabled the mail workers send
+ * here instead of spring.mail.host.
+ * <p>
+ * It speaks just enough SMTP for Jakarta Mail (no TLS or AUTH) and keeps the
+ * last few messages in memory. Recipients under the .invalid domain are refused
+ * with a 550, and a share of messages get a 451 to exercise the retry path.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.mail.stub.enabled", havingValue = "true")
+public class LocalSmtpServer {
+
+    private static final int KEPT_MESSAGES = 100;
+
+    private final ConcurrentLinkedDeque<ReceivedMail> received = new ConcurrentLinkedDeque<>();
+    private final AtomicLong accepted = new AtomicLong();
+
+    @Value("${app.mail.stub.port:2525}")
+    private int port;
+
+    @Value("${app.mail.stub.latency-ms:20}")
+    private long latencyMs;
+
+    @Value("${app.mail.stub.failure-rate:0.01}")
+    private double failureRate;
+
+    @Value("${app.mail.stub.max-connections:16}")
+    private int maxConnections;
+
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        // One thread accepts, the rest serve a connection each
+        executor = Executors.newFixedThreadPool(maxConnections + 1);
+        executor.execute(this::acceptLoop);
+        log.info("Local SMTP stub listening on localhost:{}", port);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Most recent messages accepted, oldest first
+     */
+    public List<ReceivedMail> getReceived() {
+        return new ArrayList<>(received);
+    }
+
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> serve(socket));
+            } catch (SocketException e) {
+                // Closed on shutdown
+                return;
+            } catch (IOException e) {
+                log.warn("Local SMTP stub accept failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.ISO_8859_1)) {
+            reply(out, "220 localhost ESMTP stub");
+
+            String from = null;
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line;
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-localhost\r\n250 8BITMIME");
+                    case "HELO", "NOOP" -> reply(out, "250 OK");
+                    case "RSET" -> {
+                        from = null;
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "MAIL" -> {
+                        from = address(line);
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        String recipient = address(line);
+                        if (recipient.toLowerCase(Locale.ROOT).endsWith(".invalid")) {
+                            reply(out, "550 No such user " + recipient);
+                        } else {
+                            recipients.add(recipient);
+                            reply(out, "250 OK");
+                        }
+                    }
+                    case "DATA" -> {
+                        if (from == null || recipients.isEmpty()) {
+                            reply(out, "503 Need MAIL and RCPT first");
+                            continue;
+                        }
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        String data = readData(in);
+                        reply(out, accept(from, recipients, data));
+                        from = null;
+                        recipients.clear();
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Local SMTP stub connection ended: {}", e.getMessage());
+        }
+    }
+
+    private String accept(String from, List<String> recipients, String data) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(random.nextLong(latencyMs / 2, latencyMs * 3 / 2 + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "421 Shutting down";
+            }
+        }
+        if (random.nextDouble() < failureRate) {
+            return "451 Try again later";
+        }
+
+        received.addLast(new ReceivedMail(from, List.copyOf(recipients), data));
+        while (received.size() > KEPT_MESSAGES) {
+            received.pollFirst();
+        }
+        return "250 OK queued as " + accepted.incrementAndGet();
+    }
+
+    private static String readData(BufferedReader in) throws IOException {
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !".".equals(line)) {
+            // Undo dot-stuffing
+            data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+        }
+        return data.toString();
+    }
+
+    private static String address(String line) {
+        int start = line.indexOf('<');
+        int end = line.indexOf('>', start + 1);
+        return start >= 0 && end > start ? line.substring(start + 1, end) : line.substring(line.indexOf(':') + 1).trim();
+    }
+
+    private static void reply(Writer out, String response) throws IOException {
+        out.write(response);
+        out.write("\r\n");
+        out.flush();
+    }
+
+    public record ReceivedMail(String from, List<String> recipients, String data) {
+    }
+}
@@ -0,0 +1,410 @@
+package za.co.interfile.mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the emails queued in outbound_emails. A fixed set of workers each keep
+ * one SMTP connection open and loop: claim a batch of due rows with
+ * SKIP LOCKED (so workers and nodes never wait on each other), send them over
+ * that connection and record the outcome. Workers sleep until an email is
+ * enqueued on this node or the poll interval passes. Transactional email is
+ * claimed ahead of bulk email.
+ * <p>
+ * Delivery is at least once: a worker that dies between sending and marking a
+ * row sent leaves it to be sent again when its lease runs out. Failed sends are
+ * retried with exponential backoff; rejected addresses and emails out of
+ * attempts are marked FAILED.
+ */
+@Slf4j
+@Component
+public class MailDispatcher {
+
+    private static final String CLAIM = """
+            SELECT email_id, recipient, sender, subject, html_body, attempts, created_at
+            FROM outbound_emails
+            WHERE status = 'PENDING' AND next_attempt_at <= ?
+            ORDER BY bulk, next_attempt_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+    private static final String LEASE =
+            "UPDATE outbound_emails SET attempts = attempts + 1, next_attempt_at = ? WHERE email_id IN (%s)";
+    private static final String MARK_SENT =
+            "UPDATE outbound_emails SET status = 'SENT', sent_at = ?, last_error = NULL WHERE email_id IN (%s)";
+    private static final String MARK_RETRY =
+            "UPDATE outbound_emails SET next_attempt_at = ?, last_error = ? WHERE email_id = ?";
+    private static final String MARK_FAILED =
+            "UPDATE outbound_emails SET status = 'FAILED', last_error = ? WHERE email_id = ?";
+    private static final String QUEUE_DEPTH =
+            "SELECT COUNT(*), MIN(created_at) FROM outbound_emails WHERE status = 'PENDING'";
+    private static final String DELETE_OLD =
+            "DELETE FROM outbound_emails WHERE status <> 'PENDING' AND created_at < ? LIMIT ?";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int DELETE_BATCH = 1000;
+
+    private static final RowMapper<QueuedEmail> QUEUED_EMAIL = (rs, rowNum) -> new QueuedEmail(
+            rs.getLong("email_id"),
+            rs.getString("recipient"),
+            rs.getString("sender"),
+            rs.getString("subject"),
+            rs.getString("html_body"),
+            rs.getInt("attempts") + 1,
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final TransactionTemplate claimTransaction;
+    private final JavaMailSenderImpl mailSender;
+    private final Semaphore wakeups = new Semaphore(0);
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong oldestPendingSeconds = new AtomicLong();
+    private final Timer sendTimer;
+    private final Timer deliveryTimer;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    private volatile boolean running;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${app.mail.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.mail.workers:2}")
+    private int workers;
+
+    @Value("${app.mail.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.mail.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    @Value("${app.mail.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.mail.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.backoff-initial-seconds:30}")
+    private long backoffInitialSeconds;
+
+    @Value("${app.mail.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${app.mail.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${app.mail.connection-idle-ms:30000}")
+    private long connectionIdleMs;
+
+    @Value("${app.mail.retention-days:14}")
+    private long retentionDays;
+
+    @Value("${app.mail.stub.enabled:false}")
+    private boolean stubEnabled;
+
+    @Value("${app.mail.stub.port:2525}")
+    private int stubPort;
+
+    private AsyncTaskExecutor taskExecutor;
+
+    public MailDispatcher(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                          JavaMailSenderImpl mailSender,
+                          MeterRegistry meterRegistry) {
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.claimTransaction = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.claimTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.mailSender = mailSender;
+
+        this.sendTimer = Timer.builder("relief.mail.send")
+                .description("Time to hand one message to the SMTP server")
+                .register(meterRegistry);
+        this.deliveryTimer = Timer.builder("relief.mail.delivery")
+                .description("Time from enqueue to the SMTP server accepting the message")
+                .register(meterRegistry);
+        this.sent = outcome(meterRegistry, "sent");
+        this.retried = outcome(meterRegistry, "retry");
+        this.failed = outcome(meterRegistry, "failed");
+        Gauge.builder("relief.mail.queue.depth", queueDepth, AtomicLong::get)
+                .description("Emails waiting to be sent")
+                .register(meterRegistry);
+        Gauge.builder("relief.mail.queue.oldest.seconds", oldestPendingSeconds, AtomicLong::get)
+                .description("Age of the oldest email waiting to be sent")
+                .register(meterRegistry);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("relief.mail.messages")
+                .description("Send attempts by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void initExecutor() {
+        // Kept out of the context on purpose: an Executor bean would replace
+        // the auto-configured applicationTaskExecutor used by @Async
+        if (virtualThreadsEnabled && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mail-");
+            executor.setVirtualThreads(true);
+            taskExecutor = executor;
+        } else {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadNamePrefix("mail-");
+            executor.setCorePoolSize(workers);
+            executor.setMaxPoolSize(workers);
+            // Let workers finish the batch they hold rather than leave it leased
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            executor.setAwaitTerminationSeconds(30);
+            executor.initialize();
+            taskExecutor = executor;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Outbound mail workers are disabled; emails stay queued");
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            taskExecutor.execute(this::work);
+        }
+        log.info("Started {} outbound mail workers", workers);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        wakeups.release(Math.max(workers, 1));
+        if (taskExecutor instanceof ThreadPoolTaskExecutor executor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Have an idle worker look for due emails now instead of at its next poll
+     */
+    public void wakeUp() {
+        if (wakeups.availablePermits() < workers) {
+            wakeups.release();
+        }
+    }
+
+    private void work() {
+        try (SmtpConnection connection = newConnection()) {
+            while (running) {
+                try {
+                    List<QueuedEmail> batch = claim();
+                    if (batch.isEmpty()) {
+                        connection.closeIfIdle(connectionIdleMs);
+                        wakeups.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    } else {
+                        deliver(batch, connection);
+                    }
+                } catch (DataAccessException e) {
+                    log.warn("Outbound mail worker could not reach the queue: {}", e.getMessage());
+                    TimeUnit.MILLISECONDS.sleep(pollIntervalMs);
+                } catch (RuntimeException e) {
+                    log.error("Outbound mail worker failed", e);
+                    TimeUnit.MILLISECONDS.sleep(pollIntervalMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SmtpConnection newConnection() {
+        if (stubEnabled) {
+            Properties properties = new Properties();
+            properties.put("mail.smtp.connectiontimeout", "5000");
+            properties.put("mail.smtp.timeout", "5000");
+            return new SmtpConnection(Session.getInstance(properties), "localhost", stubPort,
+                    null, null, maxMessagesPerConnection);
+        }
+        return new SmtpConnection(mailSender.getSession(), mailSender.getHost(), mailSender.getPort(),
+                mailSender.getUsername(), mailSender.getPassword(), maxMessagesPerConnection);
+    }
+
+    /**
+     * Lease up to batchSize due emails to this worker
+     */
+    List<QueuedEmail> claim() {
+        return claimTransaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<QueuedEmail> batch = primaryJdbcTemplate.query(CLAIM, QUEUED_EMAIL, Timestamp.valueOf(now), batchSize);
+            if (!batch.isEmpty()) {
+                List<Object> params = new ArrayList<>(batch.size() + 1);
+                params.add(Timestamp.valueOf(now.plusSeconds(leaseSeconds)));
+                batch.forEach(email -> params.add(email.id()));
+                primaryJdbcTemplate.update(LEASE.formatted(placeholders(batch.size())), params.toArray());
+            }
+            return batch;
+        });
+    }
+
+    private void deliver(List<QueuedEmail> batch, SmtpConnection connection) {
+        List<Object> sentIds = new ArrayList<>(batch.size());
+        for (QueuedEmail email : batch) {
+            long started = System.nanoTime();
+            try {
+                connection.send(toMessage(email, connection.newMessage()));
+                sendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                deliveryTimer.record(Duration.between(email.createdAt(), LocalDateTime.now()));
+                sentIds.add(email.id());
+            } catch (MessagingException e) {
+                sendFailed(email, e);
+            }
+        }
+
+        if (!sentIds.isEmpty()) {
+            List<Object> params = new ArrayList<>(sentIds.size() + 1);
+            params.add(Timestamp.valueOf(LocalDateTime.now()));
+            params.addAll(sentIds);
+            primaryJdbcTemplate.update(MARK_SENT.formatted(placeholders(sentIds.size())), params.toArray());
+            sent.increment(sentIds.size());
+        }
+    }
+
+    private static MimeMessage toMessage(QueuedEmail email, MimeMessage message) throws MessagingException {
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(email.recipient());
+        helper.setFrom(email.sender());
+        helper.setSubject(email.subject());
+        helper.setText(email.htmlBody(), true);
+        return message;
+    }
+
+    private void sendFailed(QueuedEmail email, MessagingException e) {
+        String error = e.getMessage() != null && e.getMessage().length() > MAX_ERROR_LENGTH
+                ? e.getMessage().substring(0, MAX_ERROR_LENGTH)
+                : e.getMessage();
+
+        if (isPermanent(e) || email.attempts() >= maxAttempts) {
+            primaryJdbcTemplate.update(MARK_FAILED, error, email.id());
+            failed.increment();
+            log.warn("Gave up on email {} to {} after {} attempts: {}",
+                    email.id(), email.recipient(), email.attempts(), error);
+            return;
+        }
+
+        long delaySeconds = backoffSeconds(email.attempts());
+        primaryJdbcTemplate.update(MARK_RETRY,
+                Timestamp.valueOf(LocalDateTime.now().plusSeconds(delaySeconds)), error, email.id());
+        retried.increment();
+        log.info("Email {} to {} failed on attempt {}; retrying in {}s: {}",
+                email.id(), email.recipient(), email.attempts(), delaySeconds, error);
+    }
+
+    /**
+     * The server refused the address itself; sending again will not help
+     */
+    private static boolean isPermanent(MessagingException e) {
+        if (e instanceof AddressException) {
+            return true;
+        }
+        return e instanceof SendFailedException rejected
+                && rejected.getInvalidAddresses() != null
+                && rejected.getInvalidAddresses().length > 0;
+    }
+
+    /**
+     * Doubling delay from the initial backoff up to the cap, less up to a fifth
+     * so emails that failed together do not all come back together
+     */
+    private long backoffSeconds(int attempts) {
+        long delay = Math.min(backoffMaxSeconds, backoffInitialSeconds << Math.min(attempts - 1, 20));
+        return ThreadLocalRandom.current().nextLong(delay - delay / 5, delay + 1);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.depth-refresh-ms:10000}")
+    public void refreshQueueDepth() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            primaryJdbcTemplate.query(QUEUE_DEPTH, rs -> {
+                queueDepth.set(rs.getLong(1));
+                Timestamp oldest = rs.getTimestamp(2);
+                oldestPendingSeconds.set(oldest != null
+                        ? Math.max(0, Duration.between(oldest.toLocalDateTime(), now).toSeconds())
+                        : 0);
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not read outbound mail queue depth: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sent and failed emails are kept for retentionDays for support queries,
+     * then deleted in batches
+     */
+    @Scheduled(cron = "${app.mail.cleanup-cron:0 20 * * * *}")
+    public void deleteOldEmails() {
+        try {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+            int deleted;
+            int total = 0;
+            do {
+                deleted = primaryJdbcTemplate.update(DELETE_OLD, cutoff, DELETE_BATCH);
+                total += deleted;
+            } while (deleted == DELETE_BATCH);
+            if (total > 0) {
+                log.debug("Deleted {} old outbound emails", total);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Outbound mail cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    record QueuedEmail(long id, String recipient, String sender, String subject, String htmlBody,
+                               int attempts, LocalDateTime createdAt) {
+    }
+}
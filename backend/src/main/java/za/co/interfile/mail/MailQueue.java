@@ -0,0 +1,122 @@
+package za.co.interfile.mail;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import za.co.interfile.enums.EmailTemplate;
+import za.co.interfile.enums.Language;
+import za.co.interfile.model.OutboundEmail;
+import za.co.interfile.repository.OutboundEmailRepository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Entry point for sending email. Call inside the transaction that wants the
+ * email sent: the queued row commits or rolls back with it, and the workers are
+ * woken once it commits. Nothing here talks to SMTP.
+ */
+@Component
+public class MailQueue {
+
+    private static final String INSERT_PREFIX = "INSERT INTO outbound_emails (recipient, sender, subject, html_body, "
+            + "status, attempts, next_attempt_at, created_at, bulk) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, 'PENDING', 0, ?, ?, TRUE)";
+    private static final int INSERT_PARAMS = 6;
+    // Bodies run to a few kilobytes; keeps each statement well under max_allowed_packet
+    private static final int MAX_ROWS_PER_STATEMENT = 250;
+
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final MailTemplates mailTemplates;
+    private final MailDispatcher mailDispatcher;
+    private final JdbcTemplate primaryJdbcTemplate;
+
+    @Value("${app.mail.from:noreply@reliefhub.com}")
+    private String defaultSender;
+
+    public MailQueue(OutboundEmailRepository outboundEmailRepository,
+                     MailTemplates mailTemplates,
+                     MailDispatcher mailDispatcher,
+                     @Qualifier("primaryDataSource") DataSource primaryDataSource) {
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.mailTemplates = mailTemplates;
+        this.mailDispatcher = mailDispatcher;
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+    }
+
+    /**
+     * Render the template in the recipient's language and queue it
+     */
+    public OutboundEmail enqueue(String recipient, EmailTemplate template, Language language,
+                                 Function<String, String> values) {
+        return enqueue(mailTemplates.get(template, language).render(recipient, values));
+    }
+
+    public OutboundEmail enqueue(String recipient, String subject, String htmlBody) {
+        return enqueue(new OutgoingMail(recipient, subject, htmlBody));
+    }
+
+    public OutboundEmail enqueue(OutgoingMail mail) {
+        OutboundEmail email = outboundEmailRepository.save(OutboundEmail.builder()
+                .recipient(mail.recipient())
+                .sender(defaultSender)
+                .subject(mail.subject())
+                .htmlBody(mail.htmlBody())
+                .build());
+        wakeDispatcherAfterCommit();
+        return email;
+    }
+
+    /**
+     * Queue bulk email with multi-row INSERTs on the primary pool, joining the
+     * caller's transaction when it runs on that pool. Workers send bulk email
+     * only when no transactional email is due, so a campaign never holds up a
+     * password reset.
+     */
+    public int enqueueBulk(List<OutgoingMail> mails) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int queued = 0;
+        for (int from = 0; from < mails.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<OutgoingMail> rows = mails.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, mails.size()));
+
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows.size() * (INSERT_ROW.length() + 2));
+            sql.append(INSERT_PREFIX);
+            Object[] args = new Object[rows.size() * INSERT_PARAMS];
+            int arg = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                OutgoingMail row = rows.get(i);
+                sql.append(i == 0 ? "" : ", ").append(INSERT_ROW);
+                args[arg++] = row.recipient();
+                args[arg++] = defaultSender;
+                args[arg++] = row.subject();
+                args[arg++] = row.htmlBody();
+                args[arg++] = now;
+                args[arg++] = now;
+            }
+            queued += primaryJdbcTemplate.update(sql.toString(), args);
+        }
+        if (queued > 0) {
+            wakeDispatcherAfterCommit();
+        }
+        return queued;
+    }
+
+    private void wakeDispatcherAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mailDispatcher.wakeUp();
+                }
+            });
+        } else {
+            mailDispatcher.wakeUp();
+        }
+    }
+}
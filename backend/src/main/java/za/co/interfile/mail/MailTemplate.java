@@ -0,0 +1,83 @@
+package za.co.interfile.mail;
+
+import za.co.interfile.enums.EmailTemplate;
+import za.co.interfile.enums.Language;
+import za.co.interfile.notification.NotificationTemplate;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * One email template in one language, compiled once: the subject is taken from
+ * the title element and both parts are split into literal and placeholder
+ * pieces. Rendering appends into a buffer kept per thread, so a bulk send
+ * allocates little more than the finished strings. Values are HTML-escaped in
+ * the body and left as they are in the subject.
+ */
+public final class MailTemplate {
+
+    private static final int INITIAL_BUFFER = 8 * 1024;
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER));
+
+    private final EmailTemplate template;
+    private final Language language;
+    private final NotificationTemplate subject;
+    private final NotificationTemplate body;
+
+    private MailTemplate(EmailTemplate template, Language language,
+                         NotificationTemplate subject, NotificationTemplate body) {
+        this.template = template;
+        this.language = language;
+        this.subject = subject;
+        this.body = body;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the HTML has no title or uses a
+     *                                  placeholder the template does not allow
+     */
+    static MailTemplate compile(EmailTemplate template, Language language, String html) {
+        String lower = html.toLowerCase(Locale.ROOT);
+        int open = lower.indexOf("<title>");
+        int close = lower.indexOf("</title>", open + 1);
+        if (open < 0 || close < 0) {
+            throw new IllegalArgumentException("Email template " + template + " (" + language.getCode()
+                    + ") needs a <title> to use as the subject");
+        }
+        String subjectSource = html.substring(open + "<title>".length(), close).trim().replaceAll("\\s+", " ");
+        return new MailTemplate(template, language,
+                NotificationTemplate.compile(subjectSource, template.getFields()),
+                NotificationTemplate.compile(html, template.getFields()));
+    }
+
+    public EmailTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * The language the template is written in; English when the requested one
+     * has no template of its own
+     */
+    public Language getLanguage() {
+        return language;
+    }
+
+    public OutgoingMail render(String recipient, Function<String, String> values) {
+        StringBuilder buffer = BUFFER.get();
+        try {
+            buffer.setLength(0);
+            subject.renderTo(buffer, values, false);
+            String renderedSubject = buffer.toString();
+
+            buffer.setLength(0);
+            body.renderTo(buffer, values, true);
+            return new OutgoingMail(recipient, renderedSubject, buffer.toString());
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                BUFFER.remove();
+            }
+        }
+    }
+}
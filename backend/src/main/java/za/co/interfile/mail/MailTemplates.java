@@ -0,0 +1,74 @@
+package za.co.interfile.mail;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import za.co.interfile.enums.EmailTemplate;
+import za.co.interfile.enums.Language;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Every email template compiled at startup for every language, so a send is a
+ * map lookup and a render. A missing or broken template fails startup rather
+ * than the first send. Languages without their own file use English.
+ */
+@Slf4j
+@Component
+public class MailTemplates {
+
+    private static final String LOCATION = "mail/templates/%s.%s.html";
+
+    private final Map<EmailTemplate, Map<Language, MailTemplate>> templates = new EnumMap<>(EmailTemplate.class);
+
+    @PostConstruct
+    void compileAll() {
+        int compiled = 0;
+        for (EmailTemplate template : EmailTemplate.values()) {
+            Map<Language, MailTemplate> byLanguage = new EnumMap<>(Language.class);
+            for (Language language : Language.values()) {
+                load(template, language).ifPresent(compiledTemplate -> byLanguage.put(language, compiledTemplate));
+            }
+            MailTemplate english = byLanguage.get(Language.EN);
+            if (english == null) {
+                throw new IllegalStateException("Missing English email template "
+                        + LOCATION.formatted(template.getResourceName(), Language.EN.getCode()));
+            }
+            compiled += byLanguage.size();
+            for (Language language : Language.values()) {
+                byLanguage.putIfAbsent(language, english);
+            }
+            templates.put(template, byLanguage);
+        }
+        log.info("Compiled {} email templates", compiled);
+    }
+
+    /**
+     * The template in the language, or in English when it has no translation
+     */
+    public MailTemplate get(EmailTemplate template, Language language) {
+        return templates.get(template).get(language != null ? language : Language.EN);
+    }
+
+    private static Optional<MailTemplate> load(EmailTemplate template, Language language) {
+        ClassPathResource resource = new ClassPathResource(
+                LOCATION.formatted(template.getResourceName(), language.getCode()));
+        if (!resource.exists()) {
+            return Optional.empty();
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return Optional.of(MailTemplate.compile(template, language,
+                    StreamUtils.copyToString(in, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read email template " + resource.getPath(), e);
+        }
+    }
+}
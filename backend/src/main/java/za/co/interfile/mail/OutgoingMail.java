@@ -0,0 +1,7 @@
+package za.co.interfile.mail;
+
+/**
+ * A rendered email ready to queue
+ */
+public record OutgoingMail(String recipient, String subject, String htmlBody) {
+}
@@ -0,0 +1,83 @@
+package za.co.interfile.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One SMTP connection owned by a single mail worker and reused for every
+ * message it sends, so a batch pays for the handshake, STARTTLS and login once.
+ * The connection is replaced after a send error, after a set number of
+ * messages (servers cap messages per session) and closed when left idle.
+ * Not thread-safe.
+ */
+@Slf4j
+final class SmtpConnection implements AutoCloseable {
+
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final int maxMessages;
+
+    private Transport transport;
+    private int sent;
+    private long lastUsed;
+
+    SmtpConnection(Session session, String host, int port, String username, String password, int maxMessages) {
+        this.session = session;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.maxMessages = maxMessages;
+    }
+
+    MimeMessage newMessage() {
+        return new MimeMessage(session);
+    }
+
+    void send(MimeMessage message) throws MessagingException {
+        if (transport == null || sent >= maxMessages || !transport.isConnected()) {
+            close();
+            transport = session.getTransport("smtp");
+            transport.connect(host, port, username, password);
+            lastUsed = System.nanoTime();
+        }
+        try {
+            message.saveChanges();
+            transport.sendMessage(message, message.getAllRecipients());
+            sent++;
+            lastUsed = System.nanoTime();
+        } catch (MessagingException e) {
+            // The session may be half way through a command; start clean next time
+            close();
+            throw e;
+        }
+    }
+
+    void closeIfIdle(long idleMs) {
+        if (transport != null && System.nanoTime() - lastUsed > TimeUnit.MILLISECONDS.toNanos(idleMs)) {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+        transport = null;
+        sent = 0;
+    }
+}
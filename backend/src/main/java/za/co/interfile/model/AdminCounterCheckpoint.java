@@ -0,0 +1,38 @@
+package za.co.interfile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last persisted value of one admin dashboard counter, used to seed the
+ * in-memory counters when the application starts
+ */
+@Entity
+@Table(name = "admin_counter_checkpoints", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_admin_counter", columnNames = {"counter_group", "counter_key"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AdminCounterCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "checkpoint_id")
+    private Long checkpointId;
+
+    @Column(name = "counter_group", nullable = false, length = 60)
+    private String counterGroup;
+
+    @Column(name = "counter_key", nullable = false, length = 60)
+    private String counterKey;
+
+    @Column(name = "counter_value", nullable = false)
+    private Long counterValue;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,53 @@
+package za.co.interfile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A user whose stored available balance does not match the balance implied by
+ * their recorded deposits, withdrawals, cash sends and electricity purchases.
+ * Written by BalanceReconciliationService, one row per user per run.
+ */
+@Entity
+@Table(name = "balance_discrepancies", indexes = {
+        @Index(name = "idx_discrepancy_run", columnList = "run_id"),
+        @Index(name = "idx_discrepancy_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceDiscrepancy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "discrepancy_id")
+    private Long discrepancyId;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "stored_balance", nullable = false, precision = 14, scale = 2)
+    private BigDecimal storedBalance;
+
+    @Column(name = "expected_balance", nullable = false, precision = 14, scale = 2)
+    private BigDecimal expectedBalance;
+
+    /**
+     * stored - expected; positive means the user holds more than their history explains
+     */
+    @Column(name = "difference", nullable = false, precision = 14, scale = 2)
+    private BigDecimal difference;
+
+    @Column(name = "has_balance_row", nullable = false)
+    private boolean hasBalanceRow;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+}
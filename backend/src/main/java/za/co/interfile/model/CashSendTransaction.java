@@ -9,7 +9,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cash_send_transactions")
+@Table(name = "cash_send_transactions", indexes = {
+        @Index(name = "idx_cash_send_user_created", columnList = "user_id, created_at, cash_send_id"),
+        @Index(name = "idx_cash_send_reference", columnList = "transaction_reference")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -9,7 +9,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "electricity_transactions")
+@Table(name = "electricity_transactions", indexes = {
+        @Index(name = "idx_electricity_user_created", columnList = "user_id, created_at, transaction_id"),
+        @Index(name = "idx_electricity_reference", columnList = "transaction_reference")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,44 @@
+package za.co.interfile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import za.co.interfile.archive.ArchiveTable;
+
+import java.time.LocalDate;
+
+/**
+ * Where an archived record with a given reference (transaction reference,
+ * voucher code) can be found: its user and month narrow the search to that
+ * user-month's segments.
+ */
+@Entity
+@Table(name = "history_archive_references", indexes = {
+        @Index(name = "idx_archive_reference", columnList = "reference, table_name")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HistoryArchiveReference {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "reference_id")
+    private Long referenceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "table_name", nullable = false, length = 40)
+    private ArchiveTable tableName;
+
+    @Column(nullable = false, length = 100)
+    private String reference;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * First day of the month
+     */
+    @Column(name = "period_month", nullable = false)
+    private LocalDate periodMonth;
+}
@@ -0,0 +1,60 @@
+package za.co.interfile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import za.co.interfile.archive.ArchiveTable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One archived block: a user's rows of one table for one month. A user-month
+ * can have several segments when rows reached a final state at different times.
+ */
+@Entity
+@Table(name = "history_archive_segments", indexes = {
+        @Index(name = "idx_archive_user_table_month", columnList = "user_id, table_name, period_month")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HistoryArchiveSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "segment_id")
+    private Long segmentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "table_name", nullable = false, length = 40)
+    private ArchiveTable tableName;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * First day of the month
+     */
+    @Column(name = "period_month", nullable = false)
+    private LocalDate periodMonth;
+
+    /**
+     * The rows, gzip-compressed JSON lines (see ArchiveBlockCodec)
+     */
+    @Lob
+    @Column(name = "block_data", nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] blockData;
+
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+
+    /**
+     * Net effect of the archived rows on the available balance, in cents
+     */
+    @Column(name = "net_cents", nullable = false)
+    private Long netCents;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,54 @@
+package za.co.interfile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import za.co.interfile.enums.SpendCategory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Rollup of one user's money movements in one calendar month for one category.
+ * Maintained by SpendSummaryService: cash sends and electricity in the same
+ * transaction as the purchase, deposits and withdrawals once they complete.
+ */
+@Entity
+@Table(name = "monthly_spend_summaries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_spend_user_month_category",
+                columnNames = {"user_id", "period_month", "category"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MonthlySpendSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "summary_id")
+    private Long summaryId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * First day of the month
+     */
+    @Column(name = "period_month", nullable = false)
+    private LocalDate periodMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private SpendCategory category;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "transaction_count", nullable = false)
+    @Builder.Default
+    private Long transactionCount = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
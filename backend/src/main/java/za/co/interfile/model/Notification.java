@@ -14,7 +14,9 @@ import java.time.format.DateTimeFormatter;
  * Handles payment alerts, system messages, withdrawal confirmations, etc.
  */
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notification_user_read", columnList = "user_id, is_read")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,106 @@
+package za.co.interfile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import za.co.interfile.enums.CampaignStatus;
+import za.co.interfile.enums.EmailTemplate;
+import za.co.interfile.enums.NotificationAudience;
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.enums.NotificationType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One notification fan-out: a title and message template sent to every user in
+ * an audience. last_recipient_id is the keyset cursor, committed with each batch
+ * of notifications, so an interrupted campaign resumes where it stopped.
+ */
+@Entity
+@Table(name = "notification_campaigns", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_notification_campaign_key", columnNames = "campaign_key")
+}, indexes = {
+        @Index(name = "idx_notification_campaign_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationCampaign {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "campaign_id")
+    private Long campaignId;
+
+    /**
+     * Guards against sending the same campaign twice, e.g. PAYDAY:2026-11-03
+     */
+    @Column(name = "campaign_key", nullable = false, length = 100)
+    private String campaignKey;
+
+    @Column(nullable = false, length = 150)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private NotificationAudience audience;
+
+    @Column(name = "payment_date_from")
+    private LocalDate paymentDateFrom;
+
+    @Column(name = "payment_date_to")
+    private LocalDate paymentDateTo;
+
+    @Column(name = "title_template", nullable = false, length = 255)
+    private String titleTemplate;
+
+    @Column(name = "message_template", nullable = false, columnDefinition = "TEXT")
+    private String messageTemplate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "notification_type", nullable = false, length = 20)
+    private NotificationType notificationType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private NotificationPriority priority;
+
+    @Column(name = "notification_expires_at")
+    private LocalDateTime notificationExpiresAt;
+
+    /**
+     * Also queue this email, in each recipient's language, when set
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "email_template", length = 30)
+    private EmailTemplate emailTemplate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private CampaignStatus status = CampaignStatus.PENDING;
+
+    @Column(name = "triggered_by", nullable = false, length = 100)
+    private String triggeredBy;
+
+    @Column(name = "last_recipient_id", nullable = false)
+    @Builder.Default
+    private Long lastRecipientId = 0L;
+
+    @Column(name = "recipients_written", nullable = false)
+    @Builder.Default
+    private Long recipientsWritten = 0L;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "failure_reason", columnDefinition = "TEXT")
+    private String failureReason;
+}
@@ -0,0 +1,33 @@
+package za.co.interfile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Shared rate-limit state for the database-backed mode: one row per policy and
+ * key holding the bucket's theoretical arrival time. A row whose time has
+ * passed is a full bucket and is deleted by the cleanup.
+ */
+@Entity
+@Table(name = "rate_limit_buckets", indexes = {
+        @Index(name = "idx_rate_limit_tat", columnList = "tat_millis")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateLimitBucket {
+
+    /**
+     * Policy and key, e.g. LOGIN_EMAIL:someone@example.com
+     */
+    @Id
+    @Column(name = "bucket_key", length = 300)
+    private String bucketKey;
+
+    /**
+     * Epoch milliseconds; each granted request pushes it one interval forward
+     */
+    @Column(name = "tat_millis", nullable = false)
+    private Long tatMillis;
+}
@@ -0,0 +1,56 @@
+package za.co.interfile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import za.co.interfile.enums.ReconciliationStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * One run of the balance reconciliation job
+ */
+@Entity
+@Table(name = "reconciliation_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "run_id")
+    private Long runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private ReconciliationStatus status = ReconciliationStatus.RUNNING;
+
+    @Column(name = "triggered_by", nullable = false, length = 100)
+    private String triggeredBy;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "max_user_id")
+    private Long maxUserId;
+
+    @Column(name = "partition_count")
+    @Builder.Default
+    private Integer partitionCount = 0;
+
+    @Column(name = "balances_checked")
+    @Builder.Default
+    private Long balancesChecked = 0L;
+
+    @Column(name = "discrepancy_count")
+    @Builder.Default
+    private Long discrepancyCount = 0L;
+
+    @Column(name = "failure_reason", columnDefinition = "TEXT")
+    private String failureReason;
+}
@@ -16,7 +16,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "sassa_accounts")
+@Table(name = "sassa_accounts", indexes = {
+        @Index(name = "idx_sassa_id_number", columnList = "id_number"),
+        @Index(name = "idx_sassa_last_sync", columnList = "last_sync_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
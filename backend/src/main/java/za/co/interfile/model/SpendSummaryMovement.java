@@ -0,0 +1,40 @@
+package za.co.interfile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed deposit or withdrawal already added to the monthly spend rollup.
+ * The unique key makes adding it happen once even if several runs see the row.
+ * Entries are pruned once the row has left the follow window.
+ */
+@Entity
+@Table(name = "spend_summary_movements",
+        uniqueConstraints = @UniqueConstraint(name = "uk_spend_movement_source",
+                columnNames = {"source", "source_id"}),
+        indexes = @Index(name = "idx_spend_movement_recorded", columnList = "recorded_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpendSummaryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "movement_id")
+    private Long movementId;
+
+    /**
+     * DEPOSIT (transactions) or WITHDRAWAL (withdrawal_requests)
+     */
+    @Column(nullable = false, length = 20)
+    private String source;
+
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -16,7 +16,10 @@ import java.time.format.DateTimeFormatter;
  * Tracks deposits, withdrawals, payments, refunds, and adjustments
  */
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_user_created", columnList = "user_id, created_at, transaction_id"),
+        @Index(name = "idx_transactions_completed", columnList = "completed_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
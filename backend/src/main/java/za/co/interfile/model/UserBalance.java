@@ -54,6 +54,14 @@ public class UserBalance {
     @Builder.Default
     private LocalDateTime lastUpdated = LocalDateTime.now();
 
+    /**
+     * Bumped on every update; concurrent updates fail instead of overwriting each
+     * other, and caches apply balance changes in version order
+     */
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long version;
+
     // Relationship
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, unique = true)
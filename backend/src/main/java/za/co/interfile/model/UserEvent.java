@@ -0,0 +1,45 @@
+package za.co.interfile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import za.co.interfile.enums.UserEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to push to a user's open connections. Written in the same
+ * transaction as the change itself and tailed by event_id on every node, so a
+ * client connected to any node sees it. Rows are only kept for a short while.
+ */
+@Entity
+@Table(name = "user_events", indexes = {
+        @Index(name = "idx_user_event_created", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 30)
+    private UserEventType eventType;
+
+    /**
+     * JSON body sent to the client as is
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
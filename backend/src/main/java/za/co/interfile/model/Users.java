@@ -6,6 +6,7 @@ import jakarta.validation.constraints.*;
 import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import za.co.interfile.enums.Language;
 import za.co.interfile.enums.UsersStatus;
 import za.co.interfile.enums.SassaStatus;
 
@@ -21,7 +22,9 @@ import java.util.List;
  * Implements UserDetails for Spring Security integration
  */
 @Entity
-@Table(schema = "social_relief_system", name = "users")
+@Table(schema = "social_relief_system", name = "users", indexes = {
+        @Index(name = "idx_users_phone", columnList = "phone")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -103,8 +106,18 @@ public class Users implements UserDetails {
     @Builder.Default
     private Boolean phoneVerified = false;
 
+    /**
+     * Language for emails and other messages sent to the user
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "preferred_language", nullable = false, length = 5)
+    @Builder.Default
+    private Language preferredLanguage = Language.EN;
+
     // Relationships
+    // Ordered so the first active account is the lowest id, as in UserSummaryStore
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OrderBy("sassaAccountId ASC")
     @Builder.Default
     private List<SassaAccounts> sassaAccounts = new ArrayList<>();
 
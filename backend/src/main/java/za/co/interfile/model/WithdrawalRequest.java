@@ -17,7 +17,11 @@ import java.util.Map;
  * Handles the complete withdrawal workflow from request to completion
  */
 @Entity
-@Table(name = "withdrawal_requests")
+@Table(name = "withdrawal_requests", indexes = {
+        @Index(name = "idx_withdrawal_user_requested", columnList = "user_id, requested_at, withdrawal_id"),
+        @Index(name = "idx_withdrawal_reference", columnList = "transaction_reference"),
+        @Index(name = "idx_withdrawal_processed", columnList = "processed_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,65 @@
+package za.co.interfile.notification;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes notifications with multi-row INSERTs on the primary pool, joining the
+ * caller's transaction when it runs on that pool. Used by the paths that write
+ * notifications in bulk instead of one entity at a time.
+ */
+@Component
+public class NotificationBatchWriter {
+
+    private static final String INSERT_PREFIX = "INSERT INTO notifications (user_id, title, message, type, priority, "
+            + "created_at, related_entity_type, related_entity_id, expires_at, metadata, "
+            + "is_read, sent_via_email, sent_via_sms) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE, FALSE, FALSE)";
+    private static final int INSERT_PARAMS = 10;
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate primaryJdbcTemplate;
+
+    public NotificationBatchWriter(@Qualifier("primaryDataSource") DataSource primaryDataSource) {
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+    }
+
+    /**
+     * Insert the notifications, up to a thousand rows per statement
+     */
+    public int insert(List<PendingNotification> notifications) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int written = 0;
+        for (int from = 0; from < notifications.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<PendingNotification> rows =
+                    notifications.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, notifications.size()));
+
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows.size() * (INSERT_ROW.length() + 2));
+            sql.append(INSERT_PREFIX);
+            Object[] args = new Object[rows.size() * INSERT_PARAMS];
+            int arg = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                PendingNotification row = rows.get(i);
+                sql.append(i == 0 ? "" : ", ").append(INSERT_ROW);
+                args[arg++] = row.userId();
+                args[arg++] = row.title();
+                args[arg++] = row.message();
+                args[arg++] = row.type().name();
+                args[arg++] = row.priority().name();
+                args[arg++] = now;
+                args[arg++] = row.relatedEntityType();
+                args[arg++] = row.relatedEntityId();
+                args[arg++] = row.expiresAt() != null ? Timestamp.valueOf(row.expiresAt()) : null;
+                args[arg++] = row.metadata();
+            }
+            written += primaryJdbcTemplate.update(sql.toString(), args);
+        }
+        return written;
+    }
+}
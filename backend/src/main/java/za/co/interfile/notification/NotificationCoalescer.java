@@ -0,0 +1,401 @@
+package za.co.interfile.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.interfile.cache.UserSummaryStore;
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.enums.NotificationType;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects a user's notifications for a short window and writes them as one
+ * digest per user, type and related entity type, in multi-row batches. A burst
+ * of cash sends becomes one "3 payment updates" row and one push event instead
+ * of three.
+ * <p>
+ * Notifications are accepted only once the submitting transaction commits.
+ * URGENT and SECURITY notifications skip the window and are written straight
+ * away on the coalescer's own thread, never inside the caller's transaction.
+ * <p>
+ * Rows are written in chunks of write-chunk, each in its own transaction. A
+ * chunk that fails is retried with exponential backoff up to max-attempts
+ * times, then dropped and counted. Buffers live on this node only and are
+ * flushed on shutdown; a crash loses what is still buffered, which is at most
+ * max-buckets open digests plus max-retry-rows rows awaiting a retry.
+ */
+@Slf4j
+@Component
+public class NotificationCoalescer {
+
+    private static final int MAX_DIGEST_LINES = 5;
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+    private static final String DIGEST_METADATA = "{\"digest\":true";
+
+    private final NotificationBatchWriter notificationBatchWriter;
+    private final TransactionTemplate writeTransaction;
+    private final UserSummaryStore userSummaryStore;
+    private final Map<Key, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingNotification> immediate = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean immediateScheduled = new AtomicBoolean();
+    private final ConcurrentLinkedQueue<Chunk> retries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger retryingRows = new AtomicInteger();
+    private final Counter submitted;
+    private final Counter writtenSingle;
+    private final Counter writtenDigest;
+    private final Counter writtenImmediate;
+    private final Counter retried;
+    private final Counter dropped;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${app.notifications.coalesce.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notifications.coalesce.window-ms:5000}")
+    private long windowMs;
+
+    @Value("${app.notifications.coalesce.max-items:20}")
+    private int maxItems;
+
+    @Value("${app.notifications.coalesce.max-buckets:50000}")
+    private int maxBuckets;
+
+    @Value("${app.notifications.coalesce.write-chunk:500}")
+    private int chunkSize;
+
+    @Value("${app.notifications.coalesce.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.notifications.coalesce.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${app.notifications.coalesce.max-retry-rows:10000}")
+    private int maxRetryRows;
+
+    private AsyncTaskExecutor taskExecutor;
+
+    public NotificationCoalescer(NotificationBatchWriter notificationBatchWriter,
+                                 @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 UserSummaryStore userSummaryStore,
+                                 MeterRegistry meterRegistry) {
+        this.notificationBatchWriter = notificationBatchWriter;
+        this.writeTransaction = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.userSummaryStore = userSummaryStore;
+
+        this.submitted = Counter.builder("relief.notifications.coalesce.submitted")
+                .description("Notifications handed to the coalescer")
+                .register(meterRegistry);
+        this.writtenSingle = written(meterRegistry, "single");
+        this.writtenDigest = written(meterRegistry, "digest");
+        this.writtenImmediate = written(meterRegistry, "immediate");
+        this.retried = Counter.builder("relief.notifications.coalesce.retried")
+                .description("Notification rows queued for another write attempt")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("relief.notifications.coalesce.dropped")
+                .description("Notification rows given up on after failed writes")
+                .register(meterRegistry);
+        Gauge.builder("relief.notifications.coalesce.pending", buckets, Map::size).register(meterRegistry);
+        Gauge.builder("relief.notifications.coalesce.retrying", retryingRows, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    private static Counter written(MeterRegistry meterRegistry, String kind) {
+        return Counter.builder("relief.notifications.coalesce.rows")
+                .description("Notification rows written by the coalescer")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void initExecutor() {
+        // Kept out of the context on purpose: an Executor bean would replace
+        // the auto-configured applicationTaskExecutor used by @Async
+        if (virtualThreadsEnabled && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("notify-");
+            executor.setVirtualThreads(true);
+            taskExecutor = executor;
+        } else {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadNamePrefix("notify-");
+            executor.setCorePoolSize(1);
+            executor.setMaxPoolSize(1);
+            executor.initialize();
+            taskExecutor = executor;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush(true);
+        writeImmediate();
+        retryFailed(true);
+        if (taskExecutor instanceof ThreadPoolTaskExecutor executor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Queue a notification for the user; nothing is written if the current
+     * transaction rolls back
+     */
+    public void submit(PendingNotification notification) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accept(notification);
+                }
+            });
+        } else {
+            accept(notification);
+        }
+    }
+
+    private void accept(PendingNotification notification) {
+        submitted.increment();
+        if (!enabled || bypassesWindow(notification) || buckets.size() >= maxBuckets) {
+            immediate.add(notification);
+            scheduleImmediate();
+            return;
+        }
+
+        Key key = new Key(notification.userId(), notification.type(), notification.relatedEntityType());
+        buckets.compute(key, (k, current) -> {
+            Bucket next = current != null ? current : new Bucket(System.nanoTime());
+            next.items.add(notification);
+            // Full digests go out with the next flush instead of waiting for the window
+            next.full = next.items.size() >= maxItems;
+            return next;
+        });
+    }
+
+    private static boolean bypassesWindow(PendingNotification notification) {
+        return notification.priority() == NotificationPriority.URGENT
+                || notification.type() == NotificationType.SECURITY;
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.coalesce.flush-interval-ms:500}")
+    public void scheduledFlush() {
+        try {
+            flush(false);
+            retryFailed(false);
+        } catch (Exception e) {
+            log.error("Notification coalescer flush failed", e);
+        }
+    }
+
+    /**
+     * Write every bucket whose window has closed (or every bucket when forced)
+     */
+    private void flush(boolean all) {
+        long closedBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(windowMs);
+        List<Bucket> due = new ArrayList<>();
+        for (Key key : buckets.keySet()) {
+            buckets.computeIfPresent(key, (k, bucket) -> {
+                if (all || bucket.full || bucket.openedAt - closedBefore <= 0) {
+                    due.add(bucket);
+                    return null;
+                }
+                return bucket;
+            });
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<PendingNotification> rows = new ArrayList<>(due.size());
+        for (Bucket bucket : due) {
+            rows.add(digest(bucket.items));
+        }
+        write(rows, false);
+    }
+
+    private void scheduleImmediate() {
+        if (!immediateScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    writeImmediate();
+                } finally {
+                    immediateScheduled.set(false);
+                }
+                if (!immediate.isEmpty()) {
+                    scheduleImmediate();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            immediateScheduled.set(false);
+            writeImmediate();
+        }
+    }
+
+    private void writeImmediate() {
+        List<PendingNotification> rows = new ArrayList<>();
+        PendingNotification notification;
+        while ((notification = immediate.poll()) != null) {
+            rows.add(notification);
+        }
+        write(rows, true);
+    }
+
+    /**
+     * Write rows one chunk per transaction, so a failure only holds back its own chunk
+     */
+    private void write(List<PendingNotification> rows, boolean immediate) {
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<PendingNotification> chunk = List.copyOf(rows.subList(from, Math.min(rows.size(), from + chunkSize)));
+            writeChunk(new Chunk(chunk, immediate, 0, 0L));
+        }
+    }
+
+    private void writeChunk(Chunk chunk) {
+        try {
+            writeTransaction.executeWithoutResult(status -> notificationBatchWriter.insert(chunk.rows()));
+        } catch (RuntimeException e) {
+            requeue(chunk, e);
+            return;
+        }
+        for (PendingNotification row : chunk.rows()) {
+            userSummaryStore.adjustUnreadCount(row.userId(), 1);
+            if (chunk.immediate()) {
+                writtenImmediate.increment();
+            } else if (row.metadata() != null && row.metadata().startsWith(DIGEST_METADATA)) {
+                writtenDigest.increment();
+            } else {
+                writtenSingle.increment();
+            }
+        }
+    }
+
+    private void requeue(Chunk chunk, RuntimeException cause) {
+        int attempts = chunk.attempts() + 1;
+        int size = chunk.rows().size();
+        if (attempts >= maxAttempts || retryingRows.get() + size > maxRetryRows) {
+            dropped.increment(size);
+            log.error("Dropped {} notifications after {} failed write attempts", size, attempts, cause);
+            return;
+        }
+        long backoff = retryBackoffMs << Math.min(attempts - 1, 6);
+        retries.add(new Chunk(chunk.rows(), chunk.immediate(), attempts, System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(backoff)));
+        retryingRows.addAndGet(size);
+        retried.increment(size);
+        log.warn("Could not write {} notifications (attempt {}); retrying in {}ms: {}",
+                size, attempts, backoff, cause.getMessage());
+    }
+
+    /**
+     * Write the failed chunks whose backoff has passed (or all of them when forced)
+     */
+    private void retryFailed(boolean all) {
+        long now = System.nanoTime();
+        int waiting = retries.size();
+        for (int i = 0; i < waiting; i++) {
+            Chunk chunk = retries.poll();
+            if (chunk == null) {
+                return;
+            }
+            if (!all && chunk.retryAt() - now > 0) {
+                retries.add(chunk);
+                continue;
+            }
+            retryingRows.addAndGet(-chunk.rows().size());
+            writeChunk(chunk);
+        }
+    }
+
+    /**
+     * One notification standing for all of a bucket's items; a single item is
+     * written as it is
+     */
+    static PendingNotification digest(List<PendingNotification> items) {
+        PendingNotification last = items.get(items.size() - 1);
+        if (items.size() == 1) {
+            return last;
+        }
+
+        NotificationPriority priority = items.stream()
+                .map(PendingNotification::priority)
+                .max(Comparator.comparingInt(NotificationPriority::getLevel))
+                .orElse(last.priority());
+
+        StringBuilder message = new StringBuilder();
+        StringBuilder relatedIds = new StringBuilder();
+        LocalDateTime expiresAt = last.expiresAt();
+        for (int i = 0; i < items.size(); i++) {
+            PendingNotification item = items.get(i);
+            if (i < MAX_DIGEST_LINES) {
+                message.append(i == 0 ? "" : "\n").append(item.title()).append(": ").append(item.message());
+            }
+            if (item.relatedEntityId() != null) {
+                relatedIds.append(relatedIds.isEmpty() ? "" : ",").append(item.relatedEntityId());
+            }
+            if (expiresAt != null && (item.expiresAt() == null || item.expiresAt().isAfter(expiresAt))) {
+                expiresAt = item.expiresAt();
+            }
+        }
+        if (items.size() > MAX_DIGEST_LINES) {
+            message.append("\n...and ").append(items.size() - MAX_DIGEST_LINES).append(" more");
+        }
+        if (message.length() > MAX_MESSAGE_LENGTH) {
+            message.setLength(MAX_MESSAGE_LENGTH - 3);
+            message.append("...");
+        }
+
+        String title = items.size() + " " + last.type().getDisplayName().toLowerCase(Locale.ROOT) + " updates";
+        String metadata = "{\"digest\":true,\"count\":" + items.size()
+                + ",\"relatedEntityIds\":[" + relatedIds + "]}";
+        return new PendingNotification(last.userId(), title, message.toString(), last.type(), priority,
+                last.relatedEntityType(), null, expiresAt, metadata);
+    }
+
+    private record Key(Long userId, NotificationType type, String relatedEntityType) {
+    }
+
+    /**
+     * Rows written in one transaction, with the attempts made so far
+     */
+    private record Chunk(List<PendingNotification> rows, boolean immediate, int attempts, long retryAt) {
+    }
+
+    private static final class Bucket {
+        private final long openedAt;
+        private final List<PendingNotification> items = new ArrayList<>();
+        private boolean full;
+
+        private Bucket(long openedAt) {
+            this.openedAt = openedAt;
+        }
+    }
+}
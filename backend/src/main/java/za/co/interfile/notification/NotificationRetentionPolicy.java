@@ -0,0 +1,63 @@
+package za.co.interfile.notification;
+
+import za.co.interfile.enums.NotificationPriority;
+
+import java.time.LocalDateTime;
+
+/**
+ * When a notification is due for removal, and why. It goes at the earliest of:
+ * <ul>
+ *   <li>its explicit expires_at;</li>
+ *   <li>once read, its priority's auto-dismissal hours after it was read;</li>
+ *   <li>while unread, the unread maximum age, unless its priority never
+ *       expires (URGENT).</li>
+ * </ul>
+ */
+public final class NotificationRetentionPolicy {
+
+    public enum Reason {
+        EXPIRED, DISMISSED, STALE
+    }
+
+    public record Due(LocalDateTime at, Reason reason) {
+    }
+
+    private final long unreadMaxAgeHours;
+
+    public NotificationRetentionPolicy(long unreadMaxAgeHours) {
+        this.unreadMaxAgeHours = unreadMaxAgeHours;
+    }
+
+    /**
+     * Removal time for a notification and the rule that sets it, or null when
+     * it is kept indefinitely
+     */
+    public Due dueAt(NotificationPriority priority, boolean read, LocalDateTime createdAt,
+                     LocalDateTime readAt, LocalDateTime expiresAt) {
+        Due byAge;
+        if (read) {
+            LocalDateTime since = readAt != null ? readAt : createdAt;
+            byAge = new Due(since.plusHours(priority.getAutoDismissalHours()), Reason.DISMISSED);
+        } else if (priority.getDefaultExpirationHours() >= 0) {
+            byAge = new Due(createdAt.plusHours(unreadMaxAgeHours), Reason.STALE);
+        } else {
+            byAge = null;
+        }
+
+        if (expiresAt != null && (byAge == null || expiresAt.isBefore(byAge.at()))) {
+            return new Due(expiresAt, Reason.EXPIRED);
+        }
+        return byAge;
+    }
+
+    /**
+     * No notification without an explicit expiry is due before it is this old
+     */
+    public long minimumAgeHours() {
+        long minimum = unreadMaxAgeHours;
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            minimum = Math.min(minimum, priority.getAutoDismissalHours());
+        }
+        return minimum;
+    }
+}
@@ -0,0 +1,110 @@
+package za.co.interfile.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A notification title or message with {placeholder} fields, parsed once and
+ * then rendered per recipient by appending literal and value parts; no regex or
+ * string search per render. Unknown placeholders are rejected when compiling.
+ */
+public final class NotificationTemplate {
+
+    private final String source;
+    private final String[] literals;
+    private final String[] fields;
+
+    private NotificationTemplate(String source, String[] literals, String[] fields) {
+        this.source = source;
+        this.literals = literals;
+        this.fields = fields;
+    }
+
+    /**
+     * Parse a template. A '{' not followed by a placeholder name and '}' is kept as text.
+     *
+     * @throws IllegalArgumentException when it uses a placeholder outside the allowed set
+     */
+    public static NotificationTemplate compile(String source, Set<String> allowedFields) {
+        List<String> literals = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            int close = c == '{' ? source.indexOf('}', i + 1) : -1;
+            if (close > i + 1 && isFieldName(source, i + 1, close)) {
+                String field = source.substring(i + 1, close);
+                if (!allowedFields.contains(field)) {
+                    throw new IllegalArgumentException("Unknown placeholder {" + field + "}; allowed: " + allowedFields);
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                fields.add(field);
+                i = close + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new NotificationTemplate(source, literals.toArray(String[]::new), fields.toArray(String[]::new));
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String render(Function<String, String> values) {
+        StringBuilder out = new StringBuilder(source.length() + 32);
+        renderTo(out, values, false);
+        return out.toString();
+    }
+
+    /**
+     * Append the rendered template to a caller's buffer, HTML-escaping the
+     * values (not the template's own text) when asked
+     */
+    public void renderTo(StringBuilder out, Function<String, String> values, boolean escapeHtml) {
+        for (int i = 0; i < fields.length; i++) {
+            out.append(literals[i]);
+            String value = values.apply(fields[i]);
+            if (value == null) {
+                continue;
+            }
+            if (escapeHtml) {
+                appendEscaped(out, value);
+            } else {
+                out.append(value);
+            }
+        }
+        out.append(literals[fields.length]);
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static boolean isFieldName(String source, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
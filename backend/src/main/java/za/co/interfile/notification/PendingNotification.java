@@ -0,0 +1,22 @@
+package za.co.interfile.notification;
+
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.enums.NotificationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification not yet written; relatedEntityType, relatedEntityId,
+ * expiresAt and metadata (JSON) may be null
+ */
+public record PendingNotification(Long userId, String title, String message, NotificationType type,
+                                  NotificationPriority priority, String relatedEntityType, Long relatedEntityId,
+                                  LocalDateTime expiresAt, String metadata) {
+
+    public static PendingNotification of(Long userId, String title, String message, NotificationType type,
+                                         NotificationPriority priority, String relatedEntityType,
+                                         Long relatedEntityId) {
+        return new PendingNotification(userId, title, message, type, priority, relatedEntityType,
+                relatedEntityId, null, null);
+    }
+}
@@ -0,0 +1,263 @@
+package za.co.interfile.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import za.co.interfile.cache.UserSummaryStore;
+import za.co.interfile.dtos.NotificationDto;
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.enums.NotificationType;
+import za.co.interfile.enums.UserEventType;
+import za.co.interfile.search.UserSearchIndex;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Delivers changes made on any node to the streams open on this one by tailing
+ * two tables by id: notifications (every insert, whichever code path made it)
+ * and user_events (balance and user changes). One small query per table per interval
+ * replaces clients polling their profile. Only rows for users with a stream
+ * open here are loaded in full; while nobody is connected the notification
+ * cursor just follows the newest id.
+ * <p>
+ * Balance changes are also applied to this node's UserSummaryStore and user
+ * changes to its UserSearchIndex, so the events are read whenever either is
+ * enabled, streams or not.
+ */
+@Slf4j
+@Component
+public class ChangeFeedPoller {
+
+    private static final String NOTIFICATION_PAGE = """
+            SELECT notification_id, user_id FROM notifications
+            WHERE notification_id > ? ORDER BY notification_id LIMIT ?
+            """;
+    private static final String NOTIFICATION_IDS =
+            "SELECT notification_id, user_id FROM notifications WHERE notification_id IN (%s)";
+    private static final String NOTIFICATION_DETAILS = """
+            SELECT notification_id, user_id, title, message, type, priority, created_at,
+                   related_entity_type, related_entity_id, action_url, action_text
+            FROM notifications WHERE notification_id IN (%s)
+            """;
+    private static final String LATEST_NOTIFICATION = "SELECT COALESCE(MAX(notification_id), 0) FROM notifications";
+
+    private static final String EVENT_PAGE = """
+            SELECT event_id, user_id, event_type, payload FROM user_events
+            WHERE event_id > ? ORDER BY event_id LIMIT ?
+            """;
+    private static final String EVENT_IDS =
+            "SELECT event_id, user_id, event_type, payload FROM user_events WHERE event_id IN (%s)";
+    private static final String LATEST_EVENT = "SELECT COALESCE(MAX(event_id), 0) FROM user_events";
+
+    private static final String DELETE_OLD_EVENTS = "DELETE FROM user_events WHERE created_at < ? LIMIT ?";
+
+    private static final RowMapper<FeedRow> NOTIFICATION_ROW = (rs, rowNum) ->
+            new FeedRow(rs.getLong("notification_id"), rs.getLong("user_id"), null, null);
+    private static final RowMapper<FeedRow> EVENT_ROW = (rs, rowNum) ->
+            new FeedRow(rs.getLong("event_id"), rs.getLong("user_id"),
+                    rs.getString("event_type"), rs.getString("payload"));
+
+    private final JdbcTemplate interactiveJdbcTemplate;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final PushRegistry pushRegistry;
+    private final UserSummaryStore userSummaryStore;
+    private final UserSearchIndex userSearchIndex;
+    private final ObjectMapper objectMapper;
+    private final FeedCursor notificationCursor;
+    private final FeedCursor eventCursor;
+
+    @Value("${app.push.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.push.poll-page-size:1000}")
+    private int pageSize;
+
+    @Value("${app.push.poll-max-pages:10}")
+    private int maxPages;
+
+    @Value("${app.push.event-retention-minutes:60}")
+    private long eventRetentionMinutes;
+
+    public ChangeFeedPoller(@Qualifier("interactiveDataSource") DataSource interactiveDataSource,
+                            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                            PushRegistry pushRegistry,
+                            UserSummaryStore userSummaryStore,
+                            UserSearchIndex userSearchIndex,
+                            ObjectMapper objectMapper,
+                            @Value("${app.push.gap-grace-ms:5000}") long gapGraceMs,
+                            @Value("${app.push.max-gaps:1000}") int maxGaps) {
+        this.interactiveJdbcTemplate = new JdbcTemplate(interactiveDataSource);
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.pushRegistry = pushRegistry;
+        this.userSummaryStore = userSummaryStore;
+        this.userSearchIndex = userSearchIndex;
+        this.objectMapper = objectMapper;
+        this.notificationCursor = new FeedCursor(gapGraceMs, maxGaps);
+        this.eventCursor = new FeedCursor(gapGraceMs, maxGaps);
+    }
+
+    @Scheduled(fixedDelayString = "${app.push.poll-interval-ms:250}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            pollNotifications();
+            pollEvents();
+        } catch (DataAccessException e) {
+            log.warn("Change feed poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Events are read within a poll interval of being written; an hour's worth
+     * is kept for diagnosis and the rest deleted in batches
+     */
+    @Scheduled(cron = "${app.push.event-cleanup-cron:0 */10 * * * *}")
+    public void deleteOldEvents() {
+        try {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusMinutes(eventRetentionMinutes));
+            int deleted;
+            int total = 0;
+            do {
+                deleted = primaryJdbcTemplate.update(DELETE_OLD_EVENTS, cutoff, pageSize);
+                total += deleted;
+            } while (deleted == pageSize);
+            if (total > 0) {
+                log.debug("Deleted {} old user events", total);
+            }
+        } catch (DataAccessException e) {
+            log.warn("User event cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    private void pollNotifications() {
+        if (!pushRegistry.hasSubscribers() || !notificationCursor.isInitialised()) {
+            notificationCursor.reset(interactiveJdbcTemplate.queryForObject(LATEST_NOTIFICATION, Long.class));
+            return;
+        }
+
+        List<Long> wanted = new ArrayList<>();
+        for (FeedRow row : read(notificationCursor, NOTIFICATION_PAGE, NOTIFICATION_IDS, NOTIFICATION_ROW)) {
+            if (pushRegistry.hasSubscribers(row.userId())) {
+                wanted.add(row.id());
+            }
+        }
+
+        for (int from = 0; from < wanted.size(); from += pageSize) {
+            List<Long> ids = wanted.subList(from, Math.min(from + pageSize, wanted.size()));
+            interactiveJdbcTemplate.query(NOTIFICATION_DETAILS.formatted(placeholders(ids.size())), rs -> {
+                long notificationId = rs.getLong("notification_id");
+                long relatedEntityId = rs.getLong("related_entity_id");
+                boolean hasRelatedEntity = !rs.wasNull();
+                Timestamp createdAt = rs.getTimestamp("created_at");
+
+                NotificationDto notification = NotificationDto.builder()
+                        .notificationId(notificationId)
+                        .title(rs.getString("title"))
+                        .message(rs.getString("message"))
+                        .type(NotificationType.valueOf(rs.getString("type")))
+                        .priority(NotificationPriority.valueOf(rs.getString("priority")))
+                        .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                        .relatedEntityType(rs.getString("related_entity_type"))
+                        .relatedEntityId(hasRelatedEntity ? relatedEntityId : null)
+                        .actionUrl(rs.getString("action_url"))
+                        .actionText(rs.getString("action_text"))
+                        .build();
+                pushRegistry.publish(rs.getLong("user_id"),
+                        new PushEvent("notification", "n-" + notificationId, notification));
+            }, ids.toArray());
+        }
+    }
+
+    private void pollEvents() {
+        boolean followBalances = userSummaryStore.isEnabled();
+        boolean followUsers = userSearchIndex.isEnabled();
+        if ((!pushRegistry.hasSubscribers() && !followBalances && !followUsers) || !eventCursor.isInitialised()) {
+            eventCursor.reset(interactiveJdbcTemplate.queryForObject(LATEST_EVENT, Long.class));
+            return;
+        }
+
+        for (FeedRow row : read(eventCursor, EVENT_PAGE, EVENT_IDS, EVENT_ROW)) {
+            UserEventType eventType = UserEventType.valueOf(row.eventType());
+            if (followBalances && eventType == UserEventType.BALANCE_CHANGED) {
+                applyBalance(row);
+            }
+            if (followUsers && eventType == UserEventType.USER_CHANGED) {
+                userSearchIndex.reload(row.userId());
+            }
+            if (eventType.isPushed() && pushRegistry.hasSubscribers(row.userId())) {
+                pushRegistry.publish(row.userId(),
+                        new PushEvent(eventType.getEventName(), "e-" + row.id(), row.payload()));
+            }
+        }
+    }
+
+    /**
+     * The store keeps the later of its own balance and the event's, by version
+     */
+    private void applyBalance(FeedRow row) {
+        try {
+            JsonNode payload = objectMapper.readTree(row.payload());
+            JsonNode version = payload.get("version");
+            JsonNode availableBalance = payload.get("availableBalance");
+            if (version != null && availableBalance != null) {
+                userSummaryStore.updateAvailableBalance(row.userId(), availableBalance.decimalValue(),
+                        version.asLong());
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable balance event {}: {}", row.id(), e.getMessage());
+        }
+    }
+
+    /**
+     * Rows that filled earlier gaps plus up to maxPages of new rows, in id order
+     */
+    private List<FeedRow> read(FeedCursor cursor, String pageSql, String idsSql, RowMapper<FeedRow> mapper) {
+        List<FeedRow> rows = new ArrayList<>();
+
+        List<Long> gaps = cursor.openGaps();
+        if (!gaps.isEmpty()) {
+            for (FeedRow row : interactiveJdbcTemplate.query(idsSql.formatted(placeholders(gaps.size())),
+                    mapper, gaps.toArray())) {
+                cursor.filled(row.id());
+                rows.add(row);
+            }
+        }
+
+        for (int page = 0; page < maxPages; page++) {
+            List<FeedRow> batch = interactiveJdbcTemplate.query(pageSql, mapper, cursor.position(), pageSize);
+            for (FeedRow row : batch) {
+                cursor.advance(row.id());
+            }
+            rows.addAll(batch);
+            if (batch.size() < pageSize) {
+                break;
+            }
+        }
+
+        rows.sort(Comparator.comparingLong(FeedRow::id));
+        return rows;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private record FeedRow(long id, long userId, String eventType, String payload) {
+    }
+}
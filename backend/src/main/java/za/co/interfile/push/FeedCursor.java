@@ -0,0 +1,76 @@
+package za.co.interfile.push;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read position in an auto-increment table tailed by id. Ids are allocated
+ * when a row is inserted but become visible when its transaction commits, so a
+ * lower id can appear after a higher one has been read. Ids skipped over are
+ * kept as gaps and re-read until they show up or the grace period ends (the
+ * insert rolled back). Only the poller thread uses a cursor.
+ */
+final class FeedCursor {
+
+    private final long graceNanos;
+    private final int maxGaps;
+    private final Map<Long, Long> gapDeadlines = new LinkedHashMap<>();
+    private long position = -1;
+
+    FeedCursor(long graceMillis, int maxGaps) {
+        this.graceNanos = graceMillis * 1_000_000L;
+        this.maxGaps = maxGaps;
+    }
+
+    boolean isInitialised() {
+        return position >= 0;
+    }
+
+    long position() {
+        return position;
+    }
+
+    /**
+     * Jump to a position, forgetting any gaps; used while nobody is listening
+     */
+    void reset(long position) {
+        this.position = position;
+        gapDeadlines.clear();
+    }
+
+    /**
+     * Move past an id read from the table, in ascending order
+     */
+    void advance(long id) {
+        long missing = id - position - 1;
+        // Larger holes are deletes or abandoned ranges, not transactions in flight
+        if (missing > 0 && gapDeadlines.size() + missing <= maxGaps) {
+            long deadline = System.nanoTime() + graceNanos;
+            for (long gap = position + 1; gap < id; gap++) {
+                gapDeadlines.put(gap, deadline);
+            }
+        }
+        position = Math.max(position, id);
+    }
+
+    /**
+     * Gaps still worth re-reading, dropping those past their grace period
+     */
+    List<Long> openGaps() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Long, Long>> gaps = gapDeadlines.entrySet().iterator();
+        while (gaps.hasNext()) {
+            if (gaps.next().getValue() - now < 0) {
+                gaps.remove();
+            }
+        }
+        return new ArrayList<>(gapDeadlines.keySet());
+    }
+
+    void filled(long id) {
+        gapDeadlines.remove(id);
+    }
+}
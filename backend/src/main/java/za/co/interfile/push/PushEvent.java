@@ -0,0 +1,20 @@
+package za.co.interfile.push;
+
+/**
+ * One server-sent event. A null name marks a heartbeat, sent as an SSE comment.
+ * Data that is already a JSON string is written as is.
+ */
+public record PushEvent(String name, String id, Object data) {
+
+    static final PushEvent HEARTBEAT = new PushEvent(null, null, "ping");
+
+    /**
+     * Sent in place of everything queued when a client falls too far behind;
+     * the client should reload its notifications and balance
+     */
+    static final PushEvent RESYNC = new PushEvent("resync", null, "{}");
+
+    boolean isHeartbeat() {
+        return name == null;
+    }
+}
@@ -0,0 +1,209 @@
+package za.co.interfile.push;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event streams open on this node, by user. Publishing only queues the event on
+ * each of the user's streams; writes happen on the push executor. A heartbeat
+ * keeps idle connections from being closed by proxies and detects dead clients.
+ * Other nodes' streams are reached through the change feed, not from here.
+ */
+@Slf4j
+@Component
+public class PushRegistry {
+
+    private final Map<Long, List<PushSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter queued;
+    private final Counter overflowed;
+    private final Counter writeTimeouts;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${app.push.max-connections:20000}")
+    private int maxConnections;
+
+    @Value("${app.push.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${app.push.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.push.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${app.push.writer-threads:16}")
+    private int writerThreads;
+
+    @Value("${app.push.write-timeout-ms:10000}")
+    private long writeTimeoutMs;
+
+    private AsyncTaskExecutor taskExecutor;
+
+    public PushRegistry(MeterRegistry meterRegistry) {
+        this.queued = Counter.builder("relief.push.events").tag("result", "queued").register(meterRegistry);
+        this.overflowed = Counter.builder("relief.push.events").tag("result", "overflow").register(meterRegistry);
+        this.writeTimeouts = Counter.builder("relief.push.write.timeouts")
+                .description("Streams dropped because a write to the client did not finish in time")
+                .register(meterRegistry);
+        Gauge.builder("relief.push.connections", connections, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void initExecutor() {
+        // Kept out of the context on purpose: an Executor bean would replace
+        // the auto-configured applicationTaskExecutor used by @Async
+        if (virtualThreadsEnabled && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("push-");
+            executor.setVirtualThreads(true);
+            taskExecutor = executor;
+        } else {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadNamePrefix("push-");
+            executor.setCorePoolSize(writerThreads);
+            executor.setMaxPoolSize(writerThreads);
+            executor.setQueueCapacity(Math.max(maxConnections, 1000));
+            executor.initialize();
+            taskExecutor = executor;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(streams -> streams.forEach(subscriber -> {
+            subscriber.close();
+            subscriber.getEmitter().complete();
+        }));
+        if (taskExecutor instanceof ThreadPoolTaskExecutor executor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Open a stream for the user, or empty when this node or the user is at
+     * the connection limit
+     */
+    public Optional<SseEmitter> subscribe(Long userId, PushEvent initialEvent) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        PushSubscriber subscriber = new PushSubscriber(userId, emitter, queueCapacity);
+        boolean[] added = new boolean[1];
+        subscribers.compute(userId, (id, streams) -> {
+            List<PushSubscriber> current = streams != null ? streams : new CopyOnWriteArrayList<>();
+            if (current.size() < maxConnectionsPerUser) {
+                current.add(subscriber);
+                added[0] = true;
+            }
+            return current.isEmpty() ? null : current;
+        });
+        if (!added[0]) {
+            connections.decrementAndGet();
+            return Optional.empty();
+        }
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        if (initialEvent != null) {
+            subscriber.offer(initialEvent);
+            subscriber.schedule(taskExecutor);
+        }
+        return Optional.of(emitter);
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    public boolean hasSubscribers(Long userId) {
+        return subscribers.containsKey(userId);
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Queue an event on every stream the user has open on this node
+     */
+    public void publish(Long userId, PushEvent event) {
+        List<PushSubscriber> streams = subscribers.get(userId);
+        if (streams == null) {
+            return;
+        }
+        for (PushSubscriber subscriber : streams) {
+            if (subscriber.offer(event)) {
+                queued.increment();
+            } else {
+                overflowed.increment();
+                log.debug("Push backlog for user {} overflowed; sent resync", userId);
+            }
+            subscriber.schedule(taskExecutor);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.push.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(streams -> streams.forEach(subscriber -> {
+            subscriber.offer(PushEvent.HEARTBEAT);
+            subscriber.schedule(taskExecutor);
+        }));
+    }
+
+    /**
+     * Drop streams whose client has stopped reading, so they don't hold a writer thread
+     */
+    @Scheduled(fixedDelayString = "${app.push.write-check-interval-ms:1000}")
+    public void dropStuckWriters() {
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        subscribers.values().forEach(streams -> streams.forEach(subscriber -> {
+            if (subscriber.isWriteStuck(now, timeoutNanos)) {
+                log.debug("Push write to user {} blocked for over {}ms; dropping the stream",
+                        subscriber.getUserId(), writeTimeoutMs);
+                writeTimeouts.increment();
+                subscriber.abort(new TimeoutException("Push write timed out"));
+                remove(subscriber);
+            }
+        }));
+    }
+
+    private void remove(PushSubscriber subscriber) {
+        subscriber.close();
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(subscriber.getUserId(), (id, streams) -> {
+            removed[0] = streams.remove(subscriber);
+            return streams.isEmpty() ? null : streams;
+        });
+        if (removed[0]) {
+            connections.decrementAndGet();
+        }
+    }
+}
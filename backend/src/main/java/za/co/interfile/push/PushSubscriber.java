@@ -0,0 +1,158 @@
+package za.co.interfile.push;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One open event stream. Events are queued without blocking and written by a
+ * single drain task at a time on the push executor, so a slow client only ever
+ * holds its own task. When the queue is full the backlog is replaced by one
+ * resync event rather than growing or stalling the publisher.
+ * <p>
+ * A write to a client that stops reading blocks once the socket buffer is
+ * full. Each write records when it started, so PushRegistry can drop a
+ * subscriber whose write has run past the write timeout and free the thread.
+ */
+final class PushSubscriber {
+
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final ArrayBlockingQueue<PushEvent> queue;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile long writeStartedAt;
+    private Thread writer;
+
+    PushSubscriber(Long userId, SseEmitter emitter, int queueCapacity) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    /**
+     * Whether a write has been in progress for longer than timeoutNanos
+     */
+    boolean isWriteStuck(long now, long timeoutNanos) {
+        long started = writeStartedAt;
+        return started != 0 && now - started > timeoutNanos;
+    }
+
+    /**
+     * Drop the stream: interrupt the write in progress, if any, and complete the
+     * emitter with the reason
+     */
+    void abort(Exception reason) {
+        close();
+        synchronized (this) {
+            if (writer != null) {
+                writer.interrupt();
+            }
+        }
+        emitter.completeWithError(reason);
+    }
+
+    /**
+     * Queue an event; returns false when the backlog overflowed and was
+     * replaced by a resync event
+     */
+    boolean offer(PushEvent event) {
+        if (closed) {
+            return true;
+        }
+        if (queue.offer(event)) {
+            return true;
+        }
+        if (event.isHeartbeat()) {
+            // A full queue is about to produce traffic anyway
+            return true;
+        }
+        synchronized (queue) {
+            queue.clear();
+            queue.offer(PushEvent.RESYNC);
+        }
+        return false;
+    }
+
+    /**
+     * Start a drain task unless one is already running for this subscriber
+     */
+    void schedule(Executor executor) {
+        if (closed || queue.isEmpty() || !draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> drain(executor));
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+        }
+    }
+
+    private void drain(Executor executor) {
+        try {
+            PushEvent event;
+            while (!closed && (event = queue.poll()) != null) {
+                send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter callbacks remove it from the registry
+            close();
+            emitter.completeWithError(e);
+        } finally {
+            draining.set(false);
+        }
+        // Events queued between the last poll and releasing the flag
+        schedule(executor);
+    }
+
+    private void send(PushEvent event) throws IOException {
+        SseEmitter.SseEventBuilder builder;
+        if (event.isHeartbeat()) {
+            builder = SseEmitter.event().comment(String.valueOf(event.data()));
+        } else {
+            builder = SseEmitter.event()
+                    .name(event.name())
+                    .data(event.data(), MediaType.APPLICATION_JSON);
+            if (event.id() != null) {
+                builder.id(event.id());
+            }
+        }
+
+        synchronized (this) {
+            writer = Thread.currentThread();
+            writeStartedAt = System.nanoTime() | 1;
+        }
+        try {
+            emitter.send(builder);
+        } finally {
+            synchronized (this) {
+                writer = null;
+                writeStartedAt = 0;
+                // An abort that raced the end of the write must not reach the thread's next task
+                Thread.interrupted();
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package za.co.interfile.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import za.co.interfile.enums.UserEventType;
+import za.co.interfile.model.UserEvent;
+import za.co.interfile.repository.UserEventRepository;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Records changes for the change feed. Call inside the transaction that makes
+ * the change: the event commits or rolls back with it, and every node pushes it
+ * to the user's open streams once its poller reads it.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserEventPublisher {
+
+    private final UserEventRepository userEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * version is the user_balances row version, so consumers can skip stale events
+     */
+    public void balanceChanged(Long userId, BigDecimal availableBalance, long version) {
+        publish(userId, UserEventType.BALANCE_CHANGED,
+                Map.of("availableBalance", availableBalance, "version", version));
+    }
+
+    /**
+     * The user's searchable fields or status changed; other nodes re-read the row
+     */
+    public void userChanged(Long userId) {
+        publish(userId, UserEventType.USER_CHANGED, Map.of());
+    }
+
+    private void publish(Long userId, UserEventType eventType, Map<String, Object> payload) {
+        try {
+            userEventRepository.save(UserEvent.builder()
+                    .userId(userId)
+                    .eventType(eventType)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise " + eventType + " event", e);
+        }
+    }
+}
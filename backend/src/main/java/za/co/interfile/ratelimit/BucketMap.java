@@ -0,0 +1,67 @@
+package za.co.interfile.ratelimit;
+
+import za.co.interfile.resilience.TokenBucket;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets for one policy, by key. A bucket that has refilled completely
+ * holds nothing worth keeping, so the sweep removes it and a returning key
+ * starts from a new full bucket. The map is bounded: once full, new keys share
+ * one overflow bucket until the sweep frees room, so a flood of distinct keys
+ * is limited as a whole instead of growing the heap.
+ */
+final class BucketMap {
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final double tokensPerSecond;
+    private final int capacity;
+    private final int maxKeys;
+    private final TokenBucket overflow;
+
+    BucketMap(double tokensPerSecond, int capacity, int maxKeys) {
+        this.tokensPerSecond = tokensPerSecond;
+        this.capacity = capacity;
+        this.maxKeys = maxKeys;
+        this.overflow = new TokenBucket(tokensPerSecond, capacity);
+    }
+
+    /**
+     * Take a token for the key; 0 when granted, otherwise nanoseconds until one is available
+     */
+    long reserve(String key) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.size() < maxKeys
+                    ? buckets.computeIfAbsent(key, k -> new TokenBucket(tokensPerSecond, capacity))
+                    : overflow;
+        }
+        return bucket.reserve();
+    }
+
+    /**
+     * Nanoseconds until the key could take a token, without taking one
+     */
+    long availableIn(String key) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return buckets.size() < maxKeys ? 0 : overflow.availableIn();
+        }
+        return bucket.availableIn();
+    }
+
+    /**
+     * Remove buckets that have refilled; returns how many keys remain. A request
+     * racing the removal may take its token from the removed bucket, which
+     * allows at most one extra request for that key.
+     */
+    int sweep() {
+        buckets.values().removeIf(TokenBucket::isFull);
+        return buckets.size();
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
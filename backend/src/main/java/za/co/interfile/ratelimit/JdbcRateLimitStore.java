@@ -0,0 +1,70 @@
+package za.co.interfile.ratelimit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * The same cell rate algorithm as TokenBucket, kept in rate_limit_buckets so
+ * every node draws from one bucket per key. A grant is a single conditional
+ * UPDATE by primary key (autocommit, one row lock); a key seen for the first
+ * time costs one INSERT IGNORE more.
+ */
+final class JdbcRateLimitStore {
+
+    private static final String TAKE = """
+            UPDATE rate_limit_buckets
+               SET tat_millis = GREATEST(tat_millis, ?) + ?
+             WHERE bucket_key = ? AND GREATEST(tat_millis, ?) - ? <= ?
+            """;
+    private static final String WAIT =
+            "SELECT GREATEST(tat_millis - ? - ?, 0) FROM rate_limit_buckets WHERE bucket_key = ?";
+    private static final String CREATE = "INSERT IGNORE INTO rate_limit_buckets (bucket_key, tat_millis) VALUES (?, 0)";
+    private static final String DELETE_FULL = "DELETE FROM rate_limit_buckets WHERE tat_millis < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    JdbcRateLimitStore(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Take a token from the shared bucket; false when it is empty
+     */
+    boolean tryTake(String bucketKey, long intervalMillis, long burstMillis) {
+        if (take(bucketKey, intervalMillis, burstMillis)) {
+            return true;
+        }
+        // No row yet, or an empty bucket; only a new row is worth a second try
+        return jdbcTemplate.update(CREATE, bucketKey) == 1 && take(bucketKey, intervalMillis, burstMillis);
+    }
+
+    /**
+     * Milliseconds until the shared bucket has a token, without taking one
+     */
+    long waitMillis(String bucketKey, long burstMillis) {
+        List<Long> wait = jdbcTemplate.queryForList(WAIT, Long.class,
+                System.currentTimeMillis(), burstMillis, bucketKey);
+        return wait.isEmpty() ? 0 : wait.get(0);
+    }
+
+    private boolean take(String bucketKey, long intervalMillis, long burstMillis) {
+        long now = System.currentTimeMillis();
+        return jdbcTemplate.update(TAKE, now, intervalMillis, bucketKey, now, now, burstMillis) == 1;
+    }
+
+    /**
+     * Delete rows for buckets that have refilled, in batches
+     */
+    int deleteFull(int batchSize) {
+        long now = System.currentTimeMillis();
+        int deleted;
+        int total = 0;
+        do {
+            deleted = jdbcTemplate.update(DELETE_FULL, now, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+}
@@ -0,0 +1,274 @@
+package za.co.interfile.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import za.co.interfile.dtos.ApiResponse;
+import za.co.interfile.enums.RateLimitPolicy;
+import za.co.interfile.security.JwtTokenProvider;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the rate limits to the endpoints that check a password hash or send
+ * email, ahead of Spring Security, so a refused request costs no database query
+ * and no BCrypt. Login and forgot-password are limited by client IP and by the
+ * email in the body; the body is read once and handed on to the controller.
+ * Only failed logins are charged to the email, so a successful one never uses
+ * up an account's allowance; anyone can still fail on an account's behalf, which
+ * is the price of limiting guesses spread over many IPs.
+ * Password change is limited by the user in the bearer token, which is checked
+ * without a database lookup. Refusals get 429 with Retry-After.
+ * <p>
+ * The client IP is the connection's address; behind a proxy set
+ * server.forward-headers-strategy so it is the caller's.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+// After the CORS filter, so a 429 still carries the CORS headers
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN = "/api/relief-hub/auth/login";
+    private static final String REGISTER = "/api/relief-hub/auth/register";
+    private static final String FORGOT_PASSWORD = "/api/relief-hub/auth/forgot-password";
+    private static final String RESET_PASSWORD = "/api/relief-hub/auth/reset-password";
+    private static final String UPDATE_PASSWORD = "/api/relief-hub/update/password";
+
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final RateLimiter rateLimiter;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = path(request);
+        return switch (request.getMethod()) {
+            case "POST" -> !(LOGIN.equals(path) || REGISTER.equals(path)
+                    || FORGOT_PASSWORD.equals(path) || RESET_PASSWORD.equals(path));
+            case "PUT" -> !UPDATE_PASSWORD.equals(path);
+            default -> true;
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String clientIp = request.getRemoteAddr();
+        switch (path(request)) {
+            case LOGIN -> limitLogin(request, response, filterChain, clientIp);
+            case FORGOT_PASSWORD -> limitForgotPassword(request, response, filterChain, clientIp);
+            case RESET_PASSWORD -> {
+                if (!refused(response, RateLimitPolicy.PASSWORD_RESET_IP, clientIp)) {
+                    filterChain.doFilter(request, response);
+                }
+            }
+            case REGISTER -> {
+                if (!refused(response, RateLimitPolicy.REGISTER_IP, clientIp)) {
+                    filterChain.doFilter(request, response);
+                }
+            }
+            case UPDATE_PASSWORD -> {
+                if (!refused(response, RateLimitPolicy.PASSWORD_CHANGE_USER, userKey(request))) {
+                    filterChain.doFilter(request, response);
+                }
+            }
+            default -> filterChain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * Every attempt counts against the IP; the email is only charged when the
+     * login fails, which the controller answers with 401
+     */
+    private void limitLogin(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                            String clientIp) throws ServletException, IOException {
+        if (refused(response, RateLimitPolicy.LOGIN_IP, clientIp)) {
+            return;
+        }
+        byte[] body = readBody(request, response);
+        if (body == null) {
+            return;
+        }
+        String email = email(body);
+        long emailWait = rateLimiter.check(RateLimitPolicy.LOGIN_EMAIL, email);
+        if (refused(response, RateLimitPolicy.LOGIN_EMAIL, email, emailWait)) {
+            return;
+        }
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+        if (response.getStatus() == HttpStatus.UNAUTHORIZED.value()) {
+            rateLimiter.charge(RateLimitPolicy.LOGIN_EMAIL, email);
+        }
+    }
+
+    private void limitForgotPassword(HttpServletRequest request, HttpServletResponse response,
+                                     FilterChain filterChain, String clientIp) throws ServletException, IOException {
+        if (refused(response, RateLimitPolicy.PASSWORD_RESET_IP, clientIp)) {
+            return;
+        }
+        byte[] body = readBody(request, response);
+        if (body == null || refused(response, RateLimitPolicy.PASSWORD_RESET_EMAIL, email(body))) {
+            return;
+        }
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    /**
+     * The request body, or null after answering 413 when it is too large to be a login
+     */
+    private static byte[] readBody(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return null;
+        }
+        return body;
+    }
+
+    private boolean refused(HttpServletResponse response, RateLimitPolicy policy, String key) throws IOException {
+        return refused(response, policy, key, rateLimiter.reserve(policy, key));
+    }
+
+    private boolean refused(HttpServletResponse response, RateLimitPolicy policy, String key, long waitNanos)
+            throws IOException {
+        if (waitNanos == 0) {
+            return false;
+        }
+        log.debug("Rate limit {} refused {}", policy, key);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Too many attempts. Please try again later."));
+        return true;
+    }
+
+    /**
+     * The email field of a JSON body, normalised as the service does; null when
+     * absent or unreadable, leaving validation to the controller
+     */
+    private String email(byte[] body) {
+        try {
+            String email = objectMapper.readTree(body).path("email").asText("").trim();
+            return email.isEmpty() ? null : email.toLowerCase(Locale.ROOT);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The user id from a valid bearer token; null otherwise, and Spring
+     * Security turns the request away
+     */
+    private String userKey(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            return String.valueOf(jwtTokenProvider.getUserIdFromToken(header.substring(7)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * A request whose body has already been read, served from memory
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The whole body is already in memory, so it is available at once
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (in.available() > 0) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
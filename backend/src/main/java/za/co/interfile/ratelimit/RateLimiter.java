@@ -0,0 +1,183 @@
+package za.co.interfile.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import za.co.interfile.enums.RateLimitPolicy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-key rate limits held in memory as lock-free token buckets, one bounded
+ * map per policy. With app.rate-limit.store=jdbc (the default) a request this
+ * node allows is also checked against a shared bucket in the database, so the
+ * limit holds across nodes; anything this node already refuses never reaches
+ * the database. If the database cannot be reached the local limit still applies.
+ * With store=memory each node limits on its own, so a cluster of n nodes allows
+ * up to n times each limit.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int DELETE_BATCH = 1000;
+
+    private final Map<RateLimitPolicy, BucketMap> buckets = new EnumMap<>(RateLimitPolicy.class);
+    private final Map<RateLimitPolicy, Limit> limits = new EnumMap<>(RateLimitPolicy.class);
+    private final Map<RateLimitPolicy, Counter> rejected = new EnumMap<>(RateLimitPolicy.class);
+    private final JdbcRateLimitStore jdbcStore;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    public RateLimiter(Environment environment,
+                       @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.rate-limit.store:jdbc}") String store,
+                       @Value("${app.rate-limit.max-keys:100000}") int maxKeys) {
+        for (RateLimitPolicy policy : RateLimitPolicy.values()) {
+            String prefix = "app.rate-limit." + policy.getProperty();
+            int capacity = environment.getProperty(prefix + ".capacity", Integer.class, policy.getDefaultCapacity());
+            long periodSeconds = environment.getProperty(prefix + ".period-seconds", Long.class,
+                    policy.getDefaultPeriodSeconds());
+            if (capacity < 1 || periodSeconds < 1) {
+                throw new IllegalStateException(prefix + " needs a positive capacity and period");
+            }
+
+            long intervalMillis = Math.max(1, TimeUnit.SECONDS.toMillis(periodSeconds) / capacity);
+            limits.put(policy, new Limit(intervalMillis, intervalMillis * (capacity - 1)));
+            buckets.put(policy, new BucketMap(capacity / (double) periodSeconds, capacity, maxKeys));
+            rejected.put(policy, Counter.builder("relief.ratelimit.rejected")
+                    .description("Requests refused by a rate limit")
+                    .tag("policy", policy.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        this.jdbcStore = "jdbc".equalsIgnoreCase(store) ? new JdbcRateLimitStore(primaryDataSource) : null;
+        Gauge.builder("relief.ratelimit.keys", buckets,
+                        map -> map.values().stream().mapToInt(BucketMap::size).sum())
+                .description("Keys with a partly used bucket on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take one request from the key's allowance
+     *
+     * @return 0 when allowed, otherwise nanoseconds until the key may try again
+     */
+    public long reserve(RateLimitPolicy policy, String key) {
+        if (!enabled || key == null || key.isEmpty()) {
+            return 0;
+        }
+        String boundedKey = bound(key);
+
+        long wait = buckets.get(policy).reserve(boundedKey);
+        if (wait > 0) {
+            rejected.get(policy).increment();
+            return wait;
+        }
+
+        if (jdbcStore != null) {
+            Limit limit = limits.get(policy);
+            try {
+                if (!jdbcStore.tryTake(policy.name() + ":" + boundedKey, limit.intervalMillis(), limit.burstMillis())) {
+                    rejected.get(policy).increment();
+                    return TimeUnit.MILLISECONDS.toNanos(limit.intervalMillis());
+                }
+            } catch (DataAccessException e) {
+                log.warn("Shared rate limit unavailable, using this node's limit: {}", e.getMessage());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * How long until the key could take a request, without taking one; for limits
+     * charged only after the outcome is known
+     *
+     * @return 0 when a request would be allowed, otherwise nanoseconds to wait
+     */
+    public long check(RateLimitPolicy policy, String key) {
+        if (!enabled || key == null || key.isEmpty()) {
+            return 0;
+        }
+        String boundedKey = bound(key);
+
+        long wait = buckets.get(policy).availableIn(boundedKey);
+        if (wait == 0 && jdbcStore != null) {
+            try {
+                wait = TimeUnit.MILLISECONDS.toNanos(
+                        jdbcStore.waitMillis(policy.name() + ":" + boundedKey, limits.get(policy).burstMillis()));
+            } catch (DataAccessException e) {
+                log.warn("Shared rate limit unavailable, using this node's limit: {}", e.getMessage());
+            }
+        }
+        if (wait > 0) {
+            rejected.get(policy).increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Take one request from the key's allowance after it has run, e.g. a failed
+     * login; an empty bucket just stays empty
+     */
+    public void charge(RateLimitPolicy policy, String key) {
+        if (!enabled || key == null || key.isEmpty()) {
+            return;
+        }
+        String boundedKey = bound(key);
+
+        buckets.get(policy).reserve(boundedKey);
+        if (jdbcStore != null) {
+            Limit limit = limits.get(policy);
+            try {
+                jdbcStore.tryTake(policy.name() + ":" + boundedKey, limit.intervalMillis(), limit.burstMillis());
+            } catch (DataAccessException e) {
+                log.warn("Shared rate limit unavailable, using this node's limit: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:30000}")
+    public void sweep() {
+        int remaining = 0;
+        for (BucketMap map : buckets.values()) {
+            remaining += map.sweep();
+        }
+        log.trace("Rate limiter holds {} keys after sweep", remaining);
+    }
+
+    @Scheduled(cron = "${app.rate-limit.cleanup-cron:0 */10 * * * *}")
+    public void deleteFullSharedBuckets() {
+        if (jdbcStore == null) {
+            return;
+        }
+        try {
+            int deleted = jdbcStore.deleteFull(DELETE_BATCH);
+            if (deleted > 0) {
+                log.debug("Deleted {} refilled rate limit buckets", deleted);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Rate limit bucket cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    private static String bound(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private record Limit(long intervalMillis, long burstMillis) {
+    }
+}
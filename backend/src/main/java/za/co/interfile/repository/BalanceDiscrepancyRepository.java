@@ -0,0 +1,21 @@
+package za.co.interfile.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import za.co.interfile.model.BalanceDiscrepancy;
+
+import java.util.List;
+
+@Repository
+public interface BalanceDiscrepancyRepository extends JpaRepository<BalanceDiscrepancy, Long> {
+
+    /**
+     * Largest discrepancies of a run first
+     */
+    @Query("SELECT d FROM BalanceDiscrepancy d WHERE d.runId = :runId " +
+            "ORDER BY ABS(d.difference) DESC, d.userId ASC")
+    List<BalanceDiscrepancy> findLargestByRunId(@Param("runId") Long runId, Pageable pageable);
+}
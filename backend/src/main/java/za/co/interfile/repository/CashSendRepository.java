@@ -1,9 +1,13 @@
 package za.co.interfile.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import za.co.interfile.model.CashSendTransaction;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,5 +17,19 @@ public interface CashSendRepository extends JpaRepository<CashSendTransaction, L
     Optional<CashSendTransaction> findByVoucherCode(String voucherCode);
 
     List<CashSendTransaction> findByUserUserIdOrderByCreatedAtDesc(Long userId);
+
+    List<CashSendTransaction> findByUserUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+
     boolean existsByVoucherCode(String voucherCode);
-}
\ No newline at end of file
+
+    /**
+     * Keyset page of a user's cash sends older than (before, beforeId), newest first
+     */
+    @Query("SELECT c FROM CashSendTransaction c WHERE c.user.userId = :userId " +
+            "AND (c.createdAt < :before OR (c.createdAt = :before AND c.cashSendId < :beforeId)) " +
+            "ORDER BY c.createdAt DESC, c.cashSendId DESC")
+    List<CashSendTransaction> findFeedPage(@Param("userId") Long userId,
+                                           @Param("before") LocalDateTime before,
+                                           @Param("beforeId") Long beforeId,
+                                           Pageable pageable);
+}
@@ -1,13 +1,30 @@
 package za.co.interfile.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import za.co.interfile.model.ElectricityTransaction;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ElectricityTransactionRepository extends JpaRepository<ElectricityTransaction, Long> {
 
     List<ElectricityTransaction> findByUserUserIdOrderByCreatedAtDesc(Long userId);
-}
\ No newline at end of file
+
+    List<ElectricityTransaction> findByUserUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+
+    /**
+     * Keyset page of a user's electricity purchases older than (before, beforeId), newest first
+     */
+    @Query("SELECT e FROM ElectricityTransaction e WHERE e.user.userId = :userId " +
+            "AND (e.createdAt < :before OR (e.createdAt = :before AND e.transactionId < :beforeId)) " +
+            "ORDER BY e.createdAt DESC, e.transactionId DESC")
+    List<ElectricityTransaction> findFeedPage(@Param("userId") Long userId,
+                                              @Param("before") LocalDateTime before,
+                                              @Param("beforeId") Long beforeId,
+                                              Pageable pageable);
+}
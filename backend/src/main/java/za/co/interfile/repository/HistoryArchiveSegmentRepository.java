@@ -0,0 +1,22 @@
+package za.co.interfile.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import za.co.interfile.archive.ArchiveTable;
+import za.co.interfile.model.HistoryArchiveSegment;
+
+import java.time.LocalDate;
+
+/**
+ * Metadata queries only; blocks are read with plain JDBC so that listing
+ * segments never loads their data
+ */
+@Repository
+public interface HistoryArchiveSegmentRepository extends JpaRepository<HistoryArchiveSegment, Long> {
+
+    boolean existsByUserIdAndTableName(Long userId, ArchiveTable tableName);
+
+    @Query("SELECT MAX(s.periodMonth) FROM HistoryArchiveSegment s")
+    LocalDate findLatestArchivedMonth();
+}
@@ -0,0 +1,251 @@
+package za.co.interfile.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import za.co.interfile.enums.SpendCategory;
+import za.co.interfile.model.MonthlySpendSummary;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MonthlySpendSummaryRepository extends JpaRepository<MonthlySpendSummary, Long> {
+
+    /**
+     * Every money movement of a user range since a date, one row per movement and
+     * category, straight from the source tables. Electricity fees are not stored
+     * per purchase, so the flat fee is passed in.
+     */
+    String MOVEMENTS = """
+            SELECT t.user_id, DATE_FORMAT(t.created_at, '%Y-%m-01') AS period_month,
+                   'RECEIVED' AS category, t.amount AS amount
+              FROM transactions t
+             WHERE t.transaction_type = 'DEPOSIT' AND t.status = 'COMPLETED'
+               AND t.user_id BETWEEN :fromUserId AND :toUserId AND t.created_at >= :since
+            UNION ALL
+            SELECT w.user_id, DATE_FORMAT(w.requested_at, '%Y-%m-01'), 'WITHDRAWAL', w.net_amount
+              FROM withdrawal_requests w
+             WHERE w.status = 'PROCESSED'
+               AND w.user_id BETWEEN :fromUserId AND :toUserId AND w.requested_at >= :since
+            UNION ALL
+            SELECT w.user_id, DATE_FORMAT(w.requested_at, '%Y-%m-01'), 'FEES', w.calculated_fees
+              FROM withdrawal_requests w
+             WHERE w.status = 'PROCESSED' AND w.calculated_fees > 0
+               AND w.user_id BETWEEN :fromUserId AND :toUserId AND w.requested_at >= :since
+            UNION ALL
+            SELECT c.user_id, DATE_FORMAT(c.created_at, '%Y-%m-01'), 'CASH_SEND', c.amount
+              FROM cash_send_transactions c
+             WHERE c.user_id BETWEEN :fromUserId AND :toUserId AND c.created_at >= :since
+            UNION ALL
+            SELECT c.user_id, DATE_FORMAT(c.created_at, '%Y-%m-01'), 'FEES', c.fee
+              FROM cash_send_transactions c
+             WHERE c.fee > 0
+               AND c.user_id BETWEEN :fromUserId AND :toUserId AND c.created_at >= :since
+            UNION ALL
+            SELECT e.user_id, DATE_FORMAT(e.created_at, '%Y-%m-01'), 'ELECTRICITY', e.amount
+              FROM electricity_transactions e
+             WHERE e.user_id BETWEEN :fromUserId AND :toUserId AND e.created_at >= :since
+            UNION ALL
+            SELECT e.user_id, DATE_FORMAT(e.created_at, '%Y-%m-01'), 'FEES', :electricityFee
+              FROM electricity_transactions e
+             WHERE e.user_id BETWEEN :fromUserId AND :toUserId AND e.created_at >= :since
+            """;
+
+    String AGGREGATED_MOVEMENTS = """
+            SELECT m.user_id AS userId, m.period_month AS periodMonth, m.category AS category,
+                   SUM(m.amount) AS totalAmount, COUNT(*) AS transactionCount
+              FROM (""" + MOVEMENTS + """
+                   ) m
+             GROUP BY m.user_id, m.period_month, m.category
+            """;
+
+    List<MonthlySpendSummary> findByUserIdAndPeriodMonthGreaterThanEqualOrderByPeriodMonthDescCategoryAsc(
+            Long userId, LocalDate fromMonth);
+
+    List<MonthlySpendSummary> findByUserIdBetweenAndPeriodMonthGreaterThanEqual(
+            Long fromUserId, Long toUserId, LocalDate fromMonth);
+
+    @Query("SELECT COALESCE(SUM(s.totalAmount), 0) FROM MonthlySpendSummary s " +
+            "WHERE s.userId = :userId AND s.category IN :categories")
+    BigDecimal sumByUserAndCategories(@Param("userId") Long userId,
+                                      @Param("categories") Collection<SpendCategory> categories);
+
+    /**
+     * Add one movement to its month's rollup row, creating the row if needed
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO monthly_spend_summaries
+                   (user_id, period_month, category, total_amount, transaction_count, updated_at)
+            VALUES (:userId, :periodMonth, :category, :amount, 1, NOW())
+            ON DUPLICATE KEY UPDATE total_amount = total_amount + :amount,
+                                    transaction_count = transaction_count + 1,
+                                    updated_at = NOW()
+            """, nativeQuery = true)
+    int increment(@Param("userId") Long userId,
+                  @Param("periodMonth") LocalDate periodMonth,
+                  @Param("category") String category,
+                  @Param("amount") BigDecimal amount);
+
+    /**
+     * Overwrite a rollup row with recomputed values
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO monthly_spend_summaries
+                   (user_id, period_month, category, total_amount, transaction_count, updated_at)
+            VALUES (:userId, :periodMonth, :category, :totalAmount, :transactionCount, NOW())
+            ON DUPLICATE KEY UPDATE total_amount = :totalAmount,
+                                    transaction_count = :transactionCount,
+                                    updated_at = NOW()
+            """, nativeQuery = true)
+    int overwrite(@Param("userId") Long userId,
+                  @Param("periodMonth") LocalDate periodMonth,
+                  @Param("category") String category,
+                  @Param("totalAmount") BigDecimal totalAmount,
+                  @Param("transactionCount") Long transactionCount);
+
+    /**
+     * Lock the rollup rows of a user range, and the gaps between them, until the
+     * transaction ends, so no movement can be added to them meanwhile
+     */
+    @Query(value = "SELECT summary_id FROM monthly_spend_summaries "
+            + "WHERE user_id BETWEEN :fromUserId AND :toUserId AND period_month >= :fromMonth FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockUserRange(@Param("fromUserId") Long fromUserId,
+                             @Param("toUserId") Long toUserId,
+                             @Param("fromMonth") LocalDate fromMonth);
+
+    @Modifying
+    @Query(value = "DELETE FROM monthly_spend_summaries " +
+            "WHERE user_id BETWEEN :fromUserId AND :toUserId AND period_month >= :fromMonth",
+            nativeQuery = true)
+    int deleteUserRange(@Param("fromUserId") Long fromUserId,
+                        @Param("toUserId") Long toUserId,
+                        @Param("fromMonth") LocalDate fromMonth);
+
+    /**
+     * Rebuild the rollup rows of a user range from the source tables
+     */
+    @Modifying
+    @Query(value = "INSERT INTO monthly_spend_summaries "
+            + "(user_id, period_month, category, total_amount, transaction_count, updated_at) "
+            + "SELECT a.userId, a.periodMonth, a.category, a.totalAmount, a.transactionCount, NOW() "
+            + "FROM (" + AGGREGATED_MOVEMENTS + ") a", nativeQuery = true)
+    int backfillUserRange(@Param("fromUserId") Long fromUserId,
+                          @Param("toUserId") Long toUserId,
+                          @Param("since") LocalDateTime since,
+                          @Param("electricityFee") BigDecimal electricityFee);
+
+    @Query(value = AGGREGATED_MOVEMENTS, nativeQuery = true)
+    List<SpendAggregate> aggregateUserRange(@Param("fromUserId") Long fromUserId,
+                                            @Param("toUserId") Long toUserId,
+                                            @Param("since") LocalDateTime since,
+                                            @Param("electricityFee") BigDecimal electricityFee);
+
+    @Query(value = "SELECT COALESCE(MAX(user_id), 0) FROM users", nativeQuery = true)
+    Long findMaxUserId();
+
+    // Completed deposits and withdrawals, which are settled outside this service
+
+    /**
+     * Deposits completed since a time that have not been added to the rollup yet
+     */
+    @Query(value = """
+            SELECT t.transaction_id AS sourceId, t.user_id AS userId,
+                   DATE_FORMAT(t.created_at, '%Y-%m-01') AS periodMonth, t.amount AS amount, 0 AS fee
+              FROM transactions t
+              LEFT JOIN spend_summary_movements m ON m.source = 'DEPOSIT' AND m.source_id = t.transaction_id
+             WHERE t.completed_at >= :since AND t.transaction_type = 'DEPOSIT' AND t.status = 'COMPLETED'
+               AND m.movement_id IS NULL
+             ORDER BY t.transaction_id
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<CompletedMovement> findUnrecordedDeposits(@Param("since") LocalDateTime since, @Param("limit") int limit);
+
+    /**
+     * Withdrawals processed since a time that have not been added to the rollup yet
+     */
+    @Query(value = """
+            SELECT w.withdrawal_id AS sourceId, w.user_id AS userId,
+                   DATE_FORMAT(w.requested_at, '%Y-%m-01') AS periodMonth, w.net_amount AS amount,
+                   w.calculated_fees AS fee
+              FROM withdrawal_requests w
+              LEFT JOIN spend_summary_movements m ON m.source = 'WITHDRAWAL' AND m.source_id = w.withdrawal_id
+             WHERE w.processed_at >= :since AND w.status = 'PROCESSED'
+               AND m.movement_id IS NULL
+             ORDER BY w.withdrawal_id
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<CompletedMovement> findUnrecordedWithdrawals(@Param("since") LocalDateTime since, @Param("limit") int limit);
+
+    /**
+     * Claim a movement for the rollup; 1 when this caller is the first to claim it
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO spend_summary_movements (source, source_id, recorded_at) "
+            + "VALUES (:source, :sourceId, NOW())", nativeQuery = true)
+    int claim(@Param("source") String source, @Param("sourceId") Long sourceId);
+
+    /**
+     * Claim every completed movement of a user range in the follow window, so the
+     * follower does not add again what a rebuild has just counted
+     */
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO spend_summary_movements (source, source_id, recorded_at)
+            SELECT 'DEPOSIT', t.transaction_id, NOW()
+              FROM transactions t
+             WHERE t.user_id BETWEEN :fromUserId AND :toUserId AND t.completed_at >= :since
+               AND t.transaction_type = 'DEPOSIT' AND t.status = 'COMPLETED'
+            UNION ALL
+            SELECT 'WITHDRAWAL', w.withdrawal_id, NOW()
+              FROM withdrawal_requests w
+             WHERE w.user_id BETWEEN :fromUserId AND :toUserId AND w.processed_at >= :since
+               AND w.status = 'PROCESSED'
+            """, nativeQuery = true)
+    int claimUserRange(@Param("fromUserId") Long fromUserId,
+                       @Param("toUserId") Long toUserId,
+                       @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query(value = "DELETE FROM spend_summary_movements WHERE recorded_at < :before LIMIT :limit",
+            nativeQuery = true)
+    int pruneMovements(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * Row of AGGREGATED_MOVEMENTS
+     */
+    interface SpendAggregate {
+        Long getUserId();
+
+        String getPeriodMonth();
+
+        String getCategory();
+
+        BigDecimal getTotalAmount();
+
+        Long getTransactionCount();
+    }
+
+    /**
+     * Row of findUnrecordedDeposits and findUnrecordedWithdrawals
+     */
+    interface CompletedMovement {
+        Long getSourceId();
+
+        Long getUserId();
+
+        String getPeriodMonth();
+
+        BigDecimal getAmount();
+
+        BigDecimal getFee();
+    }
+}
@@ -0,0 +1,20 @@
+package za.co.interfile.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import za.co.interfile.enums.CampaignStatus;
+import za.co.interfile.model.NotificationCampaign;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NotificationCampaignRepository extends JpaRepository<NotificationCampaign, Long> {
+
+    Optional<NotificationCampaign> findByCampaignKey(String campaignKey);
+
+    Optional<NotificationCampaign> findFirstByStatusInOrderByCampaignIdAsc(Collection<CampaignStatus> statuses);
+
+    List<NotificationCampaign> findTop20ByOrderByCampaignIdDesc();
+}
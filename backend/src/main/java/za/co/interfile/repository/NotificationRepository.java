@@ -25,9 +25,6 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     List<Notification> findByUserAndPriorityOrderByCreatedAtDesc(Users user, NotificationPriority priority);
 
-    @Query("SELECT n FROM Notification n WHERE n.expiresAt < :now")
-    List<Notification> findExpiredNotifications(@Param("now") LocalDateTime now);
-
     @Query("SELECT n FROM Notification n WHERE n.user = :user AND n.createdAt >= :since ORDER BY n.createdAt DESC")
     List<Notification> findRecentNotifications(@Param("user") Users user, @Param("since") LocalDateTime since);
 }
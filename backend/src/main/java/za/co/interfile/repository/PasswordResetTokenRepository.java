@@ -21,7 +21,4 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
     @Modifying
     @Query("DELETE FROM PasswordResetToken p WHERE p.expiryDate < :now")
     void deleteExpiredTokens(LocalDateTime now);
-
-    @Query("SELECT COUNT(p) FROM PasswordResetToken p WHERE p.user = :user AND p.createdAt > :since")
-    long countByUserAndCreatedAtAfter(Users user, LocalDateTime since);
 }
\ No newline at end of file
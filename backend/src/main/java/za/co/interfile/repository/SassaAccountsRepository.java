@@ -1,12 +1,16 @@
 package za.co.interfile.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import za.co.interfile.enums.SassaStatus;
 import za.co.interfile.model.SassaAccounts;
 import za.co.interfile.model.Users;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,4 +32,20 @@ public interface SassaAccountsRepository extends JpaRepository<SassaAccounts, Lo
 
     Optional<SassaAccounts> findByAccountNumber(String accountNumber);
 
+    @Query(value = "SELECT COALESCE(MAX(sassa_account_id), 0) FROM sassa_accounts", nativeQuery = true)
+    Long findMaxSassaAccountId();
+
+    /**
+     * Set the next payment date of the active accounts of one grant type in an id
+     * range; accounts already on that date are not touched
+     */
+    @Modifying
+    @Query(value = "UPDATE sassa_accounts SET next_payment_date = :nextPaymentDate, updated_at = :updatedAt "
+            + "WHERE sassa_account_id BETWEEN :fromId AND :toId AND status = 'ACTIVE' AND grant_type = :grantType "
+            + "AND (next_payment_date IS NULL OR next_payment_date <> :nextPaymentDate)", nativeQuery = true)
+    int updateNextPaymentDateRange(@Param("fromId") Long fromId,
+                                   @Param("toId") Long toId,
+                                   @Param("grantType") String grantType,
+                                   @Param("nextPaymentDate") LocalDate nextPaymentDate,
+                                   @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -29,4 +29,15 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>,
     List<Transaction> findByUserIdAndDateRange(@Param("userId") Long userId,
                                                @Param("fromDate") LocalDateTime fromDate,
                                                @Param("toDate") LocalDateTime toDate);
-}
\ No newline at end of file
+
+    /**
+     * Keyset page of a user's transactions older than (before, beforeId), newest first
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.user.userId = :userId " +
+            "AND (t.createdAt < :before OR (t.createdAt = :before AND t.transactionId < :beforeId)) " +
+            "ORDER BY t.createdAt DESC, t.transactionId DESC")
+    List<Transaction> findFeedPage(@Param("userId") Long userId,
+                                   @Param("before") LocalDateTime before,
+                                   @Param("beforeId") Long beforeId,
+                                   Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package za.co.interfile.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import za.co.interfile.model.UserEvent;
+
+@Repository
+public interface UserEventRepository extends JpaRepository<UserEvent, Long> {
+}
@@ -1,12 +1,29 @@
 package za.co.interfile.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import za.co.interfile.model.Users;
 import za.co.interfile.model.WithdrawalRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface WithdrawalRequestRepository extends JpaRepository<WithdrawalRequest, Long> {
 
     List<WithdrawalRequest> findByUserOrderByRequestedAtDesc(Users user);
+
+    List<WithdrawalRequest> findByUserUserIdOrderByRequestedAtDesc(Long userId, Pageable pageable);
+
+    /**
+     * Keyset page of a user's withdrawals older than (before, beforeId), newest first
+     */
+    @Query("SELECT w FROM WithdrawalRequest w WHERE w.user.userId = :userId " +
+            "AND (w.requestedAt < :before OR (w.requestedAt = :before AND w.withdrawalId < :beforeId)) " +
+            "ORDER BY w.requestedAt DESC, w.withdrawalId DESC")
+    List<WithdrawalRequest> findFeedPage(@Param("userId") Long userId,
+                                         @Param("before") LocalDateTime before,
+                                         @Param("beforeId") Long beforeId,
+                                         Pageable pageable);
 }
@@ -0,0 +1,72 @@
+package za.co.interfile.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Runs a job on at most one node at a time, using a MySQL named lock
+ * (GET_LOCK). The lock belongs to a connection of its own that is held for
+ * the whole job, so the job's own transactions are unaffected, and MySQL
+ * releases it if the node dies and the connection drops.
+ */
+@Slf4j
+public final class ClusterLock {
+
+    private static final String PREFIX = "relief-hub.";
+
+    private final DataSource dataSource;
+
+    public ClusterLock(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Run the job if no node holds the named lock
+     *
+     * @return the job's result, which must not be null, or empty when another
+     * node (or thread) is running it
+     */
+    public <T> Optional<T> callIfFree(String name, Supplier<T> job) {
+        String lockName = PREFIX + name;
+        try (Connection connection = dataSource.getConnection()) {
+            if (!acquire(connection, lockName)) {
+                log.debug("Lock {} is held elsewhere; skipping", lockName);
+                return Optional.empty();
+            }
+            try {
+                return Optional.ofNullable(job.get());
+            } finally {
+                release(connection, lockName);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Could not take lock " + lockName, e);
+        }
+    }
+
+    private static boolean acquire(Connection connection, String lockName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            statement.setString(1, lockName);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void release(Connection connection, String lockName) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, lockName);
+            statement.execute();
+        } catch (SQLException e) {
+            // Dropped with the connection in any case
+            log.warn("Failed to release lock {}: {}", lockName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package za.co.interfile.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm: the
+ * whole state is one "theoretical arrival time" that each granted token pushes
+ * forward by one interval. A token is granted while that time is no more than
+ * the burst allowance ahead of now, so the bucket starts full, refills at the
+ * configured rate and never holds more than its capacity.
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        if (tokensPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Token bucket needs a positive rate and capacity");
+        }
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstNanos = intervalNanos * (capacity - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean tryAcquire() {
+        return reserve() == 0;
+    }
+
+    /**
+     * Take a token if one is available and return 0; otherwise take nothing and
+     * return how many nanoseconds until one will be
+     */
+    public long reserve() {
+        return reserve(1);
+    }
+
+    /**
+     * Take several tokens at once, or none; tokens must not exceed the capacity
+     *
+     * @return 0 when taken, otherwise nanoseconds until that many will be available
+     */
+    public long reserve(int tokens) {
+        long cost = intervalNanos * (tokens - 1);
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = theoreticalArrival.get();
+            long start = arrival - now > 0 ? arrival : now;
+            long wait = start + cost - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + cost + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Nanoseconds until a token will be available, without taking one; 0 when one is now
+     */
+    public long availableIn() {
+        return Math.max(0, theoreticalArrival.get() - System.nanoTime() - burstNanos);
+    }
+
+    /**
+     * Wait for a token for at most the given time
+     */
+    public boolean acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            long wait = reserve();
+            if (wait == 0) {
+                return true;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (wait > remaining) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Whether the bucket has refilled completely, i.e. it holds no state worth keeping
+     */
+    public boolean isFull() {
+        return theoreticalArrival.get() - System.nanoTime() <= 0;
+    }
+}
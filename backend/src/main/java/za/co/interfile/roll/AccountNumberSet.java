@@ -0,0 +1,74 @@
+package za.co.interfile.roll;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Account numbers already seen in one import, stored as 64-bit hashes in an
+ * open-addressing long table (8-16 bytes per account instead of a String and
+ * a HashMap node). A hash collision would drop one genuine line as a
+ * duplicate; at a few million accounts the odds are around one in a million.
+ */
+public final class AccountNumberSet {
+
+    private static final long EMPTY = 0L;
+
+    private long[] slots = new long[1 << 16];
+    private int size;
+
+    /**
+     * @return false if the account number was already present
+     */
+    public boolean add(String accountNumber) {
+        long hash = hash(accountNumber);
+        if (size * 2 >= slots.length) {
+            grow();
+        }
+        if (!insert(slots, hash)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] larger = new long[slots.length * 2];
+        for (long hash : slots) {
+            if (hash != EMPTY) {
+                insert(larger, hash);
+            }
+        }
+        slots = larger;
+    }
+
+    private static boolean insert(long[] table, long hash) {
+        int mask = table.length - 1;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == hash) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = hash;
+        return true;
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with a 64-bit mixer; never returns EMPTY
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash != EMPTY ? hash : 1L;
+    }
+}
@@ -0,0 +1,207 @@
+package za.co.interfile.roll;
+
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.RollFileFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Turns grant roll lines into validated records.
+ * <p>
+ * CSV: columns account_number, id_number, grant_type, monthly_amount and optionally
+ * next_payment_date (yyyy-MM-dd or yyyyMMdd) and external_account_id. A header line
+ * naming the columns may reorder them; without one this order is assumed.
+ * <p>
+ * Fixed width (1-based columns): account number 1-20, ID number 21-33, grant type
+ * 34-53, monthly amount in cents 54-65, next payment date yyyyMMdd 66-73 (blank
+ * if unknown), external account id 74-103 (optional). Fields are space padded.
+ * <p>
+ * Grant types are matched on the enum name or the grant's description, ignoring
+ * case, spaces and dashes. One parser per import; not thread-safe.
+ */
+public final class RollParser {
+
+    private static final List<String> DEFAULT_COLUMNS = List.of(
+            "account_number", "id_number", "grant_type", "monthly_amount", "next_payment_date",
+            "external_account_id");
+
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("999999.99");
+
+    private static final Map<String, GrantType> GRANT_TYPES = new HashMap<>();
+
+    static {
+        for (GrantType grantType : GrantType.values()) {
+            GRANT_TYPES.put(normalizeGrant(grantType.name()), grantType);
+            GRANT_TYPES.put(normalizeGrant(grantType.getDescription()), grantType);
+        }
+    }
+
+    private final RollFileFormat format;
+    private int[] columnIndex;
+
+    public RollParser(RollFileFormat format) {
+        this.format = format;
+        this.columnIndex = indexOf(DEFAULT_COLUMNS);
+    }
+
+    /**
+     * Whether the line is a CSV header; if so, its column order is used from here on
+     */
+    public boolean acceptHeader(String line) {
+        if (format != RollFileFormat.CSV || !line.toLowerCase(Locale.ROOT).contains("account_number")) {
+            return false;
+        }
+        List<String> names = new ArrayList<>();
+        for (String name : splitCsv(line)) {
+            names.add(name.trim().toLowerCase(Locale.ROOT));
+        }
+        for (String required : DEFAULT_COLUMNS.subList(0, 4)) {
+            if (!names.contains(required)) {
+                throw new IllegalArgumentException("Roll header is missing column " + required);
+            }
+        }
+        columnIndex = indexOf(names);
+        return true;
+    }
+
+    public RollRecord parse(String line, long lineNumber) {
+        String[] fields = format == RollFileFormat.CSV ? csvFields(line) : fixedWidthFields(line);
+
+        String accountNumber = fields[0];
+        if (accountNumber.isEmpty() || accountNumber.length() > 50) {
+            throw new RollRejectedException("INVALID_ACCOUNT_NUMBER", "Account number is missing or too long");
+        }
+
+        String idNumber = fields[1];
+        if (!SaIdNumber.isValid(idNumber)) {
+            throw new RollRejectedException("INVALID_ID_NUMBER", "ID number fails the SA ID check");
+        }
+
+        GrantType grantType = GRANT_TYPES.get(normalizeGrant(fields[2]));
+        if (grantType == null) {
+            throw new RollRejectedException("UNKNOWN_GRANT_TYPE", "Unknown grant type '" + fields[2] + "'");
+        }
+
+        BigDecimal monthlyAmount;
+        try {
+            monthlyAmount = format == RollFileFormat.CSV
+                    ? new BigDecimal(fields[3])
+                    : BigDecimal.valueOf(Long.parseLong(fields[3]), 2);
+        } catch (NumberFormatException e) {
+            throw new RollRejectedException("INVALID_AMOUNT", "Monthly amount '" + fields[3] + "' is not a number");
+        }
+        if (monthlyAmount.signum() < 0 || monthlyAmount.compareTo(MAX_AMOUNT) > 0 || monthlyAmount.scale() > 2) {
+            throw new RollRejectedException("INVALID_AMOUNT", "Monthly amount " + monthlyAmount + " is out of range");
+        }
+
+        LocalDate nextPaymentDate = null;
+        if (!fields[4].isEmpty()) {
+            nextPaymentDate = parseDate(fields[4]);
+        }
+
+        return new RollRecord(lineNumber, accountNumber, idNumber, grantType, monthlyAmount, nextPaymentDate,
+                fields[5].isEmpty() ? null : fields[5]);
+    }
+
+    private String[] csvFields(String line) {
+        List<String> values = splitCsv(line);
+        String[] fields = new String[DEFAULT_COLUMNS.size()];
+        for (int i = 0; i < fields.length; i++) {
+            int index = columnIndex[i];
+            fields[i] = index >= 0 && index < values.size() ? values.get(index).trim() : "";
+        }
+        if (fields[3].isEmpty()) {
+            throw new RollRejectedException("MALFORMED", "Expected at least 4 columns");
+        }
+        return fields;
+    }
+
+    private static String[] fixedWidthFields(String line) {
+        if (line.length() < 65) {
+            throw new RollRejectedException("MALFORMED", "Fixed-width line is shorter than 65 characters");
+        }
+        return new String[]{
+                slice(line, 0, 20),
+                slice(line, 20, 33),
+                slice(line, 33, 53),
+                slice(line, 53, 65),
+                slice(line, 65, 73),
+                slice(line, 73, 103)
+        };
+    }
+
+    private static String slice(String line, int from, int to) {
+        if (from >= line.length()) {
+            return "";
+        }
+        return line.substring(from, Math.min(to, line.length())).trim();
+    }
+
+    /**
+     * Split one CSV line, honouring double quotes and "" escapes
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>(DEFAULT_COLUMNS.size());
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return value.length() == 8
+                    ? LocalDate.parse(value, DateTimeFormatter.BASIC_ISO_DATE)
+                    : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RollRejectedException("INVALID_DATE", "Next payment date '" + value + "' is not a date");
+        }
+    }
+
+    private static int[] indexOf(List<String> names) {
+        int[] index = new int[DEFAULT_COLUMNS.size()];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = names.indexOf(DEFAULT_COLUMNS.get(i));
+        }
+        return index;
+    }
+
+    private static String normalizeGrant(String value) {
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+}
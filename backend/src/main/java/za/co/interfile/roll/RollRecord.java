@@ -0,0 +1,20 @@
+package za.co.interfile.roll;
+
+import za.co.interfile.enums.GrantType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One validated beneficiary line from a grant roll
+ */
+public record RollRecord(
+        long lineNumber,
+        String accountNumber,
+        String idNumber,
+        GrantType grantType,
+        BigDecimal monthlyAmount,
+        LocalDate nextPaymentDate,
+        String externalAccountId
+) {
+}
@@ -0,0 +1,22 @@
+package za.co.interfile.roll;
+
+/**
+ * A roll line that cannot be imported. Thrown once per bad line, so it carries
+ * no stack trace.
+ */
+public class RollRejectedException extends RuntimeException {
+
+    private final String reason;
+
+    public RollRejectedException(String reason, String detail) {
+        super(detail, null, false, false);
+        this.reason = reason;
+    }
+
+    /**
+     * Short category used to group rejections in the import report
+     */
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,64 @@
+package za.co.interfile.roll;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Structural check of a South African ID number: YYMMDD date of birth,
+ * citizenship digit 0-2 and a Luhn check digit
+ */
+public final class SaIdNumber {
+
+    private SaIdNumber() {
+    }
+
+    public static boolean isValid(String idNumber) {
+        if (idNumber == null || idNumber.length() != 13) {
+            return false;
+        }
+        for (int i = 0; i < 13; i++) {
+            char c = idNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return hasValidBirthDate(idNumber) && idNumber.charAt(10) <= '2' && hasValidCheckDigit(idNumber);
+    }
+
+    private static boolean hasValidBirthDate(String idNumber) {
+        int year = digits(idNumber, 0);
+        int month = digits(idNumber, 2);
+        int day = digits(idNumber, 4);
+        // The century is not encoded; 29 February only has to exist in one of them
+        return isDate(2000 + year, month, day) || isDate(1900 + year, month, day);
+    }
+
+    private static boolean isDate(int year, int month, int day) {
+        try {
+            LocalDate.of(year, month, day);
+            return true;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
+
+    private static boolean hasValidCheckDigit(String idNumber) {
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            int digit = idNumber.charAt(i) - '0';
+            // Every second digit counting left from the check digit is doubled
+            if ((12 - i) % 2 == 1) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0;
+    }
+
+    private static int digits(String value, int offset) {
+        return (value.charAt(offset) - '0') * 10 + (value.charAt(offset + 1) - '0');
+    }
+}
@@ -0,0 +1,97 @@
+package za.co.interfile.sassa;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.SassaStatus;
+import za.co.interfile.exception.SassaGatewayException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * SASSA account lookups over HTTP: GET {api-url}/accounts/{accountNumber}
+ * answers 200 with the account as JSON or 404 when SASSA does not know it.
+ * Any other answer, a timeout or a connection failure is a gateway failure.
+ */
+@Slf4j
+@Component
+public class HttpSassaGateway implements SassaGateway {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String apiUrl;
+    private final Duration timeout;
+
+    public HttpSassaGateway(@Value("${app.sassa.api-url}") String apiUrl,
+                            @Value("${app.sassa.timeout:30000}") long timeoutMs,
+                            ObjectMapper objectMapper) {
+        this.apiUrl = apiUrl.endsWith("/") ? apiUrl.substring(0, apiUrl.length() - 1) : apiUrl;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(Math.min(timeoutMs, 5000)))
+                .build();
+    }
+
+    @Override
+    public Optional<SassaAccountStatus> fetchAccount(String accountNumber) {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(apiUrl + "/accounts/" + URLEncoder.encode(accountNumber, StandardCharsets.UTF_8)))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new SassaGatewayException("SASSA call failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SassaGatewayException("SASSA call interrupted", e);
+        }
+
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        if (response.statusCode() != 200) {
+            throw new SassaGatewayException("SASSA answered HTTP " + response.statusCode());
+        }
+        return Optional.of(parse(accountNumber, response.body()));
+    }
+
+    private SassaAccountStatus parse(String accountNumber, String body) {
+        try {
+            JsonNode account = objectMapper.readTree(body);
+            String grantType = text(account, "grantType");
+            String nextPaymentDate = text(account, "nextPaymentDate");
+            return new SassaAccountStatus(
+                    accountNumber,
+                    SassaStatus.valueOf(text(account, "status")),
+                    grantType != null ? GrantType.valueOf(grantType) : null,
+                    account.hasNonNull("monthlyAmount") ? account.get("monthlyAmount").decimalValue() : null,
+                    nextPaymentDate != null ? LocalDate.parse(nextPaymentDate) : null,
+                    text(account, "externalAccountId"));
+        } catch (IOException | RuntimeException e) {
+            throw new SassaGatewayException("Unreadable SASSA answer for account " + accountNumber, e);
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && !value.isNull() ? value.asText() : null;
+    }
+}
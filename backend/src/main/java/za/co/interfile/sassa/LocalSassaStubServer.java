@@ -0,0 +1,142 @@
+package za.co.interfile.sassa;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import za.co.interfile.enums.SassaStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for the SASSA account API on a loopback port, for development and
+ * load testing without the real upstream. Point app.sassa.api-url at
+ * http://localhost:{port} to use it.
+ * <p>
+ * Answers are derived from a hash of the account number, so each account keeps
+ * the same status between calls: about 0.5% are unknown (404), 2% suspended,
+ * 0.5% expired and the rest active. Latency, a random failure rate and a
+ * concurrency limit (429 beyond it) mimic a busy upstream.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.sassa.stub.enabled", havingValue = "true")
+public class LocalSassaStubServer {
+
+    private static final String ACCOUNTS_PATH = "/accounts/";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.sassa.stub.port:8099}")
+    private int port;
+
+    @Value("${app.sassa.stub.latency-ms:50}")
+    private long latencyMs;
+
+    @Value("${app.sassa.stub.failure-rate:0.01}")
+    private double failureRate;
+
+    @Value("${app.sassa.stub.max-concurrent:16}")
+    private int maxConcurrent;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private Semaphore inFlight;
+
+    @PostConstruct
+    void start() throws IOException {
+        inFlight = new Semaphore(maxConcurrent);
+        // A few threads beyond the limit so excess calls get a fast 429 instead of queueing
+        executor = Executors.newFixedThreadPool(maxConcurrent + 4);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(ACCOUNTS_PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+        log.info("Local SASSA stub listening on http://localhost:{}{}", port, ACCOUNTS_PATH);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (!inFlight.tryAcquire()) {
+                exchange.sendResponseHeaders(429, -1);
+                return;
+            }
+            try {
+                respond(exchange);
+            } finally {
+                inFlight.release();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(random.nextLong(latencyMs / 2, latencyMs * 3 / 2 + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+        }
+        if (random.nextDouble() < failureRate) {
+            exchange.sendResponseHeaders(503, -1);
+            return;
+        }
+
+        String accountNumber = URLDecoder.decode(
+                exchange.getRequestURI().getRawPath().substring(ACCOUNTS_PATH.length()), StandardCharsets.UTF_8);
+        int bucket = Math.floorMod(accountNumber.hashCode() * 31 + 17, 1000);
+        if (accountNumber.isEmpty() || bucket < 5) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+
+        SassaStatus status = bucket < 25 ? SassaStatus.SUSPENDED
+                : bucket < 30 ? SassaStatus.EXPIRED
+                : SassaStatus.ACTIVE;
+        Map<String, Object> account = new LinkedHashMap<>();
+        account.put("accountNumber", accountNumber);
+        account.put("status", status.name());
+
+        byte[] body = objectMapper.writeValueAsBytes(account);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package za.co.interfile.sassa;
+
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.SassaStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One account as SASSA reports it. Everything except the status is optional;
+ * a null field leaves the local value unchanged.
+ */
+public record SassaAccountStatus(
+        String accountNumber,
+        SassaStatus status,
+        GrantType grantType,
+        BigDecimal monthlyAmount,
+        LocalDate nextPaymentDate,
+        String externalAccountId) {
+}
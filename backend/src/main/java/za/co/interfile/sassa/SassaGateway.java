@@ -0,0 +1,17 @@
+package za.co.interfile.sassa;
+
+import java.util.Optional;
+
+/**
+ * Source of truth for a beneficiary's grant status. Implementations must be
+ * thread-safe; the sync job calls them from several threads at once.
+ */
+public interface SassaGateway {
+
+    /**
+     * Current SASSA view of one account, or empty when SASSA does not know it
+     *
+     * @throws za.co.interfile.exception.SassaGatewayException when SASSA cannot be reached or answers with an error
+     */
+    Optional<SassaAccountStatus> fetchAccount(String accountNumber);
+}
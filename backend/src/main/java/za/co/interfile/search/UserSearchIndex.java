@@ -0,0 +1,429 @@
+package za.co.interfile.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import za.co.interfile.enums.UsersStatus;
+import za.co.interfile.model.Users;
+import za.co.interfile.push.UserEventPublisher;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process trigram index over active users' full name, username, email and
+ * phone for admin search.
+ * Every three-character window of each field maps to a sorted posting list of
+ * user ids. A search intersects the postings of the term's trigrams, starting
+ * from the shortest, then checks the surviving candidates against the stored
+ * field text so results match the old substring semantics exactly. Matches are
+ * ranked by whole-field match, then field prefix, then substring, newest user
+ * first within each rank; only the requested page of ids is returned and the
+ * caller loads those users by primary key.
+ * Terms shorter than three characters have no trigram and are left to the database.
+ * A term whose rarest trigram is shared by more than max-candidates users is not
+ * answered here either: the caller falls back to the database rather than get a
+ * partial result with a wrong total.
+ * <p>
+ * The index is rebuilt from the reporting pool at startup. UsersService changes
+ * are applied here after commit and recorded as USER_CHANGED events, which every
+ * other node's ChangeFeedPoller follows by re-reading the user from the primary.
+ */
+@Slf4j
+@Component
+public class UserSearchIndex {
+
+    public static final int MIN_TERM_LENGTH = 3;
+
+    private static final char FIELD_SEPARATOR = '\n';
+
+    private static final String USER_QUERY =
+            "SELECT user_id, status, full_name, username, email, phone FROM users";
+
+    private final JdbcTemplate reportingJdbcTemplate;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final UserEventPublisher userEventPublisher;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Integer, String> documents = new HashMap<>();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+
+    @Value("${app.user-search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.user-search.rebuild-batch-size:5000}")
+    private int rebuildBatchSize;
+
+    @Value("${app.user-search.max-candidates:20000}")
+    private int maxCandidates;
+
+    public UserSearchIndex(@Qualifier("reportingDataSource") DataSource reportingDataSource,
+                           @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                           UserEventPublisher userEventPublisher) {
+        this.reportingJdbcTemplate = new JdbcTemplate(reportingDataSource);
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.userEventPublisher = userEventPublisher;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Reads
+
+    /**
+     * Whether this term can be answered from the index
+     */
+    public boolean canSearch(String term) {
+        return ready && term != null && term.trim().length() >= MIN_TERM_LENGTH;
+    }
+
+    /**
+     * One page of matching user ids in rank order, with the exact total match count
+     *
+     * @return empty when the term is too common to check within max-candidates
+     */
+    public Optional<Page<Long>> search(String term, Pageable pageable) {
+        String needle = term.trim().toLowerCase(Locale.ROOT);
+        long[] grams = trigrams(needle);
+        if (grams.length == 0) {
+            return Optional.of(Page.empty(pageable));
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(grams.length);
+            for (long gram : grams) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    return Optional.of(Page.empty(pageable));
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            Postings shortest = lists.get(0);
+            if (shortest.size > maxCandidates) {
+                log.debug("User search term of {} characters has {} candidates; leaving it to the database",
+                        needle.length(), shortest.size);
+                return Optional.empty();
+            }
+
+            // One bucket per rank; walking the shortest list backwards keeps each bucket newest first.
+            // Every bucket is counted, but only the ids up to the end of the page are kept.
+            int keep = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), shortest.size);
+            int[][] ranked = new int[3][keep];
+            int[] rankedSizes = new int[3];
+            for (int i = shortest.size - 1; i >= 0; i--) {
+                int userId = shortest.ids[i];
+                if (!inAll(lists, userId)) {
+                    continue;
+                }
+                int rank = rank(documents.get(userId), needle);
+                if (rank > 0) {
+                    int bucket = 3 - rank;
+                    if (rankedSizes[bucket] < keep) {
+                        ranked[bucket][rankedSizes[bucket]] = userId;
+                    }
+                    rankedSizes[bucket]++;
+                }
+            }
+
+            int total = rankedSizes[0] + rankedSizes[1] + rankedSizes[2];
+            long from = pageable.getOffset();
+            List<Long> page = new ArrayList<>(pageable.getPageSize());
+            int position = 0;
+            for (int bucket = 0; bucket < 3 && page.size() < pageable.getPageSize(); bucket++) {
+                for (int i = 0; i < rankedSizes[bucket] && page.size() < pageable.getPageSize(); i++, position++) {
+                    if (position >= from) {
+                        page.add((long) ranked[bucket][i]);
+                    }
+                }
+            }
+            return Optional.of(new PageImpl<>(page, pageable, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Writes - applied after the surrounding transaction commits
+
+    /**
+     * Index a new or changed user; users that are no longer active are removed.
+     * Call inside the transaction that saved the user so the event for the other
+     * nodes commits with it.
+     */
+    public void index(Users user) {
+        if (!enabled || user.getUserId() == null) {
+            return;
+        }
+        long userId = user.getUserId();
+        userEventPublisher.userChanged(userId);
+        String document = user.getStatus() == UsersStatus.ACTIVE
+                ? document(user.getFullName(), user.getUsername(), user.getEmail(), user.getPhone())
+                : null;
+
+        Runnable apply = () -> {
+            apply(userId, document);
+            if (rebuilding) {
+                changedDuringRebuild.add(userId);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Re-read one user from the primary, for a change made on another node
+     */
+    public void reload(long userId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<Long> found = new ArrayList<>(1);
+            primaryJdbcTemplate.query(USER_QUERY + " WHERE user_id = ?", rs -> {
+                found.add(userId);
+                applyRow(rs);
+            }, userId);
+            if (found.isEmpty()) {
+                apply(userId, null);
+            }
+            if (rebuilding) {
+                changedDuringRebuild.add(userId);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not re-index user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Replace a user's document, or remove it when document is null
+     */
+    private void apply(long userId, String document) {
+        int id = Math.toIntExact(userId);
+        lock.writeLock().lock();
+        try {
+            String previous = document != null ? documents.put(id, document) : documents.remove(id);
+            Set<Long> oldGrams = previous != null ? gramSet(previous) : Set.of();
+            Set<Long> newGrams = document != null ? gramSet(document) : Set.of();
+
+            for (long gram : oldGrams) {
+                if (!newGrams.contains(gram)) {
+                    Postings list = postings.get(gram);
+                    if (list != null && list.remove(id) && list.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            for (long gram : newGrams) {
+                if (!oldGrams.contains(gram)) {
+                    postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Rebuild
+
+    /**
+     * Load every active user. Runs off the startup thread; users changed while
+     * it runs are re-read at the end so none are left stale.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("User search index disabled; admin search uses the database");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+
+        try {
+            long lastUserId = 0L;
+            int loaded;
+            do {
+                List<Long> batch = new ArrayList<>(rebuildBatchSize);
+                reportingJdbcTemplate.query(USER_QUERY + " WHERE user_id > ? ORDER BY user_id LIMIT ?",
+                        rs -> {
+                            batch.add(rs.getLong("user_id"));
+                            applyRow(rs);
+                        },
+                        lastUserId, rebuildBatchSize);
+                loaded = batch.size();
+                if (loaded > 0) {
+                    lastUserId = batch.get(loaded - 1);
+                }
+            } while (loaded == rebuildBatchSize);
+
+            int reloaded = 0;
+            while (!changedDuringRebuild.isEmpty()) {
+                List<Long> changed = new ArrayList<>(changedDuringRebuild);
+                changedDuringRebuild.removeAll(changed);
+                for (Long userId : changed) {
+                    // The primary, so a lagging reporting read cannot undo a change applied after commit
+                    primaryJdbcTemplate.query(USER_QUERY + " WHERE user_id = ?", this::applyRow, userId);
+                }
+                reloaded += changed.size();
+            }
+
+            ready = true;
+            log.info("User search index rebuilt: {} users, {} trigrams in {}ms ({} re-read after concurrent changes)",
+                    documents.size(), postings.size(), System.currentTimeMillis() - started, reloaded);
+        } catch (Exception e) {
+            log.error("Failed to rebuild user search index; admin search will use the database", e);
+        } finally {
+            rebuilding = false;
+        }
+    }
+
+    private void applyRow(ResultSet rs) throws SQLException {
+        boolean active = UsersStatus.ACTIVE.name().equals(rs.getString("status"));
+        apply(rs.getLong("user_id"), active
+                ? document(rs.getString("full_name"), rs.getString("username"), rs.getString("email"),
+                rs.getString("phone"))
+                : null);
+    }
+
+    // Text handling
+
+    /**
+     * Searchable fields joined by a separator that a search term can never contain.
+     * Name, username and email are lower-cased like the old LOWER(...) LIKE query;
+     * the phone number is kept as stored.
+     */
+    private static String document(String fullName, String username, String email, String phone) {
+        return lower(fullName) + FIELD_SEPARATOR + lower(username) + FIELD_SEPARATOR + lower(email)
+                + FIELD_SEPARATOR + (phone != null ? phone : "");
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * 3 for a whole-field match, 2 for a field prefix, 1 for any other substring, 0 for none
+     */
+    private static int rank(String document, String needle) {
+        if (document == null) {
+            return 0;
+        }
+        int best = 0;
+        int position = document.indexOf(needle);
+        while (position >= 0 && best < 3) {
+            int end = position + needle.length();
+            boolean fieldStart = position == 0 || document.charAt(position - 1) == FIELD_SEPARATOR;
+            boolean fieldEnd = end == document.length() || document.charAt(end) == FIELD_SEPARATOR;
+            best = Math.max(best, fieldStart ? (fieldEnd ? 3 : 2) : 1);
+            position = document.indexOf(needle, position + 1);
+        }
+        return best;
+    }
+
+    private static long[] trigrams(String text) {
+        return gramSet(text).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static Set<Long> gramSet(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + MIN_TERM_LENGTH <= text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a != FIELD_SEPARATOR && b != FIELD_SEPARATOR && c != FIELD_SEPARATOR) {
+                grams.add(((long) a << 32) | ((long) b << 16) | c);
+            }
+        }
+        return grams;
+    }
+
+    private static boolean inAll(List<Postings> lists, int userId) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(userId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sorted, duplicate-free user ids for one trigram. New users have the highest
+     * id, so adds are almost always appends.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            if (size == 0 || ids[size - 1] < id) {
+                ids[size++] = id;
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
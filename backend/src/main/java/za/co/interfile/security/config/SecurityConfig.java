@@ -1,5 +1,6 @@
 package za.co.interfile.security.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -61,7 +62,12 @@ public class SecurityConfig {
                                 "/api/relief-hub/auth/forgot-password",
                                 "/api/relief-hub/auth/reset-password"
                         ).permitAll()
+                        // Pinning diagnostics name internal classes and can be reset
+                        .requestMatchers("/actuator/pinning/**").hasRole("ADMIN")
                         .requestMatchers("/actuator/**", "/error").permitAll()
+                        // Event streams finish on an async dispatch, which carries no JWT;
+                        // the request was authorised when the stream was opened
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated()
                 )
                 .build();
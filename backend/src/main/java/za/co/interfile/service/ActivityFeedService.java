@@ -0,0 +1,379 @@
+package za.co.interfile.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import za.co.interfile.archive.ArchiveTable;
+import za.co.interfile.archive.ArchivedRow;
+import za.co.interfile.dtos.ActivityFeedItemDto;
+import za.co.interfile.dtos.ActivityFeedPageDto;
+import za.co.interfile.enums.ActivitySource;
+import za.co.interfile.enums.TransactionType;
+import za.co.interfile.enums.WithdrawalMethod;
+import za.co.interfile.exception.InvalidCursorException;
+import za.co.interfile.model.CashSendTransaction;
+import za.co.interfile.model.ElectricityTransaction;
+import za.co.interfile.model.Transaction;
+import za.co.interfile.model.WithdrawalRequest;
+import za.co.interfile.repository.CashSendRepository;
+import za.co.interfile.repository.ElectricityTransactionRepository;
+import za.co.interfile.repository.TransactionRepository;
+import za.co.interfile.repository.WithdrawalRequestRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Unified, newest-first feed of a user's money movements across the
+ * transactions, withdrawal_requests, cash_send_transactions and
+ * electricity_transactions tables.
+ * Each source is read as a keyset page of at most size + 1 rows and the pages
+ * are k-way merged, so a page costs the same however long the history is.
+ * The cursor records every source's own position (or that it is exhausted).
+ * When a source's page runs past the archive boundary, its archived rows from
+ * the same position are merged in, so the feed carries on into archived history.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ActivityFeedService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Comparator<ActivityFeedItemDto> NEWEST_FIRST = Comparator
+            .comparing(ActivityFeedItemDto::getOccurredAt).reversed()
+            .thenComparing(ActivityFeedItemDto::getSource)
+            .thenComparing(ActivityFeedItemDto::getId, Comparator.reverseOrder());
+
+    private final TransactionRepository transactionRepository;
+    private final WithdrawalRequestRepository withdrawalRequestRepository;
+    private final CashSendRepository cashSendRepository;
+    private final ElectricityTransactionRepository electricityTransactionRepository;
+    private final HistoryArchiveService historyArchiveService;
+
+    public ActivityFeedPageDto getFeed(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        FeedCursor position = FeedCursor.decode(cursor);
+        Pageable fetch = PageRequest.of(0, pageSize + 1);
+
+        PriorityQueue<SourcePage> heads = new PriorityQueue<>(
+                Comparator.comparing(SourcePage::peek, NEWEST_FIRST));
+        List<SourcePage> pages = new ArrayList<>();
+
+        for (ActivitySource source : ActivitySource.values()) {
+            if (position.isExhausted(source)) {
+                continue;
+            }
+            SourcePage page = new SourcePage(source, load(source, userId, position, fetch), pageSize);
+            pages.add(page);
+            if (page.hasNext()) {
+                heads.add(page);
+            }
+        }
+
+        List<ActivityFeedItemDto> items = new ArrayList<>(pageSize);
+        while (items.size() < pageSize && !heads.isEmpty()) {
+            SourcePage page = heads.poll();
+            ActivityFeedItemDto item = page.next();
+            items.add(item);
+            position.advance(item.getSource(), item.getOccurredAt(), item.getId());
+            if (page.hasNext()) {
+                heads.add(page);
+            }
+        }
+
+        boolean hasMore = false;
+        for (SourcePage page : pages) {
+            if (page.hasMoreRows()) {
+                hasMore = true;
+            } else {
+                position.markExhausted(page.source);
+            }
+        }
+
+        return ActivityFeedPageDto.builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? position.encode() : null)
+                .build();
+    }
+
+    private List<ActivityFeedItemDto> load(ActivitySource source, Long userId, FeedCursor position, Pageable fetch) {
+        LocalDateTime before = position.before(source);
+        Long beforeId = position.beforeId(source);
+        List<ActivityFeedItemDto> hot = loadHot(source, userId, before, beforeId, fetch);
+
+        // Archived rows can only come next when the hot page ends before the archive boundary
+        LocalDate archivedThrough = historyArchiveService.getArchivedThrough();
+        if (archivedThrough == null || (hot.size() == fetch.getPageSize()
+                && !hot.get(hot.size() - 1).getOccurredAt().isBefore(archivedThrough.atStartOfDay()))) {
+            return hot;
+        }
+
+        ArchiveTable table = archiveTableFor(source);
+        List<ArchivedRow> archived = historyArchiveService.readOrdered(userId, table, null, before, true, row -> {
+            LocalDateTime occurredAt = row.getDateTime(table.getTimestampColumn());
+            return occurredAt.isBefore(before)
+                    || (occurredAt.isEqual(before) && row.getLong(table.getIdColumn()) < beforeId);
+        }, fetch.getPageSize());
+        if (archived.isEmpty()) {
+            return hot;
+        }
+
+        List<ActivityFeedItemDto> merged = new ArrayList<>(hot);
+        for (ArchivedRow row : archived) {
+            merged.add(toItem(source, row));
+        }
+        merged.sort(NEWEST_FIRST);
+        return merged.subList(0, Math.min(fetch.getPageSize(), merged.size()));
+    }
+
+    private List<ActivityFeedItemDto> loadHot(ActivitySource source, Long userId, LocalDateTime before, Long beforeId,
+                                              Pageable fetch) {
+        return switch (source) {
+            case TRANSACTION -> transactionRepository.findFeedPage(userId, before, beforeId, fetch)
+                    .stream().map(this::toItem).toList();
+            case WITHDRAWAL -> withdrawalRequestRepository.findFeedPage(userId, before, beforeId, fetch)
+                    .stream().map(this::toItem).toList();
+            case CASH_SEND -> cashSendRepository.findFeedPage(userId, before, beforeId, fetch)
+                    .stream().map(this::toItem).toList();
+            case ELECTRICITY -> electricityTransactionRepository.findFeedPage(userId, before, beforeId, fetch)
+                    .stream().map(this::toItem).toList();
+        };
+    }
+
+    private ActivityFeedItemDto toItem(Transaction transaction) {
+        return ActivityFeedItemDto.builder()
+                .source(ActivitySource.TRANSACTION)
+                .id(transaction.getTransactionId())
+                .type(transaction.getTransactionType().name())
+                .description(transaction.getDescription() != null
+                        ? transaction.getDescription()
+                        : transaction.getTransactionType().getDisplayName())
+                .amount(transaction.getAmount())
+                .fee(transaction.getProcessingFee())
+                .status(transaction.getStatus().name())
+                .reference(transaction.getReferenceNumber())
+                .occurredAt(transaction.getCreatedAt())
+                .build();
+    }
+
+    private ActivityFeedItemDto toItem(WithdrawalRequest withdrawal) {
+        return ActivityFeedItemDto.builder()
+                .source(ActivitySource.WITHDRAWAL)
+                .id(withdrawal.getWithdrawalId())
+                .type("WITHDRAWAL")
+                .description("Withdrawal via " + withdrawal.getWithdrawalMethod().getDisplayName())
+                .amount(withdrawal.getRequestedAmount())
+                .fee(withdrawal.getCalculatedFees())
+                .status(withdrawal.getStatus().name())
+                .reference(withdrawal.getTransactionReference())
+                .occurredAt(withdrawal.getRequestedAt())
+                .build();
+    }
+
+    private ActivityFeedItemDto toItem(CashSendTransaction cashSend) {
+        return ActivityFeedItemDto.builder()
+                .source(ActivitySource.CASH_SEND)
+                .id(cashSend.getCashSendId())
+                .type("CASH_SEND")
+                .description("Cash send to " + cashSend.getRecipientName())
+                .amount(cashSend.getAmount())
+                .fee(cashSend.getFee())
+                .status(cashSend.getStatus().name())
+                .reference(cashSend.getTransactionReference())
+                .occurredAt(cashSend.getCreatedAt())
+                .build();
+    }
+
+    private ActivityFeedItemDto toItem(ElectricityTransaction purchase) {
+        return ActivityFeedItemDto.builder()
+                .source(ActivitySource.ELECTRICITY)
+                .id(purchase.getTransactionId())
+                .type("ELECTRICITY")
+                .description("Electricity for meter " + purchase.getMeterNumber())
+                .amount(purchase.getAmount())
+                .status(purchase.getStatus().name())
+                .reference(purchase.getTransactionReference())
+                .occurredAt(purchase.getCreatedAt())
+                .build();
+    }
+
+    private static ArchiveTable archiveTableFor(ActivitySource source) {
+        return switch (source) {
+            case TRANSACTION -> ArchiveTable.TRANSACTIONS;
+            case WITHDRAWAL -> ArchiveTable.WITHDRAWAL_REQUESTS;
+            case CASH_SEND -> ArchiveTable.CASH_SEND_TRANSACTIONS;
+            case ELECTRICITY -> ArchiveTable.ELECTRICITY_TRANSACTIONS;
+        };
+    }
+
+    /**
+     * The same item as toItem gives for the hot row
+     */
+    private static ActivityFeedItemDto toItem(ActivitySource source, ArchivedRow row) {
+        ActivityFeedItemDto.ActivityFeedItemDtoBuilder item = ActivityFeedItemDto.builder()
+                .source(source)
+                .status(row.getString("status"))
+                .reference(row.getString("transaction_reference"));
+        return switch (source) {
+            case TRANSACTION -> {
+                TransactionType type = TransactionType.valueOf(row.getString("transaction_type"));
+                String description = row.getString("description");
+                yield item.id(row.getLong("transaction_id"))
+                        .type(type.name())
+                        .description(description != null ? description : type.getDisplayName())
+                        .amount(row.getDecimal("amount"))
+                        .fee(row.getDecimal("processing_fee"))
+                        .reference(row.getString("reference_number"))
+                        .occurredAt(row.getDateTime("created_at"))
+                        .build();
+            }
+            case WITHDRAWAL -> item.id(row.getLong("withdrawal_id"))
+                    .type("WITHDRAWAL")
+                    .description("Withdrawal via "
+                            + WithdrawalMethod.valueOf(row.getString("withdrawal_method")).getDisplayName())
+                    .amount(row.getDecimal("requested_amount"))
+                    .fee(row.getDecimal("calculated_fees"))
+                    .occurredAt(row.getDateTime("requested_at"))
+                    .build();
+            case CASH_SEND -> item.id(row.getLong("cash_send_id"))
+                    .type("CASH_SEND")
+                    .description("Cash send to " + row.getString("recipient_name"))
+                    .amount(row.getDecimal("amount"))
+                    .fee(row.getDecimal("fee"))
+                    .occurredAt(row.getDateTime("created_at"))
+                    .build();
+            case ELECTRICITY -> item.id(row.getLong("transaction_id"))
+                    .type("ELECTRICITY")
+                    .description("Electricity for meter " + row.getString("meter_number"))
+                    .amount(row.getDecimal("amount"))
+                    .occurredAt(row.getDateTime("created_at"))
+                    .build();
+        };
+    }
+
+    /**
+     * The rows fetched from one source for this page. One extra row beyond the
+     * page size is fetched only to know whether the source has more.
+     */
+    private static final class SourcePage {
+        private final ActivitySource source;
+        private final List<ActivityFeedItemDto> rows;
+        private final int pageSize;
+        private int index;
+
+        private SourcePage(ActivitySource source, List<ActivityFeedItemDto> rows, int pageSize) {
+            this.source = source;
+            this.rows = rows;
+            this.pageSize = pageSize;
+        }
+
+        private boolean hasNext() {
+            return index < rows.size();
+        }
+
+        private ActivityFeedItemDto peek() {
+            return rows.get(index);
+        }
+
+        private ActivityFeedItemDto next() {
+            return rows.get(index++);
+        }
+
+        private boolean hasMoreRows() {
+            return hasNext() || rows.size() > pageSize;
+        }
+    }
+
+    /**
+     * Per-source keyset position, serialised as URL-safe base64 of
+     * "SOURCE,timestamp,id" entries (or "SOURCE,done") separated by '|'
+     */
+    static final class FeedCursor {
+
+        // Upper bound for the first page; MySQL DATETIME tops out at year 9999
+        private static final LocalDateTime START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+        private static final String DONE = "done";
+
+        private final Map<ActivitySource, LocalDateTime> before = new EnumMap<>(ActivitySource.class);
+        private final Map<ActivitySource, Long> beforeId = new EnumMap<>(ActivitySource.class);
+        private final Map<ActivitySource, Boolean> exhausted = new EnumMap<>(ActivitySource.class);
+
+        static FeedCursor decode(String cursor) {
+            FeedCursor position = new FeedCursor();
+            if (cursor == null || cursor.isBlank()) {
+                return position;
+            }
+
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                for (String entry : decoded.split("\\|")) {
+                    String[] parts = entry.split(",");
+                    ActivitySource source = ActivitySource.valueOf(parts[0]);
+                    if (parts.length == 2 && DONE.equals(parts[1])) {
+                        position.markExhausted(source);
+                    } else if (parts.length == 3) {
+                        position.advance(source, LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+                    } else {
+                        throw new IllegalArgumentException("Malformed cursor entry: " + entry);
+                    }
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new InvalidCursorException("Invalid activity feed cursor", e);
+            }
+            return position;
+        }
+
+        String encode() {
+            StringBuilder encoded = new StringBuilder();
+            for (ActivitySource source : ActivitySource.values()) {
+                if (!encoded.isEmpty()) {
+                    encoded.append('|');
+                }
+                encoded.append(source.name()).append(',');
+                if (isExhausted(source)) {
+                    encoded.append(DONE);
+                } else {
+                    encoded.append(before(source)).append(',').append(beforeId(source));
+                }
+            }
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(encoded.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        LocalDateTime before(ActivitySource source) {
+            return before.getOrDefault(source, START);
+        }
+
+        Long beforeId(ActivitySource source) {
+            return beforeId.getOrDefault(source, Long.MAX_VALUE);
+        }
+
+        boolean isExhausted(ActivitySource source) {
+            return exhausted.getOrDefault(source, false);
+        }
+
+        void advance(ActivitySource source, LocalDateTime occurredAt, Long id) {
+            before.put(source, occurredAt);
+            beforeId.put(source, id);
+        }
+
+        void markExhausted(ActivitySource source) {
+            exhausted.put(source, true);
+        }
+    }
+}
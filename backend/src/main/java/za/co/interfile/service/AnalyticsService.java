@@ -0,0 +1,362 @@
+package za.co.interfile.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import za.co.interfile.analytics.Dictionary;
+import za.co.interfile.analytics.MovementSnapshot;
+import za.co.interfile.dtos.AnalyticsResultDto;
+import za.co.interfile.dtos.AnalyticsRowDto;
+import za.co.interfile.enums.ActivitySource;
+import za.co.interfile.enums.AnalyticsDimension;
+import za.co.interfile.enums.TimeBucket;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admin analytics over an in-memory column snapshot of all money movements,
+ * so dashboards never query the OLTP tables.
+ * The snapshot is built from the reporting pool on startup and rebuilt nightly;
+ * in between, new rows are appended every minute from each table's id
+ * high-water mark. Ids skipped below the mark by transactions that had not
+ * committed yet are re-read on each refresh for a grace period, so late commits
+ * are not lost. Status changes to existing rows show up after the next rebuild.
+ * Only the hot window is covered: rows moved to the history archive drop out
+ * at the next rebuild.
+ */
+@Slf4j
+@Service
+public class AnalyticsService {
+
+    private static final int GAP_BATCH = 500;
+
+    private final JdbcTemplate reportingJdbcTemplate;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile MovementSnapshot snapshot;
+
+    @Value("${app.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.analytics.load-batch-size:20000}")
+    private int loadBatchSize;
+
+    @Value("${app.analytics.max-range-days:1830}")
+    private int maxRangeDays;
+
+    @Value("${app.analytics.gap-grace-ms:600000}")
+    private long gapGraceMillis;
+
+    @Value("${app.analytics.max-gaps:10000}")
+    private int maxGaps;
+
+    public AnalyticsService(@Qualifier("reportingDataSource") DataSource reportingDataSource) {
+        this.reportingJdbcTemplate = new JdbcTemplate(reportingDataSource);
+    }
+
+    // Snapshot maintenance
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${app.analytics.rebuild-cron:0 30 4 * * *}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.refresh-interval-ms:60000}",
+            initialDelayString = "${app.analytics.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        if (enabled && snapshot != null) {
+            refresh();
+        }
+    }
+
+    /**
+     * Build a fresh snapshot and swap it in; queries keep using the old one meanwhile
+     */
+    public void rebuild() {
+        refreshLock.lock();
+        try {
+            long started = System.currentTimeMillis();
+            MovementSnapshot fresh = new MovementSnapshot(maxGaps);
+            int loaded = load(fresh);
+            fresh.markRefreshed();
+            snapshot = fresh;
+            log.info("Analytics snapshot rebuilt: {} rows in {}ms", loaded, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Failed to rebuild analytics snapshot", e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Append rows created since the last load
+     */
+    public int refresh() {
+        refreshLock.lock();
+        try {
+            MovementSnapshot current = snapshot;
+            if (current == null) {
+                return 0;
+            }
+            int loaded = load(current);
+            current.markRefreshed();
+            if (loaded > 0) {
+                log.debug("Analytics snapshot refreshed with {} new rows", loaded);
+            }
+            return loaded;
+        } catch (Exception e) {
+            log.error("Failed to refresh analytics snapshot", e);
+            return 0;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private int load(MovementSnapshot target) {
+        long gapDeadline = System.currentTimeMillis() + gapGraceMillis;
+        // A hole next to an older row cannot be a transaction still in flight
+        LocalDateTime recent = LocalDateTime.now().minus(gapGraceMillis, ChronoUnit.MILLIS);
+        int total = 0;
+        for (SourceTable table : SourceTable.values()) {
+            total += loadGaps(target, table);
+            int batch;
+            do {
+                long[] lastId = {target.getHighWaterMark(table.source)};
+                int[] rows = {0};
+                RowCallbackHandler append = rs -> {
+                    long id = rs.getLong("id");
+                    LocalDateTime occurredAt = appendRow(target, table, rs);
+                    if (id > lastId[0] + 1 && !occurredAt.isBefore(recent)) {
+                        target.addGaps(table.source, lastId[0], id, gapDeadline);
+                    }
+                    lastId[0] = id;
+                    rows[0]++;
+                };
+                reportingJdbcTemplate.query(table.query, append, lastId[0], loadBatchSize);
+                target.setHighWaterMark(table.source, lastId[0]);
+                batch = rows[0];
+                total += batch;
+            } while (batch == loadBatchSize);
+        }
+        return total;
+    }
+
+    /**
+     * Re-read ids skipped by earlier loads and append the ones that have committed since
+     */
+    private int loadGaps(MovementSnapshot target, SourceTable table) {
+        List<Long> open = target.openGaps(table.source, System.currentTimeMillis());
+        int[] rows = {0};
+        RowCallbackHandler append = rs -> {
+            appendRow(target, table, rs);
+            target.gapFilled(table.source, rs.getLong("id"));
+            rows[0]++;
+        };
+        for (int from = 0; from < open.size(); from += GAP_BATCH) {
+            List<Long> ids = open.subList(from, Math.min(from + GAP_BATCH, open.size()));
+            String sql = table.gapQuery.formatted(String.join(",", Collections.nCopies(ids.size(), "?")));
+            reportingJdbcTemplate.query(sql, append, ids.toArray());
+        }
+        return rows[0];
+    }
+
+    private static LocalDateTime appendRow(MovementSnapshot target, SourceTable table, ResultSet rs)
+            throws SQLException {
+        LocalDateTime occurredAt = rs.getTimestamp("occurred_at").toLocalDateTime();
+        target.append(table.source,
+                rs.getString("type"),
+                rs.getString("status"),
+                rs.getString("grant_type"),
+                rs.getLong("amount_cents"),
+                rs.getLong("fee_cents"),
+                (int) occurredAt.toLocalDate().toEpochDay());
+        return occurredAt;
+    }
+
+    // Queries
+
+    /**
+     * Count, amount and fees per value of one dimension between two dates (inclusive)
+     */
+    public AnalyticsResultDto groupBy(AnalyticsDimension dimension, LocalDate from, LocalDate to,
+                                      ActivitySource source) {
+        MovementSnapshot current = requireSnapshot();
+        int span = validateRange(from, to);
+        long started = System.nanoTime();
+
+        MovementSnapshot.Accumulators totals = current.scan(dimension, (int) from.toEpochDay(),
+                (int) to.toEpochDay(), new int[span], 1, sourceCode(current, source));
+
+        Dictionary dictionary = current.dictionary(dimension);
+        List<AnalyticsRowDto> rows = new ArrayList<>();
+        for (int key = 0; key < totals.keyCount(); key++) {
+            if (totals.count(0, key) > 0) {
+                rows.add(toRow(null, dictionary.decode(key), totals, 0, key));
+            }
+        }
+        rows.sort(Comparator.comparing(AnalyticsRowDto::getTotalAmount).reversed());
+
+        return AnalyticsResultDto.builder()
+                .groupBy(dimension)
+                .from(from)
+                .to(to)
+                .snapshotRows(current.size())
+                .snapshotRefreshedAt(current.getRefreshedAt())
+                .scanMicros((System.nanoTime() - started) / 1000)
+                .rows(rows)
+                .build();
+    }
+
+    /**
+     * Totals per day, week (starting Monday) or month, optionally split by one dimension
+     */
+    public AnalyticsResultDto timeSeries(TimeBucket bucket, AnalyticsDimension dimension, LocalDate from,
+                                         LocalDate to, ActivitySource source) {
+        MovementSnapshot current = requireSnapshot();
+        int span = validateRange(from, to);
+        long started = System.nanoTime();
+
+        int[] bucketOfDay = new int[span];
+        List<LocalDate> bucketStarts = new ArrayList<>();
+        for (int offset = 0; offset < span; offset++) {
+            LocalDate start = bucketStart(bucket, from.plusDays(offset));
+            if (bucketStarts.isEmpty() || !bucketStarts.get(bucketStarts.size() - 1).equals(start)) {
+                bucketStarts.add(start);
+            }
+            bucketOfDay[offset] = bucketStarts.size() - 1;
+        }
+
+        MovementSnapshot.Accumulators totals = current.scan(dimension, (int) from.toEpochDay(),
+                (int) to.toEpochDay(), bucketOfDay, bucketStarts.size(), sourceCode(current, source));
+
+        Dictionary dictionary = dimension != null ? current.dictionary(dimension) : null;
+        List<AnalyticsRowDto> rows = new ArrayList<>();
+        for (int index = 0; index < bucketStarts.size(); index++) {
+            for (int key = 0; key < totals.keyCount(); key++) {
+                // Empty buckets are kept for ungrouped series so charts get a continuous axis
+                if (dictionary == null || totals.count(index, key) > 0) {
+                    rows.add(toRow(bucketStarts.get(index), dictionary != null ? dictionary.decode(key) : null,
+                            totals, index, key));
+                }
+            }
+        }
+
+        return AnalyticsResultDto.builder()
+                .groupBy(dimension)
+                .bucket(bucket)
+                .from(from)
+                .to(to)
+                .snapshotRows(current.size())
+                .snapshotRefreshedAt(current.getRefreshedAt())
+                .scanMicros((System.nanoTime() - started) / 1000)
+                .rows(rows)
+                .build();
+    }
+
+    private MovementSnapshot requireSnapshot() {
+        MovementSnapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Analytics snapshot is still being built");
+        }
+        return current;
+    }
+
+    private int validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("A date range with from <= to is required");
+        }
+        long span = ChronoUnit.DAYS.between(from, to) + 1;
+        if (span > maxRangeDays) {
+            throw new IllegalArgumentException("Date range may not exceed " + maxRangeDays + " days");
+        }
+        return (int) span;
+    }
+
+    private static int sourceCode(MovementSnapshot current, ActivitySource source) {
+        return source != null ? current.dictionary(AnalyticsDimension.SOURCE).find(source.name()) : -1;
+    }
+
+    private static LocalDate bucketStart(TimeBucket bucket, LocalDate day) {
+        return switch (bucket) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> YearMonth.from(day).atDay(1);
+        };
+    }
+
+    private static AnalyticsRowDto toRow(LocalDate bucketStart, String key, MovementSnapshot.Accumulators totals,
+                                         int bucket, int code) {
+        return AnalyticsRowDto.builder()
+                .bucketStart(bucketStart)
+                .key(key)
+                .count(totals.count(bucket, code))
+                .totalAmount(BigDecimal.valueOf(totals.amountCents(bucket, code), 2))
+                .totalFees(BigDecimal.valueOf(totals.feeCents(bucket, code), 2))
+                .build();
+    }
+
+    /**
+     * Where each source's rows come from. The grant type is that of the user's
+     * active SASSA account at load time.
+     */
+    private enum SourceTable {
+
+        TRANSACTIONS(ActivitySource.TRANSACTION, "transactions", "transaction_id", "created_at",
+                "x.transaction_type", "x.amount", "COALESCE(x.processing_fee, 0)"),
+        WITHDRAWALS(ActivitySource.WITHDRAWAL, "withdrawal_requests", "withdrawal_id", "requested_at",
+                "'WITHDRAWAL'", "x.requested_amount", "x.calculated_fees"),
+        CASH_SENDS(ActivitySource.CASH_SEND, "cash_send_transactions", "cash_send_id", "created_at",
+                "'CASH_SEND'", "x.amount", "x.fee"),
+        ELECTRICITY(ActivitySource.ELECTRICITY, "electricity_transactions", "transaction_id", "created_at",
+                "'ELECTRICITY'", "x.amount", ElectricityService.ELECTRICITY_FEE.toPlainString());
+
+        private final ActivitySource source;
+        private final String query;
+        private final String gapQuery;
+
+        SourceTable(ActivitySource source, String table, String idColumn, String timestampColumn,
+                    String typeExpression, String amountExpression, String feeExpression) {
+            this.source = source;
+            String select = "SELECT x." + idColumn + " AS id, x." + timestampColumn + " AS occurred_at, "
+                    + typeExpression + " AS type, x.status AS status, "
+                    + "CAST(ROUND(" + amountExpression + " * 100) AS SIGNED) AS amount_cents, "
+                    + "CAST(ROUND(" + feeExpression + " * 100) AS SIGNED) AS fee_cents, "
+                    + "(SELECT s.grant_type FROM sassa_accounts s WHERE s.user_id = x.user_id "
+                    + "AND s.status = 'ACTIVE' ORDER BY s.sassa_account_id LIMIT 1) AS grant_type "
+                    + "FROM " + table + " x ";
+            this.query = select + "WHERE x." + idColumn + " > ? ORDER BY x." + idColumn + " LIMIT ?";
+            this.gapQuery = select + "WHERE x." + idColumn + " IN (%s)";
+        }
+    }
+}
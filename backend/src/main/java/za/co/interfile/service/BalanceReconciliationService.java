@@ -0,0 +1,393 @@
+package za.co.interfile.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.interfile.dtos.BalanceDiscrepancyDto;
+import za.co.interfile.dtos.ReconciliationReportDto;
+import za.co.interfile.enums.ReconciliationStatus;
+import za.co.interfile.model.ReconciliationRun;
+import za.co.interfile.repository.BalanceDiscrepancyRepository;
+import za.co.interfile.repository.ReconciliationRunRepository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies every user_balances.available_balance against the balance implied by
+ * the user's history: completed deposits and refunds in, withdrawal requests that
+ * still hold their funds (pending, approved or processed; a rejected, cancelled
+ * or expired request gives them back), cash sends (amount + fee) and electricity purchases (amount + flat fee) out.
+ * Archived months count through the net total stored on each archive segment.
+ * <p>
+ * The user-id space is split into ranges that run as fork-join tasks. Each range
+ * reads its movements and balances in one consistent snapshot from the reporting
+ * pool, streaming rows into cent accumulators held in plain long arrays indexed
+ * by user id, so memory per range is fixed and nothing is boxed. Mismatches are
+ * written to balance_discrepancies under the run they were found in.
+ */
+@Slf4j
+@Service
+public class BalanceReconciliationService {
+
+    private static final String MOVEMENTS = """
+            SELECT t.user_id, CAST(ROUND(t.amount * 100) AS SIGNED) AS cents
+              FROM transactions t
+             WHERE t.status = 'COMPLETED' AND t.transaction_type IN ('DEPOSIT', 'REFUND')
+               AND t.user_id BETWEEN ? AND ?
+            UNION ALL
+            SELECT w.user_id, -CAST(ROUND(w.requested_amount * 100) AS SIGNED)
+              FROM withdrawal_requests w
+             WHERE w.status IN ('PENDING', 'APPROVED', 'PROCESSED')
+               AND w.user_id BETWEEN ? AND ?
+            UNION ALL
+            SELECT c.user_id, -CAST(ROUND(c.total_cost * 100) AS SIGNED)
+              FROM cash_send_transactions c
+             WHERE c.user_id BETWEEN ? AND ?
+            UNION ALL
+            SELECT e.user_id, -CAST(ROUND(e.amount * 100) AS SIGNED) - ?
+              FROM electricity_transactions e
+             WHERE e.user_id BETWEEN ? AND ?
+            UNION ALL
+            SELECT s.user_id, s.net_cents
+              FROM history_archive_segments s
+             WHERE s.user_id BETWEEN ? AND ?
+            """;
+
+    private static final String BALANCES = """
+            SELECT b.user_id, CAST(ROUND(b.available_balance * 100) AS SIGNED) AS cents
+              FROM user_balances b
+             WHERE b.user_id BETWEEN ? AND ?
+            """;
+
+    private static final String INSERT_DISCREPANCY = """
+            INSERT INTO balance_discrepancies
+                   (run_id, user_id, stored_balance, expected_balance, difference, has_balance_row, detected_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final byte HAS_MOVEMENTS = 1;
+    private static final byte HAS_BALANCE_ROW = 2;
+
+    private static final long ELECTRICITY_FEE_CENTS = ElectricityService.ELECTRICITY_FEE.movePointRight(2).longValueExact();
+
+    private final JdbcTemplate reportingJdbcTemplate;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final ReconciliationRunRepository runRepository;
+    private final BalanceDiscrepancyRepository discrepancyRepository;
+    private final Counter discrepancyCounter;
+    private final Timer runTimer;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reconciliation.partition-size:10000}")
+    private int partitionSize;
+
+    @Value("${app.reconciliation.parallelism:2}")
+    private int parallelism;
+
+    @Value("${app.datasource.reporting.maximum-pool-size:3}")
+    private int reportingPoolSize;
+
+    @Value("${app.reconciliation.max-recorded-discrepancies:100000}")
+    private long maxRecordedDiscrepancies;
+
+    public BalanceReconciliationService(@Qualifier("reportingDataSource") DataSource reportingDataSource,
+                                        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                        ReconciliationRunRepository runRepository,
+                                        BalanceDiscrepancyRepository discrepancyRepository,
+                                        MeterRegistry meterRegistry) {
+        this.reportingJdbcTemplate = new JdbcTemplate(reportingDataSource);
+        // MySQL Connector/J streams rows one at a time only with this fetch size
+        this.reportingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+
+        this.snapshotTransaction = new TransactionTemplate(new DataSourceTransactionManager(reportingDataSource));
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        this.runRepository = runRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.discrepancyCounter = Counter.builder("relief.reconciliation.discrepancies")
+                .description("Users whose stored balance does not match their history")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("relief.reconciliation.duration")
+                .description("Wall time of a full balance reconciliation run")
+                .register(meterRegistry);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Scheduled(cron = "${app.reconciliation.cron:0 0 1 * * *}")
+    public void scheduledReconciliation() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reconcile("scheduler");
+        } catch (Exception e) {
+            log.error("Scheduled balance reconciliation failed", e);
+        }
+    }
+
+    @Async
+    public void reconcileAsync(String triggeredBy) {
+        try {
+            reconcile(triggeredBy);
+        } catch (Exception e) {
+            log.error("Balance reconciliation triggered by {} failed", triggeredBy, e);
+        }
+    }
+
+    /**
+     * Run a full reconciliation and return its report. Only one run at a time.
+     */
+    public ReconciliationReportDto reconcile(String triggeredBy) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A balance reconciliation is already running");
+        }
+        try {
+            return runReconciliation(triggeredBy);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReconciliationReportDto runReconciliation(String triggeredBy) {
+        long maxUserId = primaryJdbcTemplate.queryForObject("SELECT COALESCE(MAX(user_id), 0) FROM users", Long.class);
+        ReconciliationRun run = runRepository.save(ReconciliationRun.builder()
+                .triggeredBy(triggeredBy)
+                .startedAt(LocalDateTime.now())
+                .maxUserId(maxUserId)
+                .build());
+        RunContext context = new RunContext(run.getRunId(), run.getStartedAt());
+        long started = System.nanoTime();
+
+        log.info("Balance reconciliation {} started by {} for users up to {}", run.getRunId(), triggeredBy, maxUserId);
+
+        ForkJoinPool pool = new ForkJoinPool(effectiveParallelism(), workerFactory(), null, false);
+        try {
+            if (maxUserId > 0) {
+                pool.invoke(new PartitionTask(context, 1, maxUserId));
+            }
+            run.setStatus(ReconciliationStatus.COMPLETED);
+        } catch (RuntimeException e) {
+            run.setStatus(ReconciliationStatus.FAILED);
+            run.setFailureReason(e.getMessage());
+            throw e;
+        } finally {
+            pool.shutdownNow();
+            long elapsed = System.nanoTime() - started;
+            runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+            run.setCompletedAt(LocalDateTime.now());
+            run.setPartitionCount(context.partitions.intValue());
+            run.setBalancesChecked(context.balancesChecked.sum());
+            run.setDiscrepancyCount(context.discrepancies.sum());
+            runRepository.save(run);
+
+            log.info("Balance reconciliation {} {} in {}ms: {} partitions, {} balances checked, {} discrepancies",
+                    run.getRunId(), run.getStatus(), elapsed / 1_000_000, run.getPartitionCount(),
+                    run.getBalancesChecked(), run.getDiscrepancyCount());
+        }
+
+        return toReport(run, 20);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ReconciliationReportDto> getLatestReport(int limit) {
+        return runRepository.findTopByOrderByStartedAtDesc().map(run -> toReport(run, limit));
+    }
+
+    private ReconciliationReportDto toReport(ReconciliationRun run, int limit) {
+        List<BalanceDiscrepancyDto> largest = discrepancyRepository
+                .findLargestByRunId(run.getRunId(), PageRequest.of(0, Math.max(1, Math.min(limit, 500))))
+                .stream()
+                .map(discrepancy -> BalanceDiscrepancyDto.builder()
+                        .userId(discrepancy.getUserId())
+                        .storedBalance(discrepancy.getStoredBalance())
+                        .expectedBalance(discrepancy.getExpectedBalance())
+                        .difference(discrepancy.getDifference())
+                        .hasBalanceRow(discrepancy.isHasBalanceRow())
+                        .build())
+                .collect(Collectors.toList());
+
+        return ReconciliationReportDto.builder()
+                .runId(run.getRunId())
+                .status(run.getStatus())
+                .triggeredBy(run.getTriggeredBy())
+                .startedAt(run.getStartedAt())
+                .completedAt(run.getCompletedAt())
+                .maxUserId(run.getMaxUserId())
+                .partitionCount(run.getPartitionCount())
+                .balancesChecked(run.getBalancesChecked())
+                .discrepancyCount(run.getDiscrepancyCount())
+                .failureReason(run.getFailureReason())
+                .largestDiscrepancies(largest)
+                .build();
+    }
+
+    /**
+     * Reconcile one user-id range. Slot i of each array belongs to user fromUserId + i.
+     */
+    private void reconcilePartition(RunContext context, long fromUserId, long toUserId) {
+        int span = (int) (toUserId - fromUserId + 1);
+        long[] expectedCents = new long[span];
+        long[] storedCents = new long[span];
+        byte[] seen = new byte[span];
+
+        RowCallbackHandler movements = rs -> {
+            int slot = (int) (rs.getLong(1) - fromUserId);
+            expectedCents[slot] += rs.getLong(2);
+            seen[slot] |= HAS_MOVEMENTS;
+        };
+        RowCallbackHandler balances = rs -> {
+            int slot = (int) (rs.getLong(1) - fromUserId);
+            storedCents[slot] = rs.getLong(2);
+            seen[slot] |= HAS_BALANCE_ROW;
+        };
+
+        snapshotTransaction.executeWithoutResult(status -> {
+            reportingJdbcTemplate.query(MOVEMENTS, movements,
+                    fromUserId, toUserId,
+                    fromUserId, toUserId,
+                    fromUserId, toUserId,
+                    ELECTRICITY_FEE_CENTS, fromUserId, toUserId,
+                    fromUserId, toUserId);
+            reportingJdbcTemplate.query(BALANCES, balances, fromUserId, toUserId);
+        });
+
+        long checked = 0;
+        List<Object[]> mismatches = new ArrayList<>();
+        Timestamp detectedAt = Timestamp.valueOf(context.startedAt);
+
+        for (int slot = 0; slot < span; slot++) {
+            if (seen[slot] == 0) {
+                continue;
+            }
+            checked++;
+            if (storedCents[slot] != expectedCents[slot]) {
+                mismatches.add(new Object[]{
+                        context.runId,
+                        fromUserId + slot,
+                        BigDecimal.valueOf(storedCents[slot], 2),
+                        BigDecimal.valueOf(expectedCents[slot], 2),
+                        BigDecimal.valueOf(storedCents[slot] - expectedCents[slot], 2),
+                        (seen[slot] & HAS_BALANCE_ROW) != 0,
+                        detectedAt
+                });
+            }
+        }
+
+        context.partitions.increment();
+        context.balancesChecked.add(checked);
+
+        if (!mismatches.isEmpty()) {
+            context.discrepancies.add(mismatches.size());
+            discrepancyCounter.increment(mismatches.size());
+
+            // Keep a systemic fault from flooding the table; the run still counts every mismatch
+            long allowed = maxRecordedDiscrepancies - context.recorded.getAndAdd(mismatches.size());
+            if (allowed > 0) {
+                primaryJdbcTemplate.batchUpdate(INSERT_DISCREPANCY,
+                        mismatches.subList(0, (int) Math.min(allowed, mismatches.size())));
+            }
+        }
+    }
+
+    /**
+     * Each partition holds a reporting connection for its whole snapshot, so leave
+     * one connection of the reporting pool free for the other reporting work
+     */
+    private int effectiveParallelism() {
+        int cap = Math.max(1, reportingPoolSize - 1);
+        if (parallelism > cap) {
+            log.warn("Reconciliation parallelism {} capped at {} for a reporting pool of {}",
+                    parallelism, cap, reportingPoolSize);
+            return cap;
+        }
+        return Math.max(1, parallelism);
+    }
+
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory workerFactory() {
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("reconcile-" + thread.getPoolIndex());
+            return thread;
+        };
+    }
+
+    /**
+     * Shared, thread-safe tallies of one run
+     */
+    private static final class RunContext {
+        private final Long runId;
+        private final LocalDateTime startedAt;
+        private final LongAdder partitions = new LongAdder();
+        private final LongAdder balancesChecked = new LongAdder();
+        private final LongAdder discrepancies = new LongAdder();
+        private final AtomicLong recorded = new AtomicLong();
+
+        private RunContext(Long runId, LocalDateTime startedAt) {
+            this.runId = runId;
+            this.startedAt = startedAt;
+        }
+    }
+
+    /**
+     * Halves its user-id range until it fits in one partition, then reconciles it
+     */
+    private final class PartitionTask extends RecursiveAction {
+        private final RunContext context;
+        private final long fromUserId;
+        private final long toUserId;
+
+        private PartitionTask(RunContext context, long fromUserId, long toUserId) {
+            this.context = context;
+            this.fromUserId = fromUserId;
+            this.toUserId = toUserId;
+        }
+
+        @Override
+        protected void compute() {
+            if (toUserId - fromUserId < partitionSize) {
+                reconcilePartition(context, fromUserId, toUserId);
+                return;
+            }
+            long middle = fromUserId + (toUserId - fromUserId) / 2;
+            invokeAll(new PartitionTask(context, fromUserId, middle),
+                    new PartitionTask(context, middle + 1, toUserId));
+        }
+    }
+}
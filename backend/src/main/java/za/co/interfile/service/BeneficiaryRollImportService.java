@@ -0,0 +1,363 @@
+package za.co.interfile.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.interfile.cache.AdminCounters;
+import za.co.interfile.config.queryguard.QueryBudgetExempt;
+import za.co.interfile.dtos.RollImportReportDto;
+import za.co.interfile.enums.RollFileFormat;
+import za.co.interfile.roll.AccountNumberSet;
+import za.co.interfile.roll.RollParser;
+import za.co.interfile.roll.RollRecord;
+import za.co.interfile.roll.RollRejectedException;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the SASSA grant roll into sassa_accounts so beneficiaries can link
+ * their accounts.
+ * <p>
+ * Roll files are dropped into the import directory. The calling thread streams
+ * the file line by line, validates each line (SA ID check digit, grant type,
+ * amount) and drops repeated account numbers. Full batches go through a small
+ * bounded queue to a writer thread that upserts each batch in its own primary
+ * transaction, so parsing and writing overlap and memory stays flat whatever the
+ * file size (apart from 8-16 bytes per account for duplicate detection).
+ * <p>
+ * Existing accounts are matched on account_number. Amount, payment date and
+ * external id are refreshed; accounts already linked to a user keep their ID
+ * number, grant type and status. New accounts start as PENDING_VERIFICATION.
+ */
+@Slf4j
+@Service
+public class BeneficiaryRollImportService {
+
+    private static final String UPSERT = """
+            INSERT INTO sassa_accounts
+                   (account_number, id_number, grant_type, monthly_amount, next_payment_date,
+                    external_account_id, status, verification_attempts, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, 'PENDING_VERIFICATION', 0, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                   id_number = IF(user_id IS NULL, VALUES(id_number), id_number),
+                   grant_type = IF(user_id IS NULL, VALUES(grant_type), grant_type),
+                   monthly_amount = VALUES(monthly_amount),
+                   next_payment_date = COALESCE(VALUES(next_payment_date), next_payment_date),
+                   external_account_id = COALESCE(VALUES(external_account_id), external_account_id),
+                   updated_at = VALUES(updated_at)
+            """;
+
+    private static final int SAMPLE_REJECTIONS = 50;
+
+    private final Path directory;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final AdminCounters adminCounters;
+    private final Counter writtenRows;
+    private final Counter rejectedRows;
+    private final Counter duplicateRows;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile ImportRun latest;
+
+    @Value("${app.roll-import.batch-size:2000}")
+    private int batchSize;
+
+    @Value("${app.roll-import.queue-batches:8}")
+    private int queueBatches;
+
+    public BeneficiaryRollImportService(@Value("${app.roll-import.directory:./data/roll-import}") String directory,
+                                        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                        AdminCounters adminCounters,
+                                        MeterRegistry meterRegistry) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.batchTransaction = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.adminCounters = adminCounters;
+        this.writtenRows = Counter.builder("relief.roll.import.rows").tag("result", "written").register(meterRegistry);
+        this.rejectedRows = Counter.builder("relief.roll.import.rows").tag("result", "rejected").register(meterRegistry);
+        this.duplicateRows = Counter.builder("relief.roll.import.rows").tag("result", "duplicate").register(meterRegistry);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Progress of the running import, or the outcome of the last one
+     */
+    public Optional<RollImportReportDto> getLatestReport() {
+        ImportRun run = latest;
+        return run != null ? Optional.of(run.toReport()) : Optional.empty();
+    }
+
+    /**
+     * Resolve a file name inside the import directory, rejecting anything outside it
+     */
+    public Path resolveRollFile(String fileName) {
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory)) {
+            throw new IllegalArgumentException("Roll file must be inside the import directory");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Roll file not found: " + fileName);
+        }
+        return file;
+    }
+
+    @Async
+    @QueryBudgetExempt
+    public void importRollAsync(String fileName, RollFileFormat format, String triggeredBy) {
+        try {
+            importRoll(fileName, format, triggeredBy);
+        } catch (Exception e) {
+            log.error("Roll import of {} triggered by {} failed", fileName, triggeredBy, e);
+        }
+    }
+
+    /**
+     * Import one roll file and return its report. Only one import at a time.
+     */
+    @QueryBudgetExempt
+    public RollImportReportDto importRoll(String fileName, RollFileFormat format, String triggeredBy) {
+        Path file = resolveRollFile(fileName);
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A roll import is already running");
+        }
+        try {
+            ImportRun run = new ImportRun(fileName, format, triggeredBy);
+            latest = run;
+            runImport(file, run);
+            return run.toReport();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void runImport(Path file, ImportRun run) {
+        BlockingQueue<List<RollRecord>> queue = new ArrayBlockingQueue<>(queueBatches);
+        List<RollRecord> endOfFile = new ArrayList<>(0);
+        Thread writer = new Thread(() -> writeBatches(queue, endOfFile, run), "roll-import-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        log.info("Roll import of {} ({}) started by {}", run.file, run.format, run.triggeredBy);
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RollParser parser = new RollParser(run.format);
+            AccountNumberSet seen = new AccountNumberSet();
+            List<RollRecord> batch = new ArrayList<>(batchSize);
+
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                    line = line.substring(1);
+                }
+                if (line.isBlank() || (lineNumber == 1 && parser.acceptHeader(line))) {
+                    continue;
+                }
+
+                run.linesRead++;
+                try {
+                    RollRecord record = parser.parse(line, lineNumber);
+                    if (!seen.add(record.accountNumber())) {
+                        run.duplicates++;
+                        duplicateRows.increment();
+                        continue;
+                    }
+                    run.accepted++;
+                    batch.add(record);
+                    if (batch.size() == batchSize) {
+                        handOver(queue, batch, run);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                } catch (RollRejectedException e) {
+                    run.reject(lineNumber, e);
+                    rejectedRows.increment();
+                }
+            }
+            if (!batch.isEmpty()) {
+                handOver(queue, batch, run);
+            }
+            handOver(queue, endOfFile, run);
+            writer.join();
+
+            if (run.writerFailure != null) {
+                throw new IllegalStateException("Roll writer failed: " + run.writerFailure.getMessage(),
+                        run.writerFailure);
+            }
+            run.finish("COMPLETED", null);
+            log.info("Roll import of {} completed: {} lines, {} written, {} duplicates, {} rejected, {} rows/s",
+                    run.file, run.linesRead, run.written, run.duplicates, run.rejected, run.rowsPerSecond());
+        } catch (IOException e) {
+            run.finish("FAILED", e.getMessage());
+            throw new UncheckedIOException("Failed to read roll file " + run.file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.finish("FAILED", "Interrupted");
+            throw new IllegalStateException("Roll import interrupted", e);
+        } catch (RuntimeException e) {
+            run.finish("FAILED", e.getMessage());
+            throw e;
+        } finally {
+            writer.interrupt();
+            // New accounts change the SASSA counts the admin dashboard shows
+            if (run.written > 0) {
+                adminCounters.correct();
+            }
+        }
+    }
+
+    /**
+     * Queue a batch for the writer, giving up if the writer has died
+     */
+    private static void handOver(BlockingQueue<List<RollRecord>> queue, List<RollRecord> batch, ImportRun run)
+            throws InterruptedException {
+        while (!queue.offer(batch, 1, TimeUnit.SECONDS)) {
+            if (run.writerFailure != null) {
+                throw new IllegalStateException("Roll writer failed: " + run.writerFailure.getMessage(),
+                        run.writerFailure);
+            }
+        }
+    }
+
+    private void writeBatches(BlockingQueue<List<RollRecord>> queue, List<RollRecord> endOfFile, ImportRun run) {
+        try {
+            while (true) {
+                List<RollRecord> batch = queue.take();
+                if (batch == endOfFile) {
+                    return;
+                }
+
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Object[]> rows = new ArrayList<>(batch.size());
+                for (RollRecord record : batch) {
+                    rows.add(new Object[]{
+                            record.accountNumber(),
+                            record.idNumber(),
+                            record.grantType().name(),
+                            record.monthlyAmount(),
+                            record.nextPaymentDate() != null ? Date.valueOf(record.nextPaymentDate()) : null,
+                            record.externalAccountId(),
+                            now,
+                            now
+                    });
+                }
+                batchTransaction.executeWithoutResult(status -> primaryJdbcTemplate.batchUpdate(UPSERT, rows));
+
+                run.written += batch.size();
+                run.batchesWritten++;
+                writtenRows.increment(batch.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Roll writer failed after {} rows", run.written, e);
+            run.writerFailure = e;
+        }
+    }
+
+    /**
+     * Live state of one import. Parse counters are written only by the reading
+     * thread and write counters only by the writer thread; readers of the report
+     * just see a slightly stale snapshot.
+     */
+    private static final class ImportRun {
+        private final String file;
+        private final RollFileFormat format;
+        private final String triggeredBy;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final Map<String, Long> rejectionsByReason = new ConcurrentHashMap<>();
+        private final List<String> sampleRejections = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile long linesRead;
+        private volatile long accepted;
+        private volatile long duplicates;
+        private volatile long rejected;
+        private volatile long written;
+        private volatile long batchesWritten;
+        private volatile RuntimeException writerFailure;
+        private volatile String status = "RUNNING";
+        private volatile String failureReason;
+        private volatile LocalDateTime completedAt;
+        private volatile long elapsedNanos;
+
+        private ImportRun(String file, RollFileFormat format, String triggeredBy) {
+            this.file = file;
+            this.format = format;
+            this.triggeredBy = triggeredBy;
+        }
+
+        private void reject(long lineNumber, RollRejectedException e) {
+            rejected++;
+            rejectionsByReason.merge(e.getReason(), 1L, Long::sum);
+            if (sampleRejections.size() < SAMPLE_REJECTIONS) {
+                sampleRejections.add("line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+
+        private void finish(String finalStatus, String reason) {
+            elapsedNanos = System.nanoTime() - startedNanos;
+            completedAt = LocalDateTime.now();
+            failureReason = reason;
+            status = finalStatus;
+        }
+
+        private long rowsPerSecond() {
+            long elapsed = completedAt != null ? elapsedNanos : System.nanoTime() - startedNanos;
+            return elapsed > 0 ? written * 1_000_000_000L / elapsed : 0;
+        }
+
+        private RollImportReportDto toReport() {
+            return RollImportReportDto.builder()
+                    .file(file)
+                    .format(format)
+                    .triggeredBy(triggeredBy)
+                    .status(status)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .linesRead(linesRead)
+                    .accepted(accepted)
+                    .duplicates(duplicates)
+                    .rejected(rejected)
+                    .written(written)
+                    .batchesWritten(batchesWritten)
+                    .rowsPerSecond(rowsPerSecond())
+                    .rejectionsByReason(new TreeMap<>(rejectionsByReason))
+                    .sampleRejections(List.copyOf(sampleRejections))
+                    .failureReason(failureReason)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package za.co.interfile.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import za.co.interfile.archive.ArchiveTable;
+import za.co.interfile.archive.ArchivedRow;
+import za.co.interfile.cache.ExpiringCache;
+import za.co.interfile.cache.UserSummaryStore;
+import za.co.interfile.dtos.CallCentreLookupDto;
+import za.co.interfile.dtos.CallCentreMatchDto;
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.LookupKeyType;
+import za.co.interfile.enums.UsersStatus;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves whatever a caller reads out to the call centre agent (ID number,
+ * phone number, SASSA account number, cash send voucher or transaction
+ * reference) to the beneficiary behind it.
+ * The key's shape decides which lookups to try, in order, and each one is a
+ * single indexed point query on the interactive pool. Results, including
+ * "not found", are cached briefly because callers are often passed between
+ * agents during the pay-day surge.
+ */
+@Slf4j
+@Service
+public class CallCentreLookupService {
+
+    private static final Pattern ID_NUMBER = Pattern.compile("\\d{13}");
+    private static final Pattern VOUCHER_CODE = Pattern.compile("\\d{12}");
+    private static final Pattern PHONE = Pattern.compile("\\+?\\d{10,15}");
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s\\-()]");
+
+    private static final int MAX_MATCHES = 10;
+
+    private static final String USER_QUERY = """
+            SELECT u.user_id, u.full_name, u.id_number, u.phone, u.email, u.status,
+                   s.account_number, s.grant_type, s.status AS sassa_status
+            FROM users u
+            LEFT JOIN sassa_accounts s ON s.sassa_account_id = (
+                SELECT MIN(a.sassa_account_id) FROM sassa_accounts a
+                 WHERE a.user_id = u.user_id AND a.status = 'ACTIVE')
+            """;
+
+    private final JdbcTemplate interactiveJdbcTemplate;
+    private final UserSummaryStore userSummaryStore;
+    private final HistoryArchiveService historyArchiveService;
+    private final ExpiringCache<String, CallCentreLookupDto> recentLookups;
+    private final Timer cachedTimer;
+    private final Timer resolvedTimer;
+
+    public CallCentreLookupService(@Qualifier("interactiveDataSource") DataSource interactiveDataSource,
+                                   UserSummaryStore userSummaryStore,
+                                   HistoryArchiveService historyArchiveService,
+                                   @Value("${app.call-centre.cache-ttl-ms:30000}") long cacheTtlMs,
+                                   @Value("${app.call-centre.cache-size:20000}") int cacheSize,
+                                   MeterRegistry meterRegistry) {
+        this.interactiveJdbcTemplate = new JdbcTemplate(interactiveDataSource);
+        this.userSummaryStore = userSummaryStore;
+        this.historyArchiveService = historyArchiveService;
+        this.recentLookups = new ExpiringCache<>(cacheTtlMs, cacheSize);
+        this.cachedTimer = Timer.builder("relief.callcentre.lookup").tag("source", "cache").register(meterRegistry);
+        this.resolvedTimer = Timer.builder("relief.callcentre.lookup").tag("source", "database").register(meterRegistry);
+    }
+
+    public CallCentreLookupDto resolve(String rawKey) {
+        if (rawKey == null || rawKey.isBlank()) {
+            throw new IllegalArgumentException("A lookup key is required");
+        }
+        String key = normalize(rawKey);
+
+        long started = System.nanoTime();
+        Optional<CallCentreLookupDto> cached = recentLookups.get(key);
+        if (cached.isPresent()) {
+            cachedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return cached.get();
+        }
+
+        List<LookupKeyType> candidates = detectKeyTypes(key);
+        LookupKeyType matchedType = null;
+        List<CallCentreMatchDto> matches = Collections.emptyList();
+        for (LookupKeyType type : candidates) {
+            matches = lookup(type, key);
+            if (!matches.isEmpty()) {
+                matchedType = type;
+                break;
+            }
+        }
+
+        CallCentreLookupDto result = CallCentreLookupDto.builder()
+                .key(key)
+                .keyType(matchedType)
+                .keyTypesTried(candidates)
+                .matches(matches)
+                .resolvedAt(LocalDateTime.now())
+                .build();
+        recentLookups.put(key, result);
+
+        long elapsed = System.nanoTime() - started;
+        resolvedTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Call centre key resolved as {} with {} matches in {}us", matchedType, matches.size(), elapsed / 1000);
+        return result;
+    }
+
+    /**
+     * Upper-case without spaces; references keep their dashes, anything else
+     * loses the separators people type into phone and ID numbers
+     */
+    private static String normalize(String rawKey) {
+        String key = rawKey.trim().toUpperCase(Locale.ROOT).replaceAll("\\s", "");
+        if (isReference(key)) {
+            return key;
+        }
+        return SEPARATORS.matcher(key).replaceAll("");
+    }
+
+    private static boolean isReference(String key) {
+        return key.startsWith("WTX") || key.startsWith("CS-") || key.startsWith("ELEC-");
+    }
+
+    /**
+     * Lookups to try for a key, most specific first
+     */
+    private static List<LookupKeyType> detectKeyTypes(String key) {
+        if (key.startsWith("WTX")) {
+            return List.of(LookupKeyType.WITHDRAWAL_REFERENCE);
+        }
+        if (key.startsWith("CS-")) {
+            return List.of(LookupKeyType.CASH_SEND_REFERENCE);
+        }
+        if (key.startsWith("ELEC-")) {
+            return List.of(LookupKeyType.ELECTRICITY_REFERENCE);
+        }
+        if (ID_NUMBER.matcher(key).matches()) {
+            return List.of(LookupKeyType.ID_NUMBER, LookupKeyType.PHONE, LookupKeyType.SASSA_ACCOUNT);
+        }
+        if (VOUCHER_CODE.matcher(key).matches()) {
+            return List.of(LookupKeyType.VOUCHER_CODE, LookupKeyType.PHONE, LookupKeyType.SASSA_ACCOUNT);
+        }
+        if (PHONE.matcher(key).matches()) {
+            return List.of(LookupKeyType.PHONE, LookupKeyType.SASSA_ACCOUNT);
+        }
+        return List.of(LookupKeyType.SASSA_ACCOUNT);
+    }
+
+    private List<CallCentreMatchDto> lookup(LookupKeyType type, String key) {
+        return switch (type) {
+            case ID_NUMBER -> {
+                List<CallCentreMatchDto> users = findUsers(" WHERE u.id_number = ?", key);
+                // A beneficiary can have a SASSA account before registering
+                yield !users.isEmpty() ? users : findRecords("SASSA_ACCOUNT",
+                        "SELECT user_id, account_number AS reference, status, monthly_amount AS amount, created_at "
+                                + "FROM sassa_accounts WHERE id_number = ? LIMIT " + MAX_MATCHES, key);
+            }
+            case PHONE -> {
+                List<String> variants = phoneVariants(key);
+                String placeholders = String.join(", ", Collections.nCopies(variants.size(), "?"));
+                yield findUsers(" WHERE u.phone IN (" + placeholders + ") ORDER BY u.user_id DESC LIMIT "
+                        + MAX_MATCHES, variants.toArray());
+            }
+            case SASSA_ACCOUNT -> findRecords("SASSA_ACCOUNT",
+                    "SELECT user_id, account_number AS reference, status, monthly_amount AS amount, created_at "
+                            + "FROM sassa_accounts WHERE account_number = ?", key);
+            case VOUCHER_CODE -> orArchived(findRecords("CASH_SEND",
+                    "SELECT user_id, voucher_code AS reference, status, amount, created_at "
+                            + "FROM cash_send_transactions WHERE voucher_code = ?", key),
+                    "CASH_SEND", ArchiveTable.CASH_SEND_TRANSACTIONS, "voucher_code", "amount", key);
+            case WITHDRAWAL_REFERENCE -> orArchived(findRecords("WITHDRAWAL",
+                    "SELECT user_id, transaction_reference AS reference, status, requested_amount AS amount, "
+                            + "requested_at AS created_at FROM withdrawal_requests WHERE transaction_reference = ?", key),
+                    "WITHDRAWAL", ArchiveTable.WITHDRAWAL_REQUESTS, "transaction_reference", "requested_amount", key);
+            case CASH_SEND_REFERENCE -> orArchived(findRecords("CASH_SEND",
+                    "SELECT user_id, transaction_reference AS reference, status, amount, created_at "
+                            + "FROM cash_send_transactions WHERE transaction_reference = ?", key),
+                    "CASH_SEND", ArchiveTable.CASH_SEND_TRANSACTIONS, "transaction_reference", "amount", key);
+            case ELECTRICITY_REFERENCE -> orArchived(findRecords("ELECTRICITY",
+                    "SELECT user_id, transaction_reference AS reference, status, amount, created_at "
+                            + "FROM electricity_transactions WHERE transaction_reference = ?", key),
+                    "ELECTRICITY", ArchiveTable.ELECTRICITY_TRANSACTIONS, "transaction_reference", "amount", key);
+        };
+    }
+
+    /**
+     * Records in a final state move to the history archive after their period
+     * closes, so a reference that is no longer hot is looked up there
+     */
+    private List<CallCentreMatchDto> orArchived(List<CallCentreMatchDto> hot, String recordType, ArchiveTable table,
+                                                String referenceColumn, String amountColumn, String key) {
+        if (!hot.isEmpty()) {
+            return hot;
+        }
+        List<Long> userIds = new ArrayList<>();
+        List<CallCentreMatchDto> records = new ArrayList<>();
+        for (ArchivedRow row : historyArchiveService.findByReference(table, key)) {
+            // The reference index covers every reference column of the table
+            if (!key.equals(row.getString(referenceColumn))) {
+                continue;
+            }
+            userIds.add(row.getLong("user_id"));
+            records.add(CallCentreMatchDto.builder()
+                    .recordType(recordType)
+                    .recordReference(key)
+                    .recordStatus(row.getString("status"))
+                    .recordAmount(row.getDecimal(amountColumn))
+                    .recordCreatedAt(row.getDateTime(table.getTimestampColumn()))
+                    .build());
+        }
+        return withUsers(records, userIds);
+    }
+
+    private List<CallCentreMatchDto> findUsers(String condition, Object... args) {
+        return interactiveJdbcTemplate.query(USER_QUERY + condition, (rs, row) -> toUserMatch(rs), args);
+    }
+
+    /**
+     * Records matching the key, each joined to its user when it has one
+     */
+    private List<CallCentreMatchDto> findRecords(String recordType, String query, Object... args) {
+        List<Long> userIds = new ArrayList<>();
+        List<CallCentreMatchDto> records = interactiveJdbcTemplate.query(query, (rs, row) -> {
+            long userId = rs.getLong("user_id");
+            userIds.add(rs.wasNull() ? null : userId);
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            return CallCentreMatchDto.builder()
+                    .recordType(recordType)
+                    .recordReference(rs.getString("reference"))
+                    .recordStatus(rs.getString("status"))
+                    .recordAmount(rs.getBigDecimal("amount"))
+                    .recordCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                    .build();
+        }, args);
+        return withUsers(records, userIds);
+    }
+
+    private List<CallCentreMatchDto> withUsers(List<CallCentreMatchDto> records, List<Long> userIds) {
+        List<CallCentreMatchDto> matches = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            CallCentreMatchDto record = records.get(i);
+            Long userId = userIds.get(i);
+            CallCentreMatchDto match = userId != null
+                    ? findUsers(" WHERE u.user_id = ?", userId).stream().findFirst().orElse(record)
+                    : record;
+            if (match != record) {
+                match.setRecordType(record.getRecordType());
+                match.setRecordReference(record.getRecordReference());
+                match.setRecordStatus(record.getRecordStatus());
+                match.setRecordAmount(record.getRecordAmount());
+                match.setRecordCreatedAt(record.getRecordCreatedAt());
+            }
+            matches.add(match);
+        }
+        return matches;
+    }
+
+    private CallCentreMatchDto toUserMatch(ResultSet rs) throws SQLException {
+        long userId = rs.getLong("user_id");
+        String idNumber = rs.getString("id_number");
+        String grantType = rs.getString("grant_type");
+
+        return CallCentreMatchDto.builder()
+                .userId(userId)
+                .fullName(rs.getString("full_name"))
+                .maskedIdNumber(idNumber != null && idNumber.length() == 13
+                        ? idNumber.substring(0, 6) + "*******" : "****")
+                .phone(rs.getString("phone"))
+                .email(rs.getString("email"))
+                .userStatus(UsersStatus.valueOf(rs.getString("status")))
+                .availableBalance(userSummaryStore.findAvailableBalance(userId).orElse(null))
+                .sassaAccountNumber(rs.getString("account_number"))
+                .grantType(grantType != null ? GrantType.valueOf(grantType) : null)
+                .sassaStatus(rs.getString("sassa_status"))
+                .build();
+    }
+
+    /**
+     * The same South African number as it may have been stored: 0XX, 27XX or +27XX
+     */
+    private static List<String> phoneVariants(String phone) {
+        Set<String> variants = new LinkedHashSet<>();
+        variants.add(phone);
+        String local = null;
+        if (phone.startsWith("+27")) {
+            local = phone.substring(3);
+        } else if (phone.startsWith("27") && phone.length() == 11) {
+            local = phone.substring(2);
+        } else if (phone.startsWith("0") && phone.length() == 10) {
+            local = phone.substring(1);
+        }
+        if (local != null) {
+            variants.add("0" + local);
+            variants.add("27" + local);
+            variants.add("+27" + local);
+        }
+        return new ArrayList<>(variants);
+    }
+}
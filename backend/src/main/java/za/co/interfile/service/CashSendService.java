@@ -1,16 +1,24 @@
 package za.co.interfile.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import za.co.interfile.cache.UserSummaryStore;
 import za.co.interfile.dtos.CashSendRequestDto;
 import za.co.interfile.dtos.CashSendResponseDto;
 import za.co.interfile.enums.CashSendStatus;
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.enums.NotificationType;
+import za.co.interfile.enums.SpendCategory;
 import za.co.interfile.exception.InsufficientBalanceException;
 import za.co.interfile.model.CashSendTransaction;
 import za.co.interfile.model.SassaAccounts;
 import za.co.interfile.model.UserBalance;
 import za.co.interfile.model.Users;
+import za.co.interfile.notification.NotificationCoalescer;
+import za.co.interfile.notification.PendingNotification;
+import za.co.interfile.push.UserEventPublisher;
 import za.co.interfile.repository.CashSendRepository;
 import za.co.interfile.repository.SassaAccountsRepository;
 import za.co.interfile.repository.UserBalanceRepository;
@@ -34,6 +42,10 @@ public class CashSendService {
     private final CashSendRepository cashSendRepository;
     private final UserBalanceRepository userBalanceRepository;
     private final SassaAccountsRepository sassaAccountRepository;
+    private final UserSummaryStore userSummaryStore;
+    private final UserEventPublisher userEventPublisher;
+    private final NotificationCoalescer notificationCoalescer;
+    private final SpendSummaryService spendSummaryService;
 
     private static final BigDecimal CASH_SEND_FEE = new BigDecimal("3.50");
     private static final BigDecimal MIN_AMOUNT = new BigDecimal("10.00");
@@ -67,7 +79,10 @@ public class CashSendService {
 
         userBalance.setAvailableBalance(newAvailableBalance);
         userBalance.setTotalWithdrawn(newTotalWithdrawn);
-        userBalanceRepository.save(userBalance);
+        // Flushed so the new version is known to the cache and the event
+        userBalanceRepository.saveAndFlush(userBalance);
+        userSummaryStore.updateAvailableBalance(user.getUserId(), newAvailableBalance, userBalance.getVersion());
+        userEventPublisher.balanceChanged(user.getUserId(), newAvailableBalance, userBalance.getVersion());
 
         CashSendTransaction transaction = CashSendTransaction.builder()
                 .amount(amount)
@@ -84,6 +99,12 @@ public class CashSendService {
                 .build();
 
         cashSendRepository.save(transaction);
+        spendSummaryService.record(user.getUserId(), transaction.getCreatedAt(),
+                SpendCategory.CASH_SEND, amount, CASH_SEND_FEE);
+        notificationCoalescer.submit(PendingNotification.of(user.getUserId(), "Cash send sent",
+                String.format("R%.2f sent to %s (%s).", amount, request.getRecipientName(), request.getRecipientPhone()),
+                NotificationType.PAYMENT, NotificationPriority.MEDIUM,
+                "CashSendTransaction", transaction.getCashSendId()));
 
         return CashSendResponseDto.builder()
                 .success(true)
@@ -137,14 +158,29 @@ public class CashSendService {
         List<CashSendTransaction> transactions = cashSendRepository.findByUserUserIdOrderByCreatedAtDesc(user.getUserId());
 
         return transactions.stream()
-                .map(transaction -> CashSendResponseDto.builder()
-                        .success(true)
-                        .message("Transaction completed")
-                        .transactionReference(transaction.getTransactionReference())
-                        .amount(transaction.getAmount())
-                        .recipientPhone(transaction.getRecipientPhone())
-                        .timestamp(transaction.getCreatedAt())
-                        .build())
+                .map(this::convertToHistoryDto)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Most recent cash sends only, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<CashSendResponseDto> getRecentCashSendHistory(Long userId, int limit) {
+        return cashSendRepository.findByUserUserIdOrderByCreatedAtDesc(userId, PageRequest.of(0, limit))
+                .stream()
+                .map(this::convertToHistoryDto)
+                .collect(Collectors.toList());
+    }
+
+    private CashSendResponseDto convertToHistoryDto(CashSendTransaction transaction) {
+        return CashSendResponseDto.builder()
+                .success(true)
+                .message("Transaction completed")
+                .transactionReference(transaction.getTransactionReference())
+                .amount(transaction.getAmount())
+                .recipientPhone(transaction.getRecipientPhone())
+                .timestamp(transaction.getCreatedAt())
+                .build();
+    }
 }
\ No newline at end of file
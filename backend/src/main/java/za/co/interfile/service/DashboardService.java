@@ -0,0 +1,178 @@
+package za.co.interfile.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import za.co.interfile.dtos.ActiveSassaAccountDto;
+import za.co.interfile.dtos.CashSendResponseDto;
+import za.co.interfile.dtos.DashboardDto;
+import za.co.interfile.dtos.ElectricityPurchaseResponseDto;
+import za.co.interfile.dtos.UserBalanceDetailsDTO;
+import za.co.interfile.dtos.UserResponseDto;
+import za.co.interfile.dtos.WithdrawalHistoryDto;
+import za.co.interfile.model.Users;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the post-login dashboard in one call. The sections are loaded in
+ * parallel on a bounded executor (virtual threads when enabled), each with its
+ * own timeout; a slow or failing section is left out instead of failing the page.
+ * <p>
+ * Every section holds a read connection while it runs, so the executor is capped
+ * at half of the interactive pool to leave the rest for other requests. A timed-out
+ * section is cancelled: it is dropped from the queue, or interrupted while waiting
+ * for a connection. A statement already running is bounded by the pool's
+ * max_execution_time.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    private final UsersService usersService;
+    private final WithdrawalService withdrawalService;
+    private final SassaAccountService sassaAccountService;
+    private final CashSendService cashSendService;
+    private final ElectricityService electricityService;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${app.dashboard.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${app.datasource.interactive.maximum-pool-size:8}")
+    private int interactivePoolSize;
+
+    @Value("${app.dashboard.section-timeout-ms:2000}")
+    private long sectionTimeoutMs;
+
+    @Value("${app.dashboard.history-limit:5}")
+    private int historyLimit;
+
+    private AsyncTaskExecutor taskExecutor;
+
+    @PostConstruct
+    void initExecutor() {
+        int concurrency = effectiveConcurrency();
+        // Kept out of the context on purpose: an Executor bean would replace
+        // the auto-configured applicationTaskExecutor used by @Async
+        if (virtualThreadsEnabled && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("dashboard-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            taskExecutor = executor;
+        } else {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadNamePrefix("dashboard-");
+            executor.setCorePoolSize(concurrency);
+            executor.setMaxPoolSize(concurrency);
+            executor.setQueueCapacity(concurrency * 25);
+            executor.initialize();
+            taskExecutor = executor;
+        }
+        if (concurrency < maxConcurrency) {
+            log.info("Dashboard concurrency capped at {} (interactive pool size {})", concurrency, interactivePoolSize);
+        }
+    }
+
+    int effectiveConcurrency() {
+        return Math.max(1, Math.min(maxConcurrency, interactivePoolSize / 2));
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        if (taskExecutor instanceof ThreadPoolTaskExecutor executor) {
+            executor.shutdown();
+        }
+    }
+
+    public DashboardDto getDashboard(Users user) {
+        Long userId = user.getUserId();
+        AsyncTaskExecutor executor = new DelegatingSecurityContextAsyncTaskExecutor(taskExecutor,
+                SecurityContextHolder.getContext());
+        Map<String, String> unavailable = new ConcurrentSkipListMap<>();
+
+        CompletableFuture<UserResponseDto> profile = section("profile",
+                () -> usersService.getProfile(user), executor, unavailable);
+        CompletableFuture<UserBalanceDetailsDTO> balance = section("balance",
+                () -> withdrawalService.getBalanceDetails(userId), executor, unavailable);
+        CompletableFuture<ActiveSassaAccountDto> sassaAccount = section("activeSassaAccount",
+                () -> sassaAccountService.getActiveSassaAccountDetails(userId), executor, unavailable);
+        CompletableFuture<List<WithdrawalHistoryDto>> withdrawals = section("recentWithdrawals",
+                () -> withdrawalService.getRecentWithdrawalHistory(userId, historyLimit), executor, unavailable);
+        CompletableFuture<List<CashSendResponseDto>> cashSends = section("recentCashSends",
+                () -> cashSendService.getRecentCashSendHistory(userId, historyLimit), executor, unavailable);
+        CompletableFuture<List<ElectricityPurchaseResponseDto>> electricity = section("recentElectricityPurchases",
+                () -> electricityService.getRecentElectricityHistory(userId, historyLimit), executor, unavailable);
+
+        CompletableFuture.allOf(profile, balance, sassaAccount, withdrawals, cashSends, electricity).join();
+
+        return DashboardDto.builder()
+                .profile(profile.join())
+                .balance(balance.join())
+                .activeSassaAccount(sassaAccount.join())
+                .recentWithdrawals(withdrawals.join())
+                .recentCashSends(cashSends.join())
+                .recentElectricityPurchases(electricity.join())
+                .unavailableSections(new TreeMap<>(unavailable))
+                .build();
+    }
+
+    /**
+     * Start one section; it always completes, with null when it failed or timed out
+     */
+    private <T> CompletableFuture<T> section(String name, Supplier<T> loader, AsyncTaskExecutor executor,
+                                             Map<String, String> unavailable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    future.complete(loader.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Dashboard section {} rejected, executor saturated", name);
+            unavailable.put(name, "busy");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return future
+                .orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        // orTimeout only completes the future; stop the work behind it too
+                        task.cancel(true);
+                        log.warn("Dashboard section {} timed out after {}ms", name, sectionTimeoutMs);
+                        unavailable.put(name, "timed out");
+                    } else {
+                        log.error("Dashboard section {} failed", name, cause);
+                        unavailable.put(name, "failed");
+                    }
+                    return null;
+                });
+    }
+}
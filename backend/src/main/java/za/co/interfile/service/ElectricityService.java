@@ -1,16 +1,24 @@
 package za.co.interfile.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import za.co.interfile.cache.UserSummaryStore;
 import za.co.interfile.dtos.ElectricityPurchaseResponseDto;
 import za.co.interfile.dtos.ElectricityPurchaseRequestDto;
 import za.co.interfile.enums.ElectricityTransactionStatus;
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.enums.NotificationType;
+import za.co.interfile.enums.SpendCategory;
 import za.co.interfile.exception.InsufficientBalanceException;
 import za.co.interfile.model.ElectricityTransaction;
 import za.co.interfile.model.SassaAccounts;
 import za.co.interfile.model.UserBalance;
 import za.co.interfile.model.Users;
+import za.co.interfile.notification.NotificationCoalescer;
+import za.co.interfile.notification.PendingNotification;
+import za.co.interfile.push.UserEventPublisher;
 import za.co.interfile.repository.ElectricityTransactionRepository;
 import za.co.interfile.repository.SassaAccountsRepository;
 import za.co.interfile.repository.UserBalanceRepository;
@@ -31,8 +39,12 @@ public class ElectricityService {
     private final ElectricityTransactionRepository electricityRepository;
     private final UserBalanceRepository userBalanceRepository;
     private final SassaAccountsRepository sassaAccountRepository;
+    private final UserSummaryStore userSummaryStore;
+    private final UserEventPublisher userEventPublisher;
+    private final NotificationCoalescer notificationCoalescer;
+    private final SpendSummaryService spendSummaryService;
 
-    private static final BigDecimal ELECTRICITY_FEE = new BigDecimal("2.50");
+    public static final BigDecimal ELECTRICITY_FEE = new BigDecimal("2.50");
     private static final BigDecimal MIN_AMOUNT = new BigDecimal("20.00");
     private static final BigDecimal MAX_AMOUNT = new BigDecimal("5000.00");
     private static final BigDecimal RATE_PER_UNIT = new BigDecimal("2.2222"); // R2.22 per kWh
@@ -72,7 +84,10 @@ public class ElectricityService {
 
         userBalance.setAvailableBalance(newAvailableBalance);
         userBalance.setTotalWithdrawn(newTotalWithdrawn);
-        userBalanceRepository.save(userBalance);
+        // Flushed so the new version is known to the cache and the event
+        userBalanceRepository.saveAndFlush(userBalance);
+        userSummaryStore.updateAvailableBalance(user.getUserId(), newAvailableBalance, userBalance.getVersion());
+        userEventPublisher.balanceChanged(user.getUserId(), newAvailableBalance, userBalance.getVersion());
 
         // 7. Create electricity transaction
         ElectricityTransaction transaction = ElectricityTransaction.builder()
@@ -88,6 +103,12 @@ public class ElectricityService {
                 .build();
 
         electricityRepository.save(transaction);
+        spendSummaryService.record(user.getUserId(), transaction.getCreatedAt(),
+                SpendCategory.ELECTRICITY, amount, ELECTRICITY_FEE);
+        notificationCoalescer.submit(PendingNotification.of(user.getUserId(), "Electricity purchased",
+                String.format("R%.2f of electricity (%s units) for meter %s.", amount, units, request.getMeterNumber()),
+                NotificationType.PAYMENT, NotificationPriority.MEDIUM,
+                "ElectricityTransaction", transaction.getTransactionId()));
 
         // 8. Build response using your existing DTO
         return ElectricityPurchaseResponseDto.builder()
@@ -142,16 +163,31 @@ public class ElectricityService {
         List<ElectricityTransaction> purchases = electricityRepository.findByUserUserIdOrderByCreatedAtDesc(user.getUserId());
 
         return purchases.stream()
-                .map(purchase -> ElectricityPurchaseResponseDto.builder()
-                        .success(true)
-                        .message("Purchase completed")
-                        .meterNumber(purchase.getMeterNumber())
-                        .amount(purchase.getAmount())
-                        .voucherCode(purchase.getToken())
-                        .units(purchase.getUnits())
-                        .transactionReference(purchase.getTransactionReference())
-                        .timestamp(purchase.getCreatedAt())
-                        .build())
+                .map(this::convertToHistoryDto)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Most recent electricity purchases only, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<ElectricityPurchaseResponseDto> getRecentElectricityHistory(Long userId, int limit) {
+        return electricityRepository.findByUserUserIdOrderByCreatedAtDesc(userId, PageRequest.of(0, limit))
+                .stream()
+                .map(this::convertToHistoryDto)
+                .collect(Collectors.toList());
+    }
+
+    private ElectricityPurchaseResponseDto convertToHistoryDto(ElectricityTransaction purchase) {
+        return ElectricityPurchaseResponseDto.builder()
+                .success(true)
+                .message("Purchase completed")
+                .meterNumber(purchase.getMeterNumber())
+                .amount(purchase.getAmount())
+                .voucherCode(purchase.getToken())
+                .units(purchase.getUnits())
+                .transactionReference(purchase.getTransactionReference())
+                .timestamp(purchase.getCreatedAt())
+                .build();
+    }
 }
\ No newline at end of file
@@ -1,72 +1,65 @@
 package za.co.interfile.service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.interfile.calendar.GrantPaymentCalendar;
+import za.co.interfile.config.queryguard.QueryBudgetExempt;
 import za.co.interfile.enums.GrantType;
 import za.co.interfile.enums.SassaStatus;
 import za.co.interfile.model.SassaAccounts;
 import za.co.interfile.repository.SassaAccountsRepository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class GrantPaymentService {
 
     private final SassaAccountsRepository sassaAccountRepository;
+    private final GrantPaymentCalendar grantPaymentCalendar;
+    private final TransactionTemplate writeTransaction;
 
-    public LocalDate calculateNextPaymentDate(SassaAccounts sassaAccount) {
-        LocalDate today = LocalDate.now();
-        GrantType grantType = sassaAccount.getGrantType();
+    @Value("${app.payment-dates.batch-ids:50000}")
+    private long batchIds;
 
-        LocalDate nextPaymentDate = calculateNextPaymentDateByGrantType(grantType, today);
+    @Value("${app.payment-dates.enabled:true}")
+    private boolean scheduledUpdateEnabled;
 
-        if (nextPaymentDate.isBefore(today)) {
-            nextPaymentDate = nextPaymentDate.plusMonths(1);
-        }
+    public GrantPaymentService(SassaAccountsRepository sassaAccountRepository,
+                               GrantPaymentCalendar grantPaymentCalendar,
+                               PlatformTransactionManager transactionManager) {
+        this.sassaAccountRepository = sassaAccountRepository;
+        this.grantPaymentCalendar = grantPaymentCalendar;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public LocalDate calculateNextPaymentDate(SassaAccounts sassaAccount) {
+        GrantType grantType = sassaAccount.getGrantType();
+        LocalDate nextPaymentDate = grantPaymentCalendar.nextPaymentDate(grantType, LocalDate.now());
 
         log.debug("Calculated next payment date for grant type {}: {}", grantType, nextPaymentDate);
         return nextPaymentDate;
     }
 
     /**
-     * Calculate next payment date based on grant type and reference date
+     * Calculate next payment date based on grant type and reference date.
+     * Payment days falling on a weekend or public holiday move to the next business day.
      * @param grantType The type of grant
      * @param referenceDate The date to calculate from
-     * @return The next payment date
+     * @return The next payment date on or after the reference date
      */
     public LocalDate calculateNextPaymentDateByGrantType(GrantType grantType, LocalDate referenceDate) {
-        return switch (grantType) {
-            case SRD -> {
-                LocalDate paymentDate = referenceDate.withDayOfMonth(5);
-                yield paymentDate.isBefore(referenceDate) ? paymentDate.plusMonths(1) : paymentDate;
-            }
-            case CHILD_SUPPORT -> {
-                LocalDate paymentDate = referenceDate.withDayOfMonth(3);
-                yield paymentDate.isBefore(referenceDate) ? paymentDate.plusMonths(1) : paymentDate;
-            }
-            case DISABILITY, OLD_AGE, CARE_DEPENDENCY -> {
-                LocalDate paymentDate = referenceDate.withDayOfMonth(1);
-                yield paymentDate.isBefore(referenceDate) ? paymentDate.plusMonths(1) : paymentDate;
-            }
-            case FOSTER_CARE -> {
-                LocalDate paymentDate = referenceDate.withDayOfMonth(10);
-                yield paymentDate.isBefore(referenceDate) ? paymentDate.plusMonths(1) : paymentDate;
-            }
-            case WAR_VETERANS -> {
-                LocalDate paymentDate = referenceDate.withDayOfMonth(1);
-                yield paymentDate.isBefore(referenceDate) ? paymentDate.plusMonths(1) : paymentDate;
-            }
-            default -> {
-                LocalDate paymentDate = referenceDate.withDayOfMonth(1);
-                yield paymentDate.isBefore(referenceDate) ? paymentDate.plusMonths(1) : paymentDate;
-            }
-        };
+        return grantPaymentCalendar.nextPaymentDate(grantType, referenceDate);
     }
 
     /**
@@ -180,13 +173,7 @@ public class GrantPaymentService {
      * @return The day of month when this grant type is typically paid
      */
     public int getPaymentDayForGrantType(GrantType grantType) {
-        return switch (grantType) {
-            case SRD -> 5;
-            case CHILD_SUPPORT -> 3;
-            case DISABILITY, OLD_AGE, CARE_DEPENDENCY, WAR_VETERANS -> 1;
-            case FOSTER_CARE -> 10;
-            default -> 1;
-        };
+        return grantPaymentCalendar.paymentDay(grantType);
     }
 
     /**
@@ -196,35 +183,67 @@ public class GrantPaymentService {
      * @return List of payment dates
      */
     public List<LocalDate> calculatePaymentSchedule(GrantType grantType, int months) {
-        LocalDate startDate = LocalDate.now();
-        return java.util.stream.IntStream.range(0, months)
-                .mapToObj(i -> calculateNextPaymentDateByGrantType(grantType, startDate.plusMonths(i)))
-                .toList();
+        return grantPaymentCalendar.schedule(grantType, LocalDate.now(), months);
+    }
+
+    @Scheduled(cron = "${app.payment-dates.cron:0 15 0 * * *}")
+    @QueryBudgetExempt
+    public void scheduledPaymentDateUpdate() {
+        if (!scheduledUpdateEnabled) {
+            return;
+        }
+        try {
+            updateAllPaymentDates();
+        } catch (Exception e) {
+            log.error("Scheduled payment date update failed", e);
+        }
     }
 
     /**
      * Batch update payment dates for all active accounts
      * @return Number of accounts updated
      */
-    @Transactional
+    @QueryBudgetExempt
     public int updateAllPaymentDates() {
-        List<SassaAccounts> activeAccounts = sassaAccountRepository
-                .findByStatus(SassaStatus.ACTIVE);
-
-        int updatedCount = 0;
-        for (SassaAccounts account : activeAccounts) {
-            try {
-                updateNextPaymentDate(account);
-                updatedCount++;
-            } catch (Exception e) {
-                log.error("Failed to update payment date for account {}: {}",
-                        account.getSassaAccountId(), e.getMessage());
-            }
+        return recalculatePaymentDates().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Set every active account's next payment date from the payment calendar.
+     * The date depends only on the grant type, so this runs one UPDATE per grant
+     * type per id range, each range in its own transaction; no entities are loaded.
+     * @return Number of accounts whose date changed, per grant type
+     */
+    @QueryBudgetExempt
+    public Map<GrantType, Integer> recalculatePaymentDates() {
+        long started = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        long maxAccountId = sassaAccountRepository.findMaxSassaAccountId();
+
+        Map<GrantType, LocalDate> nextDates = new EnumMap<>(GrantType.class);
+        Map<GrantType, Integer> updated = new EnumMap<>(GrantType.class);
+        for (GrantType grantType : GrantType.values()) {
+            nextDates.put(grantType, grantPaymentCalendar.nextPaymentDate(grantType, today));
+            updated.put(grantType, 0);
+        }
+
+        for (long fromId = 0; fromId <= maxAccountId; fromId += batchIds) {
+            long from = fromId;
+            long to = fromId + batchIds - 1;
+            writeTransaction.executeWithoutResult(status -> {
+                for (Map.Entry<GrantType, LocalDate> entry : nextDates.entrySet()) {
+                    int rows = sassaAccountRepository.updateNextPaymentDateRange(
+                            from, to, entry.getKey().name(), entry.getValue(), now);
+                    updated.merge(entry.getKey(), rows, Integer::sum);
+                }
+            });
         }
 
-        log.info("Updated payment dates for {} out of {} active accounts",
-                updatedCount, activeAccounts.size());
-        return updatedCount;
+        log.info("Updated payment dates for {} active accounts up to id {} in {}ms: {}",
+                updated.values().stream().mapToInt(Integer::intValue).sum(), maxAccountId,
+                System.currentTimeMillis() - started, updated);
+        return updated;
     }
 
     /**
@@ -0,0 +1,427 @@
+package za.co.interfile.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.interfile.archive.ArchiveBlockCodec;
+import za.co.interfile.archive.ArchiveTable;
+import za.co.interfile.archive.ArchivedRow;
+import za.co.interfile.config.queryguard.QueryBudgetExempt;
+import za.co.interfile.repository.HistoryArchiveSegmentRepository;
+import za.co.interfile.resilience.ClusterLock;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Moves closed periods of the history tables into the archive and reads them
+ * back for history, feed, export and call-centre requests.
+ * <p>
+ * Rows older than the hot window and in a final state are streamed out of the
+ * hot table and compressed, one block per user and month, into
+ * history_archive_segments. Their references go into history_archive_references.
+ * The blocks are inserted and the rows deleted in one transaction per user-id
+ * range, so a failure leaves the rows where they were. The archive lives in the
+ * database, so every node reads the same archive, and a named lock keeps the
+ * job to one node at a time.
+ * <p>
+ * Reads go month by month, newest or oldest first, and stop once they have
+ * enough rows, so a page near the hot data decodes only the months it needs.
+ */
+@Slf4j
+@Service
+public class HistoryArchiveService {
+
+    private static final String LOCK_NAME = "history-archive";
+    private static final int DELETE_BATCH_SIZE = 500;
+    private static final LocalDate BEGINNING = LocalDate.of(1970, 1, 1);
+    private static final long ARCHIVED_THROUGH_TTL_MS = 300_000;
+
+    private static final String INSERT_SEGMENT = """
+            INSERT INTO history_archive_segments
+                   (table_name, user_id, period_month, block_data, row_count, net_cents, archived_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_REFERENCE = """
+            INSERT INTO history_archive_references (table_name, reference, user_id, period_month)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private static final String SEGMENT_MONTHS = """
+            SELECT segment_id, period_month
+            FROM history_archive_segments
+            WHERE user_id = ? AND table_name = ? AND period_month BETWEEN ? AND ?
+            ORDER BY period_month %s, segment_id
+            """;
+
+    private static final String SEGMENT_BLOCKS = "SELECT block_data FROM history_archive_segments WHERE segment_id IN (%s)";
+
+    private static final String ROW_COUNT = """
+            SELECT COALESCE(SUM(row_count), 0)
+            FROM history_archive_segments
+            WHERE user_id = ? AND table_name = ?
+            """;
+
+    private static final String REFERENCE_LOCATIONS = """
+            SELECT DISTINCT user_id, period_month
+            FROM history_archive_references
+            WHERE reference = ? AND table_name = ?
+            """;
+
+    private final ArchiveBlockCodec blockCodec;
+    private final HistoryArchiveSegmentRepository segmentRepository;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final JdbcTemplate interactiveJdbcTemplate;
+    private final TransactionTemplate archiveTransaction;
+    private final ClusterLock clusterLock;
+    private final Map<ArchiveTable, Counter> archivedRowCounters = new EnumMap<>(ArchiveTable.class);
+
+    private volatile LocalDate archivedThrough;
+    private volatile long archivedThroughLoadedAt;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.hot-months:12}")
+    private int hotMonths;
+
+    @Value("${app.archive.batch-users:500}")
+    private long batchUsers;
+
+    public HistoryArchiveService(ArchiveBlockCodec blockCodec,
+                                 HistoryArchiveSegmentRepository segmentRepository,
+                                 @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("interactiveDataSource") DataSource interactiveDataSource,
+                                 MeterRegistry meterRegistry) {
+        this.blockCodec = blockCodec;
+        this.segmentRepository = segmentRepository;
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        // Rows to archive are streamed rather than buffered by the driver
+        this.streamingJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.interactiveJdbcTemplate = new JdbcTemplate(interactiveDataSource);
+        this.archiveTransaction = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.clusterLock = new ClusterLock(primaryDataSource);
+
+        for (ArchiveTable table : ArchiveTable.values()) {
+            archivedRowCounters.put(table, Counter.builder("relief.archive.rows")
+                    .description("Rows moved from the hot tables into the history archive")
+                    .tag("table", table.getTableName())
+                    .register(meterRegistry));
+        }
+    }
+
+    // Reads
+
+    /**
+     * First day after the latest archived month, or null when nothing has been
+     * archived yet. Every archived row is older than this; hot rows are mostly
+     * newer, but a row that reached its final state late can still be older.
+     */
+    public LocalDate getArchivedThrough() {
+        if (System.currentTimeMillis() - archivedThroughLoadedAt > ARCHIVED_THROUGH_TTL_MS) {
+            refreshArchivedThrough();
+        }
+        return archivedThrough;
+    }
+
+    /**
+     * Whether a history read starting at fromDate (null for "all history") needs
+     * the archive for this user
+     */
+    @Transactional(readOnly = true)
+    public boolean reachesArchive(Long userId, ArchiveTable table, LocalDateTime fromDate) {
+        LocalDate through = getArchivedThrough();
+        if (through == null || (fromDate != null && !fromDate.toLocalDate().isBefore(through))) {
+            return false;
+        }
+        return segmentRepository.existsByUserIdAndTableName(userId, table);
+    }
+
+    /**
+     * A user's archived rows of one table between two timestamps (either may be
+     * null), oldest first
+     */
+    public List<ArchivedRow> readRows(Long userId, ArchiveTable table, LocalDateTime fromDate, LocalDateTime toDate) {
+        return readOrdered(userId, table, fromDate, toDate, false, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Up to limit of a user's archived rows between two timestamps (either may
+     * be null) that pass the filter, ordered by timestamp then id. Months are
+     * decoded one at a time in that order, and reading stops at the first month
+     * that fills the limit.
+     */
+    public List<ArchivedRow> readOrdered(Long userId, ArchiveTable table, LocalDateTime fromDate, LocalDateTime toDate,
+                                        boolean newestFirst, Predicate<ArchivedRow> filter, int limit) {
+        LocalDate fromMonth = fromDate != null ? fromDate.toLocalDate().withDayOfMonth(1) : BEGINNING;
+        LocalDate toMonth = toDate != null ? toDate.toLocalDate().withDayOfMonth(1) : LocalDate.now().withDayOfMonth(1);
+        if (toMonth.isBefore(fromMonth) || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Map<LocalDate, List<Long>> segmentsByMonth = new LinkedHashMap<>();
+        interactiveJdbcTemplate.query(SEGMENT_MONTHS.formatted(newestFirst ? "DESC" : "ASC"),
+                (RowCallbackHandler) rs -> segmentsByMonth
+                        .computeIfAbsent(rs.getDate("period_month").toLocalDate(), month -> new ArrayList<>())
+                        .add(rs.getLong("segment_id")),
+                userId, table.name(), Date.valueOf(fromMonth), Date.valueOf(toMonth));
+
+        Comparator<ArchivedRow> order = Comparator
+                .comparing((ArchivedRow row) -> row.getDateTime(table.getTimestampColumn()))
+                .thenComparing(row -> row.getLong(table.getIdColumn()));
+        if (newestFirst) {
+            order = order.reversed();
+        }
+
+        List<ArchivedRow> rows = new ArrayList<>();
+        for (List<Long> segmentIds : segmentsByMonth.values()) {
+            List<ArchivedRow> month = new ArrayList<>();
+            for (byte[] block : loadBlocks(segmentIds)) {
+                for (ArchivedRow row : blockCodec.decode(block)) {
+                    LocalDateTime occurredAt = row.getDateTime(table.getTimestampColumn());
+                    if ((fromDate == null || !occurredAt.isBefore(fromDate))
+                            && (toDate == null || !occurredAt.isAfter(toDate))
+                            && (filter == null || filter.test(row))) {
+                        month.add(row);
+                    }
+                }
+            }
+            month.sort(order);
+            rows.addAll(month);
+            if (rows.size() >= limit) {
+                return new ArrayList<>(rows.subList(0, limit));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Number of a user's archived rows that pass the filter. Without a filter or
+     * date bounds this is a sum over the segment index and decodes nothing.
+     */
+    public long countRows(Long userId, ArchiveTable table, LocalDateTime fromDate, LocalDateTime toDate,
+                          Predicate<ArchivedRow> filter) {
+        if (fromDate == null && toDate == null && filter == null) {
+            Long count = interactiveJdbcTemplate.queryForObject(ROW_COUNT, Long.class, userId, table.name());
+            return count != null ? count : 0;
+        }
+        return readOrdered(userId, table, fromDate, toDate, false, filter, Integer.MAX_VALUE).size();
+    }
+
+    /**
+     * Archived rows of one table whose reference columns hold this value
+     */
+    public List<ArchivedRow> findByReference(ArchiveTable table, String reference) {
+        if (table.getReferenceColumns().isEmpty()) {
+            return Collections.emptyList();
+        }
+        Predicate<ArchivedRow> matches = row -> table.getReferenceColumns().stream()
+                .anyMatch(column -> reference.equals(row.getString(column)));
+
+        List<Object[]> locations = interactiveJdbcTemplate.query(REFERENCE_LOCATIONS,
+                (rs, rowNum) -> new Object[]{rs.getLong("user_id"), rs.getDate("period_month").toLocalDate()},
+                reference, table.name());
+        List<ArchivedRow> rows = new ArrayList<>();
+        for (Object[] location : locations) {
+            LocalDateTime monthStart = ((LocalDate) location[1]).atStartOfDay();
+            rows.addAll(readOrdered((Long) location[0], table, monthStart,
+                    monthStart.plusMonths(1).minusNanos(1000), false, matches, Integer.MAX_VALUE));
+        }
+        return rows;
+    }
+
+    private List<byte[]> loadBlocks(List<Long> segmentIds) {
+        return interactiveJdbcTemplate.query(
+                SEGMENT_BLOCKS.formatted(String.join(",", Collections.nCopies(segmentIds.size(), "?"))),
+                (rs, rowNum) -> rs.getBytes("block_data"), segmentIds.toArray());
+    }
+
+    // Archiving
+
+    @QueryBudgetExempt
+    @Scheduled(cron = "${app.archive.cron:0 0 4 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (clusterLock.callIfFree(LOCK_NAME, this::archiveAll).isEmpty()) {
+                log.info("History archiving is running on another node; skipping");
+            }
+        } catch (Exception e) {
+            log.error("Scheduled history archiving failed", e);
+        }
+    }
+
+    /**
+     * Archive every final-state row older than the hot window, table by table,
+     * one user-id range per transaction
+     */
+    @QueryBudgetExempt
+    public Map<String, Object> archiveClosedPeriods() {
+        return clusterLock.callIfFree(LOCK_NAME, this::archiveAll)
+                .orElseThrow(() -> new IllegalStateException("History archiving is already running"));
+    }
+
+    private Map<String, Object> archiveAll() {
+        try {
+            LocalDateTime cutoff = YearMonth.now().minusMonths(hotMonths).atDay(1).atStartOfDay();
+            long maxUserId = primaryJdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(user_id), 0) FROM users", Long.class);
+            long started = System.currentTimeMillis();
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("cutoff", cutoff);
+            for (ArchiveTable table : ArchiveTable.values()) {
+                long archived = 0;
+                for (long fromUserId = 0; fromUserId <= maxUserId; fromUserId += batchUsers) {
+                    archived += archiveRange(table, fromUserId, fromUserId + batchUsers - 1, cutoff);
+                }
+                archivedRowCounters.get(table).increment(archived);
+                report.put(table.getTableName(), archived);
+                log.info("Archived {} {} rows older than {}", archived, table.getTableName(), cutoff);
+            }
+            report.put("elapsedMs", System.currentTimeMillis() - started);
+            return report;
+        } finally {
+            refreshArchivedThrough();
+        }
+    }
+
+    private int archiveRange(ArchiveTable table, long fromUserId, long toUserId, LocalDateTime cutoff) {
+        Integer archived = archiveTransaction.execute(status -> {
+            BlockCollector blocks = new BlockCollector(table, Timestamp.valueOf(LocalDateTime.now()));
+            streamingJdbcTemplate.query("SELECT " + String.join(", ", table.getColumns())
+                            + " FROM " + table.getTableName()
+                            + " WHERE user_id BETWEEN ? AND ? AND " + table.getTimestampColumn() + " < ?"
+                            + " AND " + table.getFinalStateCondition()
+                            + " ORDER BY user_id, " + table.getTimestampColumn() + ", " + table.getIdColumn(),
+                    blocks, fromUserId, toUserId, Timestamp.valueOf(cutoff));
+            blocks.flush();
+            if (blocks.ids.isEmpty()) {
+                return 0;
+            }
+
+            primaryJdbcTemplate.batchUpdate(INSERT_SEGMENT, blocks.segments);
+            if (!blocks.references.isEmpty()) {
+                primaryJdbcTemplate.batchUpdate(INSERT_REFERENCE, blocks.references);
+            }
+            for (int start = 0; start < blocks.ids.size(); start += DELETE_BATCH_SIZE) {
+                List<Object> batch = blocks.ids.subList(start, Math.min(start + DELETE_BATCH_SIZE, blocks.ids.size()));
+                String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+                primaryJdbcTemplate.update("DELETE FROM " + table.getTableName()
+                        + " WHERE " + table.getIdColumn() + " IN (" + placeholders + ")", batch.toArray());
+            }
+            return blocks.ids.size();
+        });
+        return archived != null ? archived : 0;
+    }
+
+    private void refreshArchivedThrough() {
+        LocalDate latest = segmentRepository.findLatestArchivedMonth();
+        archivedThrough = latest != null ? latest.plusMonths(1) : null;
+        archivedThroughLoadedAt = System.currentTimeMillis();
+    }
+
+    private static LocalDateTime toDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime;
+        }
+        return LocalDateTime.parse(value.toString());
+    }
+
+    /**
+     * Turns streamed rows, ordered by user then time, into one encoded block
+     * per user-month as each user-month ends, so only one block's rows are
+     * held at a time
+     */
+    private final class BlockCollector implements RowCallbackHandler {
+
+        private final ArchiveTable table;
+        private final Timestamp archivedAt;
+        private final ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+        private final List<Object[]> segments = new ArrayList<>();
+        private final List<Object[]> references = new ArrayList<>();
+        private final List<Object> ids = new ArrayList<>();
+        private final List<Map<String, Object>> current = new ArrayList<>();
+        private long currentUserId;
+        private YearMonth currentMonth;
+
+        private BlockCollector(ArchiveTable table, Timestamp archivedAt) {
+            this.table = table;
+            this.archivedAt = archivedAt;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            Map<String, Object> row = rowMapper.mapRow(rs, ids.size());
+            long userId = ((Number) row.get("user_id")).longValue();
+            YearMonth month = YearMonth.from(toDateTime(row.get(table.getTimestampColumn())));
+            if (!current.isEmpty() && (userId != currentUserId || !month.equals(currentMonth))) {
+                flush();
+            }
+            currentUserId = userId;
+            currentMonth = month;
+            current.add(row);
+            ids.add(row.get(table.getIdColumn()));
+        }
+
+        private void flush() {
+            if (current.isEmpty()) {
+                return;
+            }
+            Date periodMonth = Date.valueOf(currentMonth.atDay(1));
+            long netCents = 0;
+            for (Map<String, Object> row : current) {
+                ArchivedRow archivedRow = new ArchivedRow(row);
+                netCents += table.balanceEffectCents(archivedRow);
+                for (String column : table.getReferenceColumns()) {
+                    String reference = archivedRow.getString(column);
+                    if (reference != null) {
+                        references.add(new Object[]{table.name(), reference, currentUserId, periodMonth});
+                    }
+                }
+            }
+            segments.add(new Object[]{
+                    table.name(),
+                    currentUserId,
+                    periodMonth,
+                    blockCodec.encode(current),
+                    current.size(),
+                    netCents,
+                    archivedAt
+            });
+            current.clear();
+        }
+    }
+}
@@ -0,0 +1,595 @@
+package za.co.interfile.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.interfile.cache.UserSummaryStore;
+import za.co.interfile.config.queryguard.QueryBudgetExempt;
+import za.co.interfile.dtos.NotificationCampaignDto;
+import za.co.interfile.dtos.NotificationCampaignRequest;
+import za.co.interfile.enums.CampaignStatus;
+import za.co.interfile.enums.EmailTemplate;
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.Language;
+import za.co.interfile.enums.NotificationAudience;
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.enums.NotificationType;
+import za.co.interfile.mail.MailQueue;
+import za.co.interfile.mail.MailTemplate;
+import za.co.interfile.mail.MailTemplates;
+import za.co.interfile.mail.OutgoingMail;
+import za.co.interfile.model.NotificationCampaign;
+import za.co.interfile.notification.NotificationBatchWriter;
+import za.co.interfile.notification.NotificationTemplate;
+import za.co.interfile.notification.PendingNotification;
+import za.co.interfile.repository.NotificationCampaignRepository;
+import za.co.interfile.resilience.TokenBucket;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends one notification to every user in an audience.
+ * <p>
+ * Recipients are read from the reporting pool a page at a time by keyset on
+ * user_id. Each page is written as a single multi-row INSERT on the primary
+ * pool, in the same transaction as the campaign's cursor, so a campaign
+ * interrupted by a failure or restart resumes after the last committed page
+ * without duplicates. Writes are throttled by a token bucket (rows per second)
+ * and pause while requests are queueing for primary connections, so a large
+ * campaign gives way to user traffic.
+ * <p>
+ * Campaigns run one at a time in id order. Status changes are conditional
+ * updates that leave the cursor alone, and a runner that finds the cursor moved
+ * under it steps back, so when two nodes pick up the same campaign one carries
+ * on and the other leaves it be. Each morning a pay-day campaign
+ * tells beneficiaries paid days-ahead days from now that their grant is coming.
+ * A campaign with an email template also queues that email for every recipient
+ * in the same transaction, rendered in the recipient's preferred language.
+ */
+@Slf4j
+@Service
+public class NotificationFanoutService {
+
+    private static final Set<String> USER_FIELDS = Set.of("name");
+    private static final Set<String> PAYMENT_FIELDS = Set.of("name", "grant", "amount", "paymentDate");
+
+    private static final DateTimeFormatter PAYMENT_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("d MMMM yyyy", Locale.ENGLISH);
+    private static final Map<Language, DateTimeFormatter> EMAIL_DATE_FORMATS = new EnumMap<>(Language.class);
+
+    static {
+        for (Language language : Language.values()) {
+            EMAIL_DATE_FORMATS.put(language, PAYMENT_DATE_FORMAT.withLocale(language.toLocale()));
+        }
+    }
+
+    private static final String ACTIVE_USERS_QUERY = """
+            SELECT u.user_id, u.full_name, u.email, u.preferred_language
+            FROM users u
+            WHERE u.status = 'ACTIVE' AND u.user_id > ?
+            ORDER BY u.user_id
+            LIMIT ?
+            """;
+
+    private static final String UPCOMING_PAYMENT_QUERY = """
+            SELECT s.user_id, u.full_name, u.email, u.preferred_language, s.sassa_account_id, s.grant_type, s.monthly_amount, s.next_payment_date
+            FROM sassa_accounts s
+            JOIN users u ON u.user_id = s.user_id
+            WHERE s.status = 'ACTIVE' AND u.status = 'ACTIVE'
+              AND s.next_payment_date BETWEEN ? AND ?
+              AND s.user_id > ?
+            ORDER BY s.user_id
+            LIMIT ?
+            """;
+
+    private static final String ADVANCE_CURSOR = """
+            UPDATE notification_campaigns
+               SET last_recipient_id = ?, recipients_written = recipients_written + ?
+             WHERE campaign_id = ? AND last_recipient_id = ?
+            """;
+
+    private static final String MARK_RUNNING = """
+            UPDATE notification_campaigns
+               SET status = 'RUNNING', failure_reason = NULL, started_at = COALESCE(started_at, ?)
+             WHERE campaign_id = ? AND status IN ('PENDING', 'RUNNING')
+            """;
+
+    private static final String MARK_COMPLETED = """
+            UPDATE notification_campaigns
+               SET status = 'COMPLETED', completed_at = ?
+             WHERE campaign_id = ? AND status = 'RUNNING' AND last_recipient_id = ?
+            """;
+
+    private static final String MARK_FAILED = """
+            UPDATE notification_campaigns
+               SET status = 'FAILED', failure_reason = ?
+             WHERE campaign_id = ? AND status = 'RUNNING' AND last_recipient_id = ?
+            """;
+
+    private static final int MAX_BACKOFFS_PER_PAGE = 20;
+
+    private final JdbcTemplate reportingJdbcTemplate;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final HikariDataSource primaryPool;
+    private final NotificationCampaignRepository campaignRepository;
+    private final NotificationBatchWriter notificationBatchWriter;
+    private final UserSummaryStore userSummaryStore;
+    private final MailQueue mailQueue;
+    private final MailTemplates mailTemplates;
+    private final Counter writtenNotifications;
+    private final Counter queuedEmails;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.notifications.fanout.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.notifications.fanout.rows-per-second:10000}")
+    private double rowsPerSecond;
+
+    @Value("${app.notifications.fanout.backoff-ms:250}")
+    private long backoffMs;
+
+    @Value("${app.notifications.payday.enabled:true}")
+    private boolean paydayEnabled;
+
+    @Value("${app.notifications.payday.days-ahead:1}")
+    private int paydayDaysAhead;
+
+    @Value("${app.notifications.payday.expires-hours:72}")
+    private int paydayExpiresHours;
+
+    @Value("${app.notifications.payday.email-enabled:false}")
+    private boolean paydayEmailEnabled;
+
+    private volatile TokenBucket rateLimiter;
+
+    public NotificationFanoutService(@Qualifier("reportingDataSource") DataSource reportingDataSource,
+                                     @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                     NotificationCampaignRepository campaignRepository,
+                                     NotificationBatchWriter notificationBatchWriter,
+                                     UserSummaryStore userSummaryStore,
+                                     MailQueue mailQueue,
+                                     MailTemplates mailTemplates,
+                                     MeterRegistry meterRegistry) {
+        this.reportingJdbcTemplate = new JdbcTemplate(reportingDataSource);
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.batchTransaction = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.primaryPool = primaryDataSource instanceof HikariDataSource hikari ? hikari : null;
+        this.campaignRepository = campaignRepository;
+        this.notificationBatchWriter = notificationBatchWriter;
+        this.userSummaryStore = userSummaryStore;
+        this.mailQueue = mailQueue;
+        this.mailTemplates = mailTemplates;
+        this.writtenNotifications = Counter.builder("relief.notifications.fanout.rows")
+                .description("Notifications written by campaigns")
+                .register(meterRegistry);
+        this.queuedEmails = Counter.builder("relief.notifications.fanout.emails")
+                .description("Emails queued by campaigns")
+                .register(meterRegistry);
+    }
+
+    // Campaigns
+
+    /**
+     * Validate and queue a campaign; it starts once any running campaign is done
+     */
+    public NotificationCampaignDto createCampaign(NotificationCampaignRequest request, String triggeredBy) {
+        return toDto(campaignRepository.save(newCampaign("ADMIN:" + UUID.randomUUID(), request, triggeredBy)));
+    }
+
+    /**
+     * Queue a failed campaign again; it continues after its last committed page
+     */
+    public NotificationCampaignDto resumeCampaign(Long campaignId) {
+        NotificationCampaign campaign = campaignRepository.findById(campaignId)
+                .orElseThrow(() -> new IllegalArgumentException("Campaign not found: " + campaignId));
+        if (campaign.getStatus() != CampaignStatus.FAILED) {
+            throw new IllegalStateException("Only failed campaigns can be resumed; this one is "
+                    + campaign.getStatus().getDisplayName().toLowerCase(Locale.ROOT));
+        }
+        campaign.setStatus(CampaignStatus.PENDING);
+        return toDto(campaignRepository.save(campaign));
+    }
+
+    public Optional<NotificationCampaignDto> getCampaign(Long campaignId) {
+        return campaignRepository.findById(campaignId).map(NotificationFanoutService::toDto);
+    }
+
+    public List<NotificationCampaignDto> getRecentCampaigns() {
+        return campaignRepository.findTop20ByOrderByCampaignIdDesc().stream()
+                .map(NotificationFanoutService::toDto)
+                .toList();
+    }
+
+    // Running
+
+    @Async
+    @QueryBudgetExempt
+    public void runQueuedAsync() {
+        try {
+            runQueued();
+        } catch (Exception e) {
+            log.error("Notification campaign runner failed", e);
+        }
+    }
+
+    /**
+     * Pick up campaigns left running or queued when the application stopped
+     */
+    @Async
+    @QueryBudgetExempt
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        try {
+            runQueued();
+        } catch (Exception e) {
+            log.error("Failed to resume notification campaigns", e);
+        }
+    }
+
+    @QueryBudgetExempt
+    @Scheduled(cron = "${app.notifications.payday.cron:0 0 7 * * *}")
+    public void scheduledPaydayCampaign() {
+        if (!paydayEnabled) {
+            return;
+        }
+        try {
+            LocalDate paymentDate = LocalDate.now().plusDays(paydayDaysAhead);
+            String campaignKey = "PAYDAY:" + paymentDate;
+            if (campaignRepository.findByCampaignKey(campaignKey).isEmpty()) {
+                NotificationCampaignRequest request = NotificationCampaignRequest.builder()
+                        .name("Pay-day reminder for " + paymentDate)
+                        .audience(NotificationAudience.UPCOMING_PAYMENT)
+                        .paymentDateFrom(paymentDate)
+                        .paymentDateTo(paymentDate)
+                        .title("Your {grant} is on its way")
+                        .message("Hi {name}, your {grant} payment of {amount} will be paid on {paymentDate}.")
+                        .type(NotificationType.PAYMENT)
+                        .priority(NotificationPriority.HIGH)
+                        .expiresInHours(paydayExpiresHours)
+                        .build();
+                NotificationCampaign campaign = newCampaign(campaignKey, request, "scheduler");
+                if (paydayEmailEnabled) {
+                    campaign.setEmailTemplate(EmailTemplate.PAYDAY_REMINDER);
+                }
+                campaignRepository.save(campaign);
+            }
+            runQueued();
+        } catch (Exception e) {
+            log.error("Scheduled pay-day notification campaign failed", e);
+        }
+    }
+
+    /**
+     * Run queued campaigns until none are left. Returns at once if another
+     * thread is already doing so; that thread picks up anything queued meanwhile.
+     */
+    private void runQueued() {
+        while (running.compareAndSet(false, true)) {
+            try {
+                Optional<NotificationCampaign> next;
+                while ((next = nextCampaign()).isPresent()) {
+                    if (!run(next.get())) {
+                        // Another node is running the queue
+                        return;
+                    }
+                }
+            } finally {
+                running.set(false);
+            }
+            if (nextCampaign().isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private Optional<NotificationCampaign> nextCampaign() {
+        return campaignRepository.findFirstByStatusInOrderByCampaignIdAsc(
+                List.of(CampaignStatus.RUNNING, CampaignStatus.PENDING));
+    }
+
+    /**
+     * @return false when another runner moved the campaign's cursor, in which
+     * case this one stops without touching the campaign
+     */
+    private boolean run(NotificationCampaign campaign) {
+        NotificationTemplate title = NotificationTemplate.compile(campaign.getTitleTemplate(),
+                fieldsFor(campaign.getAudience()));
+        NotificationTemplate message = NotificationTemplate.compile(campaign.getMessageTemplate(),
+                fieldsFor(campaign.getAudience()));
+
+        Long campaignId = campaign.getCampaignId();
+        if (primaryJdbcTemplate.update(MARK_RUNNING, LocalDateTime.now(), campaignId) != 1) {
+            return false;
+        }
+
+        long started = System.currentTimeMillis();
+        long cursor = campaign.getLastRecipientId();
+        long written = campaign.getRecipientsWritten();
+        log.info("Notification campaign {} ({}) {} after user {}", campaignId, campaign.getName(),
+                written > 0 ? "resuming" : "starting", cursor);
+
+        try {
+            while (true) {
+                RecipientPage page = recipients(campaign, cursor);
+                if (page.recipients().isEmpty()) {
+                    break;
+                }
+                throttle(page.recipients().size());
+                writePage(campaign, title, message, page, cursor);
+
+                cursor = page.lastUserId();
+                written += page.recipients().size();
+                // A short page of rows, not of recipients: users with two accounts fill a row each
+                if (page.rows() < batchSize) {
+                    break;
+                }
+            }
+
+        } catch (CursorMovedException e) {
+            log.info("Notification campaign {} is being run by another runner after user {}; leaving it",
+                    campaignId, cursor);
+            return false;
+
+        } catch (RuntimeException e) {
+            log.error("Notification campaign {} failed after user {}", campaignId, cursor, e);
+            if (primaryJdbcTemplate.update(MARK_FAILED, e.getMessage(), campaignId, cursor) != 1) {
+                log.info("Notification campaign {} was moved on by another runner; not marking it failed", campaignId);
+                return false;
+            }
+            return true;
+        }
+
+        if (primaryJdbcTemplate.update(MARK_COMPLETED, LocalDateTime.now(), campaignId, cursor) != 1) {
+            return false;
+        }
+        log.info("Notification campaign {} completed: {} notifications in {}ms",
+                campaignId, written, System.currentTimeMillis() - started);
+        return true;
+    }
+
+    private RecipientPage recipients(NotificationCampaign campaign, long afterUserId) {
+        RecipientCollector collector = new RecipientCollector(batchSize,
+                campaign.getAudience() == NotificationAudience.UPCOMING_PAYMENT);
+        if (campaign.getAudience() == NotificationAudience.UPCOMING_PAYMENT) {
+            reportingJdbcTemplate.query(UPCOMING_PAYMENT_QUERY, collector,
+                    Date.valueOf(campaign.getPaymentDateFrom()), Date.valueOf(campaign.getPaymentDateTo()),
+                    afterUserId, batchSize);
+        } else {
+            reportingJdbcTemplate.query(ACTIVE_USERS_QUERY, collector, afterUserId, batchSize);
+        }
+        return collector.page();
+    }
+
+    /**
+     * Wait for rate tokens, then while the primary pool has requests queueing
+     */
+    private void throttle(int rows) {
+        try {
+            TokenBucket limiter = rateLimiter;
+            if (limiter == null) {
+                limiter = new TokenBucket(rowsPerSecond, Math.max(batchSize, 1));
+                rateLimiter = limiter;
+            }
+            long wait;
+            while ((wait = limiter.reserve(rows)) > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+
+            HikariPoolMXBean pool = primaryPool != null ? primaryPool.getHikariPoolMXBean() : null;
+            for (int i = 0; pool != null && i < MAX_BACKOFFS_PER_PAGE && pool.getThreadsAwaitingConnection() > 0; i++) {
+                TimeUnit.MILLISECONDS.sleep(backoffMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Notification campaign interrupted", e);
+        }
+    }
+
+    /**
+     * Insert one page of notifications and move the cursor past it, atomically
+     */
+    private void writePage(NotificationCampaign campaign, NotificationTemplate title, NotificationTemplate message,
+                           RecipientPage page, long previousCursor) {
+        List<Recipient> recipients = page.recipients();
+        List<PendingNotification> notifications = new ArrayList<>(recipients.size());
+        for (Recipient recipient : recipients) {
+            notifications.add(new PendingNotification(recipient.userId(),
+                    title.render(recipient::value), message.render(recipient::value),
+                    campaign.getNotificationType(), campaign.getPriority(),
+                    recipient.sassaAccountId() != null ? "SassaAccount" : null, recipient.sassaAccountId(),
+                    campaign.getNotificationExpiresAt(), null));
+        }
+        List<OutgoingMail> emails = campaign.getEmailTemplate() != null
+                ? renderEmails(campaign.getEmailTemplate(), recipients) : List.of();
+
+        batchTransaction.executeWithoutResult(status -> {
+            notificationBatchWriter.insert(notifications);
+            mailQueue.enqueueBulk(emails);
+            int moved = primaryJdbcTemplate.update(ADVANCE_CURSOR, page.lastUserId(), recipients.size(),
+                    campaign.getCampaignId(), previousCursor);
+            if (moved != 1) {
+                throw new CursorMovedException();
+            }
+            for (Recipient recipient : recipients) {
+                userSummaryStore.adjustUnreadCount(recipient.userId(), 1);
+            }
+        });
+        writtenNotifications.increment(recipients.size());
+        queuedEmails.increment(emails.size());
+    }
+
+    private List<OutgoingMail> renderEmails(EmailTemplate template, List<Recipient> page) {
+        List<OutgoingMail> emails = new ArrayList<>(page.size());
+        for (Recipient recipient : page) {
+            MailTemplate mail = mailTemplates.get(template, recipient.language());
+            DateTimeFormatter dateFormat = EMAIL_DATE_FORMATS.get(mail.getLanguage());
+            emails.add(mail.render(recipient.email(), field -> "paymentDate".equals(field)
+                    ? recipient.formatPaymentDate(dateFormat)
+                    : recipient.value(field)));
+        }
+        return emails;
+    }
+
+    private NotificationCampaign newCampaign(String campaignKey, NotificationCampaignRequest request,
+                                             String triggeredBy) {
+        Set<String> fields = fieldsFor(request.getAudience());
+        NotificationTemplate.compile(request.getTitle(), fields);
+        NotificationTemplate.compile(request.getMessage(), fields);
+        if (request.getAudience() == NotificationAudience.UPCOMING_PAYMENT) {
+            if (request.getPaymentDateFrom() == null || request.getPaymentDateTo() == null
+                    || request.getPaymentDateTo().isBefore(request.getPaymentDateFrom())) {
+                throw new IllegalArgumentException("Upcoming payment campaigns need a valid payment date range");
+            }
+        }
+
+        NotificationPriority priority = request.getPriority() != null ? request.getPriority() : NotificationPriority.MEDIUM;
+        int expiresInHours = request.getExpiresInHours() != null
+                ? request.getExpiresInHours() : priority.getDefaultExpirationHours();
+        LocalDateTime now = LocalDateTime.now();
+        return NotificationCampaign.builder()
+                .campaignKey(campaignKey)
+                .name(request.getName())
+                .audience(request.getAudience())
+                .paymentDateFrom(request.getPaymentDateFrom())
+                .paymentDateTo(request.getPaymentDateTo())
+                .titleTemplate(request.getTitle())
+                .messageTemplate(request.getMessage())
+                .notificationType(request.getType() != null ? request.getType() : NotificationType.SYSTEM)
+                .priority(priority)
+                // Priority default when not given; URGENT (negative) never expires
+                .notificationExpiresAt(expiresInHours > 0 ? now.plusHours(expiresInHours) : null)
+                .triggeredBy(triggeredBy)
+                .createdAt(now)
+                .build();
+    }
+
+    private static Set<String> fieldsFor(NotificationAudience audience) {
+        return audience == NotificationAudience.UPCOMING_PAYMENT ? PAYMENT_FIELDS : USER_FIELDS;
+    }
+
+    private static NotificationCampaignDto toDto(NotificationCampaign campaign) {
+        return NotificationCampaignDto.builder()
+                .campaignId(campaign.getCampaignId())
+                .campaignKey(campaign.getCampaignKey())
+                .name(campaign.getName())
+                .audience(campaign.getAudience())
+                .paymentDateFrom(campaign.getPaymentDateFrom())
+                .paymentDateTo(campaign.getPaymentDateTo())
+                .emailTemplate(campaign.getEmailTemplate())
+                .status(campaign.getStatus())
+                .triggeredBy(campaign.getTriggeredBy())
+                .lastRecipientId(campaign.getLastRecipientId())
+                .recipientsWritten(campaign.getRecipientsWritten())
+                .createdAt(campaign.getCreatedAt())
+                .startedAt(campaign.getStartedAt())
+                .completedAt(campaign.getCompletedAt())
+                .failureReason(campaign.getFailureReason())
+                .build();
+    }
+
+    /**
+     * One page of recipients, with the number of rows read for it and the last
+     * user_id seen, which is where the next page starts
+     */
+    private record RecipientPage(List<Recipient> recipients, int rows, long lastUserId) {
+    }
+
+    /**
+     * Collects a page of query rows into recipients, one per user
+     */
+    private static final class RecipientCollector implements RowCallbackHandler {
+
+        private final List<Recipient> recipients;
+        private final boolean withPayment;
+        private int rows;
+
+        private RecipientCollector(int batchSize, boolean withPayment) {
+            this.recipients = new ArrayList<>(batchSize);
+            this.withPayment = withPayment;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            rows++;
+            long userId = rs.getLong("user_id");
+            // A user with two active accounts gets one notification
+            if (!recipients.isEmpty() && recipients.get(recipients.size() - 1).userId() == userId) {
+                return;
+            }
+            String email = rs.getString("email");
+            Language language = Language.fromCode(rs.getString("preferred_language"));
+            if (!withPayment) {
+                recipients.add(new Recipient(userId, rs.getString("full_name"), email, language,
+                        null, null, null, null));
+                return;
+            }
+            Date paymentDate = rs.getDate("next_payment_date");
+            recipients.add(new Recipient(userId, rs.getString("full_name"), email, language,
+                    rs.getLong("sassa_account_id"), GrantType.valueOf(rs.getString("grant_type")),
+                    rs.getBigDecimal("monthly_amount"), paymentDate != null ? paymentDate.toLocalDate() : null));
+        }
+
+        private RecipientPage page() {
+            long lastUserId = recipients.isEmpty() ? 0 : recipients.get(recipients.size() - 1).userId();
+            return new RecipientPage(recipients, rows, lastUserId);
+        }
+    }
+
+    /**
+     * The campaign's cursor was not where this runner left it
+     */
+    private static final class CursorMovedException extends RuntimeException {
+    }
+
+    private record Recipient(long userId, String fullName, String email, Language language, Long sassaAccountId,
+                             GrantType grantType, BigDecimal monthlyAmount, LocalDate paymentDate) {
+
+        private String value(String field) {
+            return switch (field) {
+                case "name" -> fullName;
+                case "grant" -> grantType != null ? grantType.getDescription() : null;
+                case "amount" -> monthlyAmount != null
+                        ? "R" + monthlyAmount.setScale(2, RoundingMode.HALF_UP).toPlainString() : null;
+                case "paymentDate" -> formatPaymentDate(PAYMENT_DATE_FORMAT);
+                default -> null;
+            };
+        }
+
+        private String formatPaymentDate(DateTimeFormatter format) {
+            return paymentDate != null ? paymentDate.format(format) : null;
+        }
+    }
+}
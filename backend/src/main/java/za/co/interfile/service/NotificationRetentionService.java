@@ -0,0 +1,271 @@
+package za.co.interfile.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.interfile.cache.UserSummaryStore;
+import za.co.interfile.config.queryguard.QueryBudgetExempt;
+import za.co.interfile.dtos.NotificationRetentionReportDto;
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.notification.NotificationRetentionPolicy;
+import za.co.interfile.notification.NotificationRetentionPolicy.Reason;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Removes notifications that are due under {@link NotificationRetentionPolicy}.
+ * <p>
+ * The table is walked by primary-key range, one window of ids per short
+ * READ COMMITTED transaction: candidates in the window are locked, checked
+ * against the policy and deleted by id, and unread counts are corrected after
+ * commit. Only the rows being deleted are locked, never a gap, so inserts and
+ * mark-as-read carry on while a pass runs. After each window that deleted
+ * anything the pass sleeps at least as long as the window took, so it uses at
+ * most half of one connection.
+ * <p>
+ * This pass is the only thing that removes notifications; the history archive
+ * covers the money tables only.
+ */
+@Slf4j
+@Service
+public class NotificationRetentionService {
+
+    private static final String ID_RANGE =
+            "SELECT COALESCE(MIN(notification_id), 0), COALESCE(MAX(notification_id), 0) FROM notifications";
+
+    private static final String CANDIDATES = """
+            SELECT notification_id, user_id, priority, is_read, created_at, read_at, expires_at
+            FROM notifications
+            WHERE notification_id > ? AND notification_id <= ?
+              AND (expires_at < ? OR created_at < ?)
+            FOR UPDATE
+            """;
+
+    private static final String DELETE_BY_IDS = "DELETE FROM notifications WHERE notification_id IN (%s)";
+
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final TransactionTemplate windowTransaction;
+    private final UserSummaryStore userSummaryStore;
+    private final Map<Reason, Counter> deletedCounters = new EnumMap<>(Reason.class);
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile NotificationRetentionReportDto latest;
+
+    @Value("${app.notifications.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notifications.retention.window-ids:5000}")
+    private long windowIds;
+
+    @Value("${app.notifications.retention.pause-ms:100}")
+    private long pauseMs;
+
+    @Value("${app.notifications.retention.unread-max-age-days:90}")
+    private long unreadMaxAgeDays;
+
+    public NotificationRetentionService(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                        UserSummaryStore userSummaryStore,
+                                        MeterRegistry meterRegistry) {
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.windowTransaction = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.windowTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.userSummaryStore = userSummaryStore;
+
+        for (Reason reason : Reason.values()) {
+            deletedCounters.put(reason, Counter.builder("relief.notifications.retention.rows")
+                    .description("Notifications removed by the retention pass")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("relief.notifications.retention.rows.per.second", this,
+                service -> service.latest != null ? service.latest.getRowsPerSecond() : 0)
+                .register(meterRegistry);
+        Gauge.builder("relief.notifications.retention.lag.seconds", this,
+                service -> service.latest != null ? service.latest.getLagSeconds() : 0)
+                .register(meterRegistry);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Optional<NotificationRetentionReportDto> getLatestReport() {
+        return Optional.ofNullable(latest);
+    }
+
+    @QueryBudgetExempt
+    @Scheduled(cron = "${app.notifications.retention.cron:0 30 3 * * *}")
+    public void scheduledPurge() {
+        if (!enabled || running.get()) {
+            return;
+        }
+        try {
+            purge("scheduler");
+        } catch (Exception e) {
+            log.error("Scheduled notification retention failed", e);
+        }
+    }
+
+    @Async
+    @QueryBudgetExempt
+    public void purgeAsync(String triggeredBy) {
+        try {
+            purge(triggeredBy);
+        } catch (Exception e) {
+            log.error("Notification retention triggered by {} failed", triggeredBy, e);
+        }
+    }
+
+    /**
+     * Run one retention pass over the whole table. Only one pass at a time.
+     */
+    @QueryBudgetExempt
+    public NotificationRetentionReportDto purge(String triggeredBy) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Notification retention is already running");
+        }
+        try {
+            NotificationRetentionReportDto report = runPass(triggeredBy);
+            latest = report;
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private NotificationRetentionReportDto runPass(String triggeredBy) {
+        NotificationRetentionPolicy policy = new NotificationRetentionPolicy(TimeUnit.DAYS.toHours(unreadMaxAgeDays));
+        LocalDateTime startedAt = LocalDateTime.now();
+        long[] range = primaryJdbcTemplate.queryForObject(ID_RANGE,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+
+        NotificationRetentionReportDto report = NotificationRetentionReportDto.builder()
+                .triggeredBy(triggeredBy)
+                .startedAt(startedAt)
+                .fromNotificationId(range[0])
+                .toNotificationId(range[1])
+                .build();
+        LocalDateTime oldestDue = null;
+        long started = System.nanoTime();
+
+        try {
+            for (long cursor = range[0] - 1; cursor < range[1]; ) {
+                long windowEnd = Math.min(cursor + windowIds, range[1]);
+                long windowStarted = System.nanoTime();
+                Window window = purgeWindow(policy, cursor, windowEnd);
+                cursor = windowEnd;
+
+                report.setBatches(report.getBatches() + 1);
+                window.deleted().forEach((reason, count) -> deletedCounters.get(reason).increment(count));
+                report.setExpired(report.getExpired() + window.deleted(Reason.EXPIRED));
+                report.setDismissed(report.getDismissed() + window.deleted(Reason.DISMISSED));
+                report.setStale(report.getStale() + window.deleted(Reason.STALE));
+                if (window.oldestDue() != null && (oldestDue == null || window.oldestDue().isBefore(oldestDue))) {
+                    oldestDue = window.oldestDue();
+                }
+
+                if (window.total() > 0) {
+                    long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - windowStarted);
+                    TimeUnit.MILLISECONDS.sleep(Math.max(pauseMs, tookMs));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.setFailureReason("Interrupted");
+        } catch (RuntimeException e) {
+            log.error("Notification retention failed", e);
+            report.setFailureReason(e.getMessage());
+        }
+
+        double seconds = Math.max((System.nanoTime() - started) / 1e9, 0.001);
+        long deleted = report.getExpired() + report.getDismissed() + report.getStale();
+        report.setDeleted(deleted);
+        report.setRowsPerSecond(Math.round(deleted / seconds * 10) / 10.0);
+        report.setLagSeconds(oldestDue != null ? Math.max(0, Duration.between(oldestDue, startedAt).toSeconds()) : 0);
+        report.setCompletedAt(LocalDateTime.now());
+
+        log.info("Notification retention removed {} notifications ({} expired, {} dismissed, {} stale) "
+                        + "in {} windows at {} rows/s; most overdue by {}s",
+                deleted, report.getExpired(), report.getDismissed(), report.getStale(),
+                report.getBatches(), report.getRowsPerSecond(), report.getLagSeconds());
+        return report;
+    }
+
+    /**
+     * Delete the due notifications with ids in (fromId, toId]
+     */
+    private Window purgeWindow(NotificationRetentionPolicy policy, long fromId, long toId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdBefore = now.minusHours(policy.minimumAgeHours());
+
+        return windowTransaction.execute(status -> {
+            List<Object> ids = new ArrayList<>();
+            Map<Reason, Long> deleted = new EnumMap<>(Reason.class);
+            LocalDateTime[] oldestDue = new LocalDateTime[1];
+
+            primaryJdbcTemplate.query(CANDIDATES, rs -> {
+                boolean read = rs.getBoolean("is_read");
+                NotificationRetentionPolicy.Due due = policy.dueAt(
+                        NotificationPriority.valueOf(rs.getString("priority")), read,
+                        toDateTime(rs.getTimestamp("created_at")), toDateTime(rs.getTimestamp("read_at")),
+                        toDateTime(rs.getTimestamp("expires_at")));
+                if (due == null || !due.at().isBefore(now)) {
+                    return;
+                }
+
+                long userId = rs.getLong("user_id");
+                ids.add(rs.getLong("notification_id"));
+                if (!read) {
+                    userSummaryStore.adjustUnreadCount(userId, -1);
+                }
+                deleted.merge(due.reason(), 1L, Long::sum);
+                if (oldestDue[0] == null || due.at().isBefore(oldestDue[0])) {
+                    oldestDue[0] = due.at();
+                }
+            }, fromId, toId, Timestamp.valueOf(now), Timestamp.valueOf(createdBefore));
+
+            if (!ids.isEmpty()) {
+                primaryJdbcTemplate.update(
+                        DELETE_BY_IDS.formatted(String.join(",", Collections.nCopies(ids.size(), "?"))),
+                        ids.toArray());
+            }
+            return new Window(deleted, oldestDue[0]);
+        });
+    }
+
+    private static LocalDateTime toDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private record Window(Map<Reason, Long> deleted, LocalDateTime oldestDue) {
+
+        long deleted(Reason reason) {
+            return deleted.getOrDefault(reason, 0L);
+        }
+
+        long total() {
+            return deleted.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+}
@@ -5,6 +5,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.stereotype.Service;
+import za.co.interfile.config.datasource.Workload;
+import za.co.interfile.config.datasource.WorkloadClass;
 import za.co.interfile.dtos.PaymentHistoryDTO;
 
 import java.io.ByteArrayInputStream;
@@ -17,6 +19,7 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Workload(WorkloadClass.REPORTING)
 public class PaymentExportService {
 
     private final PaymentHistoryService paymentHistoryService;
@@ -4,12 +4,17 @@ package za.co.interfile.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import za.co.interfile.archive.ArchiveTable;
+import za.co.interfile.archive.ArchivedRow;
+import za.co.interfile.config.datasource.Workload;
+import za.co.interfile.config.datasource.WorkloadClass;
 import za.co.interfile.dtos.PaymentHistoryDTO;
 import za.co.interfile.dtos.PaymentHistoryFilterDTO;
 import za.co.interfile.dtos.PaymentHistoryResponseDTO;
@@ -22,9 +27,13 @@ import za.co.interfile.repository.UsersRepository;
 
 import jakarta.persistence.criteria.Predicate;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,6 +44,8 @@ public class PaymentHistoryService {
 
     private final TransactionRepository transactionRepository;
     private final UsersRepository usersRepository;
+    private final SpendSummaryService spendSummaryService;
+    private final HistoryArchiveService historyArchiveService;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
 
@@ -62,18 +73,17 @@ public class PaymentHistoryService {
             // Build specification for filtering
             Specification<Transaction> spec = buildSpecification(user.getUserId(), filter);
 
-            // Get transactions
-            Page<Transaction> transactionPage = transactionRepository.findAll(spec, pageable);
+            // Get transactions, including archived months when the range reaches back that far
+            Page<PaymentHistoryDTO> transactionPage = historyArchiveService
+                    .reachesArchive(user.getUserId(), ArchiveTable.TRANSACTIONS, filter.getFromDate())
+                    ? findWithArchive(user.getUserId(), spec, filter, pageable)
+                    : transactionRepository.findAll(spec, pageable).map(this::convertToDTO);
 
-            // Convert to DTOs
-            List<PaymentHistoryDTO> transactionDTOs = transactionPage.getContent()
-                    .stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+            List<PaymentHistoryDTO> transactionDTOs = transactionPage.getContent();
 
-            // Calculate totals
-            BigDecimal totalWithdrawn = calculateTotalByType(user.getUserId(), TransactionType.WITHDRAWAL);
-            BigDecimal totalReceived = calculateTotalByType(user.getUserId(), TransactionType.DEPOSIT);
+            // Totals come from the monthly rollup rather than scanning the history
+            BigDecimal totalWithdrawn = spendSummaryService.getTotalWithdrawn(user.getUserId());
+            BigDecimal totalReceived = spendSummaryService.getTotalReceived(user.getUserId());
 
             return PaymentHistoryResponseDTO.builder()
                     .success(true)
@@ -98,18 +108,183 @@ public class PaymentHistoryService {
         }
     }
 
+    @Workload(WorkloadClass.REPORTING)
     public List<PaymentHistoryDTO> getAllTransactionsForExport(String idNumber) {
         Users user = usersRepository.findByIdNumber(idNumber).orElse(null);
         if (user == null) {
             return new ArrayList<>();
         }
 
-        List<Transaction> transactions = transactionRepository
-                .findByUserUserIdOrderByCreatedAtDesc(user.getUserId());
+        List<PaymentHistoryDTO> transactions = transactionRepository
+                .findByUserUserIdOrderByCreatedAtDesc(user.getUserId())
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        if (historyArchiveService.reachesArchive(user.getUserId(), ArchiveTable.TRANSACTIONS, null)) {
+            historyArchiveService.readRows(user.getUserId(), ArchiveTable.TRANSACTIONS, null, null)
+                    .stream()
+                    .map(this::convertArchivedToDTO)
+                    .sorted(Comparator.comparing(PaymentHistoryDTO::getCreatedAt).reversed())
+                    .forEach(transactions::add);
+        }
+        return transactions;
+    }
+
+    /**
+     * Hot and archived rows as one history. Sorted by date, the page is cut from
+     * three runs in order: hot rows on or after the archive boundary, then older
+     * hot rows merged with archived rows (or the reverse for oldest first). Only
+     * the runs the page overlaps are read, and the archive is decoded month by
+     * month only as far as the page reaches. Any other sort has to merge every
+     * row in memory.
+     */
+    private Page<PaymentHistoryDTO> findWithArchive(Long userId, Specification<Transaction> spec,
+                                                    PaymentHistoryFilterDTO filter, Pageable pageable) {
+        Sort.Order dateOrder = pageable.getSort().getOrderFor("createdAt");
+        LocalDate archivedThrough = historyArchiveService.getArchivedThrough();
+        if (dateOrder == null || pageable.getSort().stream().count() > 1 || archivedThrough == null) {
+            return mergeInMemory(userId, spec, filter, pageable);
+        }
+        boolean newestFirst = dateOrder.isDescending();
+        Sort byDate = Sort.by(dateOrder.getDirection(), "createdAt", "transactionId");
+        LocalDateTime boundary = archivedThrough.atStartOfDay();
+        Specification<Transaction> recent = spec.and((root, query, criteriaBuilder) ->
+                criteriaBuilder.greaterThanOrEqualTo(root.get("createdAt"), boundary));
+        Specification<Transaction> olderHot = spec.and((root, query, criteriaBuilder) ->
+                criteriaBuilder.lessThan(root.get("createdAt"), boundary));
+        java.util.function.Predicate<ArchivedRow> archiveFilter = archiveFilter(filter);
+
+        long recentCount = transactionRepository.count(recent);
+        long olderCount = transactionRepository.count(olderHot) + historyArchiveService.countRows(userId,
+                ArchiveTable.TRANSACTIONS, filter.getFromDate(), filter.getToDate(), archiveFilter);
 
-        return transactions.stream()
+        long pageStart = pageable.getOffset();
+        long pageEnd = pageStart + pageable.getPageSize();
+        long recentStart = newestFirst ? 0 : olderCount;
+        long olderStart = newestFirst ? recentCount : 0;
+
+        List<PaymentHistoryDTO> content = new ArrayList<>(pageable.getPageSize());
+        List<PaymentHistoryDTO> recentRows = slice(recentStart, recentCount, pageStart, pageEnd,
+                (from, to) -> readHot(recent, byDate, from, to, pageable.getPageSize()));
+        List<PaymentHistoryDTO> olderRows = slice(olderStart, olderCount, pageStart, pageEnd, (from, to) -> {
+            List<PaymentHistoryDTO> merged = mergeOlder(userId, olderHot, filter, archiveFilter, byDate,
+                    newestFirst, to);
+            return merged.subList(Math.min(from, merged.size()), merged.size());
+        });
+        content.addAll(newestFirst ? recentRows : olderRows);
+        content.addAll(newestFirst ? olderRows : recentRows);
+
+        return new PageImpl<>(content, pageable, recentCount + olderCount);
+    }
+
+    /**
+     * The part of [pageStart, pageEnd) that falls in a run of rows, read by
+     * position within the run
+     */
+    private static List<PaymentHistoryDTO> slice(long runStart, long runLength, long pageStart, long pageEnd,
+                                                 BiFunction<Integer, Integer, List<PaymentHistoryDTO>> read) {
+        long from = Math.max(pageStart, runStart) - runStart;
+        long to = Math.min(pageEnd, runStart + runLength) - runStart;
+        return from < to ? read.apply((int) from, (int) to) : List.of();
+    }
+
+    /**
+     * Hot rows at positions [from, to), a range no longer than a page, read as
+     * the one or two pages it overlaps
+     */
+    private List<PaymentHistoryDTO> readHot(Specification<Transaction> spec, Sort sort, int from, int to,
+                                            int pageSize) {
+        int firstPage = from / pageSize;
+        List<Transaction> rows = new ArrayList<>(transactionRepository
+                .findAll(spec, PageRequest.of(firstPage, pageSize, sort)).getContent());
+        if (to > (firstPage + 1) * pageSize) {
+            rows.addAll(transactionRepository
+                    .findAll(spec, PageRequest.of(firstPage + 1, pageSize, sort)).getContent());
+        }
+        int skip = from - firstPage * pageSize;
+        return rows.stream()
+                .skip(skip)
+                .limit(to - from)
                 .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .toList();
+    }
+
+    /**
+     * The first limit rows of older hot rows and archived rows merged by date
+     */
+    private List<PaymentHistoryDTO> mergeOlder(Long userId, Specification<Transaction> olderHot,
+                                               PaymentHistoryFilterDTO filter,
+                                               java.util.function.Predicate<ArchivedRow> archiveFilter,
+                                               Sort byDate, boolean newestFirst, int limit) {
+        List<PaymentHistoryDTO> rows = transactionRepository.findAll(olderHot, PageRequest.of(0, limit, byDate))
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toCollection(ArrayList::new));
+        historyArchiveService.readOrdered(userId, ArchiveTable.TRANSACTIONS, filter.getFromDate(), filter.getToDate(),
+                        newestFirst, archiveFilter, limit)
+                .stream()
+                .map(this::convertArchivedToDTO)
+                .forEach(rows::add);
+
+        Comparator<PaymentHistoryDTO> order = Comparator.comparing(PaymentHistoryDTO::getCreatedAt)
+                .thenComparing(PaymentHistoryDTO::getTransactionId);
+        rows.sort(newestFirst ? order.reversed() : order);
+        return rows.subList(0, Math.min(limit, rows.size()));
+    }
+
+    private static java.util.function.Predicate<ArchivedRow> archiveFilter(PaymentHistoryFilterDTO filter) {
+        if (filter.getTransactionType() == null && filter.getStatus() == null) {
+            return null;
+        }
+        return row -> (filter.getTransactionType() == null
+                || filter.getTransactionType().name().equals(row.getString("transaction_type")))
+                && (filter.getStatus() == null || filter.getStatus().name().equals(row.getString("status")));
+    }
+
+    private Page<PaymentHistoryDTO> mergeInMemory(Long userId, Specification<Transaction> spec,
+                                                  PaymentHistoryFilterDTO filter, Pageable pageable) {
+        List<PaymentHistoryDTO> rows = transactionRepository.findAll(spec)
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        historyArchiveService.readOrdered(userId, ArchiveTable.TRANSACTIONS, filter.getFromDate(), filter.getToDate(),
+                        false, archiveFilter(filter), Integer.MAX_VALUE)
+                .stream()
+                .map(this::convertArchivedToDTO)
+                .forEach(rows::add);
+
+        rows.sort(comparatorFor(pageable.getSort()));
+
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + pageable.getPageSize(), rows.size());
+        return new PageImpl<>(rows.subList(from, to), pageable, rows.size());
+    }
+
+    private Comparator<PaymentHistoryDTO> comparatorFor(Sort sort) {
+        Comparator<PaymentHistoryDTO> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<PaymentHistoryDTO> next = switch (order.getProperty()) {
+                case "amount" -> Comparator.comparing(PaymentHistoryDTO::getAmount,
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                case "transactionType" -> Comparator.comparing(PaymentHistoryDTO::getTransactionType,
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                case "status" -> Comparator.comparing(PaymentHistoryDTO::getStatus,
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                case "referenceNumber" -> Comparator.comparing(PaymentHistoryDTO::getReferenceNumber,
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                case "transactionId" -> Comparator.comparing(PaymentHistoryDTO::getTransactionId,
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                default -> Comparator.comparing(PaymentHistoryDTO::getCreatedAt,
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator != null ? comparator : Comparator.comparing(PaymentHistoryDTO::getCreatedAt).reversed();
     }
 
     // Build JPA Specification for filtering
@@ -160,8 +335,16 @@ public class PaymentHistoryService {
                 .build();
     }
 
-    private BigDecimal calculateTotalByType(Long userId, TransactionType type) {
-        return transactionRepository.sumAmountByUserAndType(userId, type);
+    private PaymentHistoryDTO convertArchivedToDTO(ArchivedRow row) {
+        return convertToDTO(Transaction.builder()
+                .transactionId(row.getLong("transaction_id"))
+                .transactionType(TransactionType.valueOf(row.getString("transaction_type")))
+                .amount(row.getDecimal("amount"))
+                .status(TransactionStatus.valueOf(row.getString("status")))
+                .referenceNumber(row.getString("reference_number"))
+                .description(row.getString("description"))
+                .createdAt(row.getDateTime("created_at"))
+                .build());
     }
 
     // Helper methods for formatting and display
@@ -4,8 +4,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import za.co.interfile.cache.AdminCounters;
+import za.co.interfile.cache.UserSummaryStore;
+import za.co.interfile.dtos.ActiveSassaAccountDto;
 import za.co.interfile.dtos.LinkSassaAccountRequest;
 import za.co.interfile.dtos.LinkSassaAccountResponse;
+import za.co.interfile.dtos.UserSummaryDto;
 import za.co.interfile.enums.SassaStatus;
 import za.co.interfile.exception.SassaAccountException;
 import za.co.interfile.model.SassaAccounts;
@@ -24,6 +28,8 @@ public class SassaAccountService {
 
     private final SassaAccountsRepository sassaAccountsRepository;
     private final UsersRepository usersRepository;
+    private final UserSummaryStore userSummaryStore;
+    private final AdminCounters adminCounters;
 
     @Transactional
     public LinkSassaAccountResponse linkSassaAccount(Long userId, LinkSassaAccountRequest request) {
@@ -75,11 +81,15 @@ public class SassaAccountService {
         }
 
         // 7. Link the account
+        SassaStatus previousStatus = sassaAccount.getStatus();
         sassaAccount.setUser(user);
         sassaAccount.setStatus(SassaStatus.ACTIVE);
         sassaAccount.setUpdatedAt(LocalDateTime.now());
 
         SassaAccounts savedAccount = sassaAccountsRepository.save(sassaAccount);
+        userSummaryStore.refreshActiveSassaAccount(userId);
+        adminCounters.sassaAccountChanged(previousStatus, savedAccount.getGrantType(),
+                savedAccount.getStatus(), savedAccount.getGrantType());
 
         log.info("Successfully linked SASSA account {} to user {}",
                 savedAccount.getSassaAccountId(), userId);
@@ -95,12 +105,35 @@ public class SassaAccountService {
 
     @Transactional(readOnly = true)
     public SassaAccounts getUserActiveSassaAccount(Long userId) {
+        Optional<UserSummaryDto> summary = userSummaryStore.find(userId);
+        if (summary.isPresent()) {
+            Long accountId = summary.get().getActiveSassaAccountId();
+            return accountId != null ? sassaAccountsRepository.findById(accountId).orElse(null) : null;
+        }
+
         Users user = usersRepository.findById(userId)
                 .orElseThrow(() -> new SassaAccountException("User not found"));
 
         return user.getActiveSassaAccount();
     }
 
+    @Transactional(readOnly = true)
+    public ActiveSassaAccountDto getActiveSassaAccountDetails(Long userId) {
+        SassaAccounts account = getUserActiveSassaAccount(userId);
+        if (account == null) {
+            return null;
+        }
+
+        return ActiveSassaAccountDto.builder()
+                .sassaAccountId(account.getSassaAccountId())
+                .accountNumber(account.getAccountNumber())
+                .grantType(account.getGrantType())
+                .monthlyAmount(account.getMonthlyAmount())
+                .status(account.getStatus())
+                .nextPaymentDate(account.getNextPaymentDate())
+                .build();
+    }
+
     @Transactional
     public void unlinkSassaAccount(Long userId, Long sassaAccountId) {
         log.info("Attempting to unlink SASSA account {} from user {}", sassaAccountId, userId);
@@ -117,11 +150,15 @@ public class SassaAccountService {
         }
 
         // Unlink
+        SassaStatus previousStatus = sassaAccount.getStatus();
         sassaAccount.setUser(null);
         sassaAccount.setStatus(SassaStatus.PENDING_VERIFICATION);
         sassaAccount.setUpdatedAt(LocalDateTime.now());
 
         sassaAccountsRepository.save(sassaAccount);
+        userSummaryStore.refreshActiveSassaAccount(userId);
+        adminCounters.sassaAccountChanged(previousStatus, sassaAccount.getGrantType(),
+                SassaStatus.PENDING_VERIFICATION, sassaAccount.getGrantType());
 
         log.info("Successfully unlinked SASSA account {} from user {}", sassaAccountId, userId);
     }
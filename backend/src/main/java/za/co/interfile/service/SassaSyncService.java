@@ -0,0 +1,556 @@
+package za.co.interfile.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.interfile.cache.AdminCounters;
+import za.co.interfile.cache.UserSummaryStore;
+import za.co.interfile.config.queryguard.QueryBudgetExempt;
+import za.co.interfile.dtos.SassaSyncReportDto;
+import za.co.interfile.enums.GrantType;
+import za.co.interfile.enums.SassaStatus;
+import za.co.interfile.resilience.CircuitBreaker;
+import za.co.interfile.resilience.ClusterLock;
+import za.co.interfile.resilience.TokenBucket;
+import za.co.interfile.sassa.SassaAccountStatus;
+import za.co.interfile.sassa.SassaGateway;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps sassa_accounts in line with SASSA.
+ * <p>
+ * Every interval one pass takes the accounts synced longest ago (never-synced
+ * first) and asks the gateway about each. The batch is sized so the whole roll
+ * is covered within the SLA, and grows to drain a backlog of overdue accounts
+ * as far as the rate limit allows. Calls run on a small bounded pool behind a
+ * token bucket and a circuit breaker, so a slow or failing upstream costs at
+ * most a few threads and is left alone while it recovers; accounts that were
+ * not reached keep their old sync date and are first in line next pass.
+ * <p>
+ * Results are written in batches on the primary pool. Each update only applies
+ * if the row is unchanged since it was read, so a link or roll import in the
+ * meantime wins. SASSA-imposed statuses (suspended, expired, rejected, closed)
+ * are copied as they are; when SASSA reports the account active again it goes
+ * back to ACTIVE if linked or PENDING_VERIFICATION if not. An account SASSA does
+ * not know is rejected after the configured number of passes in a row.
+ * <p>
+ * Passes are serialised across the cluster by a named lock, so the rate limit
+ * is the load SASSA sees however many nodes run, and candidates are read from
+ * the primary so each pass starts after the sync dates the last one wrote.
+ */
+@Slf4j
+@Service
+public class SassaSyncService {
+
+    private static final String LOCK_NAME = "sassa-sync";
+
+    private static final String TRACKED_COUNT = "SELECT COUNT(*) FROM sassa_accounts WHERE status <> 'CLOSED'";
+
+    private static final String OVERDUE_COUNT = """
+            SELECT COUNT(*) FROM sassa_accounts
+            WHERE status <> 'CLOSED' AND (last_sync_date IS NULL OR last_sync_date < ?)
+            """;
+
+    private static final String CANDIDATE_QUERY = """
+            SELECT sassa_account_id, account_number, user_id, status, grant_type, monthly_amount,
+                   next_payment_date, external_account_id, verification_attempts, updated_at
+            FROM sassa_accounts
+            WHERE status <> 'CLOSED'
+            ORDER BY last_sync_date, sassa_account_id
+            LIMIT ?
+            """;
+
+    private static final String UPDATE = """
+            UPDATE sassa_accounts
+               SET status = ?, grant_type = ?, monthly_amount = ?, next_payment_date = ?,
+                   external_account_id = ?, verification_attempts = ?,
+                   rejection_reason = COALESCE(?, rejection_reason),
+                   last_sync_date = ?, updated_at = ?
+             WHERE sassa_account_id = ? AND updated_at <=> ?
+            """;
+
+    /**
+     * Statuses SASSA imposes; a later ACTIVE answer lifts them again
+     */
+    private static final Set<SassaStatus> UPSTREAM_HELD = EnumSet.of(
+            SassaStatus.INACTIVE, SassaStatus.SUSPENDED, SassaStatus.EXPIRED, SassaStatus.REJECTED);
+
+    private static final String NOT_FOUND_REASON = "Not found on the SASSA roll";
+    private static final int WRITE_CHUNK = 500;
+
+    private final JdbcTemplate reportingJdbcTemplate;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final ClusterLock clusterLock;
+    private final SassaGateway sassaGateway;
+    private final AdminCounters adminCounters;
+    private final UserSummaryStore userSummaryStore;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong overdueAccounts = new AtomicLong();
+
+    private volatile SassaSyncReportDto latest;
+
+    @Value("${app.sassa.enabled:false}")
+    private boolean enabled;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${app.sassa.sync.interval-ms:60000}")
+    private long intervalMs;
+
+    @Value("${app.sassa.sync.sla-hours:24}")
+    private long slaHours;
+
+    @Value("${app.sassa.sync.max-batch:5000}")
+    private int maxBatch;
+
+    @Value("${app.sassa.sync.concurrency:8}")
+    private int concurrency;
+
+    @Value("${app.sassa.sync.rate-per-second:20}")
+    private double ratePerSecond;
+
+    @Value("${app.sassa.sync.rate-burst:20}")
+    private int rateBurst;
+
+    @Value("${app.sassa.sync.breaker-failures:10}")
+    private int breakerFailures;
+
+    @Value("${app.sassa.sync.breaker-open-ms:30000}")
+    private long breakerOpenMs;
+
+    @Value("${app.sassa.sync.not-found-attempts:3}")
+    private int notFoundAttempts;
+
+    private AsyncTaskExecutor taskExecutor;
+    private CircuitBreaker circuitBreaker;
+    private TokenBucket rateLimiter;
+    private Counter unchangedAccounts;
+    private Counter changedAccounts;
+    private Counter notFoundAccounts;
+    private Counter failedAccounts;
+    private Counter skippedAccounts;
+    private Counter conflictAccounts;
+    private Timer foundCalls;
+    private Timer notFoundCalls;
+    private Timer failedCalls;
+
+    public SassaSyncService(@Qualifier("reportingDataSource") DataSource reportingDataSource,
+                            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                            SassaGateway sassaGateway,
+                            AdminCounters adminCounters,
+                            UserSummaryStore userSummaryStore,
+                            MeterRegistry meterRegistry) {
+        this.reportingJdbcTemplate = new JdbcTemplate(reportingDataSource);
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.batchTransaction = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.clusterLock = new ClusterLock(primaryDataSource);
+        this.sassaGateway = sassaGateway;
+        this.adminCounters = adminCounters;
+        this.userSummaryStore = userSummaryStore;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        circuitBreaker = new CircuitBreaker("sassa", breakerFailures, breakerOpenMs);
+        rateLimiter = new TokenBucket(ratePerSecond, rateBurst);
+
+        // Kept out of the context on purpose: an Executor bean would replace
+        // the auto-configured applicationTaskExecutor used by @Async
+        if (virtualThreadsEnabled && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("sassa-sync-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            taskExecutor = executor;
+        } else {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadNamePrefix("sassa-sync-");
+            executor.setCorePoolSize(concurrency);
+            executor.setMaxPoolSize(concurrency);
+            executor.setQueueCapacity(concurrency);
+            executor.initialize();
+            taskExecutor = executor;
+        }
+
+        unchangedAccounts = accountCounter("unchanged");
+        changedAccounts = accountCounter("changed");
+        notFoundAccounts = accountCounter("not_found");
+        failedAccounts = accountCounter("failed");
+        skippedAccounts = accountCounter("skipped");
+        conflictAccounts = accountCounter("conflict");
+        foundCalls = Timer.builder("relief.sassa.sync.call").tag("outcome", "found").register(meterRegistry);
+        notFoundCalls = Timer.builder("relief.sassa.sync.call").tag("outcome", "not_found").register(meterRegistry);
+        failedCalls = Timer.builder("relief.sassa.sync.call").tag("outcome", "failed").register(meterRegistry);
+        Gauge.builder("relief.sassa.sync.circuit.open",
+                        () -> circuitBreaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .register(meterRegistry);
+        Gauge.builder("relief.sassa.sync.overdue", overdueAccounts, AtomicLong::get).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        if (taskExecutor instanceof ThreadPoolTaskExecutor executor) {
+            executor.shutdown();
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Optional<SassaSyncReportDto> getLatestReport() {
+        return Optional.ofNullable(latest);
+    }
+
+    @QueryBudgetExempt
+    @Scheduled(initialDelayString = "${app.sassa.sync.interval-ms:60000}",
+            fixedDelayString = "${app.sassa.sync.interval-ms:60000}")
+    public void scheduledSync() {
+        if (!enabled || running.get()) {
+            return;
+        }
+        try {
+            if (runExclusive("scheduler").isEmpty()) {
+                log.info("SASSA sync is running on another node; skipping");
+            }
+        } catch (Exception e) {
+            log.error("Scheduled SASSA sync failed", e);
+        }
+    }
+
+    @Async
+    @QueryBudgetExempt
+    public void synchroniseAsync(String triggeredBy) {
+        try {
+            synchronise(triggeredBy);
+        } catch (Exception e) {
+            log.error("SASSA sync triggered by {} failed", triggeredBy, e);
+        }
+    }
+
+    /**
+     * Run one sync pass and return its report. Only one pass at a time across
+     * the cluster.
+     */
+    @QueryBudgetExempt
+    public SassaSyncReportDto synchronise(String triggeredBy) {
+        return runExclusive(triggeredBy)
+                .orElseThrow(() -> new IllegalStateException("A SASSA sync is already running on another node"));
+    }
+
+    /**
+     * Run a pass under the cluster lock; empty when another node holds it
+     */
+    private Optional<SassaSyncReportDto> runExclusive(String triggeredBy) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A SASSA sync is already running");
+        }
+        try {
+            return clusterLock.callIfFree(LOCK_NAME, () -> {
+                try {
+                    SassaSyncReportDto report = runPass(triggeredBy);
+                    latest = report;
+                    return report;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("SASSA sync interrupted", e);
+                }
+            });
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private SassaSyncReportDto runPass(String triggeredBy) throws InterruptedException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervalMs);
+
+        long tracked = reportingJdbcTemplate.queryForObject(TRACKED_COUNT, Long.class);
+        long overdue = reportingJdbcTemplate.queryForObject(OVERDUE_COUNT, Long.class,
+                Timestamp.valueOf(startedAt.minusHours(slaHours)));
+        overdueAccounts.set(overdue);
+
+        int quota = batchQuota(tracked, overdue);
+        // From the primary: a lagging replica would hand back accounts the
+        // previous pass, maybe on another node, has just synced
+        List<Account> accounts = primaryJdbcTemplate.query(CANDIDATE_QUERY, (rs, row) -> toAccount(rs), quota);
+
+        Queue<Update> updates = new ConcurrentLinkedQueue<>();
+        AtomicInteger notFound = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+        int submitted = 0;
+
+        for (Account account : accounts) {
+            if (System.nanoTime() - deadline > 0 || !circuitBreaker.tryAcquirePermission()) {
+                break;
+            }
+            long wait;
+            while ((wait = rateLimiter.reserve()) > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            inFlight.acquire();
+            try {
+                taskExecutor.execute(() -> {
+                    try {
+                        syncAccount(account, updates, notFound, failed);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                submitted++;
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                break;
+            }
+        }
+        inFlight.acquire(concurrency);
+        inFlight.release(concurrency);
+
+        List<Update> results = new ArrayList<>(updates);
+        WriteResult written = write(results);
+        int unchanged = results.size() - written.changed() - written.conflicts();
+        int skipped = accounts.size() - submitted;
+
+        changedAccounts.increment(written.changed());
+        unchangedAccounts.increment(unchanged);
+        conflictAccounts.increment(written.conflicts());
+        skippedAccounts.increment(skipped);
+
+        SassaSyncReportDto report = SassaSyncReportDto.builder()
+                .triggeredBy(triggeredBy)
+                .startedAt(startedAt)
+                .completedAt(LocalDateTime.now())
+                .trackedAccounts(tracked)
+                .overdueAccounts(overdue)
+                .batchQuota(quota)
+                .selected(accounts.size())
+                .unchanged(unchanged)
+                .changed(written.changed())
+                .notFound(notFound.get())
+                .failed(failed.get())
+                .skipped(skipped)
+                .conflicts(written.conflicts())
+                .circuitState(circuitBreaker.getState().name())
+                .build();
+
+        log.info("SASSA sync pass: {} of {} selected synced, {} changed, {} not found, {} failed, {} skipped, "
+                        + "{} conflicts; {} of {} accounts overdue",
+                results.size(), accounts.size(), report.getChanged(), report.getNotFound(), report.getFailed(),
+                skipped, written.conflicts(), overdue, tracked);
+        return report;
+    }
+
+    /**
+     * Enough accounts per pass to cover the roll within the SLA; more while a
+     * backlog is overdue, up to what the rate limit can serve in one interval
+     */
+    private int batchQuota(long tracked, long overdue) {
+        long slaQuota = (long) Math.ceil((double) tracked * intervalMs / TimeUnit.HOURS.toMillis(slaHours));
+        long rateCapacity = (long) (ratePerSecond * intervalMs / 1000 * 0.8);
+        if (slaQuota > rateCapacity) {
+            log.warn("SASSA sync cannot meet its {}h SLA: {} accounts need {} calls per pass, the rate limit allows {}",
+                    slaHours, tracked, slaQuota, rateCapacity);
+        }
+        long quota = overdue > 0 ? Math.max(slaQuota, Math.min(overdue, rateCapacity)) : slaQuota;
+        return (int) Math.max(1, Math.min(quota, maxBatch));
+    }
+
+    private void syncAccount(Account account, Queue<Update> updates, AtomicInteger notFound, AtomicInteger failed) {
+        long started = System.nanoTime();
+        try {
+            Optional<SassaAccountStatus> remote = sassaGateway.fetchAccount(account.accountNumber());
+            circuitBreaker.onSuccess();
+            if (remote.isPresent()) {
+                foundCalls.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                updates.add(found(account, remote.get()));
+            } else {
+                notFoundCalls.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                notFound.incrementAndGet();
+                notFoundAccounts.increment();
+                updates.add(notFound(account));
+            }
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            failedCalls.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            failed.incrementAndGet();
+            failedAccounts.increment();
+            log.debug("SASSA lookup of account {} failed: {}", account.id(), e.getMessage());
+        }
+    }
+
+    private static Update found(Account account, SassaAccountStatus remote) {
+        SassaStatus status = account.status();
+        if (UPSTREAM_HELD.contains(remote.status()) || remote.status() == SassaStatus.CLOSED) {
+            status = remote.status();
+        } else if (remote.status() == SassaStatus.ACTIVE && UPSTREAM_HELD.contains(account.status())) {
+            status = account.userId() != null ? SassaStatus.ACTIVE : SassaStatus.PENDING_VERIFICATION;
+        }
+
+        return new Update(account, status,
+                remote.grantType() != null ? remote.grantType() : account.grantType(),
+                remote.monthlyAmount() != null ? remote.monthlyAmount() : account.monthlyAmount(),
+                remote.nextPaymentDate() != null ? remote.nextPaymentDate() : account.nextPaymentDate(),
+                remote.externalAccountId() != null ? remote.externalAccountId() : account.externalAccountId(),
+                0, null);
+    }
+
+    private Update notFound(Account account) {
+        int attempts = account.verificationAttempts() + 1;
+        boolean reject = attempts >= notFoundAttempts && account.status() != SassaStatus.REJECTED;
+        return new Update(account, reject ? SassaStatus.REJECTED : account.status(), account.grantType(),
+                account.monthlyAmount(), account.nextPaymentDate(), account.externalAccountId(),
+                attempts, reject ? NOT_FOUND_REASON : null);
+    }
+
+    /**
+     * Apply the results in chunks, one primary transaction each
+     *
+     * @return how many applied updates changed the account, and how many were
+     * skipped because the row changed after it was read
+     */
+    private WriteResult write(List<Update> updates) {
+        int conflicts = 0;
+        int changed = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < updates.size(); from += WRITE_CHUNK) {
+            List<Update> chunk = updates.subList(from, Math.min(from + WRITE_CHUNK, updates.size()));
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (Update update : chunk) {
+                Account account = update.account();
+                rows.add(new Object[]{
+                        update.status().name(),
+                        update.grantType().name(),
+                        update.monthlyAmount(),
+                        update.nextPaymentDate() != null ? Date.valueOf(update.nextPaymentDate()) : null,
+                        update.externalAccountId(),
+                        update.verificationAttempts(),
+                        update.rejectionReason(),
+                        now,
+                        update.isChanged() ? now : account.updatedAt(),
+                        account.id(),
+                        account.updatedAt()
+                });
+            }
+
+            int[] counts = batchTransaction.execute(status -> {
+                int[] applied = primaryJdbcTemplate.batchUpdate(UPDATE, rows);
+                for (int i = 0; i < applied.length; i++) {
+                    if (applied[i] != 0) {
+                        publish(chunk.get(i));
+                    }
+                }
+                return applied;
+            });
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    conflicts++;
+                } else if (chunk.get(i).isChanged()) {
+                    changed++;
+                }
+            }
+        }
+        return new WriteResult(changed, conflicts);
+    }
+
+    /**
+     * Keep the dashboard counters and the linked user's summary in step with a
+     * status or grant change; applied after the chunk commits
+     */
+    private void publish(Update update) {
+        Account account = update.account();
+        if (account.status() == update.status() && account.grantType() == update.grantType()) {
+            return;
+        }
+        adminCounters.sassaAccountChanged(account.status(), account.grantType(), update.status(), update.grantType());
+        if (account.userId() != null
+                && (update.status() == SassaStatus.ACTIVE || account.status() == SassaStatus.ACTIVE)) {
+            userSummaryStore.refreshActiveSassaAccount(account.userId());
+        }
+    }
+
+    private static Account toAccount(ResultSet rs) throws SQLException {
+        long userId = rs.getLong("user_id");
+        Long linkedUserId = rs.wasNull() ? null : userId;
+        Date nextPaymentDate = rs.getDate("next_payment_date");
+        return new Account(
+                rs.getLong("sassa_account_id"),
+                rs.getString("account_number"),
+                linkedUserId,
+                SassaStatus.valueOf(rs.getString("status")),
+                GrantType.valueOf(rs.getString("grant_type")),
+                rs.getBigDecimal("monthly_amount"),
+                nextPaymentDate != null ? nextPaymentDate.toLocalDate() : null,
+                rs.getString("external_account_id"),
+                rs.getInt("verification_attempts"),
+                rs.getTimestamp("updated_at"));
+    }
+
+    private Counter accountCounter(String outcome) {
+        return Counter.builder("relief.sassa.sync.accounts").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    private record Account(long id, String accountNumber, Long userId, SassaStatus status, GrantType grantType,
+                           BigDecimal monthlyAmount, LocalDate nextPaymentDate, String externalAccountId,
+                           int verificationAttempts, Timestamp updatedAt) {
+    }
+
+    private record WriteResult(int changed, int conflicts) {
+    }
+
+    private record Update(Account account, SassaStatus status, GrantType grantType, BigDecimal monthlyAmount,
+                          LocalDate nextPaymentDate, String externalAccountId, int verificationAttempts,
+                          String rejectionReason) {
+
+        private boolean isChanged() {
+            return account.status() != status
+                    || account.grantType() != grantType
+                    || !Objects.equals(account.externalAccountId(), externalAccountId)
+                    || !Objects.equals(account.nextPaymentDate(), nextPaymentDate)
+                    || (monthlyAmount != null && account.monthlyAmount() != null
+                    ? monthlyAmount.compareTo(account.monthlyAmount()) != 0
+                    : monthlyAmount != account.monthlyAmount())
+                    || rejectionReason != null;
+        }
+    }
+}
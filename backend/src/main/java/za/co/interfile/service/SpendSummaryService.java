@@ -0,0 +1,464 @@
+package za.co.interfile.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.interfile.config.datasource.Workload;
+import za.co.interfile.config.datasource.WorkloadClass;
+import za.co.interfile.config.queryguard.QueryBudgetExempt;
+import za.co.interfile.dtos.MonthlySpendDto;
+import za.co.interfile.enums.SpendCategory;
+import za.co.interfile.model.MonthlySpendSummary;
+import za.co.interfile.repository.MonthlySpendSummaryRepository;
+import za.co.interfile.repository.MonthlySpendSummaryRepository.CompletedMovement;
+import za.co.interfile.repository.MonthlySpendSummaryRepository.SpendAggregate;
+import za.co.interfile.resilience.ClusterLock;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the monthly_spend_summaries rollup: one row per (user, month, category).
+ * Cash sends and electricity purchases call record() inside their own transaction,
+ * so the rollup commits or rolls back with the movement. Deposits and withdrawals
+ * are settled outside this service, so a follower adds them once they complete,
+ * claiming each in spend_summary_movements so it is counted once.
+ * <p>
+ * backfill() rebuilds the rollup from the source tables; it runs on startup when
+ * the rollup is empty. A nightly check compares recent months against the source
+ * tables and repairs drift from the primary; it shares the backfill's lock.
+ */
+@Slf4j
+@Service
+public class SpendSummaryService {
+
+    private static final Set<SpendCategory> OUTGOING = Arrays.stream(SpendCategory.values())
+            .filter(SpendCategory::isOutgoing)
+            .collect(Collectors.toCollection(() -> EnumSet.noneOf(SpendCategory.class)));
+
+    private static final LocalDate BEGINNING = LocalDate.of(1970, 1, 1);
+    private static final String BACKFILL_LOCK = "spend-summary-backfill";
+    private static final String FOLLOW_LOCK = "spend-summary-follow";
+    private static final int FOLLOW_BATCH = 500;
+    private static final int PRUNE_BATCH = 10_000;
+
+    private final MonthlySpendSummaryRepository summaryRepository;
+    private final HistoryArchiveService historyArchiveService;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+    private final ClusterLock clusterLock;
+    private final Counter driftCounter;
+    private final Counter followedCounter;
+
+    @Value("${app.spend-summary.batch-users:1000}")
+    private long batchUsers;
+
+    @Value("${app.spend-summary.check.enabled:true}")
+    private boolean checkEnabled;
+
+    @Value("${app.spend-summary.check.months:3}")
+    private int checkMonths;
+
+    @Value("${app.spend-summary.check.repair:true}")
+    private boolean repairDrift;
+
+    @Value("${app.spend-summary.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${app.spend-summary.follow.enabled:true}")
+    private boolean followEnabled;
+
+    /**
+     * How far back a completion is still picked up; covers late commits and downtime
+     */
+    @Value("${app.spend-summary.follow.lookback-hours:48}")
+    private long followLookbackHours;
+
+    public SpendSummaryService(MonthlySpendSummaryRepository summaryRepository,
+                               HistoryArchiveService historyArchiveService,
+                               PlatformTransactionManager transactionManager,
+                               @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                               MeterRegistry meterRegistry) {
+        this.summaryRepository = summaryRepository;
+        this.historyArchiveService = historyArchiveService;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.clusterLock = new ClusterLock(primaryDataSource);
+        this.driftCounter = Counter.builder("relief.spend.summary.drift")
+                .description("Rollup rows found out of line with the source tables")
+                .register(meterRegistry);
+        this.followedCounter = Counter.builder("relief.spend.summary.followed")
+                .description("Completed deposits and withdrawals added to the rollup")
+                .register(meterRegistry);
+    }
+
+    // Maintenance on each money movement
+
+    /**
+     * Add a movement to its month's rollup. Must run inside the transaction that
+     * moves the money.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long userId, LocalDateTime occurredAt, SpendCategory category, BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            return;
+        }
+        summaryRepository.increment(userId, monthOf(occurredAt), category.name(), amount);
+    }
+
+    /**
+     * Record a movement and the fee charged on it
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long userId, LocalDateTime occurredAt, SpendCategory category,
+                       BigDecimal amount, BigDecimal fee) {
+        record(userId, occurredAt, category, amount);
+        record(userId, occurredAt, SpendCategory.FEES, fee);
+    }
+
+    /**
+     * Add deposits and withdrawals completed within the lookback window that are
+     * not in the rollup yet. One node follows at a time.
+     */
+    @Scheduled(fixedDelayString = "${app.spend-summary.follow.interval-ms:30000}")
+    @QueryBudgetExempt
+    public void followCompletions() {
+        if (!followEnabled) {
+            return;
+        }
+        try {
+            clusterLock.callIfFree(FOLLOW_LOCK, () -> {
+                LocalDateTime since = LocalDateTime.now().minusHours(followLookbackHours);
+                long added = follow("DEPOSIT", since) + follow("WITHDRAWAL", since);
+                followedCounter.increment(added);
+                return added;
+            });
+        } catch (Exception e) {
+            log.error("Following completed movements into the spend rollup failed", e);
+        }
+    }
+
+    private long follow(String source, LocalDateTime since) {
+        long added = 0;
+        FollowedBatch batch;
+        do {
+            batch = writeTransaction.execute(status -> {
+                List<CompletedMovement> movements = "DEPOSIT".equals(source)
+                        ? summaryRepository.findUnrecordedDeposits(since, FOLLOW_BATCH)
+                        : summaryRepository.findUnrecordedWithdrawals(since, FOLLOW_BATCH);
+                int claimed = 0;
+                for (CompletedMovement movement : movements) {
+                    if (summaryRepository.claim(source, movement.getSourceId()) == 0) {
+                        continue;
+                    }
+                    LocalDate month = LocalDate.parse(movement.getPeriodMonth());
+                    if ("DEPOSIT".equals(source)) {
+                        add(movement.getUserId(), month, SpendCategory.RECEIVED, movement.getAmount());
+                    } else {
+                        add(movement.getUserId(), month, SpendCategory.WITHDRAWAL, movement.getAmount());
+                        add(movement.getUserId(), month, SpendCategory.FEES, movement.getFee());
+                    }
+                    claimed++;
+                }
+                return new FollowedBatch(movements.size(), claimed);
+            });
+            added += batch.claimed();
+        } while (batch.found() == FOLLOW_BATCH);
+        return added;
+    }
+
+    private record FollowedBatch(int found, int claimed) {
+    }
+
+    private void add(Long userId, LocalDate month, SpendCategory category, BigDecimal amount) {
+        if (amount != null && amount.signum() > 0) {
+            summaryRepository.increment(userId, month, category.name(), amount);
+        }
+    }
+
+    // Reads
+
+    @Transactional(readOnly = true)
+    public List<MonthlySpendDto> getMonthlySummary(Long userId, int months) {
+        LocalDate fromMonth = YearMonth.now().minusMonths(Math.max(months, 1) - 1L).atDay(1);
+
+        return summaryRepository
+                .findByUserIdAndPeriodMonthGreaterThanEqualOrderByPeriodMonthDescCategoryAsc(userId, fromMonth)
+                .stream()
+                .map(summary -> MonthlySpendDto.builder()
+                        .month(YearMonth.from(summary.getPeriodMonth()).toString())
+                        .category(summary.getCategory())
+                        .totalAmount(summary.getTotalAmount())
+                        .transactionCount(summary.getTransactionCount())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalReceived(Long userId) {
+        return summaryRepository.sumByUserAndCategories(userId, EnumSet.of(SpendCategory.RECEIVED));
+    }
+
+    /**
+     * Processed withdrawals, net of fees
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalWithdrawn(Long userId) {
+        return summaryRepository.sumByUserAndCategories(userId, EnumSet.of(SpendCategory.WITHDRAWAL));
+    }
+
+    /**
+     * Everything that left the account: withdrawals, cash sends, electricity and fees
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalSpent(Long userId) {
+        return summaryRepository.sumByUserAndCategories(userId, OUTGOING);
+    }
+
+    // Backfill
+
+    /**
+     * Build the rollup on first start, so totals don't read zero until an admin
+     * runs the backfill
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @QueryBudgetExempt
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            if (summaryRepository.count() > 0 || summaryRepository.findMaxUserId() == 0) {
+                return;
+            }
+            log.info("Monthly spend rollup is empty; backfilling");
+            if (clusterLock.callIfFree(BACKFILL_LOCK, this::rebuild).isEmpty()) {
+                log.info("Monthly spend rollup backfill is running on another node");
+            }
+        } catch (Exception e) {
+            log.error("Startup backfill of the monthly spend rollup failed", e);
+        }
+    }
+
+    /**
+     * Rebuild the rollup from the source tables, one user range per transaction.
+     * Months already moved to the history archive keep their rows as they are.
+     * Best run when traffic is low; any movement that races a range is corrected
+     * by the next consistency check.
+     */
+    @QueryBudgetExempt
+    public Map<String, Object> backfill() {
+        return clusterLock.callIfFree(BACKFILL_LOCK, this::rebuild)
+                .orElseThrow(() -> new IllegalStateException("Spend summary backfill is already running"));
+    }
+
+    private Map<String, Object> rebuild() {
+        long started = System.currentTimeMillis();
+        long maxUserId = summaryRepository.findMaxUserId();
+        LocalDate archivedThrough = historyArchiveService.getArchivedThrough();
+        LocalDate fromMonth = archivedThrough != null ? archivedThrough : BEGINNING;
+        LocalDateTime followSince = LocalDateTime.now().minusHours(followLookbackHours);
+        long rows = 0;
+
+        for (long fromUserId = 0; fromUserId <= maxUserId; fromUserId += batchUsers) {
+            long from = fromUserId;
+            long to = fromUserId + batchUsers - 1;
+            Integer inserted = writeTransaction.execute(status -> {
+                // Claimed first, so a follower run can't add them on top of the rebuild
+                summaryRepository.claimUserRange(from, to, followSince);
+                summaryRepository.deleteUserRange(from, to, fromMonth);
+                return summaryRepository.backfillUserRange(from, to, fromMonth.atStartOfDay(),
+                        ElectricityService.ELECTRICITY_FEE);
+            });
+            rows += inserted != null ? inserted : 0;
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Monthly spend rollup backfilled from {}: {} rows for users up to {} in {}ms",
+                fromMonth, rows, maxUserId, elapsed);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("fromMonth", fromMonth);
+        report.put("rowsWritten", rows);
+        report.put("maxUserId", maxUserId);
+        report.put("elapsedMs", elapsed);
+        return report;
+    }
+
+    // Consistency check
+
+    @Scheduled(cron = "${app.spend-summary.check.cron:0 30 2 * * *}")
+    @Workload(WorkloadClass.REPORTING)
+    @QueryBudgetExempt
+    public void scheduledCheck() {
+        if (checkEnabled && clusterLock.callIfFree(BACKFILL_LOCK, () -> compare(checkMonths, repairDrift)).isEmpty()) {
+            log.info("Monthly spend rollup check skipped; a backfill or check is running on another node");
+        }
+        pruneMovements();
+    }
+
+    /**
+     * Forget claims for rows that have left the follow window; a claim is made
+     * after the row completed, so an older claim is for an older completion
+     */
+    private void pruneMovements() {
+        LocalDateTime before = LocalDateTime.now().minusHours(followLookbackHours + 1);
+        Integer pruned;
+        do {
+            pruned = writeTransaction.execute(status -> summaryRepository.pruneMovements(before, PRUNE_BATCH));
+        } while (pruned != null && pruned == PRUNE_BATCH);
+    }
+
+    /**
+     * Compare the rollup for the last few months with a fresh aggregation of the
+     * source tables, optionally overwriting the rows that differ. Holds the
+     * backfill lock, so it never runs beside a rebuild or on two nodes at once.
+     */
+    @Workload(WorkloadClass.REPORTING)
+    @QueryBudgetExempt
+    public Map<String, Object> check(int months, boolean repair) {
+        return clusterLock.callIfFree(BACKFILL_LOCK, () -> compare(months, repair))
+                .orElseThrow(() -> new IllegalStateException("A spend summary backfill or check is already running"));
+    }
+
+    /**
+     * Find drifted user ranges on the reporting pool, which may lag; a range is
+     * only repaired after it has been recounted on the primary
+     */
+    private Map<String, Object> compare(int months, boolean repair) {
+        LocalDate requestedFrom = YearMonth.now().minusMonths(Math.max(months, 1) - 1L).atDay(1);
+        // Archived months no longer have source rows to compare against
+        LocalDate archivedThrough = historyArchiveService.getArchivedThrough();
+        LocalDate fromMonth = archivedThrough != null && requestedFrom.isBefore(archivedThrough)
+                ? archivedThrough : requestedFrom;
+        LocalDateTime followSince = LocalDateTime.now().minusHours(followLookbackHours);
+        long maxUserId = summaryRepository.findMaxUserId();
+        long checked = 0;
+        long drifted = 0;
+        long repaired = 0;
+
+        for (long fromUserId = 0; fromUserId <= maxUserId; fromUserId += batchUsers) {
+            long from = fromUserId;
+            long to = fromUserId + batchUsers - 1;
+
+            RangeDrift drift = readTransaction.execute(status -> drift(from, to, fromMonth));
+            if (drift == null) {
+                continue;
+            }
+            checked += drift.rowsChecked();
+            drifted += drift.size();
+
+            if (drift.size() > 0) {
+                log.warn("Monthly spend rollup drift for users {}-{}: {} rows differ, {} rows have no source rows",
+                        from, to, drift.wrong().size(), drift.orphaned().size());
+                if (repair) {
+                    repaired += repair(from, to, fromMonth, followSince);
+                }
+            }
+        }
+
+        driftCounter.increment(drifted);
+        log.info("Monthly spend rollup check since {}: {} rows checked, {} drifted, {} repaired",
+                fromMonth, checked, drifted, repaired);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("fromMonth", fromMonth);
+        report.put("rowsChecked", checked);
+        report.put("rowsDrifted", drifted);
+        report.put("rowsRepaired", repaired);
+        return report;
+    }
+
+    /**
+     * Recount a user range on the primary and overwrite the rows that differ, in
+     * one transaction. As in rebuild(), the follow window is claimed first so the
+     * follower cannot add a movement the recount already holds. The range's rows
+     * are then locked before the recount reads, so a record() that commits while
+     * the repair runs is neither lost nor counted twice.
+     *
+     * @return rows overwritten or deleted
+     */
+    private int repair(long from, long to, LocalDate fromMonth, LocalDateTime followSince) {
+        Integer repaired = writeTransaction.execute(status -> {
+            summaryRepository.claimUserRange(from, to, followSince);
+            summaryRepository.lockUserRange(from, to, fromMonth);
+            RangeDrift drift = drift(from, to, fromMonth);
+            drift.wrong().values().forEach(row -> summaryRepository.overwrite(row.getUserId(),
+                    LocalDate.parse(row.getPeriodMonth()), row.getCategory(),
+                    row.getTotalAmount(), row.getTransactionCount()));
+            summaryRepository.deleteAllInBatch(drift.orphaned());
+            return drift.size();
+        });
+        return repaired != null ? repaired : 0;
+    }
+
+    /**
+     * Rows of a user range whose rollup differs from the source tables, read in
+     * the caller's transaction
+     */
+    private RangeDrift drift(long from, long to, LocalDate fromMonth) {
+        Map<String, SpendAggregate> live = new HashMap<>();
+        Map<String, MonthlySpendSummary> stored = new HashMap<>();
+        summaryRepository.aggregateUserRange(from, to, fromMonth.atStartOfDay(), ElectricityService.ELECTRICITY_FEE)
+                .forEach(row -> live.put(
+                        key(row.getUserId(), LocalDate.parse(row.getPeriodMonth()), row.getCategory()), row));
+        summaryRepository.findByUserIdBetweenAndPeriodMonthGreaterThanEqual(from, to, fromMonth)
+                .forEach(row -> stored.put(
+                        key(row.getUserId(), row.getPeriodMonth(), row.getCategory().name()), row));
+
+        Map<String, SpendAggregate> wrong = new HashMap<>();
+        live.forEach((key, expected) -> {
+            MonthlySpendSummary actual = stored.get(key);
+            if (actual == null
+                    || actual.getTotalAmount().compareTo(expected.getTotalAmount()) != 0
+                    || actual.getTransactionCount().longValue() != expected.getTransactionCount()) {
+                wrong.put(key, expected);
+            }
+        });
+        List<MonthlySpendSummary> orphaned = stored.entrySet().stream()
+                .filter(entry -> !live.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+        return new RangeDrift(wrong, orphaned, live.size() + orphaned.size());
+    }
+
+    private record RangeDrift(Map<String, SpendAggregate> wrong, List<MonthlySpendSummary> orphaned,
+                              int rowsChecked) {
+
+        private int size() {
+            return wrong.size() + orphaned.size();
+        }
+    }
+
+    private static LocalDate monthOf(LocalDateTime occurredAt) {
+        return (occurredAt != null ? occurredAt.toLocalDate() : LocalDate.now()).withDayOfMonth(1);
+    }
+
+    private static String key(Long userId, LocalDate month, String category) {
+        return userId + "|" + month + "|" + category;
+    }
+}
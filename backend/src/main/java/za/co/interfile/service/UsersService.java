@@ -1,19 +1,27 @@
 package za.co.interfile.service;
 
-import jakarta.mail.internet.MimeMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import za.co.interfile.cache.AdminCounters;
+import za.co.interfile.cache.UserSummaryStore;
+import za.co.interfile.config.datasource.Workload;
+import za.co.interfile.config.datasource.WorkloadClass;
 import za.co.interfile.dtos.*;
 import za.co.interfile.exception.*;
+import za.co.interfile.enums.EmailTemplate;
+import za.co.interfile.enums.Language;
+import za.co.interfile.mail.MailQueue;
 import za.co.interfile.model.PasswordResetToken;
 import za.co.interfile.model.Users;
 import za.co.interfile.enums.UsersStatus;
+import za.co.interfile.repository.NotificationRepository;
 import za.co.interfile.repository.PasswordResetTokenRepository;
 import za.co.interfile.repository.UsersRepository;
+import za.co.interfile.search.UserSearchIndex;
 import za.co.interfile.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -21,21 +29,37 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UsersService {
 
+    private static final int RESET_TOKEN_EXPIRY_HOURS = 1;
+    private static final DateTimeFormatter CHANGED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     private final UsersRepository usersRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
+    private final UserSummaryStore userSummaryStore;
+    private final AdminCounters adminCounters;
+    private final UserSearchIndex userSearchIndex;
+    private final NotificationRepository notificationRepository;
+
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final MailQueue mailQueue;
 
-    private PasswordResetTokenRepository passwordResetTokenRepository;
-    private JavaMailSender mailSender;
+    @Value("${app.frontend.base-url:http://localhost:7005}")
+    private String frontendBaseUrl;
 
 
     @Transactional
@@ -65,12 +89,17 @@ public class UsersService {
                 .passwordHash(passwordEncoder.encode(registrationDto.getPassword()))
                 .address(registrationDto.getAddress())
                 .dateOfBirth(registrationDto.getDateOfBirth())
+                .preferredLanguage(registrationDto.getPreferredLanguage() != null
+                        ? registrationDto.getPreferredLanguage() : Language.EN)
                 .status(UsersStatus.PENDING)
                 .emailVerified(false)
                 .phoneVerified(false)
                 .build();
 
         Users savedUser = usersRepository.save(user);
+        userSummaryStore.addUser(savedUser);
+        adminCounters.userStatusChanged(null, savedUser.getStatus());
+        userSearchIndex.index(savedUser);
         log.info("User registered successfully with ID: {}", savedUser.getUserId());
 
         return convertToResponseDto(savedUser);
@@ -102,21 +131,19 @@ public class UsersService {
         return response;
     }
 
+    /**
+     * Requests per email and per client are limited by RateLimitFilter before
+     * they get here
+     */
+    @Transactional
     public void initiatePasswordReset(String email) {
         Users user = usersRepository.findByEmail(email)
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
 
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        long recentAttempts = passwordResetTokenRepository.countByUserAndCreatedAtAfter(user, oneHourAgo);
-
-        if (recentAttempts >= 3) {
-            throw new RuntimeException("Too many password reset attempts. Please try again later.");
-        }
-
         passwordResetTokenRepository.deleteByUser(user);
 
         String token = UUID.randomUUID().toString();
-        LocalDateTime expiryDate = LocalDateTime.now().plusHours(1); // 1 hour expiry
+        LocalDateTime expiryDate = LocalDateTime.now().plusHours(RESET_TOKEN_EXPIRY_HOURS);
 
         PasswordResetToken resetToken = PasswordResetToken.builder()
                 .token(token)
@@ -127,11 +154,12 @@ public class UsersService {
 
         passwordResetTokenRepository.save(resetToken);
 
-        sendPasswordResetEmail(user.getEmail(), token);
+        sendPasswordResetEmail(user, token);
 
         log.info("Password reset token generated for user: {}", email);
     }
 
+    @Transactional
     public void resetPassword(String token, String newPassword) {
         PasswordResetToken resetToken = passwordResetTokenRepository.findByTokenAndUsedFalse(token)
                 .orElseThrow(() -> new InvalidTokenException("Invalid or expired reset token"));
@@ -150,44 +178,40 @@ public class UsersService {
 
         resetToken.setUsed(true);
         passwordResetTokenRepository.save(resetToken);
+        sendPasswordChangedEmail(user);
 
         log.info("Password successfully reset for user: {}", user.getEmail());
     }
 
-    private void sendPasswordResetEmail(String toEmail, String token) {
-        try {
-            String resetUrl = "http://localhost:7005/reset-password?token=" + token;
-
-            String subject = "Password Reset Request";
-            String body = """
-            <html>
-            <body>
-                <h2>Password Reset Request</h2>
-                <p>You have requested to reset your password. Click the link below to reset it:</p>
-                <p><a href="%s" style="background-color: #007bff; color: white; padding: 10px 20px; text-decoration: none; border-radius: 5px;">Reset Password</a></p>
-                <p>If the button doesn't work, copy and paste this link into your browser:</p>
-                <p>%s</p>
-                <p>This link will expire in 1 hour.</p>
-                <p>If you didn't request this password reset, please ignore this email.</p>
-            </body>
-            </html>
-            """.formatted(resetUrl, resetUrl);
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-
-            helper.setTo(toEmail);
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            helper.setFrom("noreply@reliefhub.com");
-
-            mailSender.send(message);
-
-            log.info("Password reset email sent to: {}", toEmail);
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to: {}", toEmail, e);
-            throw new RuntimeException("Failed to send reset email");
-        }
+    /**
+     * Queued with the token, so the email goes out only if the token was saved
+     * and the request never waits on the mail server
+     */
+    private void sendPasswordResetEmail(Users user, String token) {
+        String resetUrl = frontendBaseUrl + "/reset-password?token=" + token;
+        mailQueue.enqueue(user.getEmail(), EmailTemplate.PASSWORD_RESET, user.getPreferredLanguage(), field ->
+                switch (field) {
+                    case "name" -> user.getFullName();
+                    case "resetUrl" -> resetUrl;
+                    case "expiryHours" -> String.valueOf(RESET_TOKEN_EXPIRY_HOURS);
+                    default -> null;
+                });
+
+        log.info("Password reset email queued for: {}", user.getEmail());
+    }
+
+    /**
+     * Security alert for any password change, so a user whose account was taken
+     * over finds out
+     */
+    private void sendPasswordChangedEmail(Users user) {
+        String changedAt = LocalDateTime.now().format(CHANGED_AT_FORMAT);
+        mailQueue.enqueue(user.getEmail(), EmailTemplate.PASSWORD_CHANGED, user.getPreferredLanguage(), field ->
+                switch (field) {
+                    case "name" -> user.getFullName();
+                    case "changedAt" -> changedAt;
+                    default -> null;
+                });
     }
 
     @Transactional
@@ -201,6 +225,20 @@ public class UsersService {
         return convertToResponseDto(user);
     }
 
+    /**
+     * Profile for an already authenticated user. Uses the principal loaded by the
+     * JWT filter when the summary store can supply the lazy-association fields,
+     * so the user is not loaded a second time.
+     */
+    @Transactional(readOnly = true)
+    public UserResponseDto getProfile(Users principal) {
+        Optional<UserSummaryDto> summary = userSummaryStore.find(principal.getUserId());
+        if (summary.isPresent() && principal.isActive()) {
+            return convertToResponseDto(principal, summary);
+        }
+        return getUserById(principal.getUserId());
+    }
+
     public UserResponseDto getUserByEmail(String email) {
         Users user = usersRepository.findByEmailAndStatus(email.toLowerCase(), UsersStatus.ACTIVE)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -288,6 +326,10 @@ public class UsersService {
             log.info("Address is null or empty, skipping");
         }
 
+        if (updateDto.getPreferredLanguage() != null) {
+            user.setPreferredLanguage(updateDto.getPreferredLanguage());
+        }
+
         if (profilePhotoFileName != null) {
             user.setProfilePhotoPath(profilePhotoFileName);
             log.info("Setting profile photo to: {}", profilePhotoFileName);
@@ -296,11 +338,15 @@ public class UsersService {
         user.setUpdatedAt(LocalDateTime.now());
 
         Users savedUser = usersRepository.save(user);
+        userSearchIndex.index(savedUser);
 
         return convertToDto(savedUser);
     }
 
     private UserResponseDto convertToDto(Users user) {
+        // The summary store answers the lazy-association fields without loading them
+        Optional<UserSummaryDto> summary = userSummaryStore.find(user.getUserId());
+
         return UserResponseDto.builder()
                 .userId(user.getUserId())
                 .fullName(user.getFullName())
@@ -322,9 +368,11 @@ public class UsersService {
                 .age(user.getAgeFromIdNumber())
                 .isActive(user.isActive())
                 .isFullyVerified(user.isFullyVerified())
-                .canWithdraw(user.canWithdraw())
-                .unreadNotificationCount(user.getUnreadNotificationCount())
+                .canWithdraw(canWithdraw(user, summary))
+                .unreadNotificationCount(summary.map(UserSummaryDto::getUnreadNotificationCount)
+                        .orElseGet(() -> notificationRepository.countByUserAndIsRead(user, false)))
                 .role(user.getRole())
+                .preferredLanguage(user.getPreferredLanguage())
                 .build();
     }
     @Transactional
@@ -338,6 +386,7 @@ public class UsersService {
 
         user.setPasswordHash(passwordEncoder.encode(passwordDto.getNewPassword()));
         usersRepository.save(user);
+        sendPasswordChangedEmail(user);
 
         log.info("Password updated successfully for user: {}", userId);
     }
@@ -347,8 +396,12 @@ public class UsersService {
         Users user = usersRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
+        UsersStatus previousStatus = user.getStatus();
         user.activate();
         usersRepository.save(user);
+        userSummaryStore.updateProfile(user);
+        adminCounters.userStatusChanged(previousStatus, user.getStatus());
+        userSearchIndex.index(user);
 
         log.info("User activated: {}", userId);
     }
@@ -358,8 +411,12 @@ public class UsersService {
         Users user = usersRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
+        UsersStatus previousStatus = user.getStatus();
         user.suspend();
         usersRepository.save(user);
+        userSummaryStore.updateProfile(user);
+        adminCounters.userStatusChanged(previousStatus, user.getStatus());
+        userSearchIndex.index(user);
 
         log.info("User suspended: {}", userId);
     }
@@ -369,9 +426,13 @@ public class UsersService {
         Users user = usersRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
+        UsersStatus previousStatus = user.getStatus();
         user.setStatus(UsersStatus.DELETED);
         user.setUpdatedAt(LocalDateTime.now());
         usersRepository.save(user);
+        userSummaryStore.updateProfile(user);
+        adminCounters.userStatusChanged(previousStatus, UsersStatus.DELETED);
+        userSearchIndex.index(user);
 
         log.info("User deleted (soft): {}", userId);
     }
@@ -383,6 +444,7 @@ public class UsersService {
 
         user.verifyEmail();
         usersRepository.save(user);
+        userSummaryStore.updateProfile(user);
 
         log.info("Email verified for user: {}", userId);
     }
@@ -394,10 +456,12 @@ public class UsersService {
 
         user.verifyPhone();
         usersRepository.save(user);
+        userSummaryStore.updateProfile(user);
 
         log.info("Phone verified for user: {}", userId);
     }
 
+    @Workload(WorkloadClass.REPORTING)
     public Page<UserResponseDto> getAllUsers(int page, int size, String sortBy, String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
@@ -408,6 +472,7 @@ public class UsersService {
 
         return users.map(this::convertToDto);
     }
+    @Workload(WorkloadClass.REPORTING)
     public Page<UserResponseDto> getAllUsersByStatus(UsersStatus status, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<Users> users = usersRepository.findByStatus(status, pageable);
@@ -415,13 +480,38 @@ public class UsersService {
         return users.map(this::convertToResponseDto);
     }
 
+    /**
+     * Terms of three or more characters are answered by the trigram index, ranked
+     * by match quality and then newest first, and only the page is loaded by id.
+     * Shorter terms, terms too common for the index, or any term before the index
+     * is built, use the LIKE query.
+     */
+    @Workload(WorkloadClass.REPORTING)
     public Page<UserResponseDto> searchUsers(String searchTerm, int page, int size) {
+        Optional<Page<Long>> indexed = userSearchIndex.canSearch(searchTerm)
+                ? userSearchIndex.search(searchTerm, PageRequest.of(page, size))
+                : Optional.empty();
+        if (indexed.isPresent()) {
+            Page<Long> ids = indexed.get();
+            Map<Long, Users> users = usersRepository.findAllById(ids.getContent()).stream()
+                    .collect(Collectors.toMap(Users::getUserId, Function.identity()));
+
+            List<UserResponseDto> content = ids.getContent().stream()
+                    .map(users::get)
+                    .filter(user -> user != null && user.getStatus() == UsersStatus.ACTIVE)
+                    .map(this::convertToResponseDto)
+                    .toList();
+
+            return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+        }
+
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<Users> users = usersRepository.searchActiveUsers(searchTerm, pageable);
 
         return users.map(this::convertToResponseDto);
     }
 
+    @Workload(WorkloadClass.REPORTING)
     public Page<UserResponseDto> getFullyVerifiedUsers(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<Users> users = usersRepository.findFullyVerifiedUsers(pageable);
@@ -439,17 +529,23 @@ public class UsersService {
         }
     }
 
-    // Statistics methods
+    // Statistics methods - served by the live admin counters, with a COUNT only until they are loaded
     public long getTotalActiveUsers() {
-        return usersRepository.countByStatus(UsersStatus.ACTIVE);
+        return countByStatus(UsersStatus.ACTIVE);
     }
 
     public long getTotalPendingUsers() {
-        return usersRepository.countByStatus(UsersStatus.PENDING);
+        return countByStatus(UsersStatus.PENDING);
     }
 
     public long getTotalSuspendedUsers() {
-        return usersRepository.countByStatus(UsersStatus.SUSPENDED);
+        return countByStatus(UsersStatus.SUSPENDED);
+    }
+
+    private long countByStatus(UsersStatus status) {
+        return adminCounters.isReady()
+                ? adminCounters.getUserCount(status)
+                : usersRepository.countByStatus(status);
     }
 
     @Transactional
@@ -468,6 +564,7 @@ public class UsersService {
     public UserResponseDto updateUserByAdmin(Long userId, AdminUserUpdateDto updateDto) {
         Users user = usersRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        UsersStatus previousStatus = user.getStatus();
 
         if (updateDto.getFullName() != null && !updateDto.getFullName().trim().isEmpty()) {
             user.setFullName(updateDto.getFullName());
@@ -514,13 +611,35 @@ public class UsersService {
         user.setUpdatedAt(LocalDateTime.now());
 
         Users savedUser = usersRepository.save(user);
+        userSummaryStore.updateProfile(savedUser);
+        adminCounters.userStatusChanged(previousStatus, savedUser.getStatus());
+        userSearchIndex.index(savedUser);
 
         log.info("User {} updated by admin", userId);
 
         return convertToDto(savedUser);
     }
 
+    /**
+     * Status and email flag come from the entity (it may carry uncommitted changes);
+     * the SASSA account and balance come from the summary store when it has the user
+     */
+    private boolean canWithdraw(Users user, Optional<UserSummaryDto> summary) {
+        if (summary.isEmpty()) {
+            return user.canWithdraw();
+        }
+        return user.isActive()
+                && user.hasVerifiedEmail()
+                && summary.get().hasActiveSassaAccount()
+                && summary.get().getAvailableBalance().compareTo(BigDecimal.ZERO) > 0;
+    }
+
     private UserResponseDto convertToResponseDto(Users user) {
+        // The summary store answers the lazy-association fields without loading them
+        return convertToResponseDto(user, userSummaryStore.find(user.getUserId()));
+    }
+
+    private UserResponseDto convertToResponseDto(Users user, Optional<UserSummaryDto> summary) {
         return UserResponseDto.builder()
                 .userId(user.getUserId())
                 .fullName(user.getFullName())
@@ -542,9 +661,11 @@ public class UsersService {
                 .age(user.getAgeFromIdNumber())
                 .isActive(user.isActive())
                 .isFullyVerified(user.isFullyVerified())
-                .canWithdraw(user.canWithdraw())
-                .unreadNotificationCount(user.getUnreadNotificationCount())
+                .canWithdraw(canWithdraw(user, summary))
+                .unreadNotificationCount(summary.map(UserSummaryDto::getUnreadNotificationCount)
+                        .orElseGet(() -> notificationRepository.countByUserAndIsRead(user, false)))
                 .role(user.getRole())
+                .preferredLanguage(user.getPreferredLanguage())
                 .build();
     }
 }
\ No newline at end of file
@@ -4,11 +4,17 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import za.co.interfile.cache.AdminCounters;
+import za.co.interfile.cache.UserSummaryStore;
+import za.co.interfile.dtos.UserBalanceDetailsDTO;
 import za.co.interfile.dtos.WithdrawalHistoryDto;
 import za.co.interfile.dtos.WithdrawalRequestDTO;
 import za.co.interfile.dtos.WithdrawalResponseDTO;
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.enums.NotificationType;
 import za.co.interfile.enums.WithdrawalMethod;
 import za.co.interfile.enums.WithdrawalStatus;
 import za.co.interfile.exception.InsufficientBalanceException;
@@ -16,6 +22,9 @@ import za.co.interfile.exception.WithdrawalException;
 import za.co.interfile.model.UserBalance;
 import za.co.interfile.model.Users;
 import za.co.interfile.model.WithdrawalRequest;
+import za.co.interfile.notification.NotificationCoalescer;
+import za.co.interfile.notification.PendingNotification;
+import za.co.interfile.push.UserEventPublisher;
 import za.co.interfile.repository.UserBalanceRepository;
 import za.co.interfile.repository.UsersRepository;
 import za.co.interfile.repository.WithdrawalRequestRepository;
@@ -26,6 +35,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -38,6 +48,10 @@ public class WithdrawalService {
     private final UserBalanceRepository userBalanceRepository;
     private final WithdrawalRequestRepository withdrawalRequestRepository;
     private final ObjectMapper objectMapper;
+    private final UserSummaryStore userSummaryStore;
+    private final UserEventPublisher userEventPublisher;
+    private final NotificationCoalescer notificationCoalescer;
+    private final AdminCounters adminCounters;
 
     private static final BigDecimal FEE_PERCENTAGE = new BigDecimal("2.00");
     private static final BigDecimal MIN_WITHDRAWAL = new BigDecimal("10.00");
@@ -117,10 +131,18 @@ public class WithdrawalService {
         BigDecimal newBalance = availableBalance.subtract(requestedAmount);
         userBalance.setAvailableBalance(newBalance);
         userBalance.setLastUpdated(LocalDateTime.now());
-        userBalanceRepository.save(userBalance);
+        // Flushed so the new version is known to the cache and the event
+        userBalanceRepository.saveAndFlush(userBalance);
+        userSummaryStore.updateAvailableBalance(userId, newBalance, userBalance.getVersion());
+        userEventPublisher.balanceChanged(userId, newBalance, userBalance.getVersion());
 
         savedWithdrawal.setUserBalanceAfter(newBalance);
         withdrawalRequestRepository.save(savedWithdrawal);
+        adminCounters.withdrawalStatusChanged(null, WithdrawalStatus.PENDING);
+        notificationCoalescer.submit(PendingNotification.of(userId, "Withdrawal submitted",
+                String.format("Your withdrawal of R%.2f (ref %s) is being processed.", requestedAmount, transactionRef),
+                NotificationType.WITHDRAWAL, NotificationPriority.MEDIUM,
+                "WithdrawalRequest", savedWithdrawal.getWithdrawalId()));
 
         log.info("Withdrawal request created successfully. ID: {}, Ref: {}",
                 savedWithdrawal.getWithdrawalId(), transactionRef);
@@ -139,6 +161,11 @@ public class WithdrawalService {
 
     @Transactional(readOnly = true)
     public BigDecimal getUserBalance(Long userId) {
+        Optional<BigDecimal> cachedBalance = userSummaryStore.findAvailableBalance(userId);
+        if (cachedBalance.isPresent()) {
+            return cachedBalance.get();
+        }
+
         Users user = usersRepository.findById(userId)
                 .orElseThrow(() -> new WithdrawalException("User not found"));
 
@@ -146,6 +173,30 @@ public class WithdrawalService {
         return balance != null ? balance.getAvailableBalance() : BigDecimal.ZERO;
     }
 
+    @Transactional(readOnly = true)
+    public UserBalanceDetailsDTO getBalanceDetails(Long userId) {
+        // Users who have never received funds have no balance row yet
+        UserBalance balance = userBalanceRepository.findByUser_UserId(userId)
+                .orElseGet(() -> UserBalance.builder().build());
+
+        return UserBalanceDetailsDTO.builder()
+                .availableBalance(balance.getAvailableBalance())
+                .pendingBalance(balance.getPendingBalance())
+                .totalBalance(balance.getTotalBalance())
+                .totalReceived(balance.getTotalReceived())
+                .totalWithdrawn(balance.getTotalWithdrawn())
+                .netBalance(balance.getNetBalance())
+                .formattedAvailableBalance(balance.getFormattedAvailableBalance())
+                .formattedTotalBalance(balance.getFormattedTotalBalance())
+                .balanceStatus(balance.getBalanceStatus())
+                .balanceStatusCssClass(balance.getBalanceStatusCssClass())
+                .canWithdraw(balance.hasSufficientBalance(MIN_WITHDRAWAL))
+                .minWithdrawal(MIN_WITHDRAWAL)
+                .maxWithdrawal(MAX_WITHDRAWAL)
+                .lastUpdated(balance.getLastUpdated())
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public Map<String, Object> calculateWithdrawalBreakdown(BigDecimal amount) {
         BigDecimal fees = amount
@@ -186,6 +237,17 @@ public class WithdrawalService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Most recent withdrawals only, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<WithdrawalHistoryDto> getRecentWithdrawalHistory(Long userId, int limit) {
+        return withdrawalRequestRepository.findByUserUserIdOrderByRequestedAtDesc(userId, PageRequest.of(0, limit))
+                .stream()
+                .map(this::convertToHistoryDto)
+                .collect(Collectors.toList());
+    }
+
     private WithdrawalHistoryDto convertToHistoryDto(WithdrawalRequest withdrawal) {
         // Parse bank details JSON
         String bankName = "";
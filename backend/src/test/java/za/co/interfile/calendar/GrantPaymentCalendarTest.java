@@ -0,0 +1,88 @@
+package za.co.interfile.calendar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import za.co.interfile.enums.GrantType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GrantPaymentCalendarTest {
+
+    private GrantPaymentCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        calendar = new GrantPaymentCalendar();
+        calendar.init();
+    }
+
+    @Test
+    void paysOnTheGrantsDayWhenItIsABusinessDay() {
+        assertEquals(LocalDate.of(2026, 3, 3), calendar.nextPaymentDate(GrantType.CHILD_SUPPORT, LocalDate.of(2026, 3, 1)));
+        assertEquals(LocalDate.of(2026, 6, 5), calendar.nextPaymentDate(GrantType.SRD, LocalDate.of(2026, 6, 1)));
+        assertEquals(LocalDate.of(2026, 11, 10), calendar.nextPaymentDate(GrantType.FOSTER_CARE, LocalDate.of(2026, 11, 1)));
+    }
+
+    @Test
+    void movesPastHolidaysAndWeekends() {
+        // New Year's Day (Thursday)
+        assertEquals(LocalDate.of(2026, 1, 2), calendar.nextPaymentDate(GrantType.OLD_AGE, LocalDate.of(2026, 1, 1)));
+        // Workers' Day (Friday), then the weekend
+        assertEquals(LocalDate.of(2026, 5, 4), calendar.nextPaymentDate(GrantType.OLD_AGE, LocalDate.of(2026, 5, 1)));
+        // Good Friday, the weekend and Family Day
+        assertEquals(LocalDate.of(2026, 4, 7), calendar.nextPaymentDate(GrantType.CHILD_SUPPORT, LocalDate.of(2026, 4, 1)));
+        // New Year's Day on a Sunday is observed on the Monday
+        assertEquals(LocalDate.of(2023, 1, 3), calendar.nextPaymentDate(GrantType.DISABILITY, LocalDate.of(2023, 1, 1)));
+    }
+
+    @Test
+    void rollsIntoNextMonthAfterPayDay() {
+        assertEquals(LocalDate.of(2026, 9, 1), calendar.nextPaymentDate(GrantType.OLD_AGE, LocalDate.of(2026, 8, 4)));
+        assertEquals(0, calendar.daysUntilNextPayment(GrantType.OLD_AGE, LocalDate.of(2026, 5, 4)));
+        assertEquals(4, calendar.daysUntilNextPayment(GrantType.OLD_AGE, LocalDate.of(2026, 4, 30)));
+    }
+
+    @Test
+    void scheduleCarriesOnPastTheEndOfTheWindow() {
+        List<LocalDate> schedule = calendar.schedule(GrantType.OLD_AGE, LocalDate.of(2026, 11, 15), 4);
+
+        assertEquals(List.of(LocalDate.of(2026, 12, 1), LocalDate.of(2027, 1, 4),
+                LocalDate.of(2027, 2, 1), LocalDate.of(2027, 3, 1)), schedule);
+    }
+
+    @Test
+    void isPaymentDayOnlyOnTheShiftedDate() {
+        assertTrue(calendar.isPaymentDay(GrantType.OLD_AGE, LocalDate.of(2026, 5, 4)));
+        assertFalse(calendar.isPaymentDay(GrantType.OLD_AGE, LocalDate.of(2026, 5, 1)));
+        assertFalse(calendar.isBusinessDay(LocalDate.of(2026, 8, 10)));
+        assertTrue(calendar.isBusinessDay(LocalDate.of(2026, 8, 11)));
+    }
+
+    @Test
+    void agreesWithTheHolidayRulesInsideAndOutsideTheWindow() {
+        for (GrantType grantType : GrantType.values()) {
+            int day = calendar.paymentDay(grantType);
+            for (YearMonth month = YearMonth.of(2020, 1); month.isBefore(YearMonth.of(2036, 1)); month = month.plusMonths(1)) {
+                LocalDate expected = month.atDay(day);
+                while (!isBusinessDay(expected)) {
+                    expected = expected.plusDays(1);
+                }
+                assertEquals(expected, calendar.nextPaymentDate(grantType, month.atDay(1)), grantType + " " + month);
+            }
+        }
+    }
+
+    private static boolean isBusinessDay(LocalDate date) {
+        Set<LocalDate> holidays = SouthAfricanHolidays.forYear(date.getYear());
+        return date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY
+                && !holidays.contains(date);
+    }
+}
@@ -0,0 +1,59 @@
+package za.co.interfile.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SouthAfricanHolidaysTest {
+
+    @Test
+    void computesEasterSunday() {
+        assertEquals(LocalDate.of(2019, 4, 21), SouthAfricanHolidays.easterSunday(2019));
+        assertEquals(LocalDate.of(2024, 3, 31), SouthAfricanHolidays.easterSunday(2024));
+        assertEquals(LocalDate.of(2025, 4, 20), SouthAfricanHolidays.easterSunday(2025));
+        assertEquals(LocalDate.of(2026, 4, 5), SouthAfricanHolidays.easterSunday(2026));
+    }
+
+    @Test
+    void includesGoodFridayAndFamilyDay() {
+        Set<LocalDate> holidays = SouthAfricanHolidays.forYear(2026);
+
+        assertTrue(holidays.contains(LocalDate.of(2026, 4, 3)));
+        assertTrue(holidays.contains(LocalDate.of(2026, 4, 6)));
+        assertFalse(holidays.contains(LocalDate.of(2026, 4, 5)));
+    }
+
+    @Test
+    void observesSundayHolidayOnMonday() {
+        // National Women's Day 2026 is a Sunday
+        Set<LocalDate> holidays = SouthAfricanHolidays.forYear(2026);
+
+        assertTrue(holidays.contains(LocalDate.of(2026, 8, 9)));
+        assertTrue(holidays.contains(LocalDate.of(2026, 8, 10)));
+    }
+
+    @Test
+    void movesObservedDayPastAnotherHoliday() {
+        // Christmas 2022 is a Sunday and the Monday is already the Day of Goodwill
+        Set<LocalDate> holidays = SouthAfricanHolidays.forYear(2022);
+
+        assertTrue(holidays.contains(LocalDate.of(2022, 12, 26)));
+        assertTrue(holidays.contains(LocalDate.of(2022, 12, 27)));
+    }
+
+    @Test
+    void doesNotObserveSaturdayHolidays() {
+        // Human Rights Day 2026 is a Saturday
+        Set<LocalDate> holidays = SouthAfricanHolidays.forYear(2026);
+
+        assertTrue(holidays.contains(LocalDate.of(2026, 3, 21)));
+        assertFalse(holidays.contains(LocalDate.of(2026, 3, 23)));
+        // Ten fixed days, Good Friday, Family Day and the observed Women's Day
+        assertEquals(13, holidays.size());
+    }
+}
@@ -0,0 +1,73 @@
+package za.co.interfile.mail;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import za.co.interfile.support.RecordingDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static za.co.interfile.support.RecordingDataSource.row;
+
+class MailDispatcherTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 10, 19, 8, 0);
+
+    private MailDispatcher dispatcher(RecordingDataSource database) {
+        MailDispatcher dispatcher = new MailDispatcher(database.dataSource(), new JavaMailSenderImpl(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 2);
+        ReflectionTestUtils.setField(dispatcher, "leaseSeconds", 300L);
+        return dispatcher;
+    }
+
+    @Test
+    void claimsDueRowsWithSkipLockedAndLeasesThemInOneTransaction() {
+        List<Map<String, Object>> due = List.of(
+                row("email_id", 7L, "recipient", "a@example.com", "sender", "noreply@example.com",
+                        "subject", "Reset", "html_body", "<p>a</p>", "attempts", 0, "created_at", Timestamp.valueOf(CREATED)),
+                row("email_id", 9L, "recipient", "b@example.com", "sender", "noreply@example.com",
+                        "subject", "Reset", "html_body", "<p>b</p>", "attempts", 2, "created_at", Timestamp.valueOf(CREATED)));
+        RecordingDataSource database = new RecordingDataSource((sql, params) -> sql.startsWith("SELECT") ? due : 2);
+
+        List<MailDispatcher.QueuedEmail> batch = dispatcher(database).claim();
+
+        assertEquals(List.of(7L, 9L), batch.stream().map(MailDispatcher.QueuedEmail::id).toList());
+        assertEquals(List.of(1, 3), batch.stream().map(MailDispatcher.QueuedEmail::attempts).toList());
+        assertEquals(CREATED, batch.get(0).createdAt());
+
+        List<RecordingDataSource.Call> calls = database.calls();
+        assertEquals(2, calls.size());
+        RecordingDataSource.Call claim = calls.get(0);
+        assertTrue(claim.sqlContains("WHERE status = 'PENDING' AND next_attempt_at <= ?"));
+        assertTrue(claim.sqlContains("ORDER BY bulk, next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED"));
+        assertEquals(2, claim.params().get(1));
+
+        RecordingDataSource.Call lease = calls.get(1);
+        assertTrue(lease.sqlContains("SET attempts = attempts + 1, next_attempt_at = ? WHERE email_id IN (?, ?)"));
+        assertEquals(List.of(7L, 9L), lease.params().subList(1, 3));
+        LocalDateTime now = ((Timestamp) claim.params().get(0)).toLocalDateTime();
+        LocalDateTime leasedUntil = ((Timestamp) lease.params().get(0)).toLocalDateTime();
+        assertEquals(Duration.ofSeconds(300), Duration.between(now, leasedUntil));
+
+        assertEquals(1, database.commits());
+    }
+
+    @Test
+    void leasesNothingWhenNoRowIsDue() {
+        RecordingDataSource database = new RecordingDataSource((sql, params) -> List.of());
+
+        assertTrue(dispatcher(database).claim().isEmpty());
+
+        assertEquals(1, database.calls().size());
+        assertTrue(database.calls("UPDATE outbound_emails").isEmpty());
+        assertEquals(1, database.commits());
+    }
+}
@@ -0,0 +1,68 @@
+package za.co.interfile.mail;
+
+import org.junit.jupiter.api.Test;
+import za.co.interfile.enums.EmailTemplate;
+import za.co.interfile.enums.Language;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MailTemplateTest {
+
+    private static final String HTML = """
+            <html><head><TITLE>
+              Password changed for {name}
+            </TITLE></head>
+            <body><p>Hi {name}, your password was changed on {changedAt}.</p></body></html>
+            """;
+
+    @Test
+    void takesTheSubjectFromTheTitle() {
+        MailTemplate template = MailTemplate.compile(EmailTemplate.PASSWORD_CHANGED, Language.EN, HTML);
+
+        OutgoingMail mail = template.render("thandi@example.com",
+                Map.of("name", "Thandi", "changedAt", "19 October 2026")::get);
+
+        assertEquals("thandi@example.com", mail.recipient());
+        assertEquals("Password changed for Thandi", mail.subject());
+        assertTrue(mail.htmlBody().contains("<p>Hi Thandi, your password was changed on 19 October 2026.</p>"));
+    }
+
+    @Test
+    void escapesValuesInTheBodyOnly() {
+        MailTemplate template = MailTemplate.compile(EmailTemplate.PASSWORD_CHANGED, Language.EN, HTML);
+
+        OutgoingMail mail = template.render("x@example.com",
+                Map.of("name", "<script>alert('x')</script>", "changedAt", "today")::get);
+
+        assertEquals("Password changed for <script>alert('x')</script>", mail.subject());
+        assertTrue(mail.htmlBody().contains("Hi &lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt;,"));
+        assertTrue(mail.htmlBody().contains("<title>") || mail.htmlBody().contains("<TITLE>"));
+    }
+
+    @Test
+    void keepsRenderingCorrectlyWhenTheBufferIsReused() {
+        MailTemplate template = MailTemplate.compile(EmailTemplate.PASSWORD_CHANGED, Language.EN, HTML);
+
+        template.render("a@example.com", Map.of("name", "A".repeat(100_000), "changedAt", "today")::get);
+        OutgoingMail mail = template.render("b@example.com", Map.of("name", "B", "changedAt", "today")::get);
+
+        assertEquals("Password changed for B", mail.subject());
+        assertTrue(mail.htmlBody().contains("Hi B,"));
+    }
+
+    @Test
+    void rejectsTemplatesWithoutATitle() {
+        assertThrows(IllegalArgumentException.class, () -> MailTemplate.compile(EmailTemplate.PASSWORD_CHANGED,
+                Language.EN, "<html><body>Hi {name}</body></html>"));
+    }
+
+    @Test
+    void rejectsPlaceholdersTheTemplateDoesNotAllow() {
+        assertThrows(IllegalArgumentException.class, () -> MailTemplate.compile(EmailTemplate.PASSWORD_CHANGED,
+                Language.EN, "<title>Hi</title><p>{resetUrl}</p>"));
+    }
+}
@@ -0,0 +1,62 @@
+package za.co.interfile.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationTemplateTest {
+
+    private static final Set<String> FIELDS = Set.of("name", "amount");
+
+    @Test
+    void rendersPlaceholdersInPlace() {
+        NotificationTemplate template = NotificationTemplate.compile("Hi {name}, {amount} is on its way.", FIELDS);
+
+        assertEquals("Hi Thandi, R350.00 is on its way.",
+                template.render(Map.of("name", "Thandi", "amount", "R350.00")::get));
+    }
+
+    @Test
+    void rendersMissingValuesAsNothing() {
+        NotificationTemplate template = NotificationTemplate.compile("Hi {name}!", FIELDS);
+
+        assertEquals("Hi !", template.render(field -> null));
+    }
+
+    @Test
+    void keepsBracesThatAreNotPlaceholders() {
+        NotificationTemplate template = NotificationTemplate.compile("{} {not a field} {name", FIELDS);
+
+        assertEquals("{} {not a field} {name", template.render(field -> "x"));
+    }
+
+    @Test
+    void rejectsUnknownPlaceholders() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> NotificationTemplate.compile("Hi {name}, your {balance}", FIELDS));
+
+        assertTrue(e.getMessage().contains("{balance}"));
+    }
+
+    @Test
+    void escapesValuesButNotTheTemplateWhenAsked() {
+        NotificationTemplate template = NotificationTemplate.compile("<p>Hi {name}</p>", FIELDS);
+        StringBuilder out = new StringBuilder();
+
+        template.renderTo(out, field -> "<b>O'Brien & \"Sons\"</b>", true);
+
+        assertEquals("<p>Hi &lt;b&gt;O&#39;Brien &amp; &quot;Sons&quot;&lt;/b&gt;</p>", out.toString());
+    }
+
+    @Test
+    void leavesValuesAsTheyAreWithoutEscaping() {
+        NotificationTemplate template = NotificationTemplate.compile("Hi {name}", FIELDS);
+
+        assertEquals("Hi <b>&</b>", template.render(field -> "<b>&</b>"));
+    }
+}
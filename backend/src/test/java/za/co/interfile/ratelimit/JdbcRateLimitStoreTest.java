@@ -0,0 +1,86 @@
+package za.co.interfile.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import za.co.interfile.support.RecordingDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdbcRateLimitStoreTest {
+
+    private static final long INTERVAL = 1000;
+    private static final long BURST = 2000;
+
+    private SharedBuckets table;
+    private RecordingDataSource database;
+    private JdbcRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        table = new SharedBuckets();
+        database = new RecordingDataSource(table);
+        store = new JdbcRateLimitStore(database.dataSource());
+    }
+
+    @Test
+    void createsTheRowForANewKeyAndTakesFromIt() {
+        assertTrue(store.tryTake("LOGIN_IP:10.0.0.1", INTERVAL, BURST));
+
+        List<RecordingDataSource.Call> calls = database.calls();
+        assertEquals(3, calls.size());
+        assertTrue(calls.get(0).sqlContains("UPDATE rate_limit_buckets"));
+        assertTrue(calls.get(1).sqlContains("INSERT IGNORE INTO rate_limit_buckets"));
+        assertTrue(calls.get(2).sqlContains("UPDATE rate_limit_buckets"));
+
+        List<Object> take = calls.get(2).params();
+        long now = (Long) take.get(0);
+        assertEquals(List.of(now, INTERVAL, "LOGIN_IP:10.0.0.1", now, now, BURST), take);
+    }
+
+    @Test
+    void grantsTheBurstThenRefuses() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(store.tryTake("k", INTERVAL, BURST), "request " + i);
+        }
+        int before = database.calls().size();
+
+        assertFalse(store.tryTake("k", INTERVAL, BURST));
+
+        // The insert finds the row, so the empty bucket is not tried a second time
+        List<RecordingDataSource.Call> refused = database.calls().subList(before, database.calls().size());
+        assertEquals(2, refused.size());
+        assertTrue(refused.get(0).sqlContains("UPDATE rate_limit_buckets"));
+        assertTrue(refused.get(1).sqlContains("INSERT IGNORE INTO rate_limit_buckets"));
+    }
+
+    @Test
+    void waitsForTheNextTokenWithoutTakingIt() {
+        assertEquals(0, store.waitMillis("k", BURST));
+
+        for (int i = 0; i < 3; i++) {
+            store.tryTake("k", INTERVAL, BURST);
+        }
+        long tat = table.tatMillis.get("k");
+
+        long wait = store.waitMillis("k", BURST);
+        assertTrue(wait > 0 && wait <= INTERVAL, "wait " + wait);
+        assertEquals(tat, (long) table.tatMillis.get("k"));
+    }
+
+    @Test
+    void deletesRefilledBucketsInBatches() {
+        for (int i = 0; i < 5; i++) {
+            table.tatMillis.put("old" + i, 1L);
+        }
+        table.tatMillis.put("busy", Long.MAX_VALUE);
+
+        assertEquals(5, store.deleteFull(2));
+
+        assertEquals(3, database.calls("DELETE FROM rate_limit_buckets").size());
+        assertEquals(List.of("busy"), List.copyOf(table.tatMillis.keySet()));
+    }
+}
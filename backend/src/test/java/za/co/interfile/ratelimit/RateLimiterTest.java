@@ -0,0 +1,99 @@
+package za.co.interfile.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import za.co.interfile.enums.RateLimitPolicy;
+import za.co.interfile.support.RecordingDataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private SharedBuckets table;
+    private RecordingDataSource database;
+
+    @BeforeEach
+    void setUp() {
+        table = new SharedBuckets();
+        database = new RecordingDataSource(table);
+    }
+
+    private RateLimiter node(String store) {
+        RateLimiter limiter = new RateLimiter(new StandardEnvironment(), database.dataSource(),
+                new SimpleMeterRegistry(), store, 1000);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        return limiter;
+    }
+
+    @Test
+    void sharesTheAllowanceAcrossNodes() {
+        RateLimiter first = node("jdbc");
+        RateLimiter second = node("jdbc");
+        int capacity = RateLimitPolicy.REGISTER_IP.getDefaultCapacity();
+
+        for (int i = 0; i < capacity; i++) {
+            assertEquals(0, first.reserve(RateLimitPolicy.REGISTER_IP, "10.0.0.1"), "request " + i);
+        }
+
+        assertTrue(second.reserve(RateLimitPolicy.REGISTER_IP, "10.0.0.1") > 0);
+        assertEquals(0, second.reserve(RateLimitPolicy.REGISTER_IP, "10.0.0.2"));
+    }
+
+    @Test
+    void keepsNodesApartWithTheMemoryStore() {
+        RateLimiter first = node("memory");
+        RateLimiter second = node("memory");
+        int capacity = RateLimitPolicy.REGISTER_IP.getDefaultCapacity();
+
+        for (int i = 0; i < capacity; i++) {
+            first.reserve(RateLimitPolicy.REGISTER_IP, "10.0.0.1");
+        }
+
+        assertTrue(first.reserve(RateLimitPolicy.REGISTER_IP, "10.0.0.1") > 0);
+        assertEquals(0, second.reserve(RateLimitPolicy.REGISTER_IP, "10.0.0.1"));
+        assertTrue(database.calls().isEmpty());
+    }
+
+    @Test
+    void checkingDoesNotUseTheAllowance() {
+        RateLimiter limiter = node("jdbc");
+        int capacity = RateLimitPolicy.LOGIN_EMAIL.getDefaultCapacity();
+
+        for (int i = 0; i < capacity * 3; i++) {
+            assertEquals(0, limiter.check(RateLimitPolicy.LOGIN_EMAIL, "thandi@example.com"));
+        }
+
+        assertTrue(database.calls("UPDATE rate_limit_buckets").isEmpty());
+        assertTrue(table.tatMillis.isEmpty());
+    }
+
+    @Test
+    void chargesOnOneNodeAreSeenByAnotherNodesCheck() {
+        RateLimiter first = node("jdbc");
+        RateLimiter second = node("jdbc");
+        int capacity = RateLimitPolicy.LOGIN_EMAIL.getDefaultCapacity();
+
+        for (int i = 0; i < capacity; i++) {
+            first.charge(RateLimitPolicy.LOGIN_EMAIL, "thandi@example.com");
+        }
+
+        assertTrue(first.check(RateLimitPolicy.LOGIN_EMAIL, "thandi@example.com") > 0);
+        assertTrue(second.check(RateLimitPolicy.LOGIN_EMAIL, "thandi@example.com") > 0);
+        assertEquals(0, second.check(RateLimitPolicy.LOGIN_EMAIL, "sipho@example.com"));
+    }
+
+    @Test
+    void allowsEverythingWhenDisabled() {
+        RateLimiter limiter = node("jdbc");
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.reserve(RateLimitPolicy.REGISTER_IP, "10.0.0.1"));
+        }
+        assertTrue(database.calls().isEmpty());
+    }
+}
@@ -0,0 +1,51 @@
+package za.co.interfile.ratelimit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * rate_limit_buckets in memory: answers the statements JdbcRateLimitStore sends
+ * the way MySQL would, reading the parameters in the order the SQL binds them
+ */
+class SharedBuckets implements BiFunction<String, List<Object>, Object> {
+
+    final Map<String, Long> tatMillis = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized Object apply(String sql, List<Object> params) {
+        if (sql.startsWith("INSERT IGNORE INTO rate_limit_buckets (bucket_key, tat_millis) VALUES (?, 0)")) {
+            return tatMillis.putIfAbsent((String) params.get(0), 0L) == null ? 1 : 0;
+        }
+        if (sql.startsWith("UPDATE rate_limit_buckets SET tat_millis = GREATEST(tat_millis, ?) + ? "
+                + "WHERE bucket_key = ? AND GREATEST(tat_millis, ?) - ? <= ?")) {
+            long now = (Long) params.get(0);
+            long interval = (Long) params.get(1);
+            String key = (String) params.get(2);
+            Long tat = tatMillis.get(key);
+            if (tat == null || Math.max(tat, (Long) params.get(3)) - (Long) params.get(4) > (Long) params.get(5)) {
+                return 0;
+            }
+            tatMillis.put(key, Math.max(tat, now) + interval);
+            return 1;
+        }
+        if (sql.startsWith("SELECT GREATEST(tat_millis - ? - ?, 0) FROM rate_limit_buckets WHERE bucket_key = ?")) {
+            Long tat = tatMillis.get((String) params.get(2));
+            return tat == null ? List.of() : List.of(Map.of("wait",
+                    Math.max(tat - (Long) params.get(0) - (Long) params.get(1), 0)));
+        }
+        if (sql.startsWith("DELETE FROM rate_limit_buckets WHERE tat_millis < ? LIMIT ?")) {
+            long now = (Long) params.get(0);
+            int limit = (Integer) params.get(1);
+            int deleted = 0;
+            for (Map.Entry<String, Long> bucket : tatMillis.entrySet()) {
+                if (deleted < limit && bucket.getValue() < now && tatMillis.remove(bucket.getKey(), bucket.getValue())) {
+                    deleted++;
+                }
+            }
+            return deleted;
+        }
+        throw new IllegalStateException("Unexpected SQL: " + sql);
+    }
+}
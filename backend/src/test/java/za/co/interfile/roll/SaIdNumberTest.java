@@ -0,0 +1,56 @@
+package za.co.interfile.roll;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SaIdNumberTest {
+
+    @Test
+    void acceptsValidIdNumbers() {
+        assertTrue(SaIdNumber.isValid("8001015009087"));
+        assertTrue(SaIdNumber.isValid("8503150123086"));
+        assertTrue(SaIdNumber.isValid("9204123001082"));
+    }
+
+    @Test
+    void rejectsWrongCheckDigit() {
+        assertFalse(SaIdNumber.isValid("8001015009088"));
+        assertFalse(SaIdNumber.isValid("8001015009080"));
+    }
+
+    @Test
+    void rejectsTransposedDigits() {
+        assertFalse(SaIdNumber.isValid("8001010509087"));
+        assertFalse(SaIdNumber.isValid("0801015009087"));
+    }
+
+    @Test
+    void acceptsLeapDayWhenEitherCenturyHasIt() {
+        assertTrue(SaIdNumber.isValid("0002295000083"));
+    }
+
+    @Test
+    void rejectsImpossibleBirthDates() {
+        // 29 February in 1999 and 2099, month 13, day 32; all with a correct check digit
+        assertFalse(SaIdNumber.isValid("9902295000085"));
+        assertFalse(SaIdNumber.isValid("8013015009082"));
+        assertFalse(SaIdNumber.isValid("8001325009082"));
+    }
+
+    @Test
+    void rejectsCitizenshipDigitAboveTwo() {
+        assertFalse(SaIdNumber.isValid("8001015009384"));
+    }
+
+    @Test
+    void rejectsWrongLengthAndNonDigits() {
+        assertFalse(SaIdNumber.isValid(null));
+        assertFalse(SaIdNumber.isValid(""));
+        assertFalse(SaIdNumber.isValid("800101500908"));
+        assertFalse(SaIdNumber.isValid("80010150090870"));
+        assertFalse(SaIdNumber.isValid("80010150O9087"));
+        assertFalse(SaIdNumber.isValid("8001015009 87"));
+    }
+}
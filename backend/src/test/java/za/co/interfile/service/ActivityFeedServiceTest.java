@@ -0,0 +1,205 @@
+package za.co.interfile.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import za.co.interfile.archive.ArchiveBlockCodec;
+import za.co.interfile.dtos.ActivityFeedItemDto;
+import za.co.interfile.dtos.ActivityFeedPageDto;
+import za.co.interfile.enums.ActivitySource;
+import za.co.interfile.enums.TransactionStatus;
+import za.co.interfile.enums.TransactionType;
+import za.co.interfile.enums.WithdrawalStatus;
+import za.co.interfile.exception.InvalidCursorException;
+import za.co.interfile.model.Transaction;
+import za.co.interfile.model.WithdrawalRequest;
+import za.co.interfile.repository.CashSendRepository;
+import za.co.interfile.repository.ElectricityTransactionRepository;
+import za.co.interfile.repository.HistoryArchiveSegmentRepository;
+import za.co.interfile.repository.TransactionRepository;
+import za.co.interfile.repository.WithdrawalRequestRepository;
+import za.co.interfile.support.RecordingDataSource;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActivityFeedServiceTest {
+
+    private static final Long USER_ID = 42L;
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 10, 19, 0, 0);
+
+    private final Map<ActivitySource, List<Integer>> fetchSizes = new EnumMap<>(ActivitySource.class);
+    private ActivityFeedService service;
+
+    @BeforeEach
+    void setUp() {
+        List<Transaction> transactions = List.of(
+                transaction(1, "10:00"), transaction(2, "10:00"), transaction(3, "10:05"), transaction(4, "09:00"),
+                transaction(5, "09:00"), transaction(6, "08:00"), transaction(7, "10:05"));
+        List<WithdrawalRequest> withdrawals = List.of(
+                withdrawal(1, "10:00"), withdrawal(2, "09:30"), withdrawal(3, "09:00"), withdrawal(4, "07:00"),
+                withdrawal(5, "10:05"));
+
+        HistoryArchiveSegmentRepository segments = repository(HistoryArchiveSegmentRepository.class, null, args -> null);
+        RecordingDataSource database = new RecordingDataSource((sql, params) -> List.of());
+        HistoryArchiveService archive = new HistoryArchiveService(new ArchiveBlockCodec(new ObjectMapper()), segments,
+                database.dataSource(), database.dataSource(), new SimpleMeterRegistry());
+
+        service = new ActivityFeedService(
+                repository(TransactionRepository.class, ActivitySource.TRANSACTION,
+                        keyset(transactions, Transaction::getCreatedAt, Transaction::getTransactionId)),
+                repository(WithdrawalRequestRepository.class, ActivitySource.WITHDRAWAL,
+                        keyset(withdrawals, WithdrawalRequest::getRequestedAt, WithdrawalRequest::getWithdrawalId)),
+                repository(CashSendRepository.class, ActivitySource.CASH_SEND, args -> List.of()),
+                repository(ElectricityTransactionRepository.class, ActivitySource.ELECTRICITY, args -> List.of()),
+                archive);
+    }
+
+    @Test
+    void walksEveryRowOnceNewestFirstAcrossPages() {
+        List<String> seen = new ArrayList<>();
+        List<Boolean> hasMore = new ArrayList<>();
+        String cursor = null;
+        do {
+            ActivityFeedPageDto page = service.getFeed(USER_ID, cursor, 5);
+            page.getItems().forEach(item -> seen.add(label(item)));
+            hasMore.add(page.isHasMore());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("T7", "T3", "W5", "T2", "T1", "W1", "W2", "T5", "T4", "W3", "T6", "W4"), seen);
+        assertEquals(List.of(true, true, false), hasMore);
+    }
+
+    @Test
+    void continuesWithinATimestampTieOnTheNextPage() {
+        ActivityFeedPageDto first = service.getFeed(USER_ID, null, 4);
+        ActivityFeedPageDto second = service.getFeed(USER_ID, first.getNextCursor(), 4);
+
+        assertEquals(List.of("T7", "T3", "W5", "T2"), first.getItems().stream().map(this::label).toList());
+        assertEquals(List.of("T1", "W1", "W2", "T5"), second.getItems().stream().map(this::label).toList());
+    }
+
+    @Test
+    void fetchesOneRowMoreThanThePageAndSkipsExhaustedSources() {
+        ActivityFeedPageDto first = service.getFeed(USER_ID, null, 5);
+
+        assertEquals(List.of(6), fetchSizes.get(ActivitySource.TRANSACTION));
+        assertEquals(List.of(6), fetchSizes.get(ActivitySource.CASH_SEND));
+
+        service.getFeed(USER_ID, first.getNextCursor(), 5);
+
+        // The empty sources were marked done on the first page and are not asked again
+        assertEquals(List.of(6, 6), fetchSizes.get(ActivitySource.TRANSACTION));
+        assertEquals(List.of(6), fetchSizes.get(ActivitySource.CASH_SEND));
+        assertEquals(List.of(6), fetchSizes.get(ActivitySource.ELECTRICITY));
+    }
+
+    @Test
+    void returnsNoCursorOnTheLastPage() {
+        ActivityFeedPageDto page = service.getFeed(USER_ID, null, 50);
+
+        assertEquals(12, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(InvalidCursorException.class, () -> service.getFeed(USER_ID, "not a cursor", 5));
+        // An entry with a source but no position
+        assertThrows(InvalidCursorException.class, () -> service.getFeed(USER_ID, "VFJBTlNBQ1RJT04", 5));
+    }
+
+    @Test
+    void repositoryQueriesUseTheSameKeyset() throws NoSuchMethodException {
+        Map<Class<?>, String> keys = Map.of(
+                TransactionRepository.class, "t.createdAt < :before OR (t.createdAt = :before AND t.transactionId < :beforeId)",
+                WithdrawalRequestRepository.class, "w.requestedAt < :before OR (w.requestedAt = :before AND w.withdrawalId < :beforeId)",
+                CashSendRepository.class, "c.createdAt < :before OR (c.createdAt = :before AND c.cashSendId < :beforeId)",
+                ElectricityTransactionRepository.class, "e.createdAt < :before OR (e.createdAt = :before AND e.transactionId < :beforeId)");
+        for (Map.Entry<Class<?>, String> key : keys.entrySet()) {
+            String query = key.getKey().getMethod("findFeedPage", Long.class, LocalDateTime.class, Long.class,
+                    Pageable.class).getAnnotation(Query.class).value();
+            assertTrue(query.contains(key.getValue()), key.getKey().getSimpleName());
+            assertTrue(query.contains("DESC, "), key.getKey().getSimpleName());
+        }
+    }
+
+    private String label(ActivityFeedItemDto item) {
+        return item.getSource().name().charAt(0) + String.valueOf(item.getId());
+    }
+
+    private static Transaction transaction(long id, String time) {
+        return Transaction.builder()
+                .transactionId(id)
+                .transactionType(TransactionType.DEPOSIT)
+                .amount(BigDecimal.TEN)
+                .status(TransactionStatus.COMPLETED)
+                .createdAt(at(time))
+                .build();
+    }
+
+    private static WithdrawalRequest withdrawal(long id, String time) {
+        return WithdrawalRequest.builder()
+                .withdrawalId(id)
+                .requestedAmount(BigDecimal.TEN)
+                .status(WithdrawalStatus.PROCESSED)
+                .requestedAt(at(time))
+                .build();
+    }
+
+    private static LocalDateTime at(String time) {
+        String[] parts = time.split(":");
+        return DAY.withHour(Integer.parseInt(parts[0])).withMinute(Integer.parseInt(parts[1]));
+    }
+
+    /**
+     * findFeedPage over rows in memory: older than (before, beforeId), newest first, one page
+     */
+    private static <T> Function<Object[], Object> keyset(List<T> rows, Function<T, LocalDateTime> at,
+                                                         Function<T, Long> id) {
+        return args -> {
+            LocalDateTime before = (LocalDateTime) args[1];
+            Long beforeId = (Long) args[2];
+            Pageable pageable = (Pageable) args[3];
+            return rows.stream()
+                    .filter(row -> at.apply(row).isBefore(before)
+                            || (at.apply(row).isEqual(before) && id.apply(row) < beforeId))
+                    .sorted(Comparator.comparing(at).thenComparing(id).reversed())
+                    .limit(pageable.getPageSize())
+                    .toList();
+        };
+    }
+
+    private <R> R repository(Class<R> type, ActivitySource source, Function<Object[], Object> findFeedPage) {
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (self, method, args) -> switch (method.getName()) {
+                    case "findFeedPage" -> {
+                        fetchSizes.computeIfAbsent(source, s -> new ArrayList<>())
+                                .add(((Pageable) args[3]).getPageSize());
+                        yield findFeedPage.apply(args);
+                    }
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    case "toString" -> type.getSimpleName();
+                    default -> findFeedPage.apply(args);
+                }));
+    }
+}
@@ -0,0 +1,125 @@
+package za.co.interfile.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import za.co.interfile.cache.AdminCounters;
+import za.co.interfile.dtos.RollImportReportDto;
+import za.co.interfile.enums.RollFileFormat;
+import za.co.interfile.support.RecordingDataSource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BeneficiaryRollImportServiceTest {
+
+    private Path directory;
+    private RecordingDataSource primary;
+    private RecordingDataSource reporting;
+    private BeneficiaryRollImportService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("roll-import");
+        primary = new RecordingDataSource((sql, params) -> 1);
+        reporting = new RecordingDataSource((sql, params) -> List.of());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdminCounters adminCounters = new AdminCounters(reporting.dataSource(), primary.dataSource(), meterRegistry);
+        service = new BeneficiaryRollImportService(directory.toString(), primary.dataSource(), adminCounters,
+                meterRegistry);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "queueBatches", 1);
+    }
+
+    @Test
+    void upsertsEachAccountOnceInBatchTransactions() throws IOException {
+        Files.writeString(directory.resolve("roll.csv"), """
+                account_number,id_number,grant_type,monthly_amount,next_payment_date,external_account_id
+                ACC-1,8001015009087,OLD_AGE,1986.00,,
+                ACC-2,8503150123086,Child Support Grant,480.00,2026-11-04,EXT-2
+                ACC-1,8001015009087,OLD_AGE,1986.00,,
+                ACC-3,8001015009088,OLD_AGE,1986.00,,
+                ACC-4,9204123001082,disability,1986.00,20261104,
+                ACC-5,0002295000083,SRD,350,,
+                """);
+
+        RollImportReportDto report = service.importRoll("roll.csv", RollFileFormat.CSV, "admin@example.com");
+
+        assertEquals("COMPLETED", report.getStatus());
+        assertEquals(6, report.getLinesRead());
+        assertEquals(4, report.getAccepted());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(1, report.getRejected());
+        assertEquals(4, report.getWritten());
+        assertEquals(2, report.getBatchesWritten());
+        assertEquals(Map.of("INVALID_ID_NUMBER", 1L), report.getRejectionsByReason());
+
+        List<RecordingDataSource.Call> upserts = primary.calls("INSERT INTO sassa_accounts");
+        assertEquals(List.of("ACC-1", "ACC-2", "ACC-4", "ACC-5"),
+                upserts.stream().map(call -> call.params().get(0)).toList());
+        assertEquals(2, primary.commits());
+
+        RecordingDataSource.Call upsert = upserts.get(1);
+        assertTrue(upsert.sqlContains("VALUES (?, ?, ?, ?, ?, ?, 'PENDING_VERIFICATION', 0, ?, ?)"));
+        assertTrue(upsert.sqlContains("ON DUPLICATE KEY UPDATE"));
+        assertTrue(upsert.sqlContains("id_number = IF(user_id IS NULL, VALUES(id_number), id_number)"));
+        assertTrue(upsert.sqlContains("next_payment_date = COALESCE(VALUES(next_payment_date), next_payment_date)"));
+        List<Object> params = upsert.params();
+        assertEquals(List.of("ACC-2", "8503150123086", "CHILD_SUPPORT", new BigDecimal("480.00"),
+                Date.valueOf(LocalDate.of(2026, 11, 4)), "EXT-2"), params.subList(0, 6));
+        assertTrue(params.get(6) instanceof Timestamp);
+        assertEquals(params.get(6), params.get(7));
+
+        List<Object> noDate = upserts.get(0).params();
+        assertNull(noDate.get(4));
+        assertNull(noDate.get(5));
+        assertEquals(Date.valueOf(LocalDate.of(2026, 11, 4)), upserts.get(2).params().get(4));
+
+        // The written accounts are recounted for the admin dashboard
+        assertEquals(1, reporting.calls("FROM sassa_accounts GROUP BY status, grant_type").size());
+    }
+
+    @Test
+    void readsFixedWidthAmountsInCents() throws IOException {
+        String line = "%-20s%-13s%-20s%012d%-8s%-30s".formatted(
+                "ACC-9", "8001015009087", "FOSTER_CARE", 105000, "20261203", "EXT-9");
+        Files.writeString(directory.resolve("roll.txt"), line + "\n");
+
+        RollImportReportDto report = service.importRoll("roll.txt", RollFileFormat.FIXED_WIDTH, "admin@example.com");
+
+        assertEquals(1, report.getWritten());
+        assertEquals(List.of("ACC-9", "8001015009087", "FOSTER_CARE", new BigDecimal("1050.00"),
+                        Date.valueOf(LocalDate.of(2026, 12, 3)), "EXT-9"),
+                primary.calls("INSERT INTO sassa_accounts").get(0).params().subList(0, 6));
+    }
+
+    @Test
+    void writesNothingWhenEveryLineIsRejected() throws IOException {
+        Files.writeString(directory.resolve("roll.csv"), "ACC-1,8001015009088,OLD_AGE,1986.00\n");
+
+        RollImportReportDto report = service.importRoll("roll.csv", RollFileFormat.CSV, "admin@example.com");
+
+        assertEquals(0, report.getWritten());
+        assertTrue(primary.calls().isEmpty());
+        assertTrue(reporting.calls().isEmpty());
+    }
+
+    @Test
+    void refusesFilesOutsideTheImportDirectory() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.importRoll("../roll.csv", RollFileFormat.CSV, "admin@example.com"));
+    }
+}
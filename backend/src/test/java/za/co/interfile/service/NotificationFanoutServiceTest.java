@@ -0,0 +1,186 @@
+package za.co.interfile.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import za.co.interfile.cache.UserSummaryStore;
+import za.co.interfile.enums.NotificationAudience;
+import za.co.interfile.enums.NotificationPriority;
+import za.co.interfile.enums.NotificationType;
+import za.co.interfile.mail.MailDispatcher;
+import za.co.interfile.mail.MailQueue;
+import za.co.interfile.mail.MailTemplates;
+import za.co.interfile.model.NotificationCampaign;
+import za.co.interfile.notification.NotificationBatchWriter;
+import za.co.interfile.repository.NotificationCampaignRepository;
+import za.co.interfile.repository.OutboundEmailRepository;
+import za.co.interfile.support.RecordingDataSource;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static za.co.interfile.support.RecordingDataSource.row;
+
+class NotificationFanoutServiceTest {
+
+    private static final long CAMPAIGN_ID = 11L;
+    private static final LocalDate PAYDAY = LocalDate.of(2026, 11, 3);
+
+    private final AtomicLong cursor = new AtomicLong();
+    private final RecordingDataSource primary = new RecordingDataSource((sql, params) -> {
+        if (sql.startsWith("UPDATE notification_campaigns SET last_recipient_id")) {
+            return cursor.compareAndSet((Long) params.get(3), (Long) params.get(0)) ? 1 : 0;
+        }
+        if (sql.startsWith("INSERT INTO notifications")) {
+            return params.size() / 10;
+        }
+        return 1;
+    });
+
+    @Test
+    void pagesByRowsSoUsersWithTwoAccountsDoNotEndTheCampaignEarly() {
+        // Users 2 and 4 have two accounts each, so their pages hold fewer recipients than rows
+        List<Long> accountOwners = List.of(1L, 2L, 2L, 3L, 4L, 4L, 5L, 6L);
+        RecordingDataSource reporting = reporting(accountOwners, 3);
+
+        run(campaign(NotificationAudience.UPCOMING_PAYMENT), reporting, 3);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), notifiedUsers());
+        assertEquals(List.of(0L, 2L, 4L), afterIds(reporting));
+        assertEquals(List.of(List.of(2L, 2, CAMPAIGN_ID, 0L), List.of(4L, 2, CAMPAIGN_ID, 2L),
+                        List.of(6L, 2, CAMPAIGN_ID, 4L)),
+                primary.calls("UPDATE notification_campaigns SET last_recipient_id").stream()
+                        .map(RecordingDataSource.Call::params).toList());
+        assertEquals(List.of(CAMPAIGN_ID, 6L), completedParams());
+    }
+
+    @Test
+    void notifiesAUserOnceWhenTheirAccountsSpanTwoPages() {
+        RecordingDataSource reporting = reporting(List.of(1L, 2L, 3L, 3L, 4L), 3);
+
+        run(campaign(NotificationAudience.UPCOMING_PAYMENT), reporting, 3);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), notifiedUsers());
+        assertEquals(List.of(0L, 3L), afterIds(reporting));
+    }
+
+    @Test
+    void readsOneEmptyPageWhenTheLastPageIsFull() {
+        RecordingDataSource reporting = reporting(List.of(1L, 2L, 3L, 4L), 1);
+
+        run(campaign(NotificationAudience.ACTIVE_USERS), reporting, 2);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), notifiedUsers());
+        assertEquals(List.of(0L, 2L, 4L), afterIds(reporting));
+        assertEquals(List.of(CAMPAIGN_ID, 4L), completedParams());
+    }
+
+    private void run(NotificationCampaign campaign, RecordingDataSource reporting, int batchSize) {
+        NotificationCampaign[] queued = {campaign};
+        NotificationCampaignRepository campaigns = proxy(NotificationCampaignRepository.class, (method, args) -> {
+            if (method.equals("findFirstByStatusInOrderByCampaignIdAsc")) {
+                Optional<NotificationCampaign> next = Optional.ofNullable(queued[0]);
+                queued[0] = null;
+                return next;
+            }
+            throw new UnsupportedOperationException(method);
+        });
+        MailTemplates mailTemplates = new MailTemplates();
+        MailQueue mailQueue = new MailQueue(proxy(OutboundEmailRepository.class, (method, args) -> null),
+                mailTemplates, new MailDispatcher(primary.dataSource(), new JavaMailSenderImpl(),
+                new SimpleMeterRegistry()), primary.dataSource());
+        UserSummaryStore userSummaryStore = new UserSummaryStore(reporting.dataSource(), primary.dataSource(), 1024,
+                new SimpleMeterRegistry());
+
+        NotificationFanoutService service = new NotificationFanoutService(reporting.dataSource(),
+                primary.dataSource(), campaigns, new NotificationBatchWriter(primary.dataSource()), userSummaryStore,
+                mailQueue, mailTemplates, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "batchSize", batchSize);
+        ReflectionTestUtils.setField(service, "rowsPerSecond", 1_000_000.0);
+
+        service.runQueuedAsync();
+    }
+
+    private static NotificationCampaign campaign(NotificationAudience audience) {
+        return NotificationCampaign.builder()
+                .campaignId(CAMPAIGN_ID)
+                .campaignKey("TEST")
+                .name("Test")
+                .audience(audience)
+                .paymentDateFrom(PAYDAY)
+                .paymentDateTo(PAYDAY)
+                .titleTemplate("Hello {name}")
+                .messageTemplate("Hi {name}")
+                .notificationType(NotificationType.SYSTEM)
+                .priority(NotificationPriority.MEDIUM)
+                .build();
+    }
+
+    /**
+     * Either recipient query over the owners' rows, ordered by user_id: one row per account
+     */
+    private static RecordingDataSource reporting(List<Long> accountOwners, long firstAccountId) {
+        return new RecordingDataSource((sql, params) -> {
+            if (!sql.startsWith("SELECT")) {
+                return List.of();
+            }
+            long after = (Long) params.get(params.size() - 2);
+            int limit = (Integer) params.get(params.size() - 1);
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (int i = 0; i < accountOwners.size() && rows.size() < limit; i++) {
+                long userId = accountOwners.get(i);
+                if (userId > after) {
+                    rows.add(row("user_id", userId, "full_name", "User " + userId,
+                            "email", "user" + userId + "@example.com", "preferred_language", "en",
+                            "sassa_account_id", firstAccountId + i, "grant_type", "CHILD_SUPPORT",
+                            "monthly_amount", new BigDecimal("560.00"), "next_payment_date", Date.valueOf(PAYDAY)));
+                }
+            }
+            return rows;
+        });
+    }
+
+    private List<Long> notifiedUsers() {
+        List<Long> users = new ArrayList<>();
+        for (RecordingDataSource.Call insert : primary.calls("INSERT INTO notifications")) {
+            for (int i = 0; i < insert.params().size(); i += 10) {
+                users.add((Long) insert.params().get(i));
+            }
+        }
+        return users;
+    }
+
+    private static List<Object> afterIds(RecordingDataSource reporting) {
+        return reporting.calls("ORDER BY").stream()
+                .map(call -> call.params().get(call.params().size() - 2))
+                .toList();
+    }
+
+    private List<Object> completedParams() {
+        List<Object> params = primary.calls("SET status = 'COMPLETED'").get(0).params();
+        return params.subList(1, params.size());
+    }
+
+    private interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return type.cast(Proxy.newProxyInstance(NotificationFanoutServiceTest.class.getClassLoader(),
+                new Class<?>[]{type}, (self, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    case "toString" -> type.getSimpleName();
+                    default -> answer.answer(method.getName(), args);
+                }));
+    }
+}
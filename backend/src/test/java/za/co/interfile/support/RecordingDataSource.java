@@ -0,0 +1,288 @@
+package za.co.interfile.support;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * A DataSource that records every statement with its parameters and
+ * answers from a function instead of a database, for checking the SQL a class
+ * sends and the order it binds parameters in. The function returns an update
+ * count for updates and a list of rows (column label to value) for queries; each
+ * row of a JDBC batch is recorded and answered on its own. Transactions are
+ * recorded as commits and rollbacks.
+ */
+public final class RecordingDataSource {
+
+    public record Call(String sql, List<Object> params) {
+
+        public boolean sqlContains(String fragment) {
+            return normalize(sql).contains(normalize(fragment));
+        }
+    }
+
+    private final List<Call> calls = Collections.synchronizedList(new ArrayList<>());
+    private final BiFunction<String, List<Object>, Object> responder;
+    private int commits;
+    private int rollbacks;
+
+    public RecordingDataSource(BiFunction<String, List<Object>, Object> responder) {
+        this.responder = responder;
+    }
+
+    public DataSource dataSource() {
+        return proxy(DataSource.class, (self, method, args) -> switch (method.getName()) {
+            case "getConnection" -> connection();
+            case "unwrap" -> null;
+            case "isWrapperFor" -> false;
+            case "hashCode" -> System.identityHashCode(self);
+            case "equals" -> self == args[0];
+            case "toString" -> "RecordingDataSource";
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    public List<Call> calls() {
+        return List.copyOf(calls);
+    }
+
+    /**
+     * The recorded statements whose SQL contains the fragment, ignoring whitespace differences
+     */
+    public List<Call> calls(String sqlFragment) {
+        return calls().stream().filter(call -> call.sqlContains(sqlFragment)).toList();
+    }
+
+    public int commits() {
+        return commits;
+    }
+
+    public int rollbacks() {
+        return rollbacks;
+    }
+
+    /**
+     * One row with the given column labels and values, in order
+     */
+    public static Map<String, Object> row(Object... labelsAndValues) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < labelsAndValues.length; i += 2) {
+            row.put((String) labelsAndValues[i], labelsAndValues[i + 1]);
+        }
+        return row;
+    }
+
+    /**
+     * A forward-only result set over the rows, for driving a RowCallbackHandler or RowMapper directly
+     */
+    public static ResultSet resultSet(List<Map<String, Object>> rows) {
+        int[] position = {-1};
+        Object[] last = {null};
+        List<String> labels = rows.isEmpty() ? List.of() : List.copyOf(rows.get(0).keySet());
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (self, method, args) -> switch (method.getName()) {
+            case "getColumnCount" -> labels.size();
+            case "getColumnLabel", "getColumnName" -> labels.get((Integer) args[0] - 1);
+            default -> defaultValue(method.getReturnType());
+        });
+        return proxy(ResultSet.class, (self, method, args) -> {
+            String name = method.getName();
+            if (name.equals("next")) {
+                return ++position[0] < rows.size();
+            }
+            if (name.equals("getMetaData")) {
+                return metaData;
+            }
+            if (name.equals("wasNull")) {
+                return last[0] == null;
+            }
+            if (name.equals("getRow")) {
+                return position[0] + 1;
+            }
+            if (name.startsWith("get") && args != null && args.length >= 1) {
+                Map<String, Object> row = rows.get(position[0]);
+                Object value = args[0] instanceof Integer index
+                        ? row.get(labels.get(index - 1))
+                        : row.get((String) args[0]);
+                last[0] = value;
+                return convert(value, name.equals("getObject") && args.length == 2
+                        ? (Class<?>) args[1] : method.getReturnType());
+            }
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    private Connection connection() {
+        DatabaseMetaData metaData = proxy(DatabaseMetaData.class, (self, method, args) -> switch (method.getName()) {
+            case "supportsBatchUpdates" -> true;
+            case "getDatabaseProductName" -> "MySQL";
+            case "getDriverName" -> "MySQL Connector/J";
+            default -> defaultValue(method.getReturnType());
+        });
+        return proxy(Connection.class, (self, method, args) -> switch (method.getName()) {
+            case "prepareStatement" -> statement((Connection) self, (String) args[0]);
+            case "createStatement" -> statement((Connection) self, null);
+            case "getMetaData" -> metaData;
+            case "getAutoCommit" -> true;
+            case "commit" -> {
+                commits++;
+                yield null;
+            }
+            case "rollback" -> {
+                rollbacks++;
+                yield null;
+            }
+            case "hashCode" -> System.identityHashCode(self);
+            case "equals" -> self == args[0];
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    private PreparedStatement statement(Connection connection, String sql) {
+        List<Object> params = new ArrayList<>();
+        List<List<Object>> batch = new ArrayList<>();
+        return proxy(PreparedStatement.class, (self, method, args) -> {
+            String name = method.getName();
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (name.equals("getParameterMetaData")) {
+                return proxy(ParameterMetaData.class, (metaData, getter, index) -> getter.getName()
+                        .equals("getParameterType") ? Types.VARCHAR : defaultValue(getter.getReturnType()));
+            }
+            if (name.equals("setNull")) {
+                bind(params, (Integer) args[0], null);
+                return null;
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(params, index, args[1]);
+                return null;
+            }
+            if (name.equals("clearParameters")) {
+                params.clear();
+                return null;
+            }
+            if (name.equals("addBatch")) {
+                batch.add(new ArrayList<>(params));
+                params.clear();
+                return null;
+            }
+            if (name.equals("executeBatch")) {
+                int[] counts = new int[batch.size()];
+                for (int i = 0; i < counts.length; i++) {
+                    Object result = respond(sql, batch.get(i));
+                    counts[i] = result instanceof Number count ? count.intValue() : 0;
+                }
+                batch.clear();
+                return counts;
+            }
+            if (name.equals("executeUpdate")) {
+                Object result = respond(args != null ? (String) args[0] : sql, params);
+                return result instanceof Number count ? count.intValue() : 0;
+            }
+            if (name.equals("executeQuery")) {
+                Object result = respond(args != null ? (String) args[0] : sql, params);
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> rows = result instanceof List<?> list
+                        ? (List<Map<String, Object>>) list : List.of();
+                return resultSet(rows);
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(self);
+            }
+            if (name.equals("equals")) {
+                return self == args[0];
+            }
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    private Object respond(String sql, List<Object> params) {
+        List<Object> bound = Collections.unmodifiableList(new ArrayList<>(params));
+        calls.add(new Call(sql, bound));
+        return responder.apply(normalize(sql), bound);
+    }
+
+    private static void bind(List<Object> params, int index, Object value) {
+        while (params.size() < index) {
+            params.add(null);
+        }
+        params.set(index - 1, value);
+    }
+
+    private static String normalize(String sql) {
+        return sql.strip().replaceAll("\\s+", " ");
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null) {
+            return defaultValue(type);
+        }
+        if (type.isInstance(value) || type == Object.class) {
+            return value;
+        }
+        if (value instanceof Number number) {
+            if (type == long.class || type == Long.class) {
+                return number.longValue();
+            }
+            if (type == int.class || type == Integer.class) {
+                return number.intValue();
+            }
+            if (type == BigDecimal.class) {
+                return new BigDecimal(number.toString());
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                return number.intValue() != 0;
+            }
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        if (type == Timestamp.class && value instanceof java.time.LocalDateTime dateTime) {
+            return Timestamp.valueOf(dateTime);
+        }
+        if (type == Date.class && value instanceof java.time.LocalDate date) {
+            return Date.valueOf(date);
+        }
+        throw new IllegalArgumentException("Cannot read " + value.getClass().getSimpleName() + " as " + type);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class || type == short.class || type == byte.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(RecordingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}